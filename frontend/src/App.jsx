@@ -1,10 +1,68 @@
-import React, {useState} from 'react'
+import React, {useEffect, useRef, useState} from 'react'
+
+// Keeps one WebSocket to /ws/chat open; replies are matched to requests by id.
+function useChatSocket(){
+  const socket = useRef(null)
+  const pending = useRef(new Map())
+  const nextId = useRef(1)
+
+  useEffect(()=>{
+    let closed = false
+    let retry
+    function connect(){
+      const scheme = location.protocol === 'https:' ? 'wss' : 'ws'
+      const ws = new WebSocket(`${scheme}://${location.host}/ws/chat`)
+      ws.onopen = ()=>{ socket.current = ws }
+      ws.onmessage = event=>{
+        const frame = JSON.parse(event.data)
+        const p = pending.current.get(frame.id)
+        if(!p) return
+        if(frame.type === 'result'){
+          p.trace.push(frame.result)
+        }else if(frame.type === 'done'){
+          pending.current.delete(frame.id)
+          p.resolve({trace: p.trace, finalOutput: frame.finalOutput})
+        }else if(frame.type === 'error'){
+          pending.current.delete(frame.id)
+          p.reject(new Error(frame.message))
+        }
+      }
+      ws.onclose = ()=>{
+        socket.current = null
+        pending.current.forEach(p=>p.reject(new Error('Connection closed')))
+        pending.current.clear()
+        if(!closed) retry = setTimeout(connect, 2000)
+      }
+    }
+    connect()
+    return ()=>{ closed = true; clearTimeout(retry); socket.current && socket.current.close() }
+  }, [])
+
+  return async function execute(goal){
+    const ws = socket.current
+    if(ws && ws.readyState === WebSocket.OPEN){
+      const id = String(nextId.current++)
+      return new Promise((resolve, reject)=>{
+        pending.current.set(id, {trace: [], resolve, reject})
+        ws.send(JSON.stringify({id, goal}))
+      })
+    }
+    const res = await fetch('/api/agent/execute', {
+      method: 'POST',
+      headers: {'Content-Type':'application/json'},
+      body: JSON.stringify({goal})
+    })
+    if(!res.ok) throw new Error('Network error: ' + res.status)
+    return res.json()
+  }
+}
 
 function App(){
   const [goal, setGoal] = useState('')
   const [loading, setLoading] = useState(false)
   const [results, setResults] = useState([])
   const [finalOutput, setFinalOutput] = useState('')
+  const execute = useChatSocket()
 
   async function executeGoal(){
     if(!goal.trim()){
@@ -16,13 +74,7 @@ function App(){
     setFinalOutput('')
 
     try{
-      const res = await fetch('/api/agent/execute', {
-        method: 'POST',
-        headers: {'Content-Type':'application/json'},
-        body: JSON.stringify({goal})
-      })
-      if(!res.ok) throw new Error('Network error: ' + res.status)
-      const data = await res.json()
+      const data = await execute(goal)
       setResults(data.trace || [])
       setFinalOutput(data.finalOutput || '')
     }catch(e){
@@ -37,6 +37,8 @@ public class AgentDemoApplication {
     }
 
     private void runInteractiveChat(AgentService agentService) {
+        // One conversation per console run, so follow-ups like "now sort that by pid" work
+        String sessionId = agentService.openSession();
         Scanner scanner = new Scanner(System.in);
         System.out.println("\n========================================");
         System.out.println("  Spring AI Agent - Interactive Chat");
@@ -59,7 +61,7 @@ public class AgentDemoApplication {
             }
 
             try {
-                List<ActionResult> results = agentService.executeGoal(input);
+                List<ActionResult> results = agentService.executeGoal(sessionId, input, 0);
                 
                 System.out.println("\nAgent:");
                 for (ActionResult result : results) {
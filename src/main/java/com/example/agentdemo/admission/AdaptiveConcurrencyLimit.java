@@ -0,0 +1,100 @@
+package com.example.agentdemo.admission;
+
+/**
+ * Concurrency limit that follows observed latency, in the style of TCP Vegas / gradient
+ * limiters.
+ *
+ * Two moving averages of request latency are kept: a short one that tracks current
+ * conditions and a long one that represents normal service. While the short average stays
+ * within {@code tolerance} times the long one and the limit is actually in use, the limit
+ * grows by about its square root per adjustment; as queueing pushes latency up, the limit
+ * shrinks in proportion. Failed or timed-out requests cut it multiplicatively
+ * ({@code backoff}). Comparing averages rather than a minimum keeps mixed workloads (fast
+ * calculations next to slow osquery calls) from reading as congestion.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.002;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+
+    private double limit;
+    private int inFlight;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.backoff = Math.min(Math.max(backoff, 0.1), 0.99);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Reserve a slot, or return false if the limit is reached
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Release a slot taken by {@link #tryAcquire}, reporting how the request went
+     *
+     * @param rttNanos request latency
+     * @param dropped  true if the request failed in a way that suggests overload
+     */
+    public synchronized void release(long rttNanos, boolean dropped) {
+        int wasInFlight = inFlight;
+        inFlight--;
+        if (dropped) {
+            limit = Math.max(minLimit, limit * backoff);
+            return;
+        }
+
+        double rtt = Math.max(1, rttNanos);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) * SHORT_WEIGHT;
+            longRtt += (rtt - longRtt) * LONG_WEIGHT;
+        }
+        // Recover quickly when latency improved for good, e.g. after a slow dependency healed
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+
+        // Only learn while the limit is what holds requests back
+        if (wasInFlight * 2 < limit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Recent average latency in nanoseconds (0 before the first sample)
+     */
+    public synchronized long getRecentLatencyNanos() {
+        return (long) shortRtt;
+    }
+}
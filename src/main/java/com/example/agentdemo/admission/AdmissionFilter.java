@@ -0,0 +1,96 @@
+package com.example.agentdemo.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admission control in front of the agent API, so overload is turned away in microseconds
+ * instead of queueing in the servlet container until every client times out.
+ *
+ * Every {@code POST /api/agent/**} call first takes a token from the caller's bucket
+ * ({@code admission.rate.*}; the caller is the remote address, or the
+ * {@code admission.client-header} value on requests from a trusted proxy) and gets
+ * {@code 429} with {@code Retry-After} when it is empty.
+ * Calls that run a goal while the client waits ({@code /execute}, {@code /summarize}) must
+ * also fit under an {@link AdaptiveConcurrencyLimit}, or get {@code 503} with
+ * {@code Retry-After}. Background jobs have their own bounded queue. The limits live in
+ * the shared {@link AdmissionPolicy}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    private final AdmissionPolicy policy;
+
+    public AdmissionFilter(AdmissionPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !policy.applies(request.getMethod(), request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = policy.getRateLimiter().tryAcquire(clientOf(request));
+        if (wait > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Rate limit exceeded, please slow down");
+            return;
+        }
+        if (!policy.isSynchronousGoal(request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit concurrencyLimit = policy.getConcurrencyLimit();
+        if (!concurrencyLimit.tryAcquire()) {
+            log.debug("Shedding {} at concurrency limit {}", request.getRequestURI(), concurrencyLimit.getLimit());
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, concurrencyLimit.getRecentLatencyNanos(),
+                    "Server is at capacity, please retry");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    /**
+     * The adaptive limit (for diagnostics and tests)
+     */
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return policy.getConcurrencyLimit();
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String header = policy.getClientHeader();
+        return policy.clientOf(header.isBlank() ? null : request.getHeader(header), request.getRemoteAddr());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", Long.toString(AdmissionPolicy.retryAfterSeconds(retryAfterNanos)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.agentdemo.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission settings and limiter state shared by the servlet {@link AdmissionFilter} and
+ * the WebFlux {@link ReactiveAdmissionFilter}, so both stacks enforce the same rules:
+ * every {@code POST /api/agent/**} call takes a token from the caller's bucket
+ * ({@code admission.rate.*}), and calls that run a goal while the client waits
+ * ({@code /execute}, {@code /summarize}) must also fit under the
+ * {@link AdaptiveConcurrencyLimit}.
+ *
+ * Callers are told apart by remote address. A client header ({@code admission.client-header})
+ * is only believed on requests arriving from one of {@code admission.trusted-proxies}, so
+ * clients cannot pick a fresh rate-limit key for every request.
+ *
+ * Publishes the current limit, the goals running under it and the number of tracked
+ * clients as {@code admission.*} gauges.
+ */
+@Component
+public class AdmissionPolicy implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionPolicy.class);
+
+    private final boolean enabled;
+    private final String clientHeader;
+    private final Set<InetAddress> trustedProxies = new HashSet<>();
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    public AdmissionPolicy(@Value("${admission.enabled:true}") boolean enabled,
+                           @Value("${admission.client-header:}") String clientHeader,
+                           @Value("${admission.trusted-proxies:}") List<String> trustedProxies,
+                           @Value("${admission.rate.per-second:20}") double ratePerSecond,
+                           @Value("${admission.rate.burst:40}") double burst,
+                           @Value("${admission.rate.max-clients:10000}") int maxClients,
+                           @Value("${admission.concurrency.initial:32}") int initialLimit,
+                           @Value("${admission.concurrency.min:4}") int minLimit,
+                           @Value("${admission.concurrency.max:256}") int maxLimit,
+                           @Value("${admission.concurrency.tolerance:2.0}") double tolerance,
+                           @Value("${admission.concurrency.backoff:0.9}") double backoff) {
+        this.enabled = enabled;
+        this.clientHeader = clientHeader;
+        for (String proxy : trustedProxies) {
+            if (!proxy.isBlank()) {
+                InetAddress address = parseAddress(proxy.trim());
+                if (address == null) {
+                    throw new IllegalArgumentException("admission.trusted-proxies must list IP addresses: " + proxy);
+                }
+                this.trustedProxies.add(address);
+            }
+        }
+        if (!clientHeader.isBlank() && this.trustedProxies.isEmpty()) {
+            log.warn("admission.client-header={} is ignored until admission.trusted-proxies lists the proxies "
+                    + "allowed to set it", clientHeader);
+        }
+        this.rateLimiter = new ClientRateLimiter(ratePerSecond, burst, maxClients);
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, backoff);
+    }
+
+    /**
+     * True if a request with this method and path is subject to admission control
+     */
+    public boolean applies(String method, String path) {
+        return enabled && "POST".equals(method) && path.startsWith("/api/agent/");
+    }
+
+    /**
+     * True for calls that hold the client while a goal runs
+     */
+    public boolean isSynchronousGoal(String path) {
+        return path.equals("/api/agent/execute") || path.equals("/api/agent/summarize");
+    }
+
+    /**
+     * Name of the header identifying the caller behind a trusted proxy; blank means callers
+     * are always told apart by address
+     */
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    /**
+     * The caller's key: the client header when a trusted proxy sent it and it is sane,
+     * else the remote address
+     */
+    public String clientOf(String headerValue, String remoteAddress) {
+        if (headerValue == null || headerValue.isBlank() || headerValue.length() > 128
+                || !isTrustedProxy(remoteAddress)) {
+            return remoteAddress;
+        }
+        return headerValue;
+    }
+
+    private boolean isTrustedProxy(String remoteAddress) {
+        if (trustedProxies.isEmpty() || remoteAddress == null) {
+            return false;
+        }
+        InetAddress address = parseAddress(remoteAddress);
+        return address != null && trustedProxies.contains(address);
+    }
+
+    /**
+     * Parse an IP literal without ever resolving a host name; null if it is not one
+     */
+    private static InetAddress parseAddress(String literal) {
+        if (!literal.contains(":") && !literal.matches("[0-9.]+")) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(literal);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    public ClientRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive limit on concurrent synchronous goals")
+                .register(registry);
+        Gauge.builder("admission.concurrency.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Synchronous goals admitted and running")
+                .register(registry);
+        Gauge.builder("admission.rate.clients", rateLimiter, ClientRateLimiter::clients)
+                .description("Clients with a tracked token bucket")
+                .register(registry);
+    }
+
+    /**
+     * Whole seconds for a {@code Retry-After} header, rounded up and at least one
+     */
+    static long retryAfterSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L));
+    }
+}
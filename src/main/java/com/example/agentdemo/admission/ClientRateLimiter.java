@@ -0,0 +1,72 @@
+package com.example.agentdemo.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per client key. The number of tracked clients is bounded:
+ * when it reaches {@code maxClients}, buckets that have refilled (idle clients) are dropped.
+ * That sweep runs at most once per refill period; until the next one, clients that find
+ * no room share a single overflow bucket, so a flood of new keys is throttled as a whole
+ * and does not rescan the map on every request.
+ */
+public class ClientRateLimiter {
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweep;
+
+    public ClientRateLimiter(double ratePerSecond, double burst, int maxClients) {
+        this(ratePerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double ratePerSecond, double burst, int maxClients, LongSupplier nanoClock) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.overflow = new TokenBucket(ratePerSecond, this.burst, now);
+        // an untouched bucket is full again after this long
+        this.sweepIntervalNanos = Math.min(TimeUnit.HOURS.toNanos(1),
+                (long) Math.ceil(this.burst / Math.max(ratePerSecond, 1e-9) * 1e9));
+        this.nextSweep = new AtomicLong(now);
+    }
+
+    /**
+     * Admit one request from the client. Returns 0 if admitted, otherwise the nanoseconds
+     * until the client may try again.
+     */
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                long due = nextSweep.get();
+                if (now - due >= 0 && nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+                    buckets.values().removeIf(b -> b.isFull(now));
+                }
+                if (buckets.size() >= maxClients) {
+                    return overflow.tryAcquire(now);
+                }
+            }
+            bucket = buckets.computeIfAbsent(client, key -> new TokenBucket(ratePerSecond, burst, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Number of clients currently tracked
+     */
+    public int clients() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.agentdemo.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebFlux counterpart of {@link AdmissionFilter}: the same rate and concurrency limits
+ * from the shared {@link AdmissionPolicy}, applied without blocking the event loop. A
+ * request holds its concurrency slot until its response completes, errors or the client
+ * cancels; errors and {@code 5xx} responses count as dropped.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAdmissionFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveAdmissionFilter.class);
+
+    private final AdmissionPolicy policy;
+
+    public ReactiveAdmissionFilter(AdmissionPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!policy.applies(request.getMethod().name(), path)) {
+            return chain.filter(exchange);
+        }
+
+        long wait = policy.getRateLimiter().tryAcquire(clientOf(request));
+        if (wait > 0) {
+            return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, wait,
+                    "Rate limit exceeded, please slow down");
+        }
+        if (!policy.isSynchronousGoal(path)) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimit concurrencyLimit = policy.getConcurrencyLimit();
+        if (!concurrencyLimit.tryAcquire()) {
+            log.debug("Shedding {} at concurrency limit {}", path, concurrencyLimit.getLimit());
+            return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    concurrencyLimit.getRecentLatencyNanos(), "Server is at capacity, please retry");
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+            concurrencyLimit.release(System.nanoTime() - start, dropped);
+        });
+    }
+
+    private String clientOf(ServerHttpRequest request) {
+        String header = policy.getClientHeader();
+        InetSocketAddress remote = request.getRemoteAddress();
+        String address = remote == null ? "unknown" : remote.getHostString();
+        return policy.clientOf(header.isBlank() ? null : request.getHeaders().getFirst(header), address);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterNanos, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().set("Retry-After", Long.toString(AdmissionPolicy.retryAfterSeconds(retryAfterNanos)));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory()
+                .wrap(("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.agentdemo.admission;
+
+/**
+ * Classic token bucket: holds up to {@code burst} tokens, refilled at {@code ratePerSecond}.
+ * Times are {@link System#nanoTime()} values supplied by the caller.
+ */
+final class TokenBucket {
+
+    private final double ratePerNano;
+    private final double burst;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, double burst, long now) {
+        this.ratePerNano = ratePerSecond / 1e9;
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Take one token. Returns 0 if granted, otherwise the nanoseconds until one is available.
+     */
+    synchronized long tryAcquire(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerNano);
+    }
+
+    /**
+     * True if the bucket has refilled completely, i.e. the client has been quiet long
+     * enough that forgetting the bucket changes nothing
+     */
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= burst;
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+            refilledAt = now;
+        }
+    }
+}
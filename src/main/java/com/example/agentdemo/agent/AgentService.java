@@ -1,22 +1,72 @@
 package com.example.agentdemo.agent;
 
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.memory.FollowUp;
+import com.example.agentdemo.agent.memory.Turn;
+import com.example.agentdemo.agent.paging.ResultCursorStore;
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.agent.scheduling.PriorityScheduler;
 import com.example.agentdemo.model.ActionResult;
+import com.example.agentdemo.model.PhaseTimings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import jakarta.annotation.PostConstruct;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Routes goals to skills. Records {@code agent.routing} (time to pick a skill),
+ * {@code agent.skill.execution} (per skill and outcome) and the number of goals accepted
+ * but not yet answered, {@code agent.goals.in.flight}. Routing and skill executions are
+ * also emitted as JFR events ({@code com.example.agentdemo.GoalRouted} and
+ * {@code com.example.agentdemo.SkillExecuted}) for recordings to correlate with the JVM.
+ */
 @Service
 public class AgentService {
     private static final Logger logger = LoggerFactory.getLogger(AgentService.class);
     private final List<Skill> skills;
+    private final ResultCursorStore cursorStore;
+    private final ConversationStore conversations;
+    private final PriorityScheduler scheduler;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
 
-    public AgentService(List<Skill> skills) {
+    @Autowired
+    public AgentService(List<Skill> skills, ResultCursorStore cursorStore, ConversationStore conversations,
+                        PriorityScheduler scheduler, MeterRegistry meterRegistry) {
         this.skills = skills;
+        this.cursorStore = cursorStore;
+        this.conversations = conversations;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("agent.goals.in.flight", inFlight, AtomicInteger::get)
+                .description("Goals accepted and not yet answered, queued ones included")
+                .register(meterRegistry);
+    }
+
+    public AgentService(List<Skill> skills, ResultCursorStore cursorStore, ConversationStore conversations,
+                        PriorityScheduler scheduler) {
+        this(skills, cursorStore, conversations, scheduler, new SimpleMeterRegistry());
     }
 
     @PostConstruct
@@ -46,19 +96,324 @@ public class AgentService {
      * Returns an execution trace (list of ActionResult) and the final output (from the chosen skill).
      */
     public List<ActionResult> executeGoal(String goal) {
-        List<ActionResult> trace = new ArrayList<>();
+        return executeGoal(goal, 0);
+    }
+
+    /**
+     * Execute the given goal, asking row-oriented skills for pages of at most {@code pageSize} rows.
+     * A result with more rows carries a {@code nextCursor} that can be passed to {@link #fetchPage}.
+     */
+    public List<ActionResult> executeGoal(String goal, int pageSize) {
+        return executeGoal(null, goal, pageSize);
+    }
+
+    /**
+     * Execute the given goal as part of a conversation. Goals that refer back to an earlier
+     * result ("now sort that by pid") are answered from the session's history, and every
+     * turn is remembered for later follow-ups. A null {@code sessionId} runs statelessly.
+     */
+    public List<ActionResult> executeGoal(String sessionId, String goal, int pageSize) {
+        return executeGoal(sessionId, goal, pageSize, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Execute the given goal in a scheduling class: the calling thread waits while the goal
+     * runs on the shared workers, where interactive goals are served ahead of bulk ones.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the class's queue is full
+     */
+    public List<ActionResult> executeGoal(String sessionId, String goal, int pageSize, Priority priority) {
+        return executeGoal(sessionId, goal, pageSize, priority, false);
+    }
+
+    /**
+     * Execute the given goal; with {@code timings} the results carry a {@link PhaseTimings}
+     * breakdown of where the time went.
+     */
+    public List<ActionResult> executeGoal(String sessionId, String goal, int pageSize, Priority priority,
+                                          boolean timings) {
+        PhaseTimings phases = timings ? new PhaseTimings() : null;
+        inFlight.incrementAndGet();
+        try {
+            return attach(scheduler.call(priority, queued(phases, () -> run(sessionId, goal, pageSize, phases))),
+                    phases);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Queue a goal in its scheduling class and return at once; the future completes with the
+     * trace once the goal has run, so the caller holds no thread while it waits.
+     * {@code onStart} runs on the worker just before the goal and can still skip it by
+     * returning false, in which case the future is cancelled. Cancelling the future cancels
+     * the goal.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the class's queue is full
+     */
+    public CompletableFuture<List<ActionResult>> submitGoal(String sessionId, String goal, int pageSize,
+                                                            Priority priority, BooleanSupplier onStart) {
+        inFlight.incrementAndGet();
+        CompletableFuture<List<ActionResult>> trace;
+        try {
+            trace = scheduler.submitAsync(priority, () -> {
+                if (!onStart.getAsBoolean()) {
+                    throw new CancellationException("Goal cancelled before it started");
+                }
+                return run(sessionId, goal, pageSize, null);
+            });
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        trace.whenComplete((result, error) -> inFlight.decrementAndGet());
+        return trace;
+    }
+
+    /**
+     * Reactive form of {@link #executeGoal(String, String, int, Priority)}. Goals handled by a
+     * {@link ReactiveSkill} are subscribed to directly and occupy no scheduler worker while
+     * they wait on I/O; all other goals, follow-ups included, run on the shared workers in
+     * their scheduling class and complete the returned Mono when done.
+     *
+     * The Mono errors with {@link java.util.concurrent.RejectedExecutionException} if the
+     * class's queue is full. Cancelling it cancels the goal.
+     */
+    public Mono<List<ActionResult>> executeGoalReactive(String sessionId, String goal, int pageSize,
+                                                        Priority priority) {
+        return executeGoalReactive(sessionId, goal, pageSize, priority, false);
+    }
+
+    /**
+     * Reactive form of {@link #executeGoal(String, String, int, Priority, boolean)}
+     */
+    public Mono<List<ActionResult>> executeGoalReactive(String sessionId, String goal, int pageSize,
+                                                        Priority priority, boolean timings) {
+        return Mono.defer(() -> {
+                    inFlight.incrementAndGet();
+                    PhaseTimings phases = timings ? new PhaseTimings() : null;
+                    if (sessionId != null && FollowUp.parse(goal).isPresent()) {
+                        return Mono.fromFuture(() -> scheduler.submitAsync(priority,
+                                queued(phases, () -> run(sessionId, goal, pageSize, phases))))
+                                .map(trace -> attach(trace, phases));
+                    }
+                    Skill skill = selectSkill(goal, phases);
+                    if (skill instanceof ReactiveSkill reactive) {
+                        long start = System.nanoTime();
+                        SkillExecutedEvent event = new SkillExecutedEvent();
+                        event.begin();
+                        // subscribe eagerly while the timings are current, so the skill's
+                        // synchronous part (cache lookups, MCP requests) records into them
+                        Mono<ActionResult> result = phases == null
+                                ? reactive.executeReactive(goal, pageSize)
+                                : Mono.fromFuture(() -> PhaseTimings.recording(phases,
+                                        () -> reactive.executeReactive(goal, pageSize).toFuture()));
+                        // recorded once however the skill ends; errors, cancellation and an
+                        // empty result count as "error", like a skill that throws in runSkill
+                        AtomicBoolean recorded = new AtomicBoolean();
+                        Consumer<ActionResult> record = r -> {
+                            if (recorded.compareAndSet(false, true)) {
+                                recordExecution(skill, goal, r, start, event, phases);
+                            }
+                        };
+                        return result
+                                .doOnSuccess(record)
+                                .doOnError(e -> record.accept(null))
+                                .doOnCancel(() -> record.accept(null))
+                                .map(r -> {
+                                    List<ActionResult> trace = List.of(r);
+                                    remember(sessionId, goal, trace);
+                                    return attach(trace, phases);
+                                });
+                    }
+                    return Mono.fromFuture(() -> scheduler.submitAsync(priority,
+                                    queued(phases, () -> runSkill(sessionId, goal, pageSize, skill, phases))))
+                            .map(trace -> attach(trace, phases));
+                })
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    /**
+     * Wrap a task so it notes how long it waited for a worker and runs with the goal's
+     * timings current
+     */
+    private static Callable<List<ActionResult>> queued(PhaseTimings phases, Supplier<List<ActionResult>> task) {
+        if (phases == null) {
+            return task::get;
+        }
+        long queuedAt = System.nanoTime();
+        return () -> {
+            phases.setQueueNanos(System.nanoTime() - queuedAt);
+            return PhaseTimings.recording(phases, task);
+        };
+    }
+
+    private static List<ActionResult> attach(List<ActionResult> trace, PhaseTimings phases) {
+        if (phases != null) {
+            trace.forEach(result -> result.setTimings(phases));
+        }
+        return trace;
+    }
+
+    private List<ActionResult> run(String sessionId, String goal, int pageSize, PhaseTimings phases) {
+        Optional<FollowUp> followUp = sessionId == null ? Optional.empty() : FollowUp.parse(goal);
+        if (followUp.isPresent()) {
+            long start = System.nanoTime();
+            List<ActionResult> trace = List.of(answerFollowUp(sessionId, followUp.get(), pageSize));
+            if (phases != null) {
+                phases.setSkillNanos(System.nanoTime() - start);
+            }
+            remember(sessionId, goal, trace);
+            return trace;
+        }
+        return runSkill(sessionId, goal, pageSize, selectSkill(goal, phases), phases);
+    }
+
+    private void remember(String sessionId, String goal, List<ActionResult> trace) {
+        if (sessionId == null) {
+            return;
+        }
+        ActionResult last = trace.get(trace.size() - 1);
+        conversations.record(sessionId, new Turn(Instant.now(), goal, last.getSkillName(), last.isSuccess(),
+                last.getOutput(), last.getRows()));
+    }
+
+    /**
+     * Start a conversation and return its server-issued id
+     */
+    public String openSession() {
+        return conversations.open();
+    }
+
+    /**
+     * True if the conversation was started by {@link #openSession()} and has not expired
+     */
+    public boolean hasSession(String sessionId) {
+        return conversations.contains(sessionId);
+    }
+
+    /**
+     * The remembered turns of a conversation, oldest first
+     */
+    public List<Turn> getHistory(String sessionId) {
+        return conversations.history(sessionId);
+    }
+
+    /**
+     * Forget a conversation; returns false if nothing was remembered for it
+     */
+    public boolean forgetSession(String sessionId) {
+        return conversations.forget(sessionId);
+    }
+
+    private ActionResult answerFollowUp(String sessionId, FollowUp followUp, int pageSize) {
+        Optional<Turn> previous = conversations.lastWithRows(sessionId);
+        if (previous.isEmpty()) {
+            return new ActionResult(false, "none", "Nothing to sort: no earlier result in this conversation has rows");
+        }
+        Turn turn = previous.get();
+        if (!followUp.appliesTo(turn.getRows())) {
+            return new ActionResult(false, turn.getSkillName(),
+                    "The previous result has no field '" + followUp.getField() + "'");
+        }
+        return cursorStore.firstPage(turn.getSkillName(), followUp.apply(turn.getRows()), pageSize);
+    }
 
+    /**
+     * The first skill that declares it can handle the goal, or null
+     */
+    private Skill selectSkill(String goal, PhaseTimings phases) {
+        GoalRoutedEvent event = new GoalRoutedEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Skill selected = null;
+        int tried = 0;
         for (Skill skill : skills) {
+            tried++;
             if (skill.canHandle(goal)) {
-                ActionResult result = skill.execute(goal);
-                trace.add(result);
-                return trace;
+                selected = skill;
+                break;
             }
         }
+        long elapsed = System.nanoTime() - start;
+        String name = selected == null ? "none" : selected.getClass().getSimpleName();
+        event.end();
+        if (event.shouldCommit()) {
+            event.goal = goal;
+            event.skill = name;
+            event.skillsTried = tried;
+            event.commit();
+        }
+        Timer.builder("agent.routing")
+                .description("Time to pick the skill for a goal")
+                .tag("skill", name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        if (phases != null) {
+            phases.setRoutingNanos(elapsed);
+        }
+        return selected;
+    }
+
+    private List<ActionResult> runSkill(String sessionId, String goal, int pageSize, Skill skill,
+                                        PhaseTimings phases) {
+        List<ActionResult> trace = new ArrayList<>();
 
-        // fallback: no skill could handle the goal
-        ActionResult fallback = new ActionResult(false, "none", "No skill found to handle goal: " + goal);
-        trace.add(fallback);
+        if (skill != null) {
+            long start = System.nanoTime();
+            SkillExecutedEvent event = new SkillExecutedEvent();
+            event.begin();
+            ActionResult result = null;
+            try {
+                result = skill.execute(goal, pageSize);
+            } finally {
+                recordExecution(skill, goal, result, start, event, phases);
+            }
+            trace.add(result);
+        } else {
+            // fallback: no skill could handle the goal
+            trace.add(new ActionResult(false, "none", "No skill found to handle goal: " + goal));
+        }
+        remember(sessionId, goal, trace);
+        return trace;
+    }
+
+    /**
+     * Time one skill execution; a null result means the skill threw
+     */
+    private void recordExecution(Skill skill, String goal, ActionResult result, long start,
+                                 SkillExecutedEvent event, PhaseTimings phases) {
+        long elapsed = System.nanoTime() - start;
+        if (phases != null) {
+            phases.setSkillNanos(elapsed);
+        }
+        String name = skill.getClass().getSimpleName();
+        String outcome = result == null ? "error" : result.isSuccess() ? "success" : "failure";
+        event.end();
+        if (event.shouldCommit()) {
+            event.goal = goal;
+            event.skill = name;
+            event.outcome = outcome;
+            event.commit();
+        }
+        Timer.builder("agent.skill.execution")
+                .description("Skill execution time by outcome")
+                .tags("skill", name, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fetch the next page of a previously paged result without re-running the goal.
+     */
+    public List<ActionResult> fetchPage(String cursor, int pageSize) {
+        ActionResult result = cursorStore.nextPage(cursor, pageSize)
+                .orElseGet(() -> new ActionResult(false, "none", "Cursor expired or unknown: " + cursor));
+        List<ActionResult> trace = new ArrayList<>();
+        trace.add(result);
         return trace;
     }
 }
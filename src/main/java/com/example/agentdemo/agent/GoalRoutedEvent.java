@@ -0,0 +1,30 @@
+package com.example.agentdemo.agent;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for picking the skill of a goal; its duration is the routing time
+ */
+@Name("com.example.agentdemo.GoalRouted")
+@Label("Goal Routed")
+@Category({"Agent Demo", "Agent"})
+@Description("A goal was matched to a skill")
+@Threshold("1 ms")
+@StackTrace(false)
+final class GoalRoutedEvent extends jdk.jfr.Event {
+
+    @Label("Goal")
+    String goal;
+
+    @Label("Skill")
+    @Description("Selected skill, or none")
+    String skill;
+
+    @Label("Skills Tried")
+    int skillsTried;
+}
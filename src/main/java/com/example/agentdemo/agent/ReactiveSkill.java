@@ -0,0 +1,23 @@
+package com.example.agentdemo.agent;
+
+import com.example.agentdemo.model.ActionResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * A skill whose work is I/O bound and can complete without holding a thread.
+ * The reactive agent path subscribes to {@link #executeReactive} directly instead of
+ * running the blocking {@link #execute(String, int)} on a scheduler worker.
+ */
+public interface ReactiveSkill extends Skill {
+
+    /**
+     * Execute the goal; the result must never signal an error, failures are reported as
+     * an unsuccessful {@link ActionResult} just like {@link #execute(String, int)}.
+     */
+    Mono<ActionResult> executeReactive(String goal, int pageSize);
+
+    @Override
+    default ActionResult execute(String goal, int pageSize) {
+        return executeReactive(goal, pageSize).block();
+    }
+}
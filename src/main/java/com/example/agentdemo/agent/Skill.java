@@ -5,4 +5,12 @@ import com.example.agentdemo.model.ActionResult;
 public interface Skill {
     boolean canHandle(String goal);
     ActionResult execute(String goal);
+
+    /**
+     * Execute with a requested page size for row-oriented results.
+     * Skills that do not page simply ignore the hint; {@code pageSize <= 0} means the skill's default.
+     */
+    default ActionResult execute(String goal, int pageSize) {
+        return execute(goal);
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.agentdemo.agent;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for one skill execution; its duration is the skill's running time
+ */
+@Name("com.example.agentdemo.SkillExecuted")
+@Label("Skill Executed")
+@Category({"Agent Demo", "Agent"})
+@Description("A skill ran for a goal")
+@Threshold("10 ms")
+@StackTrace(false)
+final class SkillExecutedEvent extends jdk.jfr.Event {
+
+    @Label("Goal")
+    String goal;
+
+    @Label("Skill")
+    String skill;
+
+    @Label("Outcome")
+    @Description("success, failure or error (the skill threw)")
+    String outcome;
+}
@@ -0,0 +1,122 @@
+package com.example.agentdemo.agent.jobs;
+
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.InetNameResolver;
+import io.netty.resolver.InetSocketAddressResolver;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Decides where job callbacks may go. With an allowlist ({@code agent.jobs.callback.allowed-hosts})
+ * only those hosts are accepted, and they may be internal. Without one any host is accepted
+ * as long as it resolves to public addresses only, so a callback URL cannot make the server
+ * call loopback, link-local (cloud metadata), private, wildcard or multicast addresses.
+ *
+ * The check runs when a job is submitted and again, through {@link #resolver()}, every
+ * time a callback connects, so a host that later re-resolves to an internal address is
+ * refused as well.
+ */
+final class CallbackAddressPolicy {
+
+    private final Set<String> allowedHosts;
+
+    CallbackAddressPolicy(Set<String> allowedHosts) {
+        this.allowedHosts = allowedHosts;
+    }
+
+    /**
+     * Reject a callback host up front; allowlisted hosts are not resolved here
+     *
+     * @throws IllegalArgumentException if the host is not allowed
+     */
+    void check(String host) {
+        if (isAllowlisted(host)) {
+            return;
+        }
+        if (!allowedHosts.isEmpty()) {
+            throw new IllegalArgumentException("callbackUrl host is not allowed: " + host);
+        }
+        try {
+            lookup(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("callbackUrl host is not allowed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resolve a host for a callback connection
+     *
+     * @throws UnknownHostException if it does not resolve or is not allowed to resolve where it does
+     */
+    InetAddress[] lookup(String host) throws UnknownHostException {
+        if (!allowedHosts.isEmpty() && !isAllowlisted(host)) {
+            throw new UnknownHostException(host + " is not an allowed callback host");
+        }
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        if (!isAllowlisted(host)) {
+            for (InetAddress address : addresses) {
+                if (isInternal(address)) {
+                    throw new UnknownHostException(host + " resolves to internal address " + address.getHostAddress());
+                }
+            }
+        }
+        return addresses;
+    }
+
+    private boolean isAllowlisted(String host) {
+        return allowedHosts.contains(host.toLowerCase(Locale.ROOT));
+    }
+
+    static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // unique local addresses, fc00::/7
+            return (bytes[0] & 0xfe) == 0xfc;
+        }
+        // 0.0.0.0/8 and carrier-grade NAT 100.64.0.0/10
+        return bytes[0] == 0 || (bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64;
+    }
+
+    /**
+     * Resolver for the callback HTTP client that applies {@link #lookup} on every connection
+     */
+    AddressResolverGroup<InetSocketAddress> resolver() {
+        return new AddressResolverGroup<>() {
+            @Override
+            protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+                return new InetSocketAddressResolver(executor, new InetNameResolver(executor) {
+                    @Override
+                    protected void doResolve(String host, Promise<InetAddress> promise) {
+                        try {
+                            promise.setSuccess(lookup(host)[0]);
+                        } catch (UnknownHostException e) {
+                            promise.setFailure(e);
+                        }
+                    }
+
+                    @Override
+                    protected void doResolveAll(String host, Promise<List<InetAddress>> promise) {
+                        try {
+                            promise.setSuccess(List.of(lookup(host)));
+                        } catch (UnknownHostException e) {
+                            promise.setFailure(e);
+                        }
+                    }
+                });
+            }
+        };
+    }
+}
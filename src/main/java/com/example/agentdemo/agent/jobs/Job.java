@@ -0,0 +1,145 @@
+package com.example.agentdemo.agent.jobs;
+
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * A goal submitted for background execution. Serialized as-is for status responses and
+ * completion callbacks.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Job {
+    private final String id;
+    private final String goal;
+    private final String sessionId;
+    private final int pageSize;
+    private final String callbackUrl;
+    private final Priority priority;
+    private final Instant submittedAt;
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile List<ActionResult> trace;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    public Job(String id, String goal, String sessionId, int pageSize, String callbackUrl, Priority priority,
+               Instant submittedAt) {
+        this.id = id;
+        this.goal = goal;
+        this.sessionId = sessionId;
+        this.pageSize = pageSize;
+        this.callbackUrl = callbackUrl;
+        this.priority = priority;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getGoal() {
+        return goal;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    @JsonIgnore
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @JsonIgnore
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public String getSubmittedAt() {
+        return submittedAt.toString();
+    }
+
+    public String getStartedAt() {
+        return startedAt == null ? null : startedAt.toString();
+    }
+
+    public String getFinishedAt() {
+        return finishedAt == null ? null : finishedAt.toString();
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Milliseconds spent running so far, or in total once finished
+     */
+    public Long getElapsedMs() {
+        if (startedAt == null) {
+            return null;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return Duration.between(startedAt, end).toMillis();
+    }
+
+    public List<ActionResult> getTrace() {
+        return trace;
+    }
+
+    public String getFinalOutput() {
+        return trace == null || trace.isEmpty() ? null : trace.get(trace.size() - 1).getOutput();
+    }
+
+    public String getNextCursor() {
+        return trace == null || trace.isEmpty() ? null : trace.get(trace.size() - 1).getNextCursor();
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    synchronized boolean start(Instant now) {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        startedAt = now;
+        return true;
+    }
+
+    synchronized boolean finish(JobStatus outcome, List<ActionResult> trace, String error, Instant now) {
+        if (status.isFinished()) {
+            return false;
+        }
+        this.trace = trace;
+        this.error = error;
+        this.finishedAt = now;
+        this.status = outcome;
+        return true;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> future() {
+        return future;
+    }
+}
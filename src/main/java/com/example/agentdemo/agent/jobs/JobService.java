@@ -0,0 +1,277 @@
+package com.example.agentdemo.agent.jobs;
+
+import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs goals in the background so callers do not hold a connection open while a long
+ * query runs.
+ *
+ * Jobs are queued on the shared {@link com.example.agentdemo.agent.scheduling.PriorityScheduler}
+ * and finished from the completion of their goal, so no thread waits on a running job. At
+ * most {@code agent.jobs.queue-capacity} jobs may be unfinished at once; beyond that, or
+ * when the scheduler's own queue is full, {@link #submit} is rejected.
+ * Finished jobs stay readable for {@code agent.jobs.ttl-seconds} and at most
+ * {@code agent.jobs.max-jobs} are kept. A job submitted with a callback URL is POSTed
+ * there as JSON when it finishes, retried with backoff on failure; callbacks never reach
+ * internal addresses unless their host is allowlisted (see {@link CallbackAddressPolicy}). Jobs are bulk work
+ * unless submitted as interactive (see {@link com.example.agentdemo.agent.scheduling.PriorityScheduler}).
+ */
+@Component
+public class JobService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    private final AgentService agentService;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMillis;
+    private final int maxJobs;
+    private final WebClient callbacks;
+    private final Duration callbackTimeout;
+    private final int callbackRetries;
+    private final CallbackAddressPolicy callbackPolicy;
+
+    public JobService(AgentService agentService,
+                      ObjectMapper objectMapper,
+                      @Value("${agent.jobs.queue-capacity:256}") int queueCapacity,
+                      @Value("${agent.jobs.ttl-seconds:600}") long ttlSeconds,
+                      @Value("${agent.jobs.max-jobs:10000}") int maxJobs,
+                      @Value("${agent.jobs.callback.timeout-ms:5000}") long callbackTimeoutMillis,
+                      @Value("${agent.jobs.callback.retries:3}") int callbackRetries,
+                      @Value("${agent.jobs.callback.allowed-hosts:}") String[] callbackHosts) {
+        this.agentService = agentService;
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(1, queueCapacity);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxJobs = Math.max(maxJobs, capacity);
+        this.callbackTimeout = Duration.ofMillis(callbackTimeoutMillis);
+        this.callbackRetries = Math.max(0, callbackRetries);
+        this.callbackPolicy = new CallbackAddressPolicy(Arrays.stream(callbackHosts)
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet()));
+        this.callbacks = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create()
+                        .resolver(callbackPolicy.resolver())
+                        .responseTimeout(callbackTimeout)))
+                .build();
+    }
+
+    /**
+     * Queue a goal for execution as bulk work
+     */
+    public Job submit(String goal, String sessionId, int pageSize, String callbackUrl) {
+        return submit(goal, sessionId, pageSize, callbackUrl, Priority.BULK);
+    }
+
+    /**
+     * Queue a goal for execution in the given scheduling class.
+     *
+     * @throws IllegalArgumentException if the callback URL is not an allowed http(s) URL
+     * @throws RejectedExecutionException if too many jobs are unfinished or the scheduler's queue is full
+     */
+    public Job submit(String goal, String sessionId, int pageSize, String callbackUrl, Priority priority) {
+        if (callbackUrl != null) {
+            checkCallbackUrl(callbackUrl);
+        }
+        if (unfinished.incrementAndGet() > capacity) {
+            unfinished.decrementAndGet();
+            throw new RejectedExecutionException("Too many unfinished jobs (limit " + capacity + ")");
+        }
+        purgeExpired();
+        Job job = new Job(newJobId(), goal, sessionId, pageSize, callbackUrl, priority, Instant.now());
+        jobs.put(job.getId(), job);
+        CompletableFuture<List<ActionResult>> trace;
+        try {
+            trace = agentService.submitGoal(sessionId, goal, pageSize, priority, () -> job.start(Instant.now()));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            unfinished.decrementAndGet();
+            throw e;
+        }
+        job.setFuture(trace);
+        trace.whenComplete((result, error) -> {
+            unfinished.decrementAndGet();
+            complete(job, result, error);
+        });
+        return job;
+    }
+
+    /**
+     * The job with this id, or empty if it is unknown or expired
+     */
+    public Optional<Job> get(String id) {
+        Job job = jobs.get(id);
+        if (job != null && isExpired(job, System.currentTimeMillis())) {
+            jobs.remove(id);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * Cancel a queued or running job. A running goal is interrupted; skills that do not
+     * respond to interruption finish in the background, but their result is discarded.
+     */
+    public Optional<Job> cancel(String id) {
+        Optional<Job> job = get(id);
+        job.ifPresent(j -> {
+            if (j.finish(JobStatus.CANCELLED, null, "Cancelled", Instant.now())) {
+                Future<?> future = j.future();
+                if (future != null) {
+                    future.cancel(true);
+                }
+                notifyCallback(j);
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Jobs waiting for a worker (for diagnostics and tests)
+     */
+    public int queued() {
+        return (int) jobs.values().stream().filter(job -> job.getStatus() == JobStatus.QUEUED).count();
+    }
+
+    /**
+     * Jobs currently held, finished or not
+     */
+    public int size() {
+        return jobs.size();
+    }
+
+    /**
+     * Finish a job from the completion of its goal; a cancelled goal was already finished by {@link #cancel}
+     */
+    private void complete(Job job, List<ActionResult> trace, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            if (job.finish(JobStatus.SUCCEEDED, trace, null, Instant.now())) {
+                notifyCallback(job);
+            }
+        } else if (!(error instanceof CancellationException)) {
+            log.warn("Job {} failed", job.getId(), error);
+            if (job.finish(JobStatus.FAILED, null, "Error: " + error.getMessage(), Instant.now())) {
+                notifyCallback(job);
+            }
+        }
+    }
+
+    private void notifyCallback(Job job) {
+        if (job.getCallbackUrl() == null) {
+            return;
+        }
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(job);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to render callback for job {}", job.getId(), e);
+            return;
+        }
+        callbacks.post()
+                .uri(job.getCallbackUrl())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(callbackTimeout)
+                .retryWhen(Retry.backoff(callbackRetries, Duration.ofMillis(500)))
+                .subscribe(
+                        response -> log.debug("Delivered callback for job {}", job.getId()),
+                        e -> log.warn("Callback for job {} to {} failed: {}", job.getId(), job.getCallbackUrl(),
+                                e.getMessage()));
+    }
+
+    private void checkCallbackUrl(String callbackUrl) {
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid callbackUrl: " + callbackUrl);
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            throw new IllegalArgumentException("callbackUrl must be an absolute http(s) URL");
+        }
+        callbackPolicy.check(uri.getHost());
+    }
+
+    private boolean isExpired(Job job, long now) {
+        Instant finished = job.finishedAt();
+        return finished != null && finished.toEpochMilli() + ttlMillis < now;
+    }
+
+    /**
+     * Drop expired jobs; if the store is still full, drop the oldest finished ones
+     */
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> isExpired(job, now));
+
+        if (jobs.size() >= maxJobs) {
+            jobs.values().stream()
+                    .filter(job -> job.getStatus().isFinished())
+                    .sorted(Comparator.comparing(Job::finishedAt))
+                    .limit(jobs.size() - maxJobs + 1 + maxJobs / 10)
+                    .map(Job::getId)
+                    .toList()
+                    .forEach(jobs::remove);
+        }
+    }
+
+    private String newJobId() {
+        byte[] bytes = new byte[12];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Job job : jobs.values()) {
+            Future<?> future = job.future();
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+}
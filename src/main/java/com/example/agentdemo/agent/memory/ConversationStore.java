@@ -0,0 +1,323 @@
+package com.example.agentdemo.agent.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conversation history per session, so follow-up goals can refer to earlier results.
+ *
+ * Turns are kept as compact binary records (see {@link TurnCodec}) rather than object
+ * graphs. Memory is bounded three ways: each session keeps at most
+ * {@code agent.memory.max-turns} turns and {@code agent.memory.session-max-bytes}
+ * (oldest turns are dropped first), sessions idle for {@code agent.memory.ttl-seconds}
+ * expire, and when all sessions together exceed {@code agent.memory.max-bytes} the least
+ * recently used ones are evicted in a batch.
+ *
+ * Sessions that clients can name are started with {@link #open()}, which issues an
+ * unguessable id; the endpoints only accept ids that are {@link #contains open}, so one
+ * caller cannot read, continue or forget another's conversation by guessing its id.
+ */
+@Component
+public class ConversationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationStore.class);
+
+    // Approximate heap cost beyond the record bytes: array header and deque slot per turn,
+    // map entry, key and bookkeeping per session
+    static final int TURN_OVERHEAD = 24;
+    static final int SESSION_OVERHEAD = 160;
+
+    private static final int MAX_SESSION_ID_LENGTH = 128;
+
+    private final TurnCodec codec;
+    private final Clock clock;
+    private final long maxBytes;
+    private final long sessionMaxBytes;
+    private final int maxTurns;
+    private final long ttlMillis;
+    private final Map<String, Conversation> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicBoolean housekeeping = new AtomicBoolean();
+    private final SecureRandom random = new SecureRandom();
+    private volatile long lastPurge;
+
+    @Autowired
+    public ConversationStore(ObjectMapper objectMapper,
+                             @Value("${agent.memory.max-bytes:67108864}") long maxBytes,
+                             @Value("${agent.memory.session-max-bytes:262144}") long sessionMaxBytes,
+                             @Value("${agent.memory.max-turns:50}") int maxTurns,
+                             @Value("${agent.memory.ttl-seconds:1800}") long ttlSeconds) {
+        this(objectMapper, maxBytes, sessionMaxBytes, maxTurns, ttlSeconds, Clock.systemUTC());
+    }
+
+    ConversationStore(ObjectMapper objectMapper, long maxBytes, long sessionMaxBytes, int maxTurns,
+                      long ttlSeconds, Clock clock) {
+        this.codec = new TurnCodec(objectMapper);
+        this.clock = clock;
+        this.maxBytes = maxBytes;
+        this.sessionMaxBytes = Math.max(1024, sessionMaxBytes);
+        this.maxTurns = Math.max(1, maxTurns);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.lastPurge = clock.millis();
+    }
+
+    /**
+     * True if the id can name a session (non-blank and at most 128 characters)
+     */
+    public static boolean isValidSessionId(String sessionId) {
+        return sessionId != null && !sessionId.isBlank() && sessionId.length() <= MAX_SESSION_ID_LENGTH;
+    }
+
+    /**
+     * Start an empty session under a new random id and return the id
+     */
+    public String open() {
+        long now = clock.millis();
+        Conversation conversation = new Conversation();
+        conversation.lastAccess = now;
+        String sessionId;
+        do {
+            sessionId = newSessionId();
+        } while (sessions.putIfAbsent(sessionId, conversation) != null);
+        bytes.addAndGet(SESSION_OVERHEAD);
+        if (bytes.get() > maxBytes || now - lastPurge > Math.max(1000, ttlMillis / 10)) {
+            housekeeping();
+        }
+        return sessionId;
+    }
+
+    /**
+     * True if the session exists and has not expired
+     */
+    public boolean contains(String sessionId) {
+        Conversation conversation = sessions.get(sessionId);
+        if (conversation == null) {
+            return false;
+        }
+        synchronized (conversation) {
+            if (conversation.removed) {
+                return false;
+            }
+            if (clock.millis() - conversation.lastAccess > ttlMillis) {
+                remove(sessionId, conversation);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Append a turn to the session, creating the session if needed
+     */
+    public void record(String sessionId, Turn turn) {
+        byte[] record = encodeWithinBudget(turn);
+        long now = clock.millis();
+        while (true) {
+            Conversation conversation = sessions.computeIfAbsent(sessionId, id -> {
+                bytes.addAndGet(SESSION_OVERHEAD);
+                return new Conversation();
+            });
+            synchronized (conversation) {
+                if (conversation.removed) {
+                    continue;
+                }
+                long before = conversation.bytes;
+                conversation.turns.addLast(record);
+                conversation.bytes += record.length + TURN_OVERHEAD;
+                while (conversation.turns.size() > maxTurns || conversation.bytes > sessionMaxBytes) {
+                    conversation.bytes -= conversation.turns.removeFirst().length + TURN_OVERHEAD;
+                }
+                conversation.lastAccess = now;
+                bytes.addAndGet(conversation.bytes - before);
+            }
+            break;
+        }
+        if (bytes.get() > maxBytes || now - lastPurge > Math.max(1000, ttlMillis / 10)) {
+            housekeeping();
+        }
+    }
+
+    /**
+     * The session's turns, oldest first
+     */
+    public List<Turn> history(String sessionId) {
+        List<byte[]> records = records(sessionId);
+        List<Turn> turns = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            turns.add(codec.decode(record));
+        }
+        return turns;
+    }
+
+    /**
+     * The most recent turn that produced rows, if any
+     */
+    public Optional<Turn> lastWithRows(String sessionId) {
+        List<byte[]> records = records(sessionId);
+        for (int i = records.size() - 1; i >= 0; i--) {
+            if (TurnCodec.hasRows(records.get(i))) {
+                return Optional.of(codec.decode(records.get(i)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Drop a session's history; returns false if there was none
+     */
+    public boolean forget(String sessionId) {
+        Conversation conversation = sessions.get(sessionId);
+        return conversation != null && remove(sessionId, conversation);
+    }
+
+    /**
+     * Number of live sessions (for diagnostics and tests)
+     */
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Approximate heap bytes held by all sessions
+     */
+    public long bytesUsed() {
+        return bytes.get();
+    }
+
+    /**
+     * Sessions dropped so far because the global budget was exceeded
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    private List<byte[]> records(String sessionId) {
+        Conversation conversation = sessions.get(sessionId);
+        if (conversation == null) {
+            return List.of();
+        }
+        long now = clock.millis();
+        synchronized (conversation) {
+            if (conversation.removed) {
+                return List.of();
+            }
+            if (now - conversation.lastAccess > ttlMillis) {
+                remove(sessionId, conversation);
+                return List.of();
+            }
+            conversation.lastAccess = now;
+            return new ArrayList<>(conversation.turns);
+        }
+    }
+
+    /**
+     * Encode a turn so that it fits the per-session budget on its own: rows are dropped
+     * first, then the output is cut short.
+     */
+    private byte[] encodeWithinBudget(Turn turn) {
+        long limit = sessionMaxBytes - TURN_OVERHEAD;
+        byte[] record = codec.encode(turn);
+        if (record.length <= limit) {
+            return record;
+        }
+        String output = turn.getOutput() == null ? "" : turn.getOutput();
+        if (turn.hasRows()) {
+            log.debug("Result rows of '{}' exceed the session budget; keeping the output only", turn.getGoal());
+            record = codec.encode(new Turn(turn.getAt(), turn.getGoal(), turn.getSkillName(), turn.isSuccess(),
+                    output, null));
+        }
+        int keep = output.length();
+        while (record.length > limit && keep > 0) {
+            keep = (int) (keep * Math.min(0.9, (double) limit / record.length));
+            record = codec.encode(new Turn(turn.getAt(), turn.getGoal(), turn.getSkillName(), turn.isSuccess(),
+                    output.substring(0, keep) + "... (truncated)", null));
+        }
+        return record;
+    }
+
+    private String newSessionId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private boolean remove(String sessionId, Conversation conversation) {
+        synchronized (conversation) {
+            if (conversation.removed || !sessions.remove(sessionId, conversation)) {
+                return false;
+            }
+            conversation.removed = true;
+            bytes.addAndGet(-(conversation.bytes + SESSION_OVERHEAD));
+            return true;
+        }
+    }
+
+    /**
+     * Purge expired sessions, then evict least recently used ones until the store is back
+     * under 90% of its budget. Only one thread does this at a time; others carry on.
+     */
+    private void housekeeping() {
+        if (!housekeeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = clock.millis();
+            lastPurge = now;
+            int expired = 0;
+            for (Iterator<Map.Entry<String, Conversation>> it = sessions.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Conversation> entry = it.next();
+                if (now - entry.getValue().lastAccess > ttlMillis && remove(entry.getKey(), entry.getValue())) {
+                    expired++;
+                }
+            }
+
+            int evicted = 0;
+            if (bytes.get() > maxBytes) {
+                long target = maxBytes - maxBytes / 10;
+                List<Map.Entry<String, Conversation>> byAge = new ArrayList<>(sessions.entrySet());
+                byAge.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+                for (Map.Entry<String, Conversation> entry : byAge) {
+                    if (bytes.get() <= target) {
+                        break;
+                    }
+                    if (remove(entry.getKey(), entry.getValue())) {
+                        evicted++;
+                    }
+                }
+                evictions.addAndGet(evicted);
+            }
+            if (expired + evicted > 0) {
+                log.debug("Conversation store: {} expired, {} evicted, {} sessions / {} bytes left",
+                        expired, evicted, sessions.size(), bytes.get());
+            }
+        } finally {
+            housekeeping.set(false);
+        }
+    }
+
+    private static final class Conversation {
+        private final ArrayDeque<byte[]> turns = new ArrayDeque<>();
+        private long bytes;
+        private volatile long lastAccess;
+        private boolean removed;
+    }
+}
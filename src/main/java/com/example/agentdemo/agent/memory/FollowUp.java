@@ -0,0 +1,94 @@
+package com.example.agentdemo.agent.memory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A goal that refers back to the previous result instead of naming a skill, such as
+ * "now sort that by pid" or "sort them by name descending".
+ */
+public class FollowUp {
+
+    private static final Pattern SORT = Pattern.compile(
+            "(?:(?:now|and|then|ok|okay),?\\s+)?(?:sort|order)\\s+(?:that|it|them|those|these|the\\s+(?:results?|rows|output))"
+                    + "\\s+by\\s+([\\w.-]+)(?:\\s+(asc|ascending|desc|descending|reversed?))?\\s*[.!?]?",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String field;
+    private final boolean descending;
+
+    FollowUp(String field, boolean descending) {
+        this.field = field;
+        this.descending = descending;
+    }
+
+    /**
+     * Recognise a follow-up goal, or empty if the goal stands on its own
+     */
+    public static Optional<FollowUp> parse(String goal) {
+        Matcher m = SORT.matcher(goal.trim());
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        String order = m.group(2) == null ? "" : m.group(2).toLowerCase();
+        return Optional.of(new FollowUp(m.group(1), order.startsWith("desc") || order.startsWith("rev")));
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Sort rows by the field. Values that all parse as numbers compare numerically,
+     * others as case-insensitive text; rows without the field go last either way.
+     */
+    public List<JsonNode> apply(List<JsonNode> rows) {
+        boolean numeric = rows.stream()
+                .map(row -> row.get(field))
+                .filter(value -> value != null && !value.isNull())
+                .allMatch(FollowUp::isNumber);
+
+        Comparator<JsonNode> byValue = numeric
+                ? Comparator.comparingDouble(value -> Double.parseDouble(value.asText().trim()))
+                : Comparator.comparing(JsonNode::asText, String.CASE_INSENSITIVE_ORDER);
+        if (descending) {
+            byValue = byValue.reversed();
+        }
+        Comparator<JsonNode> order = Comparator.comparing(
+                row -> row.get(field) == null || row.get(field).isNull() ? null : row.get(field),
+                Comparator.nullsLast(byValue));
+
+        List<JsonNode> sorted = new ArrayList<>(rows);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    /**
+     * True if at least one row has the field
+     */
+    public boolean appliesTo(List<JsonNode> rows) {
+        return rows.stream().anyMatch(row -> row.has(field));
+    }
+
+    private static boolean isNumber(JsonNode value) {
+        if (value.isNumber()) {
+            return true;
+        }
+        try {
+            Double.parseDouble(value.asText().trim());
+            return !value.asText().isBlank();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
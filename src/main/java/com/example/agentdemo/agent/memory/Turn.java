@@ -0,0 +1,56 @@
+package com.example.agentdemo.agent.memory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One exchange of a conversation: the goal as typed and the result it produced.
+ * {@link #getRows()} holds the complete row set of a row-oriented result, or null.
+ */
+public class Turn {
+    private final Instant at;
+    private final String goal;
+    private final String skillName;
+    private final boolean success;
+    private final String output;
+    private final List<JsonNode> rows;
+
+    public Turn(Instant at, String goal, String skillName, boolean success, String output, List<JsonNode> rows) {
+        this.at = at;
+        this.goal = goal;
+        this.skillName = skillName;
+        this.success = success;
+        this.output = output;
+        this.rows = rows;
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    public String getGoal() {
+        return goal;
+    }
+
+    public String getSkillName() {
+        return skillName;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public List<JsonNode> getRows() {
+        return rows;
+    }
+
+    public boolean hasRows() {
+        return rows != null;
+    }
+}
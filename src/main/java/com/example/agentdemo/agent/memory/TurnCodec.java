@@ -0,0 +1,190 @@
+package com.example.agentdemo.agent.memory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary form of a {@link Turn}: a header byte, then varint-length UTF-8 strings and
+ * the rows as compact JSON. Records above {@link #COMPRESS_THRESHOLD} bytes are deflated,
+ * which shrinks typical osquery row sets several times over.
+ *
+ * <pre>
+ *   header   bit 0 deflated, bit 1 success, bit 2 has rows
+ *   body     varint epochSecond, string goal, string skill, string output[, string rowsJson]
+ *            (deflated as a whole when bit 0 is set, prefixed by its raw varint length)
+ * </pre>
+ */
+final class TurnCodec {
+
+    static final int COMPRESS_THRESHOLD = 256;
+
+    private static final int DEFLATED = 1;
+    private static final int SUCCESS = 2;
+    private static final int HAS_ROWS = 4;
+
+    private final ObjectMapper objectMapper;
+
+    TurnCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether a record holds rows, read from the header without decoding
+     */
+    static boolean hasRows(byte[] record) {
+        return (record[0] & HAS_ROWS) != 0;
+    }
+
+    byte[] encode(Turn turn) {
+        Buffer body = new Buffer(128);
+        body.varint(turn.getAt().getEpochSecond());
+        body.string(turn.getGoal());
+        body.string(turn.getSkillName());
+        body.string(turn.getOutput());
+        if (turn.hasRows()) {
+            try {
+                body.bytes(objectMapper.writeValueAsBytes(turn.getRows()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to encode rows", e);
+            }
+        }
+
+        int flags = (turn.isSuccess() ? SUCCESS : 0) | (turn.hasRows() ? HAS_ROWS : 0);
+        Buffer out = new Buffer(body.size() + 8);
+        if (body.size() > COMPRESS_THRESHOLD) {
+            byte[] deflated = deflate(body.array(), body.size());
+            if (deflated.length < body.size()) {
+                out.write(flags | DEFLATED);
+                out.varint(body.size());
+                out.write(deflated, 0, deflated.length);
+                return out.toByteArray();
+            }
+        }
+        out.write(flags);
+        out.write(body.array(), 0, body.size());
+        return out.toByteArray();
+    }
+
+    Turn decode(byte[] record) {
+        int flags = record[0];
+        Reader in = new Reader(record, 1);
+        if ((flags & DEFLATED) != 0) {
+            int rawLength = (int) in.varint();
+            in = new Reader(inflate(record, in.pos, rawLength), 0);
+        }
+        Instant at = Instant.ofEpochSecond(in.varint());
+        String goal = in.string();
+        String skillName = in.string();
+        String output = in.string();
+        List<JsonNode> rows = null;
+        if ((flags & HAS_ROWS) != 0) {
+            int length = (int) in.varint();
+            try {
+                JsonNode array = objectMapper.readTree(in.buf, in.pos, length);
+                rows = new ArrayList<>(array.size());
+                array.forEach(rows::add);
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt conversation record", e);
+            }
+        }
+        return new Turn(at, goal, skillName, (flags & SUCCESS) != 0, output, rows);
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 16);
+            byte[] chunk = new byte[Math.min(8192, length + 64)];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                n += inflater.inflate(raw, n, rawLength - n);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt conversation record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void string(String value) {
+            bytes((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+        }
+
+        void bytes(byte[] value) {
+            varint(value.length);
+            write(value, 0, value.length);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String string() {
+            int length = (int) varint();
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.agentdemo.agent.paging;
+
+import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived server-side result handles for cursor-based paging.
+ *
+ * A skill that produces a large row set registers it once via {@link #firstPage};
+ * clients then walk the rows with opaque continuation tokens instead of re-running
+ * the query. Handles expire after a sliding TTL and the number of live handles is
+ * bounded, so abandoned cursors cannot pin memory. A request without a page size gets
+ * {@code mcp.osquery.page-size} rows, or continues with the page size its first page used.
+ */
+@Component
+public class ResultCursorStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultCursorStore.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, ResultHandle> handles = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMillis;
+    private final int maxHandles;
+    private final int defaultPageSize;
+
+    @Autowired
+    public ResultCursorStore(ObjectMapper objectMapper,
+                             @Value("${agent.cursor.ttl-seconds:300}") long ttlSeconds,
+                             @Value("${agent.cursor.max-handles:256}") int maxHandles,
+                             @Value("${mcp.osquery.page-size:20}") int defaultPageSize) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxHandles = Math.max(1, maxHandles);
+        this.defaultPageSize = defaultPageSize > 0 ? Math.min(defaultPageSize, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+    }
+
+    public ResultCursorStore(ObjectMapper objectMapper, long ttlSeconds, int maxHandles) {
+        this(objectMapper, ttlSeconds, maxHandles, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Render the first page of the given rows. A handle is only allocated when the
+     * rows do not fit in a single page. The full row set is attached to the result
+     * (not serialized) so it can be remembered for follow-up goals.
+     */
+    public ActionResult firstPage(String skillName, List<JsonNode> rows, int pageSize) {
+        int size = clampPageSize(pageSize, defaultPageSize);
+        List<JsonNode> copy = List.copyOf(rows);
+        if (copy.size() <= size) {
+            ActionResult result = new ActionResult(true, skillName, render(copy));
+            result.setTotalRows(copy.size());
+            result.setRows(copy);
+            return result;
+        }
+
+        purgeExpired();
+        String handleId = newHandleId();
+        ResultHandle handle = new ResultHandle(skillName, copy, size, now() + ttlMillis);
+        handles.put(handleId, handle);
+        ActionResult result = renderPage(handleId, handle, 0, size);
+        result.setRows(copy);
+        return result;
+    }
+
+    /**
+     * Render the page addressed by a continuation token, or empty if the handle has
+     * expired or the token is malformed.
+     */
+    public Optional<ActionResult> nextPage(String cursor, int pageSize) {
+        Cursor decoded = Cursor.decode(cursor);
+        if (decoded == null) {
+            return Optional.empty();
+        }
+
+        ResultHandle handle = handles.get(decoded.handleId);
+        if (handle == null || handle.expiresAt < now()) {
+            handles.remove(decoded.handleId);
+            return Optional.empty();
+        }
+
+        handle.expiresAt = now() + ttlMillis;
+        return Optional.of(renderPage(decoded.handleId, handle, decoded.offset,
+                clampPageSize(pageSize, handle.pageSize)));
+    }
+
+    /**
+     * Number of live result handles (for diagnostics and tests)
+     */
+    public int size() {
+        return handles.size();
+    }
+
+    private ActionResult renderPage(String handleId, ResultHandle handle, int offset, int pageSize) {
+        int total = handle.rows.size();
+        int from = Math.min(offset, total);
+        int to = Math.min(from + pageSize, total);
+
+        ActionResult result = new ActionResult(true, handle.skillName, render(handle.rows.subList(from, to)));
+        result.setTotalRows(total);
+        if (to < total) {
+            result.setNextCursor(new Cursor(handleId, to).encode());
+        } else {
+            // Last page served: the handle is no longer needed
+            handles.remove(handleId);
+        }
+        return result;
+    }
+
+    private String render(List<JsonNode> rows) {
+        try {
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render result page", e);
+        }
+    }
+
+    private void purgeExpired() {
+        long now = now();
+        handles.entrySet().removeIf(e -> e.getValue().expiresAt < now);
+
+        // Still over budget: drop the handles closest to expiry
+        while (handles.size() >= maxHandles) {
+            handles.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                .ifPresent(oldest -> {
+                    log.debug("Evicting result handle {} (cursor store full)", oldest.getKey());
+                    handles.remove(oldest.getKey());
+                });
+        }
+    }
+
+    private String newHandleId() {
+        byte[] bytes = new byte[12];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static int clampPageSize(int pageSize, int fallback) {
+        if (pageSize <= 0) {
+            return fallback;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static class ResultHandle {
+        private final String skillName;
+        private final List<JsonNode> rows;
+        private final int pageSize;
+        private volatile long expiresAt;
+
+        ResultHandle(String skillName, List<JsonNode> rows, int pageSize, long expiresAt) {
+            this.skillName = skillName;
+            this.rows = rows;
+            this.pageSize = pageSize;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Continuation token: handle id plus row offset, base64url-encoded so clients
+     * treat it as opaque.
+     */
+    private static class Cursor {
+        private final String handleId;
+        private final int offset;
+
+        Cursor(String handleId, int offset) {
+            this.handleId = handleId;
+            this.offset = offset;
+        }
+
+        String encode() {
+            String raw = handleId + ":" + offset;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            if (token == null || token.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+                int sep = raw.indexOf(':');
+                if (sep <= 0) {
+                    return null;
+                }
+                int offset = Integer.parseInt(raw.substring(sep + 1));
+                return offset < 0 ? null : new Cursor(raw.substring(0, sep), offset);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
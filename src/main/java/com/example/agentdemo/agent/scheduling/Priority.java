@@ -0,0 +1,31 @@
+package com.example.agentdemo.agent.scheduling;
+
+import java.util.Locale;
+
+/**
+ * Scheduling class of a goal. Interactive goals come from people waiting on an answer;
+ * bulk goals come from automation and background jobs.
+ */
+public enum Priority {
+    INTERACTIVE,
+    BULK;
+
+    public static final String HEADER = "X-Priority";
+
+    /**
+     * Parse a header or request value, falling back to {@code defaultPriority} when absent
+     *
+     * @throws IllegalArgumentException for unknown values
+     */
+    public static Priority parse(String value, Priority defaultPriority) {
+        if (value == null || value.isBlank()) {
+            return defaultPriority;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "interactive", "high" -> INTERACTIVE;
+            case "bulk", "batch", "low" -> BULK;
+            default -> throw new IllegalArgumentException(
+                    "Unknown priority '" + value + "' (expected interactive or bulk)");
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.agentdemo.agent.scheduling;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs goals on a fixed set of workers, sharing them between {@link Priority} classes by
+ * weighted fair queuing.
+ *
+ * Each class has its own queue. A task is stamped with a virtual start time, the later of
+ * the scheduler's virtual clock and the previous task of its class, and a finish time of
+ * start plus 1/weight; idle workers take the queued head with the earliest finish time.
+ * With both classes backlogged, interactive goals get
+ * {@code weight.interactive / (weight.interactive + weight.bulk)} of dispatches, and
+ * either class may use all capacity the other leaves idle. Bulk goals may never occupy
+ * the last {@code reserved-interactive} workers, so a burst of long bulk goals cannot
+ * make an interactive one wait for a slot to free up.
+ *
+ * Queue depth, running tasks, dispatches and time spent queued are published per class as
+ * {@code agent.scheduler.*} meters tagged with {@code priority}.
+ */
+@Component
+public class PriorityScheduler implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PriorityScheduler.class);
+
+    private final Lane[] lanes = new Lane[Priority.values().length];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private final Thread[] workers;
+    private double virtualTime;
+    private volatile boolean shutdown;
+
+    @Autowired
+    public PriorityScheduler(@Value("${agent.scheduler.workers:16}") int workers,
+                             @Value("${agent.scheduler.reserved-interactive:4}") int reservedInteractive,
+                             @Value("${agent.scheduler.weight.interactive:9}") double interactiveWeight,
+                             @Value("${agent.scheduler.weight.bulk:1}") double bulkWeight,
+                             @Value("${agent.scheduler.queue-capacity:1024}") int queueCapacity) {
+        int threads = Math.max(1, workers);
+        int reserved = Math.min(Math.max(0, reservedInteractive), threads - 1);
+        lanes[Priority.INTERACTIVE.ordinal()] = new Lane(interactiveWeight, threads, queueCapacity);
+        lanes[Priority.BULK.ordinal()] = new Lane(bulkWeight, threads - reserved, queueCapacity);
+
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(this::work, "agent-worker-" + (i + 1));
+            thread.setDaemon(true);
+            this.workers[i] = thread;
+            thread.start();
+        }
+    }
+
+    public PriorityScheduler(int workers, int reservedInteractive) {
+        this(workers, reservedInteractive, 9, 1, 1024);
+    }
+
+    /**
+     * Queue a task in its priority class
+     *
+     * @throws RejectedExecutionException if that class's queue is full or the scheduler is stopped
+     */
+    public <T> FutureTask<T> submit(Priority priority, Callable<T> task) {
+        return enqueue(priority, new FutureTask<>(task));
+    }
+
+    /**
+     * Queue a task and return a future that completes when it does, for callers that
+     * compose the result instead of waiting. Cancelling the returned future cancels the
+     * task: a queued task is skipped when its turn comes, a running one is interrupted.
+     *
+     * @throws RejectedExecutionException if the class's queue is full or the scheduler is shut down
+     */
+    public <T> CompletableFuture<T> submitAsync(Priority priority, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException | CancellationException e) {
+                    result.cancel(false);
+                }
+            }
+        };
+        enqueue(priority, future);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <T> FutureTask<T> enqueue(Priority priority, FutureTask<T> future) {
+        lock.lock();
+        try {
+            Lane lane = lanes[priority.ordinal()];
+            if (shutdown || lane.queue.size() >= lane.capacity) {
+                throw new RejectedExecutionException(shutdown
+                        ? "Scheduler is shut down"
+                        : "Too many " + priority.name().toLowerCase() + " goals queued");
+            }
+            double start = Math.max(virtualTime, lane.lastFinish);
+            lane.lastFinish = start + 1 / lane.weight;
+            lane.queue.addLast(new Entry(future, start, lane.lastFinish, System.nanoTime()));
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Run a task in its priority class and wait for the result. Unchecked exceptions
+     * thrown by the task are rethrown as they are.
+     */
+    public <T> T call(Priority priority, Callable<T> task) {
+        FutureTask<T> future = submit(priority, task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for goal");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int queued(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tasks of the class started so far
+     */
+    public long dispatched(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].dispatched;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total nanoseconds tasks of the class spent queued before starting
+     */
+    public long queueNanos(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].queueNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("agent.scheduler.queued", this, scheduler -> scheduler.queued(priority))
+                    .description("Goals waiting for a worker")
+                    .tag("priority", tag)
+                    .register(registry);
+            Gauge.builder("agent.scheduler.running", this, scheduler -> scheduler.running(priority))
+                    .description("Goals running on a worker")
+                    .tag("priority", tag)
+                    .register(registry);
+            FunctionCounter.builder("agent.scheduler.dispatched", this, scheduler -> scheduler.dispatched(priority))
+                    .description("Goals started")
+                    .tag("priority", tag)
+                    .register(registry);
+            FunctionCounter.builder("agent.scheduler.queue.time", this,
+                            scheduler -> scheduler.queueNanos(priority) / 1e9)
+                    .description("Total time goals spent queued")
+                    .baseUnit("seconds")
+                    .tag("priority", tag)
+                    .register(registry);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Lane lane;
+            Entry entry;
+            lock.lock();
+            try {
+                while ((lane = next()) == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    ready.awaitUninterruptibly();
+                }
+                entry = lane.queue.removeFirst();
+                virtualTime = entry.start;
+                lane.running++;
+                lane.dispatched++;
+                lane.queueNanos += System.nanoTime() - entry.queuedAt;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                entry.task.run();
+            } catch (RuntimeException e) {
+                log.warn("Goal task failed outside its future", e);
+            } finally {
+                // clear an interrupt from a cancelled task before taking the next one
+                Thread.interrupted();
+                lock.lock();
+                try {
+                    lane.running--;
+                    ready.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * The eligible lane whose head has the earliest virtual finish time, or null
+     */
+    private Lane next() {
+        Lane best = null;
+        for (Lane lane : lanes) {
+            if (lane.queue.isEmpty() || lane.running >= lane.maxRunning) {
+                continue;
+            }
+            if (best == null || lane.queue.peekFirst().finish < best.queue.peekFirst().finish) {
+                best = lane;
+            }
+        }
+        return best;
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Lane lane : lanes) {
+                lane.queue.forEach(entry -> entry.task.cancel(false));
+                lane.queue.clear();
+            }
+            ready.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private static final class Lane {
+        private final double weight;
+        private final int maxRunning;
+        private final int capacity;
+        private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+        private double lastFinish;
+        private int running;
+        private long dispatched;
+        private long queueNanos;
+
+        Lane(double weight, int maxRunning, int capacity) {
+            this.weight = Math.max(weight, 0.01);
+            this.maxRunning = Math.max(1, maxRunning);
+            this.capacity = Math.max(1, capacity);
+        }
+    }
+
+    private record Entry(FutureTask<?> task, double start, double finish, long queuedAt) {
+    }
+}
@@ -1,15 +1,61 @@
 package com.example.agentdemo.agent.skills;
 
 import com.example.agentdemo.agent.Skill;
+import com.example.agentdemo.calc.CompiledExpression;
+import com.example.agentdemo.calc.ExpressionEngine;
+import com.example.agentdemo.calc.ExpressionException;
 import com.example.agentdemo.model.ActionResult;
+import com.example.agentdemo.model.PhaseTimings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Evaluates arithmetic expressions with precedence, parentheses, functions and variables.
+ * Examples:
+ * - "calculate: (2 + 3) * 4"
+ * - "compute: sqrt(x^2 + y^2) where x=3, y=4"
+ * - "calculate: c * 9 / 5 + 32 where c=[-40, 0, 37, 100]"  (batch over a list of values)
+ * - "calculate exact: 0.1 + 0.2"  (decimal arithmetic, see calculator.exact.* properties)
+ *
+ * Expressions are compiled once and cached by source text (see {@link ExpressionEngine}).
+ * Exact results whose digits would run far from the decimal point are written in
+ * scientific notation rather than padded with zeros.
+ */
 @Component
 public class CalculatorSkill implements Skill {
     private static final Pattern SIMPLE_EXPR = Pattern.compile("([-+]?[0-9]*\\.?[0-9]+)\\s*([+\\-*/])\\s*([-+]?[0-9]*\\.?[0-9]+)");
+    private static final Pattern LEADING_WORDS = Pattern.compile("^(?i)(calculate|compute|sum|what is|what's)\\s+");
+    private static final Pattern BINDINGS_SEPARATOR = Pattern.compile("(?i)\\s+(?:where|with)\\s+");
+    private static final Pattern BINDING = Pattern.compile("([A-Za-z_]\\w*)\\s*=\\s*([-+]?[0-9]*\\.?[0-9]+(?:[eE][-+]?[0-9]+)?)");
+    private static final Pattern EXACT_WORD = Pattern.compile("(?i)\\bexact(?:ly)?\\b\\s*");
+    private static final Pattern ARRAY_BINDING = Pattern.compile("([A-Za-z_]\\w*)\\s*=\\s*\\[([^\\]]*)\\]");
+    /** Exact results with more zeros than this before or after their digits use scientific notation */
+    private static final int MAX_PLAIN_SCALE = 100;
+
+    private final ExpressionEngine engine;
+    private final boolean exactByDefault;
+    private final MathContext mathContext;
+
+    public CalculatorSkill(@Value("${calculator.cache-size:1024}") int cacheSize,
+                           @Value("${calculator.exact.enabled:false}") boolean exactByDefault,
+                           @Value("${calculator.exact.precision:34}") int precision,
+                           @Value("${calculator.exact.rounding:HALF_EVEN}") RoundingMode rounding) {
+        this.engine = new ExpressionEngine(cacheSize);
+        this.exactByDefault = exactByDefault;
+        if (precision <= 0) {
+            throw new IllegalArgumentException("calculator.exact.precision must be at least 1, got " + precision);
+        }
+        this.mathContext = new MathContext(precision, rounding);
+    }
 
     @Override
     public boolean canHandle(String goal) {
@@ -24,30 +70,112 @@ public class CalculatorSkill implements Skill {
     @Override
     public ActionResult execute(String goal) {
         String expr = goal;
+        boolean exact = exactByDefault;
         // try to extract an expression like 'calculate: 2+3' or '2 + 3'
         if (goal.contains(":")) {
             expr = goal.substring(goal.indexOf(":") + 1).trim();
+            exact |= EXACT_WORD.matcher(goal.substring(0, goal.indexOf(":"))).find();
+        } else {
+            expr = LEADING_WORDS.matcher(goal.trim()).replaceFirst("");
+            Matcher e = EXACT_WORD.matcher(expr);
+            if (e.lookingAt()) {
+                exact = true;
+                expr = expr.substring(e.end());
+            }
         }
+        expr = expr.replaceAll("[?=]+\\s*$", "").trim();
 
-        Matcher m = SIMPLE_EXPR.matcher(expr);
-        if (m.find()) {
-            try {
-                double a = Double.parseDouble(m.group(1));
-                String op = m.group(2);
-                double b = Double.parseDouble(m.group(3));
-                double res = 0;
-                switch (op) {
-                    case "+": res = a + b; break;
-                    case "-": res = a - b; break;
-                    case "*": res = a * b; break;
-                    case "/": res = b == 0 ? Double.NaN : a / b; break;
+        try {
+            // optional variable bindings: 'x * 2 where x=5, y=3' or 'x * 2 where x=[1, 2, 3]'
+            Map<String, String> bindings = new HashMap<>();
+            Map<String, double[]> columns = new HashMap<>();
+            String[] parts = BINDINGS_SEPARATOR.split(expr, 2);
+            if (parts.length == 2) {
+                expr = parts[0].trim();
+                String rest = parts[1];
+                Matcher a = ARRAY_BINDING.matcher(rest);
+                while (a.find()) {
+                    columns.put(a.group(1), parseColumn(a.group(2)));
+                }
+                Matcher b = BINDING.matcher(ARRAY_BINDING.matcher(rest).replaceAll(""));
+                while (b.find()) {
+                    bindings.put(b.group(1), b.group(2));
                 }
-                return new ActionResult(true, "CalculatorSkill", String.valueOf(res));
-            } catch (Exception e) {
-                return new ActionResult(false, "CalculatorSkill", "Error evaluating expression: " + e.getMessage());
             }
+
+            CompiledExpression compiled = compile(expr);
+            if (!columns.isEmpty()) {
+                // batch evaluation always runs on the double path
+                bindings.forEach((name, value) -> columns.put(name, new double[] {Double.parseDouble(value)}));
+                double[] res = compiled.evaluateBatch(columns);
+                return new ActionResult(true, "CalculatorSkill", Arrays.toString(res));
+            }
+            if (exact) {
+                Map<String, BigDecimal> decimals = new HashMap<>();
+                bindings.forEach((name, value) -> decimals.put(name, new BigDecimal(value)));
+                BigDecimal res = compiled.evaluateExact(decimals, mathContext);
+                return new ActionResult(true, "CalculatorSkill", format(res));
+            }
+            Map<String, Double> doubles = new HashMap<>();
+            bindings.forEach((name, value) -> doubles.put(name, Double.parseDouble(value)));
+            double res = compiled.evaluate(doubles);
+            return new ActionResult(true, "CalculatorSkill", String.valueOf(res));
+        } catch (ExpressionException | ArithmeticException e) {
+            // ArithmeticException: a decimal result or intermediate overflowed BigDecimal's exponent range
+            return new ActionResult(false, "CalculatorSkill", "Error evaluating expression: " + e.getMessage());
         }
+    }
+
+    private static String format(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return Math.abs(stripped.scale()) <= MAX_PLAIN_SCALE ? stripped.toPlainString() : stripped.toString();
+    }
+
+    /**
+     * Evaluate one expression over columns of values, e.g. for bulk unit conversions.
+     * Each column holds one variable's values; single-element columns are broadcast.
+     */
+    public double[] evaluateBatch(String expression, Map<String, double[]> columns) {
+        return engine.compile(expression).evaluateBatch(columns);
+    }
+
+    private double[] parseColumn(String values) {
+        String[] items = values.split("[,;\\s]+");
+        return Arrays.stream(items)
+            .filter(item -> !item.isEmpty())
+            .mapToDouble(item -> {
+                try {
+                    return Double.parseDouble(item);
+                } catch (NumberFormatException e) {
+                    throw new ExpressionException("Malformed number '" + item + "' in value list");
+                }
+            })
+            .toArray();
+    }
+
+    /**
+     * Compile the expression; if the text around it is not a clean expression,
+     * fall back to the first simple 'a op b' found in it.
+     */
+    private CompiledExpression compile(String expr) {
+        try {
+            return compileNoting(expr);
+        } catch (ExpressionException e) {
+            Matcher m = SIMPLE_EXPR.matcher(expr);
+            if (m.find()) {
+                return compileNoting(m.group());
+            }
+            throw e;
+        }
+    }
 
-        return new ActionResult(false, "CalculatorSkill", "No simple expression found in: " + goal);
+    /**
+     * Compile, noting in the goal's timings whether the compilation was cached
+     */
+    private CompiledExpression compileNoting(String expr) {
+        boolean cached = engine.isCached(expr);
+        CompiledExpression compiled = engine.compile(expr);
+        PhaseTimings.cache("expression", cached);
+        return compiled;
     }
 }
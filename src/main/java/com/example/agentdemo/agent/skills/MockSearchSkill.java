@@ -2,10 +2,35 @@ package com.example.agentdemo.agent.skills;
 
 import com.example.agentdemo.agent.Skill;
 import com.example.agentdemo.model.ActionResult;
+import com.example.agentdemo.search.SearchHit;
+import com.example.agentdemo.search.SearchMode;
+import com.example.agentdemo.search.SearchService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Searches the local runbook / incident-note index (see {@link SearchService}).
+ * Without a configured {@code search.index.dir} it falls back to canned demo results.
+ *
+ * A mode word before the colon picks the ranking ({@code "semantic search: disk filling up"},
+ * {@code "hybrid search: ..."}, {@code "keyword search: ..."}); otherwise
+ * {@code search.default-mode} applies.
+ */
 @Component
 public class MockSearchSkill implements Skill {
+
+    private final SearchService searchService;
+    private final int maxResults;
+
+    public MockSearchSkill(SearchService searchService,
+                           @Value("${search.max-results:10}") int maxResults) {
+        this.searchService = searchService;
+        this.maxResults = maxResults;
+    }
+
     @Override
     public boolean canHandle(String goal) {
         if (goal == null) return false;
@@ -15,12 +40,18 @@ public class MockSearchSkill implements Skill {
 
     @Override
     public ActionResult execute(String goal) {
-        // Return a mocked search result for demo purposes
         String query = goal;
+        SearchMode mode = searchService.defaultMode();
         if (goal.contains(":")) {
             query = goal.substring(goal.indexOf(":") + 1).trim();
+            mode = modeOf(goal.substring(0, goal.indexOf(":")), mode);
+        }
+
+        if (searchService.isAvailable()) {
+            return search(query, mode);
         }
 
+        // Return a mocked search result for demo purposes
         String output = "Mock search results for '" + query + "':\n" +
                 "1) Example result A - short description\n" +
                 "2) Example result B - short description\n" +
@@ -28,4 +59,46 @@ public class MockSearchSkill implements Skill {
 
         return new ActionResult(true, "MockSearchSkill", output);
     }
+
+    private static SearchMode modeOf(String prefix, SearchMode fallback) {
+        for (String word : prefix.trim().split("\\s+")) {
+            SearchMode mode = SearchMode.parse(word);
+            if (mode != null) {
+                return mode;
+            }
+        }
+        return fallback;
+    }
+
+    private ActionResult search(String query, SearchMode mode) {
+        if (!searchService.isSemanticAvailable()) {
+            mode = SearchMode.KEYWORD;
+        }
+        long start = System.nanoTime();
+        List<SearchHit> hits = searchService.search(query, maxResults, mode);
+        double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        StringBuilder output = new StringBuilder();
+        switch (mode) {
+            case SEMANTIC -> output.append("Semantic search");
+            case HYBRID -> output.append("Hybrid search");
+            default -> output.append("Search");
+        }
+        output.append(" results for '").append(query).append("' (")
+              .append(hits.size()).append(hits.size() == 1 ? " match, " : " matches, ")
+              .append(String.format(Locale.ROOT, "%.3f ms", elapsedMs)).append("):");
+        if (hits.isEmpty()) {
+            output.append("\nNo documents matched.");
+        }
+        int rank = 1;
+        for (SearchHit hit : hits) {
+            output.append('\n').append(rank++).append(") ").append(hit.getTitle())
+                  .append(" (").append(hit.getPath()).append(") ")
+                  .append(String.format(Locale.ROOT, "%.3f", hit.getScore()));
+            if (!hit.getSnippet().isEmpty()) {
+                output.append("\n   ").append(hit.getSnippet());
+            }
+        }
+        return new ActionResult(true, "MockSearchSkill", output.toString());
+    }
 }
@@ -1,22 +1,32 @@
 package com.example.agentdemo.agent.skills;
 
-import com.example.agentdemo.agent.Skill;
+import com.example.agentdemo.agent.ReactiveSkill;
+import com.example.agentdemo.agent.paging.ResultCursorStore;
 import com.example.agentdemo.mcp.client.MCPClientService;
 import com.example.agentdemo.mcp.model.MCPContent;
 import com.example.agentdemo.mcp.model.MCPToolCall;
 import com.example.agentdemo.mcp.model.MCPToolResult;
 import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -25,16 +35,41 @@ import java.util.stream.Collectors;
  * - "osquery: list running processes"
  * - "osquery: show system info"
  * - "osquery: get network connections"
+ * - "osquery: host overview" (system info, top processes, listening ports and
+ *   users fetched in parallel and merged into one response)
+ *
+ * Row-oriented results are paged: the first page is returned directly and the
+ * remaining rows stay behind a short-lived cursor (see {@link ResultCursorStore}).
+ * Queries are asynchronous MCP calls, so the reactive path waits on no thread.
  */
 @Component
-public class OsqueryMCPSkill implements Skill {
+public class OsqueryMCPSkill implements ReactiveSkill {
     
     private static final Logger log = LoggerFactory.getLogger(OsqueryMCPSkill.class);
     private static final String SERVER_NAME = "osquery";
     
+    // Sections of the composite host overview, in response order
+    private static final Map<String, String> OVERVIEW_QUERIES = new LinkedHashMap<>();
+    static {
+        OVERVIEW_QUERIES.put("system_info",
+            "SELECT hostname, cpu_brand, physical_memory, hardware_vendor, hardware_model FROM system_info");
+        OVERVIEW_QUERIES.put("top_processes",
+            "SELECT pid, name, resident_size, user_time, system_time FROM processes ORDER BY resident_size DESC LIMIT 10");
+        OVERVIEW_QUERIES.put("listening_ports",
+            "SELECT p.pid, p.name, l.address, l.port, l.protocol FROM listening_ports l JOIN processes p USING (pid)");
+        OVERVIEW_QUERIES.put("users",
+            "SELECT uid, username, shell FROM users");
+    }
+    
     @Autowired
     private MCPClientService mcpClient;
     
+    @Autowired
+    private ResultCursorStore cursorStore;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @Value("${mcp.osquery.enabled:false}")
     private boolean enabled;
     
@@ -44,6 +79,18 @@ public class OsqueryMCPSkill implements Skill {
     @Value("${mcp.osquery.args:-y @modelcontextprotocol/server-osquery}")
     private String args;
     
+    @Value("${mcp.osquery.page-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${mcp.osquery.pool-size:4}")
+    private int poolSize;
+    
+    @Value("${mcp.osquery.overview-timeout-ms:10000}")
+    private long overviewTimeoutMs;
+    
+    @Value("${mcp.osquery.restart-on-exit:false}")
+    private boolean restartOnExit;
+    
     private boolean connected = false;
     
     @PostConstruct
@@ -56,7 +103,7 @@ public class OsqueryMCPSkill implements Skill {
         try {
             log.info("Connecting to osquery MCP server...");
             List<String> argsList = args != null ? List.of(args.split("\\s+")) : List.of();
-            mcpClient.connectServer(SERVER_NAME, command, argsList);
+            mcpClient.connectServer(SERVER_NAME, command, argsList, poolSize, restartOnExit);
             connected = true;
             
             // List available tools
@@ -95,44 +142,111 @@ public class OsqueryMCPSkill implements Skill {
                g.contains("list users") ||
                g.contains("system query") ||
                g.contains("hostname") ||
+               g.contains("host overview") ||
                g.contains("what is the") && (g.contains("system") || g.contains("computer"));
     }
     
     @Override
     public ActionResult execute(String goal) {
+        return execute(goal, 0);
+    }
+    
+    @Override
+    public Mono<ActionResult> executeReactive(String goal, int pageSize) {
+        return Mono.fromFuture(() -> executeAsync(goal, pageSize));
+    }
+    
+    private CompletableFuture<ActionResult> executeAsync(String goal, int pageSize) {
         if (!connected) {
-            return new ActionResult(false, "OsqueryMCPSkill", 
-                "Not connected to osquery MCP server");
+            return CompletableFuture.completedFuture(new ActionResult(false, "OsqueryMCPSkill", 
+                "Not connected to osquery MCP server"));
         }
         
-        try {
-            // Extract the query from the goal
-            String query = extractQuery(goal);
-            
+        // Extract the query from the goal
+        String query = extractQuery(goal);
+        
+        CompletableFuture<ActionResult> result;
+        if (isOverview(query)) {
+            result = executeOverview();
+        } else {
             // Determine which osquery tool to use based on the query
-            String toolName = determineToolName(query);
-            Map<String, Object> arguments = buildArguments(query);
-            
-            // Call the MCP tool
             MCPToolCall toolCall = MCPToolCall.builder()
-                .name(toolName)
-                .arguments(arguments)
+                .name(determineToolName(query))
+                .arguments(buildArguments(query))
                 .build();
             
-            MCPToolResult result = mcpClient.callTool(SERVER_NAME, toolCall);
-            
-            if (result.isError()) {
-                return new ActionResult(false, "OsqueryMCPSkill", 
-                    extractTextFromContent(result.getContent()));
-            }
-            
-            String output = extractTextFromContent(result.getContent());
-            return new ActionResult(true, "OsqueryMCPSkill", output);
-            
-        } catch (Exception e) {
-            log.error("Error executing osquery", e);
+            // Call the MCP tool
+            result = mcpClient.callToolAsync(SERVER_NAME, toolCall)
+                .thenApply(toolResult -> toActionResult(toolResult, pageSize));
+        }
+        return result.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Error executing osquery", cause);
+            return new ActionResult(false, "OsqueryMCPSkill", "Error: " + cause.getMessage());
+        });
+    }
+    
+    private ActionResult toActionResult(MCPToolResult result, int pageSize) {
+        if (result.isError()) {
             return new ActionResult(false, "OsqueryMCPSkill", 
-                "Error: " + e.getMessage());
+                extractTextFromContent(result.getContent()));
+        }
+        
+        String output = extractTextFromContent(result.getContent());
+        List<JsonNode> rows = parseRows(output);
+        if (rows == null) {
+            return new ActionResult(true, "OsqueryMCPSkill", output);
+        }
+        return cursorStore.firstPage("OsqueryMCPSkill", rows,
+            pageSize > 0 ? pageSize : defaultPageSize);
+    }
+    
+    private boolean isOverview(String query) {
+        String q = query.toLowerCase();
+        return q.contains("host overview") || q.equals("overview") || q.equals("triage");
+    }
+    
+    /**
+     * Fan the overview queries out across the MCP connection pool and merge the
+     * results, so the response takes as long as the slowest query rather than the sum.
+     */
+    private CompletableFuture<ActionResult> executeOverview() {
+        long start = System.nanoTime();
+        
+        Map<String, MCPToolCall> calls = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : OVERVIEW_QUERIES.entrySet()) {
+            calls.put(entry.getKey(), MCPToolCall.builder()
+                .name(determineToolName(entry.getValue()))
+                .arguments(Map.of("sql", entry.getValue()))
+                .build());
+        }
+        
+        return mcpClient.callToolsInParallelAsync(SERVER_NAME, calls, Duration.ofMillis(overviewTimeoutMs))
+            .thenApply(results -> mergeOverview(results, start));
+    }
+    
+    private ActionResult mergeOverview(Map<String, MCPToolResult> results, long start) {
+        Map<String, Object> overview = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (Map.Entry<String, MCPToolResult> entry : results.entrySet()) {
+            String text = extractTextFromContent(entry.getValue().getContent());
+            List<JsonNode> rows = entry.getValue().isError() ? null : parseRows(text);
+            if (rows == null) {
+                errors.put(entry.getKey(), text);
+            } else {
+                overview.put(entry.getKey(), rows);
+            }
+        }
+        if (!errors.isEmpty()) {
+            overview.put("errors", errors);
+        }
+        overview.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        
+        try {
+            String output = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(overview);
+            return new ActionResult(errors.size() < results.size(), "OsqueryMCPSkill", output);
+        } catch (JsonProcessingException e) {
+            throw new CompletionException(e);
         }
     }
     
@@ -155,13 +269,13 @@ public class OsqueryMCPSkill implements Skill {
         
         // Build SQL query based on the request
         if (q.contains("process")) {
-            args.put("sql", "SELECT pid, name, path, cmdline FROM processes LIMIT 20");
+            args.put("sql", "SELECT pid, name, path, cmdline FROM processes");
         } else if (q.contains("system info") || q.contains("system_info")) {
             args.put("sql", "SELECT * FROM system_info");
         } else if (q.contains("hostname")) {
             args.put("sql", "SELECT hostname FROM system_info");
         } else if (q.contains("network") || q.contains("connection")) {
-            args.put("sql", "SELECT pid, local_address, local_port, remote_address, remote_port, state FROM process_open_sockets LIMIT 20");
+            args.put("sql", "SELECT pid, local_address, local_port, remote_address, remote_port, state FROM process_open_sockets");
         } else if (q.contains("user")) {
             args.put("sql", "SELECT uid, username, shell FROM users");
         } else {
@@ -182,4 +296,21 @@ public class OsqueryMCPSkill implements Skill {
             .map(MCPContent::getText)
             .collect(Collectors.joining("\n"));
     }
+    
+    /**
+     * Parse the osquery JSON output into rows, or null if it is not a JSON array
+     */
+    private List<JsonNode> parseRows(String output) {
+        try {
+            JsonNode node = objectMapper.readTree(output);
+            if (node == null || !node.isArray()) {
+                return null;
+            }
+            List<JsonNode> rows = new ArrayList<>(node.size());
+            node.forEach(rows::add);
+            return rows;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
 }
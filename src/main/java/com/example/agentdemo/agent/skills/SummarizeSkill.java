@@ -2,10 +2,46 @@ package com.example.agentdemo.agent.skills;
 
 import com.example.agentdemo.agent.Skill;
 import com.example.agentdemo.model.ActionResult;
+import com.example.agentdemo.summarize.ExtractiveSummarizer;
+import com.example.agentdemo.summarize.MappedDocument;
+import com.example.agentdemo.summarize.ParallelSummarizer;
+import com.example.agentdemo.summarize.Summary;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Extractive summarization: picks the highest-scoring sentences (TF-IDF weights over
+ * the document) and returns them in their original order.
+ * Inputs above {@code summarize.parallel-threshold} characters are scored with fork/join.
+ *
+ * Files are read through memory-mapped regions rather than loaded into a String:
+ * uploads arrive via {@code POST /api/agent/summarize}, and local files under
+ * {@code summarize.files.base-dir} can be referenced as "summarize file: logs/app.log".
+ */
 @Component
 public class SummarizeSkill implements Skill {
+
+    private final ExtractiveSummarizer summarizer;
+    private final ParallelSummarizer parallelSummarizer;
+    private final Path filesBaseDir;
+
+    public SummarizeSkill(@Value("${summarize.max-sentences:3}") int maxSentences,
+                          @Value("${summarize.ratio:0.2}") double ratio,
+                          @Value("${summarize.parallel-threshold:1048576}") long parallelThreshold,
+                          @Value("${summarize.files.base-dir:}") String filesBaseDir) {
+        this.summarizer = new ExtractiveSummarizer(maxSentences, ratio);
+        this.parallelSummarizer = new ParallelSummarizer(summarizer, ForkJoinPool.commonPool(), parallelThreshold);
+        this.filesBaseDir = filesBaseDir.isBlank() ? null : Path.of(filesBaseDir).toAbsolutePath().normalize();
+    }
+
     @Override
     public boolean canHandle(String goal) {
         if (goal == null) return false;
@@ -21,23 +57,64 @@ public class SummarizeSkill implements Skill {
         // allow format 'summarize: TEXT'
         if (goal.contains(":")) {
             payload = goal.substring(goal.indexOf(":") + 1).trim();
+            if (goal.substring(0, goal.indexOf(":")).toLowerCase().endsWith(" file")) {
+                return summarizeLocalFile(payload);
+            }
         }
 
         if (payload.isEmpty()) {
             return new ActionResult(false, "SummarizeSkill", "No text to summarize");
         }
 
-        // naive "summary": return first sentence or first 120 chars
-        int period = payload.indexOf('.');
-        String summary;
-        if (period > 0 && period < 200) {
-            summary = payload.substring(0, period + 1).trim();
-        } else if (payload.length() > 120) {
-            summary = payload.substring(0, 120).trim() + "...";
-        } else {
-            summary = payload;
+        return toResult(parallelSummarizer.summarize(payload));
+    }
+
+    /**
+     * Summarize a document read incrementally from {@code reader}; the document is never held in memory
+     */
+    public ActionResult summarize(Reader reader) {
+        return toResult(summarizer.summarize(reader));
+    }
+
+    /**
+     * Summarize a file through memory-mapped I/O
+     */
+    public ActionResult summarizeFile(Path path) {
+        try (MappedDocument document = MappedDocument.open(path)) {
+            return toResult(parallelSummarizer.summarize(document));
+        } catch (IOException e) {
+            return new ActionResult(false, "SummarizeSkill", "Error reading file: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            // mapping or decoding a region failed while summarizing
+            return new ActionResult(false, "SummarizeSkill", "Error reading file: " + e.getCause().getMessage());
         }
+    }
+
+    private ActionResult summarizeLocalFile(String reference) {
+        if (filesBaseDir == null) {
+            return new ActionResult(false, "SummarizeSkill",
+                "File summarization is disabled (set summarize.files.base-dir)");
+        }
+        Path path;
+        try {
+            // only files inside the configured directory may be read; real paths so symlinks cannot escape it
+            path = filesBaseDir.resolve(reference).toRealPath();
+            if (!path.startsWith(filesBaseDir.toRealPath()) || !Files.isRegularFile(path)) {
+                path = null;
+            }
+        } catch (IOException | InvalidPathException e) {
+            path = null;
+        }
+        if (path == null) {
+            return new ActionResult(false, "SummarizeSkill", "File not found: " + reference);
+        }
+        return summarizeFile(path);
+    }
 
-        return new ActionResult(true, "SummarizeSkill", summary);
+    private ActionResult toResult(Summary summary) {
+        if (summary.isEmpty()) {
+            return new ActionResult(false, "SummarizeSkill", "No text to summarize");
+        }
+        return new ActionResult(true, "SummarizeSkill", summary.getText());
     }
 }
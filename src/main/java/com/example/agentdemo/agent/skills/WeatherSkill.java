@@ -1,15 +1,22 @@
 package com.example.agentdemo.agent.skills;
 
-import com.example.agentdemo.agent.Skill;
+import com.example.agentdemo.agent.ReactiveSkill;
+import com.example.agentdemo.geo.GazetteerService;
+import com.example.agentdemo.geo.Place;
+import com.example.agentdemo.geo.PlaceMatch;
 import com.example.agentdemo.model.ActionResult;
+import com.example.agentdemo.weather.WeatherReport;
+import com.example.agentdemo.weather.WeatherService;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Example skill that provides mock weather information.
+ * Example skill that reports the current weather.
  * Demonstrates how to create a new skill with:
  * - Pattern matching in canHandle()
  * - Simple business logic
@@ -19,25 +26,25 @@ import java.util.Random;
  * - "weather in Seattle"
  * - "what's the weather like in Paris"
  * - "get weather for Tokyo"
+ * - "forecast for Paris, Texas"
+ *
+ * Places are resolved with the {@link GazetteerService} and reports come from the
+ * {@link WeatherService} (mock data unless an HTTP provider is configured). The
+ * reactive path waits for uncached reports without holding a thread.
  */
 @Component
-public class WeatherSkill implements Skill {
+public class WeatherSkill implements ReactiveSkill {
     
-    private static final Random random = new Random();
+    private static final Pattern UNKNOWN_PLACE =
+        Pattern.compile("\\b(?:in|for|at|near)\\s+(\\p{Lu}[\\p{L}'-]*(?:\\s+\\p{Lu}[\\p{L}'-]*)*)");
+    private static final DateTimeFormatter LOCAL_TIME = DateTimeFormatter.ofPattern("HH:mm");
     
-    // Mock weather data
-    private static final String[] CONDITIONS = {
-        "Sunny", "Cloudy", "Partly Cloudy", "Rainy", "Stormy", "Snowy", "Foggy"
-    };
+    private final GazetteerService gazetteer;
+    private final WeatherService weather;
     
-    private static final Map<String, String> CITY_TIMEZONES = new HashMap<>();
-    static {
-        CITY_TIMEZONES.put("seattle", "PST");
-        CITY_TIMEZONES.put("new york", "EST");
-        CITY_TIMEZONES.put("london", "GMT");
-        CITY_TIMEZONES.put("paris", "CET");
-        CITY_TIMEZONES.put("tokyo", "JST");
-        CITY_TIMEZONES.put("sydney", "AEST");
+    public WeatherSkill(GazetteerService gazetteer, WeatherService weather) {
+        this.gazetteer = gazetteer;
+        this.weather = weather;
     }
     
     @Override
@@ -51,90 +58,64 @@ public class WeatherSkill implements Skill {
     
     @Override
     public ActionResult execute(String goal) {
-        try {
-            // Extract city name from the goal
-            String city = extractCity(goal);
-            
-            if (city == null || city.isEmpty()) {
-                return new ActionResult(false, "WeatherSkill", 
-                    "Please specify a city. Example: 'weather in Seattle'");
-            }
-            
-            // Generate mock weather data
-            String weather = generateMockWeather(city);
-            
-            return new ActionResult(true, "WeatherSkill", weather);
-            
-        } catch (Exception e) {
-            return new ActionResult(false, "WeatherSkill", 
-                "Error getting weather: " + e.getMessage());
-        }
+        return execute(goal, 0);
     }
     
-    /**
-     * Extract city name from goal text
-     */
-    private String extractCity(String goal) {
-        String lower = goal.toLowerCase();
-        
-        // Try common patterns
-        String[] patterns = {"in ", "for ", "at "};
-        for (String pattern : patterns) {
-            int idx = lower.indexOf(pattern);
-            if (idx != -1) {
-                String rest = goal.substring(idx + pattern.length()).trim();
-                // Take first word/phrase (stop at punctuation)
-                return rest.split("[,?.!]")[0].trim();
-            }
-        }
-        
-        // If no pattern found, try to find a known city
-        for (String city : CITY_TIMEZONES.keySet()) {
-            if (lower.contains(city)) {
-                return capitalize(city);
-            }
-        }
-        
-        return null;
+    @Override
+    public Mono<ActionResult> executeReactive(String goal, int pageSize) {
+        return Mono.defer(() -> {
+                PlaceMatch match = gazetteer.find(goal);
+                if (match == null) {
+                    String city = extractUnknownCity(goal);
+                    return Mono.just(new ActionResult(false, "WeatherSkill", city == null
+                        ? "Please specify a city. Example: 'weather in Seattle'"
+                        : "Unknown place '" + city + "'. Example: 'weather in Seattle'"));
+                }
+                
+                Place place = match.getPlace();
+                return weather.currentReactive(place)
+                    .map(report -> new ActionResult(true, "WeatherSkill", format(place, report)));
+            })
+            .onErrorResume(e -> Mono.just(new ActionResult(false, "WeatherSkill", 
+                "Error getting weather: " + e.getMessage())));
     }
     
     /**
-     * Generate mock weather information
+     * A capitalised name after a preposition, for places missing from the gazetteer
      */
-    private String generateMockWeather(String city) {
-        String condition = CONDITIONS[random.nextInt(CONDITIONS.length)];
-        int temperature = 32 + random.nextInt(60); // 32-92°F
-        int humidity = 30 + random.nextInt(60); // 30-90%
-        int windSpeed = 5 + random.nextInt(25); // 5-30 mph
-        
-        String timezone = CITY_TIMEZONES.getOrDefault(city.toLowerCase(), "Local");
+    private String extractUnknownCity(String goal) {
+        Matcher matcher = UNKNOWN_PLACE.matcher(goal);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    private String format(Place place, WeatherReport report) {
+        String localTime = ZonedDateTime.now(place.getZoneId()).format(LOCAL_TIME);
+        String observed = report.getObservedAt().atZone(place.getZoneId()).format(LOCAL_TIME);
+        String footer = weather.isMock()
+            ? "⚠️  Note: This is mock data for demonstration"
+            : "Source: " + report.getSource() + ", observed " + observed + " local time";
         
         return String.format(
             "🌤️ Weather for %s:\n" +
             "━━━━━━━━━━━━━━━━━━━━━━\n" +
+            "Location: %s\n" +
             "Condition: %s\n" +
             "Temperature: %d°F (%d°C)\n" +
             "Humidity: %d%%\n" +
             "Wind Speed: %d mph\n" +
-            "Timezone: %s\n" +
+            "Timezone: %s (local time %s)\n" +
             "━━━━━━━━━━━━━━━━━━━━━━\n" +
-            "⚠️  Note: This is mock data for demonstration",
-            city,
-            condition,
-            temperature,
-            fahrenheitToCelsius(temperature),
-            humidity,
-            windSpeed,
-            timezone
+            "%s",
+            place.getDisplayName(),
+            place.getCoordinates(),
+            report.getCondition(),
+            Math.round(report.getTemperatureF()),
+            Math.round(report.getTemperatureC()),
+            report.getHumidity(),
+            Math.round(report.getWindSpeedMph()),
+            place.getTimezone(),
+            localTime,
+            footer
         );
     }
-    
-    private int fahrenheitToCelsius(int fahrenheit) {
-        return (int) Math.round((fahrenheit - 32) * 5.0 / 9.0);
-    }
-    
-    private String capitalize(String text) {
-        if (text == null || text.isEmpty()) return text;
-        return text.substring(0, 1).toUpperCase() + text.substring(1);
-    }
 }
@@ -0,0 +1,247 @@
+package com.example.agentdemo.calc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles an expression tree into column kernels that evaluate a whole block of
+ * rows per call.
+ *
+ * Each node owns a scratch block; operators are plain counted loops over primitive
+ * {@code double[]} with no per-row allocation or virtual dispatch, which the JIT
+ * turns into SIMD code where the operation allows it.
+ */
+final class BatchCompiler {
+
+    /**
+     * Rows processed per block; sized so a node's scratch block stays in L1/L2
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Evaluates one node over rows {@code [offset, offset + len)}; the result is in
+     * indices {@code [0, len)} of the returned block.
+     */
+    @FunctionalInterface
+    interface Kernel {
+        double[] eval(double[][] columns, int offset, int len, double[][] scratch);
+    }
+
+    /**
+     * A compiled batch program: the root kernel plus the number of scratch blocks it needs
+     */
+    static final class Program {
+        final Kernel root;
+        final int scratchBlocks;
+
+        Program(Kernel root, int scratchBlocks) {
+            this.root = root;
+            this.scratchBlocks = scratchBlocks;
+        }
+    }
+
+    private int nextBlock;
+    private final Map<String, Integer> slots;
+
+    private BatchCompiler(Map<String, Integer> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Compile against the slot assignment of the scalar compilation so column order matches
+     * {@link CompiledExpression#getVariables()}.
+     */
+    static Program compile(Node node, List<String> variables) {
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            slots.put(variables.get(i), i);
+        }
+        BatchCompiler compiler = new BatchCompiler(slots);
+        Kernel root = compiler.kernel(node);
+        return new Program(root, compiler.nextBlock);
+    }
+
+    private Kernel kernel(Node node) {
+        if (ExpressionCompiler.isConstant(node)) {
+            double value = ExpressionCompiler.compile(node, new HashMap<>()).eval(null);
+            int block = nextBlock++;
+            return (cols, off, len, scratch) -> {
+                double[] out = scratch[block];
+                Arrays.fill(out, 0, len, value);
+                return out;
+            };
+        }
+        return switch (node) {
+            case Node.Num num -> throw new IllegalStateException("constant handled above");
+            case Node.Var var -> column(slots.get(var.name()));
+            case Node.Unary unary -> negate(kernel(unary.operand()));
+            case Node.Binary binary -> binary(binary);
+            case Node.Call call -> call(call);
+        };
+    }
+
+    private Kernel column(int slot) {
+        int block = nextBlock++;
+        return (cols, off, len, scratch) -> {
+            double[] source = cols[slot];
+            double[] out = scratch[block];
+            if (source.length == 1) {
+                // single value: broadcast across the block
+                Arrays.fill(out, 0, len, source[0]);
+            } else {
+                System.arraycopy(source, off, out, 0, len);
+            }
+            return out;
+        };
+    }
+
+    private Kernel negate(Kernel operand) {
+        int block = nextBlock++;
+        return (cols, off, len, scratch) -> {
+            double[] a = operand.eval(cols, off, len, scratch);
+            double[] out = scratch[block];
+            for (int i = 0; i < len; i++) {
+                out[i] = -a[i];
+            }
+            return out;
+        };
+    }
+
+    private Kernel binary(Node.Binary binary) {
+        Kernel left = kernel(binary.left());
+        Kernel right = kernel(binary.right());
+        int block = nextBlock++;
+        return switch (binary.op()) {
+            case '+' -> (cols, off, len, scratch) -> {
+                double[] a = left.eval(cols, off, len, scratch);
+                double[] b = right.eval(cols, off, len, scratch);
+                double[] out = scratch[block];
+                for (int i = 0; i < len; i++) {
+                    out[i] = a[i] + b[i];
+                }
+                return out;
+            };
+            case '-' -> (cols, off, len, scratch) -> {
+                double[] a = left.eval(cols, off, len, scratch);
+                double[] b = right.eval(cols, off, len, scratch);
+                double[] out = scratch[block];
+                for (int i = 0; i < len; i++) {
+                    out[i] = a[i] - b[i];
+                }
+                return out;
+            };
+            case '*' -> (cols, off, len, scratch) -> {
+                double[] a = left.eval(cols, off, len, scratch);
+                double[] b = right.eval(cols, off, len, scratch);
+                double[] out = scratch[block];
+                for (int i = 0; i < len; i++) {
+                    out[i] = a[i] * b[i];
+                }
+                return out;
+            };
+            case '/' -> (cols, off, len, scratch) -> {
+                double[] a = left.eval(cols, off, len, scratch);
+                double[] b = right.eval(cols, off, len, scratch);
+                double[] out = scratch[block];
+                for (int i = 0; i < len; i++) {
+                    out[i] = a[i] / b[i];
+                }
+                // same semantics as the scalar path: division by zero is NaN
+                for (int i = 0; i < len; i++) {
+                    if (b[i] == 0) {
+                        out[i] = Double.NaN;
+                    }
+                }
+                return out;
+            };
+            default -> {
+                char op = binary.op();
+                yield (cols, off, len, scratch) -> {
+                    double[] a = left.eval(cols, off, len, scratch);
+                    double[] b = right.eval(cols, off, len, scratch);
+                    double[] out = scratch[block];
+                    for (int i = 0; i < len; i++) {
+                        out[i] = ExpressionCompiler.applyBinary(op, a[i], b[i]);
+                    }
+                    return out;
+                };
+            }
+        };
+    }
+
+    private Kernel call(Node.Call call) {
+        ExpressionCompiler.checkCall(call);
+        String function = call.function();
+
+        if (call.args().size() == 1) {
+            Kernel arg = kernel(call.args().get(0));
+            int block = nextBlock++;
+            if (function.equals("sqrt")) {
+                return (cols, off, len, scratch) -> {
+                    double[] a = arg.eval(cols, off, len, scratch);
+                    double[] out = scratch[block];
+                    for (int i = 0; i < len; i++) {
+                        out[i] = Math.sqrt(a[i]);
+                    }
+                    return out;
+                };
+            }
+            if (function.equals("abs")) {
+                return (cols, off, len, scratch) -> {
+                    double[] a = arg.eval(cols, off, len, scratch);
+                    double[] out = scratch[block];
+                    for (int i = 0; i < len; i++) {
+                        out[i] = Math.abs(a[i]);
+                    }
+                    return out;
+                };
+            }
+            return (cols, off, len, scratch) -> {
+                double[] a = arg.eval(cols, off, len, scratch);
+                double[] out = scratch[block];
+                double[] one = new double[1];
+                for (int i = 0; i < len; i++) {
+                    one[0] = a[i];
+                    out[i] = ExpressionCompiler.applyFunction(function, one);
+                }
+                return out;
+            };
+        }
+
+        Kernel first = kernel(call.args().get(0));
+        Kernel second = kernel(call.args().get(1));
+        int block = nextBlock++;
+        if (function.equals("min") || function.equals("max")) {
+            boolean min = function.equals("min");
+            return (cols, off, len, scratch) -> {
+                double[] a = first.eval(cols, off, len, scratch);
+                double[] b = second.eval(cols, off, len, scratch);
+                double[] out = scratch[block];
+                if (min) {
+                    for (int i = 0; i < len; i++) {
+                        out[i] = Math.min(a[i], b[i]);
+                    }
+                } else {
+                    for (int i = 0; i < len; i++) {
+                        out[i] = Math.max(a[i], b[i]);
+                    }
+                }
+                return out;
+            };
+        }
+        return (cols, off, len, scratch) -> {
+            double[] a = first.eval(cols, off, len, scratch);
+            double[] b = second.eval(cols, off, len, scratch);
+            double[] out = scratch[block];
+            double[] two = new double[2];
+            for (int i = 0; i < len; i++) {
+                two[0] = a[i];
+                two[1] = b[i];
+                out[i] = ExpressionCompiler.applyFunction(function, two);
+            }
+            return out;
+        };
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.agentdemo.calc;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An expression parsed and compiled once, ready for repeated evaluation.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final Node ast;
+    private final List<String> variables;
+    private final ExpressionCompiler.Evaluator evaluator;
+    // Column kernels, compiled on first batch evaluation
+    private volatile BatchCompiler.Program batchProgram;
+    // Exact decimal evaluators, compiled on first exact evaluation
+    private volatile ExactPlan exactPlan;
+
+    CompiledExpression(String source, Node ast, List<String> variables, ExpressionCompiler.Evaluator evaluator) {
+        this.source = source;
+        this.ast = ast;
+        this.variables = variables;
+        this.evaluator = evaluator;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Variable names in slot order (order of first appearance in the source)
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Evaluate with values given in {@link #getVariables()} order
+     */
+    public double evaluate(double... values) {
+        if (values.length < variables.size()) {
+            throw new ExpressionException("Expected " + variables.size() + " variable value(s) but got " + values.length);
+        }
+        return evaluator.eval(values);
+    }
+
+    /**
+     * Evaluate with values bound by name
+     */
+    public double evaluate(Map<String, ? extends Number> bindings) {
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            Number value = bindings.get(variables.get(i));
+            if (value == null) {
+                throw new ExpressionException("Unknown variable '" + variables.get(i) + "'");
+            }
+            values[i] = value.doubleValue();
+        }
+        return evaluator.eval(values);
+    }
+
+    /**
+     * Evaluate over columns of variable values bound by name. Every column must have
+     * the same length, except single-element columns which are broadcast.
+     */
+    public double[] evaluateBatch(Map<String, double[]> columns) {
+        double[][] ordered = new double[variables.size()][];
+        int rows = variables.isEmpty() ? 1 : 0;
+        for (int i = 0; i < ordered.length; i++) {
+            double[] column = columns.get(variables.get(i));
+            if (column == null) {
+                throw new ExpressionException("Unknown variable '" + variables.get(i) + "'");
+            }
+            ordered[i] = column;
+            rows = Math.max(rows, column.length);
+        }
+        return evaluateBatch(ordered, rows);
+    }
+
+    /**
+     * Evaluate {@code rows} rows over columns given in {@link #getVariables()} order.
+     * Rows are processed in cache-sized blocks; no objects are allocated per row.
+     */
+    public double[] evaluateBatch(double[][] columns, int rows) {
+        if (columns.length < variables.size()) {
+            throw new ExpressionException("Expected " + variables.size() + " column(s) but got " + columns.length);
+        }
+        for (int i = 0; i < variables.size(); i++) {
+            int length = columns[i].length;
+            if (length != rows && length != 1) {
+                throw new ExpressionException("Column '" + variables.get(i) + "' has " + length
+                        + " value(s), expected " + rows);
+            }
+        }
+
+        BatchCompiler.Program program = batchProgram;
+        if (program == null) {
+            program = BatchCompiler.compile(ast, variables);
+            batchProgram = program;
+        }
+
+        int blockSize = Math.min(BatchCompiler.BLOCK_SIZE, Math.max(rows, 1));
+        double[][] scratch = new double[program.scratchBlocks][blockSize];
+        double[] result = new double[rows];
+        for (int offset = 0; offset < rows; offset += blockSize) {
+            int len = Math.min(blockSize, rows - offset);
+            double[] block = program.root.eval(columns, offset, len, scratch);
+            System.arraycopy(block, 0, result, offset, len);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate exactly in decimal arithmetic, rounding to {@code mc}.
+     *
+     * When the expression and all bound values are integers that fit a double exactly,
+     * evaluation runs on the checked double fast path; otherwise (decimal fractions,
+     * division, functions, or an intermediate result beyond ±2^53) it uses BigDecimal.
+     */
+    public BigDecimal evaluateExact(Map<String, BigDecimal> bindings, MathContext mc) {
+        BigDecimal[] values = new BigDecimal[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            BigDecimal value = bindings.get(variables.get(i));
+            if (value == null) {
+                throw new ExpressionException("Unknown variable '" + variables.get(i) + "'");
+            }
+            values[i] = value;
+        }
+
+        ExactPlan plan = exactPlan();
+        if (plan.fastPath != null) {
+            double[] doubles = new double[values.length];
+            boolean eligible = true;
+            for (int i = 0; i < values.length; i++) {
+                if (!DecimalCompiler.isExactInteger(values[i])) {
+                    eligible = false;
+                    break;
+                }
+                doubles[i] = values[i].doubleValue();
+            }
+            if (eligible) {
+                double result = plan.fastPath.eval(doubles);
+                if (!Double.isNaN(result)) {
+                    return BigDecimal.valueOf((long) result).round(mc);
+                }
+            }
+        }
+        return plan.decimal.eval(values, mc).round(mc);
+    }
+
+    /**
+     * True if exact evaluation of this expression can use the double fast path
+     * (subject to the bound values being small integers)
+     */
+    public boolean hasExactFastPath() {
+        return exactPlan().fastPath != null;
+    }
+
+    private ExactPlan exactPlan() {
+        ExactPlan plan = exactPlan;
+        if (plan == null) {
+            Map<String, Integer> slots = new HashMap<>();
+            for (int i = 0; i < variables.size(); i++) {
+                slots.put(variables.get(i), i);
+            }
+            plan = new ExactPlan(DecimalCompiler.compile(ast, slots), DecimalCompiler.compileFastPath(ast, slots));
+            exactPlan = plan;
+        }
+        return plan;
+    }
+
+    private static final class ExactPlan {
+        final DecimalCompiler.DecimalEvaluator decimal;
+        final ExpressionCompiler.Evaluator fastPath;
+
+        ExactPlan(DecimalCompiler.DecimalEvaluator decimal, ExpressionCompiler.Evaluator fastPath) {
+            this.decimal = decimal;
+            this.fastPath = fastPath;
+        }
+    }
+
+    Node ast() {
+        return ast;
+    }
+}
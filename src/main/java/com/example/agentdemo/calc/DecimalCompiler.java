@@ -0,0 +1,177 @@
+package com.example.agentdemo.calc;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles an expression tree for exact decimal evaluation.
+ *
+ * Two forms are produced: a {@link BigDecimal} evaluator that honours a caller-supplied
+ * {@link MathContext}, and, for expressions built only from integer literals and
+ * {@code + - * %}, a checked double evaluator that is exact as long as every
+ * intermediate value stays within ±2^53. The checked form signals overflow of that
+ * range by returning NaN, at which point the caller falls back to BigDecimal.
+ */
+final class DecimalCompiler {
+
+    /**
+     * Largest magnitude below which every integer is exactly representable as a double
+     */
+    static final double MAX_EXACT_INTEGER = 9007199254740992.0; // 2^53
+
+    /**
+     * Largest exponent magnitude accepted by {@code ^} and {@code pow}
+     */
+    static final int MAX_EXPONENT = 9999;
+
+    private static final BigDecimal PI = new BigDecimal("3.14159265358979323846264338327950288419716939937510");
+    private static final BigDecimal E = new BigDecimal("2.71828182845904523536028747135266249775724709369995");
+
+    @FunctionalInterface
+    interface DecimalEvaluator {
+        BigDecimal eval(BigDecimal[] vars, MathContext mc);
+    }
+
+    private DecimalCompiler() {
+    }
+
+    static DecimalEvaluator compile(Node node, Map<String, Integer> slots) {
+        return switch (node) {
+            case Node.Num num -> {
+                BigDecimal value = new BigDecimal(num.text());
+                yield (vars, mc) -> value;
+            }
+            case Node.Var var -> variable(var, slots);
+            case Node.Unary unary -> {
+                DecimalEvaluator operand = compile(unary.operand(), slots);
+                yield (vars, mc) -> operand.eval(vars, mc).negate();
+            }
+            case Node.Binary binary -> binary(binary, slots);
+            case Node.Call call -> call(call, slots);
+        };
+    }
+
+    /**
+     * Compile the checked double fast path, or return null if the expression is not eligible
+     */
+    static ExpressionCompiler.Evaluator compileFastPath(Node node, Map<String, Integer> slots) {
+        return switch (node) {
+            case Node.Num num -> isExactInteger(new BigDecimal(num.text())) ? vars -> num.value() : null;
+            case Node.Var var -> {
+                if (ExpressionCompiler.constantValue(var.name()) != null) {
+                    yield null;
+                }
+                Integer slot = slots.get(var.name());
+                yield slot == null ? null : vars -> vars[slot];
+            }
+            case Node.Unary unary -> {
+                ExpressionCompiler.Evaluator operand = compileFastPath(unary.operand(), slots);
+                yield operand == null ? null : vars -> -operand.eval(vars);
+            }
+            case Node.Binary binary -> {
+                ExpressionCompiler.Evaluator left = compileFastPath(binary.left(), slots);
+                ExpressionCompiler.Evaluator right = compileFastPath(binary.right(), slots);
+                if (left == null || right == null) {
+                    yield null;
+                }
+                yield switch (binary.op()) {
+                    case '+' -> vars -> checked(left.eval(vars) + right.eval(vars));
+                    case '-' -> vars -> checked(left.eval(vars) - right.eval(vars));
+                    case '*' -> vars -> checked(left.eval(vars) * right.eval(vars));
+                    case '%' -> vars -> {
+                        double divisor = right.eval(vars);
+                        return divisor == 0 ? Double.NaN : left.eval(vars) % divisor;
+                    };
+                    default -> null;
+                };
+            }
+            case Node.Call call -> null;
+        };
+    }
+
+    /**
+     * True if the value is an integer small enough to be represented exactly as a double
+     */
+    static boolean isExactInteger(BigDecimal value) {
+        if (value.scale() > 0 && value.stripTrailingZeros().scale() > 0) {
+            return false;
+        }
+        return value.precision() - value.scale() <= 15
+                || value.abs().compareTo(BigDecimal.valueOf((long) MAX_EXACT_INTEGER)) <= 0;
+    }
+
+    private static double checked(double result) {
+        // NaN fails the comparison too, so overflow propagates up the tree
+        return Math.abs(result) <= MAX_EXACT_INTEGER ? result : Double.NaN;
+    }
+
+    private static DecimalEvaluator variable(Node.Var var, Map<String, Integer> slots) {
+        String name = var.name().toLowerCase();
+        if (ExpressionCompiler.constantValue(name) != null) {
+            BigDecimal constant = name.equals("pi") ? PI : E;
+            return (vars, mc) -> constant.round(mc);
+        }
+        int slot = slots.computeIfAbsent(var.name(), n -> slots.size());
+        return (vars, mc) -> vars[slot];
+    }
+
+    private static DecimalEvaluator binary(Node.Binary binary, Map<String, Integer> slots) {
+        DecimalEvaluator left = compile(binary.left(), slots);
+        DecimalEvaluator right = compile(binary.right(), slots);
+        return switch (binary.op()) {
+            case '+' -> (vars, mc) -> left.eval(vars, mc).add(right.eval(vars, mc), mc);
+            case '-' -> (vars, mc) -> left.eval(vars, mc).subtract(right.eval(vars, mc), mc);
+            case '*' -> (vars, mc) -> left.eval(vars, mc).multiply(right.eval(vars, mc), mc);
+            case '/' -> (vars, mc) -> left.eval(vars, mc).divide(nonZero(right.eval(vars, mc)), mc);
+            case '%' -> (vars, mc) -> left.eval(vars, mc).remainder(nonZero(right.eval(vars, mc)), mc);
+            case '^' -> (vars, mc) -> power(left.eval(vars, mc), right.eval(vars, mc), mc);
+            default -> throw new ExpressionException("Unknown operator '" + binary.op() + "'");
+        };
+    }
+
+    private static DecimalEvaluator call(Node.Call call, Map<String, Integer> slots) {
+        ExpressionCompiler.checkCall(call);
+        List<DecimalEvaluator> args = call.args().stream().map(arg -> compile(arg, slots)).toList();
+        return switch (call.function()) {
+            case "sqrt" -> (vars, mc) -> {
+                BigDecimal value = args.get(0).eval(vars, mc);
+                if (value.signum() < 0) {
+                    throw new ExpressionException("Square root of a negative number");
+                }
+                return value.sqrt(mc);
+            };
+            case "abs" -> (vars, mc) -> args.get(0).eval(vars, mc).abs(mc);
+            case "floor" -> (vars, mc) -> args.get(0).eval(vars, mc).setScale(0, RoundingMode.FLOOR);
+            case "ceil" -> (vars, mc) -> args.get(0).eval(vars, mc).setScale(0, RoundingMode.CEILING);
+            case "round" -> (vars, mc) -> args.get(0).eval(vars, mc).setScale(0, RoundingMode.HALF_EVEN);
+            case "min" -> (vars, mc) -> args.get(0).eval(vars, mc).min(args.get(1).eval(vars, mc));
+            case "max" -> (vars, mc) -> args.get(0).eval(vars, mc).max(args.get(1).eval(vars, mc));
+            case "pow" -> (vars, mc) -> power(args.get(0).eval(vars, mc), args.get(1).eval(vars, mc), mc);
+            default -> throw new ExpressionException("Function '" + call.function()
+                    + "' is not supported in exact mode", call.position());
+        };
+    }
+
+    private static BigDecimal nonZero(BigDecimal divisor) {
+        if (divisor.signum() == 0) {
+            throw new ExpressionException("Division by zero");
+        }
+        return divisor;
+    }
+
+    private static BigDecimal power(BigDecimal base, BigDecimal exponent, MathContext mc) {
+        int n;
+        try {
+            n = exponent.intValueExact();
+        } catch (ArithmeticException e) {
+            n = Integer.MAX_VALUE;
+        }
+        if (Math.abs(n) > MAX_EXPONENT) {
+            throw new ExpressionException("Exact mode only supports integer exponents up to " + MAX_EXPONENT);
+        }
+        return base.pow(n, mc);
+    }
+}
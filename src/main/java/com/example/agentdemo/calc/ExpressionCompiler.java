@@ -0,0 +1,194 @@
+package com.example.agentdemo.calc;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles an expression tree into a tree of lambdas.
+ *
+ * Variables are resolved to array slots at compile time and constant subtrees are
+ * folded, so evaluation is a handful of virtual calls with no map lookups or
+ * re-parsing.
+ */
+final class ExpressionCompiler {
+
+    /**
+     * Compiled form of an expression: reads variables from positional slots
+     */
+    @FunctionalInterface
+    interface Evaluator {
+        double eval(double[] vars);
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    static Evaluator compile(Node node, Map<String, Integer> slots) {
+        return switch (node) {
+            case Node.Num num -> constant(num.value());
+            case Node.Var var -> variable(var, slots);
+            case Node.Unary unary -> unary(unary, slots);
+            case Node.Binary binary -> binary(binary, slots);
+            case Node.Call call -> call(call, slots);
+        };
+    }
+
+    /**
+     * Named constants, resolved before variables
+     */
+    static Double constantValue(String name) {
+        return switch (name.toLowerCase()) {
+            case "pi" -> Math.PI;
+            case "e" -> Math.E;
+            default -> null;
+        };
+    }
+
+    static double applyBinary(char op, double a, double b) {
+        return switch (op) {
+            case '+' -> a + b;
+            case '-' -> a - b;
+            case '*' -> a * b;
+            // Division by zero yields NaN rather than an infinity
+            case '/' -> b == 0 ? Double.NaN : a / b;
+            case '%' -> a % b;
+            case '^' -> Math.pow(a, b);
+            default -> throw new ExpressionException("Unknown operator '" + op + "'");
+        };
+    }
+
+    static double applyFunction(String function, double[] args) {
+        return switch (function) {
+            case "sqrt" -> Math.sqrt(args[0]);
+            case "cbrt" -> Math.cbrt(args[0]);
+            case "log", "ln" -> Math.log(args[0]);
+            case "log10" -> Math.log10(args[0]);
+            case "log2" -> Math.log(args[0]) / Math.log(2);
+            case "exp" -> Math.exp(args[0]);
+            case "abs" -> Math.abs(args[0]);
+            case "sin" -> Math.sin(args[0]);
+            case "cos" -> Math.cos(args[0]);
+            case "tan" -> Math.tan(args[0]);
+            case "asin" -> Math.asin(args[0]);
+            case "acos" -> Math.acos(args[0]);
+            case "atan" -> Math.atan(args[0]);
+            case "floor" -> Math.floor(args[0]);
+            case "ceil" -> Math.ceil(args[0]);
+            case "round" -> Math.rint(args[0]);
+            case "min" -> Math.min(args[0], args[1]);
+            case "max" -> Math.max(args[0], args[1]);
+            case "pow" -> Math.pow(args[0], args[1]);
+            case "hypot" -> Math.hypot(args[0], args[1]);
+            default -> throw new ExpressionException("Unknown function '" + function + "'");
+        };
+    }
+
+    /**
+     * Number of arguments a function takes, or -1 if the function is unknown
+     */
+    static int arity(String function) {
+        return switch (function) {
+            case "sqrt", "cbrt", "log", "ln", "log10", "log2", "exp", "abs",
+                 "sin", "cos", "tan", "asin", "acos", "atan", "floor", "ceil", "round" -> 1;
+            case "min", "max", "pow", "hypot" -> 2;
+            default -> -1;
+        };
+    }
+
+    static void checkCall(Node.Call call) {
+        int arity = arity(call.function());
+        if (arity < 0) {
+            throw new ExpressionException("Unknown function '" + call.function() + "'", call.position());
+        }
+        if (call.args().size() != arity) {
+            throw new ExpressionException("Function '" + call.function() + "' expects " + arity
+                    + " argument(s) but got " + call.args().size(), call.position());
+        }
+    }
+
+    private static Evaluator constant(double value) {
+        return vars -> value;
+    }
+
+    private static Evaluator variable(Node.Var var, Map<String, Integer> slots) {
+        Double constant = constantValue(var.name());
+        if (constant != null) {
+            return constant(constant);
+        }
+        int slot = slots.computeIfAbsent(var.name(), name -> slots.size());
+        return vars -> vars[slot];
+    }
+
+    private static Evaluator unary(Node.Unary unary, Map<String, Integer> slots) {
+        Evaluator operand = compile(unary.operand(), slots);
+        if (isConstant(unary.operand())) {
+            return constant(-operand.eval(null));
+        }
+        return vars -> -operand.eval(vars);
+    }
+
+    private static Evaluator binary(Node.Binary binary, Map<String, Integer> slots) {
+        Evaluator left = compile(binary.left(), slots);
+        Evaluator right = compile(binary.right(), slots);
+        if (isConstant(binary)) {
+            return constant(applyBinary(binary.op(), left.eval(null), right.eval(null)));
+        }
+        return switch (binary.op()) {
+            case '+' -> vars -> left.eval(vars) + right.eval(vars);
+            case '-' -> vars -> left.eval(vars) - right.eval(vars);
+            case '*' -> vars -> left.eval(vars) * right.eval(vars);
+            case '/' -> vars -> {
+                double divisor = right.eval(vars);
+                return divisor == 0 ? Double.NaN : left.eval(vars) / divisor;
+            };
+            case '%' -> vars -> left.eval(vars) % right.eval(vars);
+            case '^' -> vars -> Math.pow(left.eval(vars), right.eval(vars));
+            default -> throw new ExpressionException("Unknown operator '" + binary.op() + "'");
+        };
+    }
+
+    private static Evaluator call(Node.Call call, Map<String, Integer> slots) {
+        checkCall(call);
+        String function = call.function();
+        List<Node> argNodes = call.args();
+
+        if (argNodes.size() == 1) {
+            Evaluator arg = compile(argNodes.get(0), slots);
+            if (isConstant(call)) {
+                return constant(applyFunction(function, new double[] {arg.eval(null)}));
+            }
+            return switch (function) {
+                case "sqrt" -> vars -> Math.sqrt(arg.eval(vars));
+                case "log", "ln" -> vars -> Math.log(arg.eval(vars));
+                case "exp" -> vars -> Math.exp(arg.eval(vars));
+                case "abs" -> vars -> Math.abs(arg.eval(vars));
+                default -> vars -> applyFunction(function, new double[] {arg.eval(vars)});
+            };
+        }
+
+        Evaluator first = compile(argNodes.get(0), slots);
+        Evaluator second = compile(argNodes.get(1), slots);
+        if (isConstant(call)) {
+            return constant(applyFunction(function, new double[] {first.eval(null), second.eval(null)}));
+        }
+        return switch (function) {
+            case "min" -> vars -> Math.min(first.eval(vars), second.eval(vars));
+            case "max" -> vars -> Math.max(first.eval(vars), second.eval(vars));
+            case "pow" -> vars -> Math.pow(first.eval(vars), second.eval(vars));
+            default -> vars -> applyFunction(function, new double[] {first.eval(vars), second.eval(vars)});
+        };
+    }
+
+    /**
+     * True if the subtree references no variables (named constants are allowed)
+     */
+    static boolean isConstant(Node node) {
+        return switch (node) {
+            case Node.Num num -> true;
+            case Node.Var var -> constantValue(var.name()) != null;
+            case Node.Unary unary -> isConstant(unary.operand());
+            case Node.Binary binary -> isConstant(binary.left()) && isConstant(binary.right());
+            case Node.Call call -> call.args().stream().allMatch(ExpressionCompiler::isConstant);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.agentdemo.calc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parses and compiles arithmetic expressions, keeping a bounded LRU cache of compiled
+ * expressions keyed by source text so repeated formulas skip parsing entirely.
+ *
+ * Supported syntax: {@code + - * / % ^} (also {@code **}), parentheses, unary minus,
+ * variables, constants {@code pi} and {@code e}, and the functions sqrt, cbrt, log/ln,
+ * log10, log2, exp, abs, sin, cos, tan, asin, acos, atan, floor, ceil, round,
+ * min, max, pow and hypot.
+ */
+public class ExpressionEngine {
+
+    private final Map<String, CompiledExpression> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ExpressionEngine(int cacheSize) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Compile an expression, reusing a cached compilation of the same source text
+     */
+    public CompiledExpression compile(String source) {
+        String key = source.trim();
+        CompiledExpression compiled = cache.get(key);
+        if (compiled != null) {
+            hits.incrementAndGet();
+            return compiled;
+        }
+        misses.incrementAndGet();
+        compiled = compileUncached(key);
+        cache.put(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * Compile and evaluate in one step
+     */
+    public double evaluate(String source, Map<String, ? extends Number> bindings) {
+        return compile(source).evaluate(bindings);
+    }
+
+    public static CompiledExpression compileUncached(String source) {
+        Node ast = Parser.parse(source);
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        ExpressionCompiler.Evaluator evaluator = ExpressionCompiler.compile(ast, slots);
+        List<String> variables = new ArrayList<>(slots.keySet());
+        return new CompiledExpression(source, ast, List.copyOf(variables), evaluator);
+    }
+
+    /**
+     * True if a compilation of the source text is cached
+     */
+    public boolean isCached(String source) {
+        return cache.containsKey(source.trim());
+    }
+
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    public long cacheHits() {
+        return hits.get();
+    }
+
+    public long cacheMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.agentdemo.calc;
+
+/**
+ * Raised when an expression cannot be parsed or evaluated.
+ * {@link #getPosition()} is the character offset of the problem, or -1 if not positional.
+ */
+public class ExpressionException extends IllegalArgumentException {
+    private final int position;
+
+    public ExpressionException(String message, int position) {
+        super(position >= 0 ? message + " at position " + position : message);
+        this.position = position;
+    }
+
+    public ExpressionException(String message) {
+        this(message, -1);
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
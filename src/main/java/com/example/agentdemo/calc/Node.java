@@ -0,0 +1,27 @@
+package com.example.agentdemo.calc;
+
+import java.util.List;
+
+/**
+ * Expression syntax tree produced by {@link Parser}
+ */
+sealed interface Node {
+
+    /**
+     * Numeric literal; {@code text} keeps the source spelling for exact decimal evaluation
+     */
+    record Num(double value, String text) implements Node {
+    }
+
+    record Var(String name) implements Node {
+    }
+
+    record Unary(char op, Node operand) implements Node {
+    }
+
+    record Binary(char op, Node left, Node right) implements Node {
+    }
+
+    record Call(String function, List<Node> args, int position) implements Node {
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.agentdemo.calc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser.
+ *
+ * <pre>
+ * expr    := term (('+' | '-') term)*
+ * term    := unary (('*' | '/' | '%') unary)*
+ * unary   := ('+' | '-') unary | power
+ * power   := primary ('^' unary)?          right-associative, binds tighter than unary minus
+ * primary := NUMBER | IDENT | IDENT '(' [expr (',' expr)*] ')' | '(' expr ')'
+ * </pre>
+ */
+final class Parser {
+
+    private final List<Token> tokens;
+    private int pos;
+
+    private Parser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    static Node parse(String source) {
+        Parser parser = new Parser(Tokenizer.tokenize(source));
+        if (parser.peek().is(Token.Type.END)) {
+            throw new ExpressionException("Empty expression");
+        }
+        Node node = parser.expr();
+        Token trailing = parser.peek();
+        if (!trailing.is(Token.Type.END)) {
+            throw new ExpressionException("Unexpected '" + trailing.text() + "'", trailing.position());
+        }
+        return node;
+    }
+
+    private Node expr() {
+        Node node = term();
+        while (peek().is(Token.Type.PLUS) || peek().is(Token.Type.MINUS)) {
+            char op = next().text().charAt(0);
+            node = new Node.Binary(op, node, term());
+        }
+        return node;
+    }
+
+    private Node term() {
+        Node node = unary();
+        while (peek().is(Token.Type.STAR) || peek().is(Token.Type.SLASH) || peek().is(Token.Type.PERCENT)) {
+            char op = next().text().charAt(0);
+            node = new Node.Binary(op, node, unary());
+        }
+        return node;
+    }
+
+    private Node unary() {
+        if (peek().is(Token.Type.MINUS)) {
+            next();
+            return new Node.Unary('-', unary());
+        }
+        if (peek().is(Token.Type.PLUS)) {
+            next();
+            return unary();
+        }
+        return power();
+    }
+
+    private Node power() {
+        Node base = primary();
+        if (peek().is(Token.Type.CARET)) {
+            next();
+            return new Node.Binary('^', base, unary());
+        }
+        return base;
+    }
+
+    private Node primary() {
+        Token token = next();
+        switch (token.type()) {
+            case NUMBER:
+                return new Node.Num(token.number(), token.text());
+            case IDENT:
+                if (peek().is(Token.Type.LPAREN)) {
+                    next();
+                    List<Node> args = new ArrayList<>();
+                    if (!peek().is(Token.Type.RPAREN)) {
+                        args.add(expr());
+                        while (peek().is(Token.Type.COMMA)) {
+                            next();
+                            args.add(expr());
+                        }
+                    }
+                    expect(Token.Type.RPAREN, "')'");
+                    return new Node.Call(token.text().toLowerCase(), List.copyOf(args), token.position());
+                }
+                return new Node.Var(token.text());
+            case LPAREN:
+                Node inner = expr();
+                expect(Token.Type.RPAREN, "')'");
+                return inner;
+            case END:
+                throw new ExpressionException("Unexpected end of expression", token.position());
+            default:
+                throw new ExpressionException("Unexpected '" + token.text() + "'", token.position());
+        }
+    }
+
+    private void expect(Token.Type type, String description) {
+        Token token = next();
+        if (!token.is(type)) {
+            throw new ExpressionException("Expected " + description, token.position());
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private Token next() {
+        Token token = tokens.get(pos);
+        if (!token.is(Token.Type.END)) {
+            pos++;
+        }
+        return token;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.agentdemo.calc;
+
+/**
+ * Lexical token produced by {@link Tokenizer}
+ */
+record Token(Type type, String text, double number, int position) {
+
+    enum Type {
+        NUMBER, IDENT, PLUS, MINUS, STAR, SLASH, PERCENT, CARET, LPAREN, RPAREN, COMMA, END
+    }
+
+    boolean is(Type expected) {
+        return type == expected;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.agentdemo.calc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written scanner for arithmetic expressions.
+ * Numbers accept decimals and exponents ({@code 1.5e3}); {@code **} is an alias for {@code ^}.
+ */
+final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int n = source.length();
+
+        while (i < n) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (Character.isDigit(c) || (c == '.' && i + 1 < n && Character.isDigit(source.charAt(i + 1)))) {
+                int start = i;
+                while (i < n && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                if (i < n && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+                    int exp = i + 1;
+                    if (exp < n && (source.charAt(exp) == '+' || source.charAt(exp) == '-')) {
+                        exp++;
+                    }
+                    if (exp < n && Character.isDigit(source.charAt(exp))) {
+                        i = exp;
+                        while (i < n && Character.isDigit(source.charAt(i))) {
+                            i++;
+                        }
+                    }
+                }
+                String text = source.substring(start, i);
+                try {
+                    tokens.add(new Token(Token.Type.NUMBER, text, Double.parseDouble(text), start));
+                } catch (NumberFormatException e) {
+                    throw new ExpressionException("Malformed number '" + text + "'", start);
+                }
+                continue;
+            }
+
+            if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < n && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(new Token(Token.Type.IDENT, source.substring(start, i), 0, start));
+                continue;
+            }
+
+            Token.Type type = switch (c) {
+                case '+' -> Token.Type.PLUS;
+                case '-' -> Token.Type.MINUS;
+                case '*' -> Token.Type.STAR;
+                case '/' -> Token.Type.SLASH;
+                case '%' -> Token.Type.PERCENT;
+                case '^' -> Token.Type.CARET;
+                case '(' -> Token.Type.LPAREN;
+                case ')' -> Token.Type.RPAREN;
+                case ',' -> Token.Type.COMMA;
+                default -> throw new ExpressionException("Unexpected character '" + c + "'", i);
+            };
+
+            if (type == Token.Type.STAR && i + 1 < n && source.charAt(i + 1) == '*') {
+                tokens.add(new Token(Token.Type.CARET, "**", 0, i));
+                i += 2;
+                continue;
+            }
+
+            tokens.add(new Token(type, String.valueOf(c), 0, i));
+            i++;
+        }
+
+        tokens.add(new Token(Token.Type.END, "", 0, n));
+        return tokens;
+    }
+}
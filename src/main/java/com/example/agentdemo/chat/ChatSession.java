@@ -0,0 +1,76 @@
+package com.example.agentdemo.chat;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one chat connection. {@link #getSocket()} is safe to send on from several
+ * threads, so pipelined requests can reply as they finish.
+ */
+public class ChatSession {
+    private final String id;
+    private final String conversationId;
+    private final WebSocketSession socket;
+    private final Instant connectedAt = Instant.now();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+
+    public ChatSession(String id, String conversationId, WebSocketSession socket) {
+        this.id = id;
+        this.conversationId = conversationId;
+        this.socket = socket;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Server-issued id of the connection's own conversation
+     */
+    public String getConversationId() {
+        return conversationId;
+    }
+
+    public WebSocketSession getSocket() {
+        return socket;
+    }
+
+    public Instant getConnectedAt() {
+        return connectedAt;
+    }
+
+    /**
+     * Requests accepted but not yet answered
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Reserve a slot for a new request, unless {@code limit} requests are already running
+     */
+    boolean tryBegin(int limit) {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        requests.incrementAndGet();
+        return true;
+    }
+
+    void end() {
+        inFlight.decrementAndGet();
+    }
+
+    boolean isOpen() {
+        return socket.isOpen();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.agentdemo.chat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the chat WebSocket endpoint. Only same-origin pages may connect unless
+ * {@code chat.ws.allowed-origins} lists other origin patterns (comma separated).
+ * Chat is part of the servlet stack; a reactive application serves the REST API only.
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ChatWebSocketConfig implements WebSocketConfigurer {
+
+    private final ChatWebSocketHandler handler;
+    private final String[] allowedOrigins;
+
+    public ChatWebSocketConfig(ChatWebSocketHandler handler,
+                               @Value("${chat.ws.allowed-origins:}") String[] allowedOrigins) {
+        this.handler = handler;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(handler, "/ws/chat").setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.agentdemo.chat;
+
+import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chat over a single WebSocket connection at {@code /ws/chat}.
+ *
+ * Messages are JSON objects: {@code {"id": "1", "goal": "calculate 2 + 2"}} runs a goal,
+ * {@code {"id": "2", "cursor": "..."}} fetches the next page of a paged result, and
+ * {@code {"type": "ping"}} is answered with a pong. Optional {@code pageSize} and
+ * {@code stream} (push all remaining pages without further requests) apply as for the
+ * REST endpoint. Goals on one connection form a conversation, so follow-ups such as
+ * "now sort that by pid" work; a {@code sessionId} issued by the server (here or by the
+ * REST endpoint) continues that conversation instead, which outlives the connection. Chat goals are scheduled as
+ * interactive unless the message says {@code "priority": "bulk"}, and {@code "timings": true}
+ * adds a per-phase timing breakdown to the results as for the REST endpoint.
+ *
+ * Requests are pipelined: a client may send several without waiting, up to
+ * {@code chat.ws.max-in-flight} per connection, and each is answered as soon as it
+ * completes with {@code result} frames followed by a {@code done} frame carrying the
+ * request id. Goals run on the shared scheduler like REST goals, and goals of reactive
+ * skills hold no thread at all; the {@code chat.ws.workers} threads only send the replies
+ * once a goal completes. Failures produce an {@code error} frame. On connect the server sends a
+ * {@code session} frame with the session id and available skills.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+
+    private final AgentService agentService;
+    private final ObjectMapper objectMapper;
+    private final int maxInFlight;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferBytes;
+    private final int maxMessageBytes;
+    private final long idleTimeoutMillis;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, ChatSession> sessions = new ConcurrentHashMap<>();
+
+    public ChatWebSocketHandler(AgentService agentService,
+                                ObjectMapper objectMapper,
+                                @Value("${chat.ws.workers:32}") int workers,
+                                @Value("${chat.ws.queue-capacity:1024}") int queueCapacity,
+                                @Value("${chat.ws.max-in-flight:8}") int maxInFlight,
+                                @Value("${chat.ws.send-time-limit-ms:10000}") int sendTimeLimitMillis,
+                                @Value("${chat.ws.send-buffer-bytes:1048576}") int sendBufferBytes,
+                                @Value("${chat.ws.max-message-bytes:65536}") int maxMessageBytes,
+                                @Value("${chat.ws.idle-timeout-seconds:300}") long idleTimeoutSeconds) {
+        this.agentService = agentService;
+        this.objectMapper = objectMapper;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferBytes = sendBufferBytes;
+        this.maxMessageBytes = maxMessageBytes;
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "chat-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // a reply that finds the queue full is sent from the thread that completed the goal
+                (runnable, executor) -> runnable.run());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.setTextMessageSizeLimit(maxMessageBytes);
+        if (session instanceof org.springframework.web.socket.adapter.NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session container = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (container != null) {
+                container.setMaxIdleTimeout(idleTimeoutMillis);
+            }
+        }
+        ChatSession chat = new ChatSession(session.getId(), agentService.openSession(),
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, sendBufferBytes));
+        sessions.put(session.getId(), chat);
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "session");
+        frame.put("sessionId", chat.getConversationId());
+        frame.put("skills", agentService.getAvailableSkills());
+        frame.put("maxInFlight", maxInFlight);
+        send(chat, frame);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        ChatSession chat = sessions.get(session.getId());
+        if (chat == null) {
+            return;
+        }
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            sendError(chat, null, "Malformed message: expected a JSON object");
+            return;
+        }
+        if (request == null || !request.isObject()) {
+            sendError(chat, null, "Malformed message: expected a JSON object");
+            return;
+        }
+
+        String id = request.hasNonNull("id") ? request.get("id").asText() : null;
+        String type = request.path("type").asText("execute");
+        if ("ping".equals(type)) {
+            Map<String, Object> pong = new LinkedHashMap<>();
+            pong.put("type", "pong");
+            pong.put("id", id);
+            send(chat, pong);
+            return;
+        }
+        if (!"execute".equals(type)) {
+            sendError(chat, id, "Unknown message type: " + type);
+            return;
+        }
+
+        String goal = request.path("goal").asText("");
+        String cursor = request.hasNonNull("cursor") ? request.get("cursor").asText() : null;
+        int pageSize = request.path("pageSize").asInt(0);
+        boolean stream = request.path("stream").asBoolean(false);
+        boolean timings = request.path("timings").asBoolean(false);
+        String conversation = request.hasNonNull("sessionId")
+                ? request.get("sessionId").asText() : chat.getConversationId();
+        if (!ConversationStore.isValidSessionId(conversation)) {
+            sendError(chat, id, "sessionId must be 1-128 characters");
+            return;
+        }
+        if (request.hasNonNull("sessionId") && !agentService.hasSession(conversation)) {
+            sendError(chat, id, "Unknown or expired sessionId");
+            return;
+        }
+        Priority priority;
+        try {
+            priority = Priority.parse(request.path("priority").asText(null), Priority.INTERACTIVE);
+        } catch (IllegalArgumentException e) {
+            sendError(chat, id, e.getMessage());
+            return;
+        }
+        if (goal.isBlank() && (cursor == null || cursor.isBlank())) {
+            sendError(chat, id, "Please send a goal");
+            return;
+        }
+        if (!chat.tryBegin(maxInFlight)) {
+            sendError(chat, id, "Too many requests in flight (limit " + maxInFlight + ")");
+            return;
+        }
+        long start = System.nanoTime();
+        // the goal runs on the scheduler (or without a thread, for reactive skills); chat
+        // workers only send the replies once it completes
+        CompletableFuture<List<ActionResult>> trace = cursor != null && !cursor.isBlank()
+                ? CompletableFuture.supplyAsync(() -> agentService.fetchPage(cursor, pageSize), workers)
+                : agentService.executeGoalReactive(conversation, goal, pageSize, priority, timings).toFuture();
+        trace.whenCompleteAsync((results, error) -> reply(chat, id, results, error, pageSize, stream, start), workers);
+    }
+
+    private void reply(ChatSession chat, String id, List<ActionResult> trace, Throwable error, int pageSize,
+                       boolean stream, long start) {
+        try {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                log.warn("Chat request {} in session {} failed", id, chat.getId(), cause);
+                sendError(chat, id, "Error: " + cause.getMessage());
+                return;
+            }
+            int seq = sendResults(chat, id, trace, 0);
+            ActionResult last = trace.get(trace.size() - 1);
+            while (stream && last.getNextCursor() != null && chat.isOpen()) {
+                trace = agentService.fetchPage(last.getNextCursor(), pageSize);
+                seq = sendResults(chat, id, trace, seq);
+                last = trace.get(trace.size() - 1);
+            }
+
+            Map<String, Object> done = new LinkedHashMap<>();
+            done.put("type", "done");
+            done.put("id", id);
+            done.put("finalOutput", last.getOutput());
+            if (last.getNextCursor() != null) {
+                done.put("nextCursor", last.getNextCursor());
+            }
+            done.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+            send(chat, done);
+        } catch (RuntimeException e) {
+            log.warn("Chat request {} in session {} failed", id, chat.getId(), e);
+            sendError(chat, id, "Error: " + e.getMessage());
+        } finally {
+            chat.end();
+        }
+    }
+
+    private int sendResults(ChatSession chat, String id, List<ActionResult> trace, int seq) {
+        for (ActionResult result : trace) {
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "result");
+            frame.put("id", id);
+            frame.put("seq", seq++);
+            frame.put("result", result);
+            send(chat, frame);
+        }
+        return seq;
+    }
+
+    private void sendError(ChatSession chat, String id, String message) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "error");
+        frame.put("id", id);
+        frame.put("message", message);
+        send(chat, frame);
+    }
+
+    private void send(ChatSession chat, Map<String, Object> frame) {
+        if (!chat.isOpen()) {
+            return;
+        }
+        try {
+            chat.getSocket().sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+        } catch (IOException | IllegalStateException e) {
+            // the decorator closes sessions whose client cannot keep up
+            log.debug("Dropping frame for chat session {}: {}", chat.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Transport error in chat session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ChatSession chat = sessions.remove(session.getId());
+        if (chat != null) {
+            agentService.forgetSession(chat.getConversationId());
+        }
+    }
+
+    /**
+     * Number of open chat connections
+     */
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdownNow();
+    }
+}
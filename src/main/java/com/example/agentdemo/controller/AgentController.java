@@ -1,20 +1,42 @@
 package com.example.agentdemo.controller;
 
 import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.memory.Turn;
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.agent.skills.SummarizeSkill;
 import com.example.agentdemo.model.ActionResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/agent")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AgentController {
+    private static final String UNKNOWN_SESSION =
+            "Unknown or expired sessionId; send \"newSession\": true to start a conversation";
+
     private final AgentService agentService;
+    private final SummarizeSkill summarizeSkill;
 
-    public AgentController(AgentService agentService) {
+    public AgentController(AgentService agentService, SummarizeSkill summarizeSkill) {
         this.agentService = agentService;
+        this.summarizeSkill = summarizeSkill;
     }
 
     @GetMapping("/skills")
@@ -26,17 +48,146 @@ public class AgentController {
         ));
     }
 
+    /**
+     * Execute a goal, or continue a paged result when the body carries a {@code cursor}.
+     * An optional {@code pageSize} bounds the number of rows returned per response.
+     * {@code "newSession": true} starts a conversation and returns its server-issued
+     * {@code sessionId}; passing that id back keeps context for follow-ups. Ids the server
+     * did not issue, or whose conversation expired, get {@code 404}.
+     * Goals run as interactive work unless the {@code X-Priority} header says {@code bulk}.
+     * With {@code "timings": true} each trace entry carries a per-phase breakdown in
+     * nanoseconds (routing, queue wait, skill, MCP encode / round trip / decode) and the
+     * cache hits of the goal.
+     */
     @PostMapping("/execute")
-    public ResponseEntity<Map<String, Object>> execute(@RequestBody Map<String, String> body) {
+    public ResponseEntity<Map<String, Object>> execute(@RequestBody Map<String, String> body,
+                                                       @RequestHeader(value = Priority.HEADER, required = false) String priorityHeader) {
         String goal = body.getOrDefault("goal", "");
-        List<ActionResult> trace = agentService.executeGoal(goal);
+        String cursor = body.get("cursor");
+        String requestedSession = body.get("sessionId");
+        boolean newSession = Boolean.parseBoolean(body.get("newSession"));
+        int pageSize = parsePageSize(body.get("pageSize"));
+        boolean timings = Boolean.parseBoolean(body.get("timings"));
 
-        String finalOutput = trace.get(trace.size() - 1).getOutput();
+        if (requestedSession != null && !ConversationStore.isValidSessionId(requestedSession)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sessionId must be 1-128 characters"));
+        }
+        if (requestedSession != null && !agentService.hasSession(requestedSession)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", UNKNOWN_SESSION));
+        }
 
-        return ResponseEntity.ok(Map.of(
-                "goal", goal,
-                "trace", trace,
-                "finalOutput", finalOutput
-        ));
+        Priority priority;
+        try {
+            priority = Priority.parse(priorityHeader, Priority.INTERACTIVE);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        String sessionId = requestedSession == null && newSession ? agentService.openSession() : requestedSession;
+        List<ActionResult> trace;
+        try {
+            trace = cursor != null && !cursor.isBlank()
+                    ? agentService.fetchPage(cursor, pageSize)
+                    : agentService.executeGoal(sessionId, goal, pageSize, priority, timings);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        ActionResult last = trace.get(trace.size() - 1);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("goal", goal);
+        if (sessionId != null) {
+            response.put("sessionId", sessionId);
+        }
+        response.put("trace", trace);
+        response.put("finalOutput", last.getOutput());
+        if (last.getNextCursor() != null) {
+            response.put("nextCursor", last.getNextCursor());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The remembered turns of a conversation, oldest first. Row sets are summarised by
+     * their size.
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<Map<String, Object>> history(@PathVariable String sessionId) {
+        if (!agentService.hasSession(sessionId)) {
+            return ResponseEntity.notFound().build();
+        }
+        List<Map<String, Object>> turns = new ArrayList<>();
+        for (Turn turn : agentService.getHistory(sessionId)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("at", turn.getAt().toString());
+            entry.put("goal", turn.getGoal());
+            entry.put("skillName", turn.getSkillName());
+            entry.put("success", turn.isSuccess());
+            entry.put("output", turn.getOutput());
+            if (turn.hasRows()) {
+                entry.put("rows", turn.getRows().size());
+            }
+            turns.add(entry);
+        }
+        return ResponseEntity.ok(Map.of("sessionId", sessionId, "turns", turns));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> forget(@PathVariable String sessionId) {
+        return agentService.forgetSession(sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Summarize an uploaded document (multipart field {@code file}). The upload is
+     * spooled to a temporary file and read through memory-mapped I/O.
+     */
+    @PostMapping(value = "/summarize", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> summarizeUpload(@RequestParam("file") MultipartFile file) throws IOException {
+        Path temp = Files.createTempFile("agent-summarize-", ".txt");
+        try {
+            file.transferTo(temp);
+            return summaryResponse("summarize file: " + file.getOriginalFilename(), summarizeSkill.summarizeFile(temp));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Summarize a raw request body streamed straight to a temporary file
+     */
+    @PostMapping(value = "/summarize", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<Map<String, Object>> summarizeStream(InputStream body) throws IOException {
+        Path temp = Files.createTempFile("agent-summarize-", ".txt");
+        try {
+            Files.copy(body, temp, StandardCopyOption.REPLACE_EXISTING);
+            return summaryResponse("summarize file: (request body)", summarizeSkill.summarizeFile(temp));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> summaryResponse(String goal, ActionResult result) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("goal", goal);
+        response.put("trace", List.of(result));
+        response.put("finalOutput", result.getOutput());
+        return ResponseEntity.ok(response);
+    }
+
+    private int parsePageSize(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.example.agentdemo.controller;
+
+import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.jobs.Job;
+import com.example.agentdemo.agent.jobs.JobService;
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.scheduling.Priority;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background execution of goals: submit, then poll or receive a callback.
+ */
+@RestController
+@RequestMapping("/api/agent/jobs")
+public class JobController {
+    private final JobService jobService;
+    private final AgentService agentService;
+
+    public JobController(JobService jobService, AgentService agentService) {
+        this.jobService = jobService;
+        this.agentService = agentService;
+    }
+
+    /**
+     * Queue a goal and return at once with {@code 202 Accepted} and the job's status URL.
+     * Accepts {@code goal}, optional {@code sessionId} (issued by {@code /api/agent/execute}),
+     * {@code pageSize} and {@code callbackUrl}.
+     * Jobs run as bulk work unless the {@code X-Priority} header or a {@code priority} field
+     * says {@code interactive}.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody Map<String, String> body,
+                                                      @RequestHeader(value = Priority.HEADER, required = false) String priorityHeader) {
+        String goal = body.getOrDefault("goal", "");
+        String sessionId = body.get("sessionId");
+        if (goal.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "goal is required"));
+        }
+        if (sessionId != null && !ConversationStore.isValidSessionId(sessionId)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sessionId must be 1-128 characters"));
+        }
+        if (sessionId != null && !agentService.hasSession(sessionId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown or expired sessionId"));
+        }
+
+        Job job;
+        try {
+            Priority priority = Priority.parse(body.getOrDefault("priority", priorityHeader), Priority.BULK);
+            job = jobService.submit(goal, sessionId, parsePageSize(body.get("pageSize")), body.get("callbackUrl"),
+                    priority);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body(Map.of("error", "Job queue is full, please retry later"));
+        }
+
+        String statusUrl = "/api/agent/jobs/" + job.getId();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("priority", job.getPriority());
+        response.put("statusUrl", statusUrl);
+        return ResponseEntity.accepted().location(URI.create(statusUrl)).body(response);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Job> status(@PathVariable String id) {
+        return ResponseEntity.of(jobService.get(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Job> cancel(@PathVariable String id) {
+        return ResponseEntity.of(jobService.cancel(id));
+    }
+
+    private int parsePageSize(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
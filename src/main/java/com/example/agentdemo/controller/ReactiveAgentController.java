@@ -0,0 +1,202 @@
+package com.example.agentdemo.controller;
+
+import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.memory.Turn;
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.agent.skills.SummarizeSkill;
+import com.example.agentdemo.model.ActionResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * The agent API on WebFlux, used when the application runs as a reactive web application
+ * ({@code spring.main.web-application-type=reactive}, served by Netty). Requests and
+ * responses match {@link AgentController}; goals handled by a
+ * {@link com.example.agentdemo.agent.ReactiveSkill} complete without holding a thread,
+ * other goals run on the scheduler workers and summaries on the bounded elastic pool, so
+ * the event loop never blocks.
+ */
+@RestController
+@RequestMapping("/api/agent")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAgentController {
+    private static final String UNKNOWN_SESSION =
+            "Unknown or expired sessionId; send \"newSession\": true to start a conversation";
+
+    private final AgentService agentService;
+    private final SummarizeSkill summarizeSkill;
+
+    public ReactiveAgentController(AgentService agentService, SummarizeSkill summarizeSkill) {
+        this.agentService = agentService;
+        this.summarizeSkill = summarizeSkill;
+    }
+
+    @GetMapping("/skills")
+    public Map<String, Object> getSkills() {
+        List<String> skills = agentService.getAvailableSkills();
+        return Map.of(
+                "count", skills.size(),
+                "skills", skills
+        );
+    }
+
+    /**
+     * Execute a goal, or continue a paged result when the body carries a {@code cursor}.
+     * See {@link AgentController#execute} for the request fields.
+     */
+    @PostMapping("/execute")
+    public Mono<ResponseEntity<Map<String, Object>>> execute(@RequestBody Map<String, String> body,
+                                                             @RequestHeader(value = Priority.HEADER, required = false) String priorityHeader) {
+        String goal = body.getOrDefault("goal", "");
+        String cursor = body.get("cursor");
+        String requestedSession = body.get("sessionId");
+        boolean newSession = Boolean.parseBoolean(body.get("newSession"));
+        int pageSize = parsePageSize(body.get("pageSize"));
+        boolean timings = Boolean.parseBoolean(body.get("timings"));
+
+        if (requestedSession != null && !ConversationStore.isValidSessionId(requestedSession)) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "sessionId must be 1-128 characters")));
+        }
+        if (requestedSession != null && !agentService.hasSession(requestedSession)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", UNKNOWN_SESSION)));
+        }
+
+        Priority priority;
+        try {
+            priority = Priority.parse(priorityHeader, Priority.INTERACTIVE);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
+        }
+
+        String sessionId = requestedSession == null && newSession ? agentService.openSession() : requestedSession;
+        Mono<List<ActionResult>> trace = cursor != null && !cursor.isBlank()
+                ? Mono.fromSupplier(() -> agentService.fetchPage(cursor, pageSize))
+                : agentService.executeGoalReactive(sessionId, goal, pageSize, priority, timings);
+
+        return trace.map(results -> {
+                    ActionResult last = results.get(results.size() - 1);
+
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("goal", goal);
+                    if (sessionId != null) {
+                        response.put("sessionId", sessionId);
+                    }
+                    response.put("trace", results);
+                    response.put("finalOutput", last.getOutput());
+                    if (last.getNextCursor() != null) {
+                        response.put("nextCursor", last.getNextCursor());
+                    }
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(RejectedExecutionException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header("Retry-After", "1")
+                                .body(Map.of("error", e.getMessage()))));
+    }
+
+    /**
+     * The remembered turns of a conversation, oldest first. Row sets are summarised by
+     * their size.
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<Map<String, Object>> history(@PathVariable String sessionId) {
+        if (!agentService.hasSession(sessionId)) {
+            return ResponseEntity.notFound().build();
+        }
+        List<Map<String, Object>> turns = new ArrayList<>();
+        for (Turn turn : agentService.getHistory(sessionId)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("at", turn.getAt().toString());
+            entry.put("goal", turn.getGoal());
+            entry.put("skillName", turn.getSkillName());
+            entry.put("success", turn.isSuccess());
+            entry.put("output", turn.getOutput());
+            if (turn.hasRows()) {
+                entry.put("rows", turn.getRows().size());
+            }
+            turns.add(entry);
+        }
+        return ResponseEntity.ok(Map.of("sessionId", sessionId, "turns", turns));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> forget(@PathVariable String sessionId) {
+        return agentService.forgetSession(sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Summarize an uploaded document (multipart field {@code file}), spooled to a
+     * temporary file and read through memory-mapped I/O
+     */
+    @PostMapping(value = "/summarize", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<Map<String, Object>> summarizeUpload(@RequestPart("file") FilePart file) {
+        return summarizeSpooled("summarize file: " + file.filename(), file::transferTo);
+    }
+
+    /**
+     * Summarize a raw request body streamed straight to a temporary file
+     */
+    @PostMapping(value = "/summarize", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public Mono<Map<String, Object>> summarizeStream(ServerHttpRequest request) {
+        return summarizeSpooled("summarize file: (request body)",
+                temp -> DataBufferUtils.write(request.getBody(), temp));
+    }
+
+    private Mono<Map<String, Object>> summarizeSpooled(String goal, Function<Path, Mono<Void>> spool) {
+        return Mono.using(
+                        () -> Files.createTempFile("agent-summarize-", ".txt"),
+                        temp -> spool.apply(temp)
+                                .then(Mono.fromCallable(() -> summarizeSkill.summarizeFile(temp))
+                                        .subscribeOn(Schedulers.boundedElastic())),
+                        ReactiveAgentController::deleteQuietly)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(result -> {
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("goal", goal);
+                    response.put("trace", List.of(result));
+                    response.put("finalOutput", result.getOutput());
+                    return response;
+                });
+    }
+
+    private static void deleteQuietly(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            temp.toFile().deleteOnExit();
+        }
+    }
+
+    private int parsePageSize(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.agentdemo.geo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static double-array trie (Aoe, 1989) over keys of the folded place name alphabet
+ * ({@code a-z}, {@code 0-9} and space), mapping each key to an int value.
+ *
+ * A transition from node {@code s} on symbol {@code c} leads to {@code t = base[s] + c} if
+ * {@code check[t] == s}, so walking a key costs two array reads per character and no
+ * hashing or allocation. Symbol 0 terminates a key. Only the branching part of the trie is
+ * kept in the double array: once a prefix is shared by a single key, the node stores
+ * {@code base = -(tail + 1)} and the rest of the key, its terminator and the value follow
+ * contiguously in the tail array, so most of a lookup reads sequential memory.
+ * {@code base} and {@code check} are interleaved so a node costs one cache miss, and
+ * everything lives in direct buffers, off the Java heap.
+ *
+ * Walk states are node indexes ({@code >= 0}) or positions inside a tail, encoded as
+ * {@code -(position + 2)}; {@link #NONE} is -1.
+ */
+final class DoubleArrayTrie {
+
+    static final int NONE = -1;
+
+    private static final int END = 0;
+    private static final int ALPHABET = 38;
+    private static final byte[] CODES = new byte[128];
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        CODES[' '] = 1;
+        for (char c = '0'; c <= '9'; c++) {
+            CODES[c] = (byte) (2 + c - '0');
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CODES[c] = (byte) (12 + c - 'a');
+        }
+    }
+
+    private final IntBuffer units;   // base[i] at 2i, check[i] at 2i + 1
+    private final ByteBuffer tail;
+    private final int size;
+
+    private DoubleArrayTrie(int[] base, int[] check, int size, byte[] tail, int tailSize) {
+        this.size = size;
+        this.units = ByteBuffer.allocateDirect(2 * size * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        for (int i = 0; i < size; i++) {
+            units.put(2 * i, base[i]).put(2 * i + 1, check[i]);
+        }
+        this.tail = ByteBuffer.allocateDirect(tailSize).order(ByteOrder.nativeOrder()).put(tail, 0, tailSize).clear();
+    }
+
+    private int base(int node) {
+        return units.get(2 * node);
+    }
+
+    private int check(int node) {
+        return units.get(2 * node + 1);
+    }
+
+    /**
+     * True if {@code c} can occur in a key
+     */
+    static boolean isSymbol(char c) {
+        return c < 128 && CODES[c] > 0;
+    }
+
+    int root() {
+        return 0;
+    }
+
+    /**
+     * State after reading {@code c} in state {@code state}, or {@link #NONE}
+     */
+    int next(int state, char c) {
+        if (c >= 128 || CODES[c] <= 0 || state == NONE) {
+            return NONE;
+        }
+        int position;
+        if (state >= 0) {
+            int b = base(state);
+            if (b >= 0) {
+                int target = b + CODES[c];
+                return target < size && check(target) == state ? target : NONE;
+            }
+            position = -b - 1;
+        } else {
+            position = -state - 2;
+        }
+        return tail.get(position) == CODES[c] ? -(position + 1) - 2 : NONE;
+    }
+
+    /**
+     * Value of the key ending in {@code state}, or {@link #NONE} if no key ends there
+     */
+    int value(int state) {
+        if (state == NONE) {
+            return NONE;
+        }
+        int position;
+        if (state >= 0) {
+            int b = base(state);
+            if (b >= 0) {
+                int target = b + END;
+                if (target >= size || check(target) != state) {
+                    return NONE;
+                }
+                b = base(target);
+            }
+            position = -b - 1;
+        } else {
+            position = -state - 2;
+        }
+        return tail.get(position) == END ? tail.getInt(position + 1) : NONE;
+    }
+
+    /**
+     * Value of a whole key, or {@link #NONE}
+     */
+    int get(CharSequence key) {
+        int state = root();
+        for (int i = 0; i < key.length() && state != NONE; i++) {
+            state = next(state, key.charAt(i));
+        }
+        return state == NONE ? NONE : value(state);
+    }
+
+    long sizeInBytes() {
+        return 2L * size * Integer.BYTES + tail.capacity();
+    }
+
+    /**
+     * Build from distinct keys in ascending {@link String#compareTo} order (which equals symbol
+     * order for this alphabet) and their non-negative values
+     */
+    static DoubleArrayTrie build(List<String> keys, int[] values) {
+        Builder builder = new Builder(keys, values);
+        if (!keys.isEmpty()) {
+            builder.insert(0, 0, keys.size(), 0);
+        }
+        return new DoubleArrayTrie(builder.base, builder.check, builder.size, builder.tail, builder.tailSize);
+    }
+
+    private static final class Builder {
+        private static final int UNUSED = -1;
+
+        private final List<String> keys;
+        private final int[] values;
+        private int[] base;
+        private int[] check;
+        private int size = 1;
+        private int nextCheckPos;
+        private byte[] tail = new byte[1024];
+        private int tailSize;
+
+        Builder(List<String> keys, int[] values) {
+            this.keys = keys;
+            this.values = values;
+            int capacity = Math.max(1024, keys.size() * 2);
+            this.base = new int[capacity];
+            this.check = new int[capacity];
+            Arrays.fill(check, UNUSED);
+            check[0] = Integer.MAX_VALUE; // the root is nobody's child
+        }
+
+        private int label(String key, int depth) {
+            if (depth == key.length()) {
+                return END;
+            }
+            char c = key.charAt(depth);
+            if (!isSymbol(c)) {
+                throw new IllegalArgumentException("Unsupported character in key '" + key + "'");
+            }
+            return CODES[c];
+        }
+
+        /**
+         * Place the children of {@code state}: the distinct symbols at {@code depth} of keys
+         * {@code [from, to)}, which share their first {@code depth} symbols. A single key
+         * gets the rest of its symbols stored as a tail instead.
+         */
+        void insert(int state, int from, int to, int depth) {
+            if (to - from == 1) {
+                base[state] = -appendTail(from, depth) - 1;
+                return;
+            }
+            int[] labels = new int[ALPHABET];
+            int[] starts = new int[ALPHABET + 1];
+            int count = 0;
+            int previous = -1;
+            for (int i = from; i < to; i++) {
+                int label = label(keys.get(i), depth);
+                if (label < previous) {
+                    throw new IllegalArgumentException("Keys are not sorted");
+                }
+                if (label != previous) {
+                    labels[count] = label;
+                    starts[count++] = i;
+                    previous = label;
+                }
+            }
+            starts[count] = to;
+
+            int b = findBase(labels, count);
+            base[state] = b;
+            for (int i = 0; i < count; i++) {
+                check[b + labels[i]] = state;
+            }
+            size = Math.max(size, b + labels[count - 1] + 1);
+            for (int i = 0; i < count; i++) {
+                int child = b + labels[i];
+                if (labels[i] == END && starts[i + 1] - starts[i] != 1) {
+                    throw new IllegalArgumentException("Duplicate key '" + keys.get(starts[i]) + "'");
+                }
+                insert(child, starts[i], starts[i + 1], labels[i] == END ? depth : depth + 1);
+            }
+        }
+
+        /**
+         * Append the symbols of {@code key} from {@code depth}, the terminator and the value
+         */
+        private int appendTail(int key, int depth) {
+            String suffix = keys.get(key);
+            int length = suffix.length() - depth;
+            if (tailSize + length + 1 + Integer.BYTES > tail.length) {
+                tail = Arrays.copyOf(tail, Math.max(tail.length * 2, tailSize + length + 1 + Integer.BYTES));
+            }
+            int start = tailSize;
+            for (int i = depth; i < suffix.length(); i++) {
+                tail[tailSize++] = (byte) label(suffix, i);
+            }
+            tail[tailSize++] = END;
+            ByteBuffer.wrap(tail, tailSize, Integer.BYTES).order(ByteOrder.nativeOrder()).putInt(values[key]);
+            tailSize += Integer.BYTES;
+            return start;
+        }
+
+        /**
+         * Smallest base at which all labels land on free slots, scanning from the first
+         * slot that was still free last time
+         */
+        private int findBase(int[] labels, int count) {
+            int position = Math.max(labels[0] + 1, nextCheckPos) - 1;
+            int occupied = 0;
+            boolean first = true;
+            while (true) {
+                position++;
+                ensureCapacity(position + ALPHABET);
+                if (check[position] != UNUSED) {
+                    occupied++;
+                    continue;
+                }
+                if (first) {
+                    nextCheckPos = position;
+                    first = false;
+                }
+                int b = position - labels[0];
+                boolean fits = true;
+                for (int i = 1; i < count && fits; i++) {
+                    fits = check[b + labels[i]] == UNUSED;
+                }
+                if (fits) {
+                    // skip over densely used regions in later searches
+                    if (occupied * 20 >= (position - nextCheckPos + 1) * 19) {
+                        nextCheckPos = position;
+                    }
+                    return b;
+                }
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity < check.length) {
+                return;
+            }
+            int grown = Math.max(capacity + 1, check.length + (check.length >> 1));
+            base = Arrays.copyOf(base, grown);
+            int old = check.length;
+            check = Arrays.copyOf(check, grown);
+            Arrays.fill(check, old, grown, UNUSED);
+        }
+    }
+}
@@ -0,0 +1,560 @@
+package com.example.agentdemo.geo;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Place name lookup for free text. Names and aliases are folded to lower-case ASCII
+ * ("São Paulo" and "Sao Paulo" become {@code sao paulo}) and stored in a
+ * {@link DoubleArrayTrie}; coordinates, population, country, region, time zone and name of
+ * each place are packed into a fixed-width record in a direct buffer, so a large gazetteer
+ * stays compact and off the Java heap, and resolving a place reads one record.
+ *
+ * {@link #find} scans the tokens of a text for the longest place names (so "New York"
+ * beats "York"), prefers mentions introduced by "in", "for", "at", "near" or written
+ * capitalised, and ignores words such as "forecast" or "noon". Among places sharing a name,
+ * a following region or country ("Paris, Texas", "London, Ontario") decides; otherwise the most
+ * populous place wins.
+ */
+public final class Gazetteer {
+
+    private static final Set<String> PREPOSITIONS = Set.of("in", "for", "at", "near", "around");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "weather", "forecast", "temperature", "temperatures", "humidity", "wind", "rain", "snow",
+            "sunny", "cloudy", "hot", "cold", "now", "today", "tomorrow", "tonight", "noon", "midnight",
+            "morning", "afternoon", "evening", "night", "week", "weekend", "monday", "tuesday", "wednesday",
+            "thursday", "friday", "saturday", "sunday", "the", "a", "an", "and", "or", "of", "is", "it",
+            "be", "will", "what", "whats", "how", "like", "me", "get", "show", "tell", "please", "in",
+            "for", "at", "near", "around");
+    // place names that are also everyday words: only taken as places when capitalised or
+    // introduced by a preposition ("nice weather" vs "weather in Nice")
+    private static final Set<String> COMMON_WORDS = Set.of(
+            "nice", "reading", "split", "mobile", "bath", "orange", "hope", "eagle", "independence",
+            "university", "college", "commerce", "victoria", "florence", "york", "rio", "la", "sf", "kl");
+    private static final int MAX_QUALIFIER_TOKENS = 3;
+
+    private final DoubleArrayTrie names;
+    // record layout: latitude, longitude (float), population, region index or -1 (int),
+    // zone, country (short), name offset into nameBytes (int), name length (int)
+    private static final int LATITUDE = 0;
+    private static final int LONGITUDE = 4;
+    private static final int POPULATION = 8;
+    private static final int REGION = 12;
+    private static final int ZONE = 16;
+    private static final int COUNTRY = 18;
+    private static final int NAME_OFFSET = 20;
+    private static final int NAME_LENGTH = 24;
+    private static final int RECORD_BYTES = 28;
+
+    private final IntBuffer postings;      // per name: count, then place ids by descending population
+    private final ByteBuffer records;
+    private final ByteBuffer nameBytes;
+    private final int placeCount;
+    private final int nameCount;
+
+    private final String[] zoneIds;
+    private final String[] countryCodes;
+    private final String[] countryNames;
+    private final String[] regionNames;
+    private final int[] regionCountries;
+    // qualifier phrase -> regions (>= 0) and countries (encoded as -(country + 1))
+    private final Map<String, int[]> qualifierNames;
+    private final Map<String, int[]> qualifierCodes;
+
+    private Gazetteer(Builder builder, List<String> keys, int[] values, int[] postingData) {
+        this.placeCount = builder.placeCount;
+        this.nameCount = keys.size();
+        this.names = DoubleArrayTrie.build(keys, values);
+        this.postings = direct(postingData.length * Integer.BYTES).asIntBuffer().put(postingData).clear();
+        this.records = direct(placeCount * RECORD_BYTES);
+        for (int id = 0; id < placeCount; id++) {
+            int record = id * RECORD_BYTES;
+            records.putFloat(record + LATITUDE, builder.latitudes[id])
+                    .putFloat(record + LONGITUDE, builder.longitudes[id])
+                    .putInt(record + POPULATION, builder.populations[id])
+                    .putInt(record + REGION, builder.regions[id])
+                    .putShort(record + ZONE, builder.zones[id])
+                    .putShort(record + COUNTRY, builder.countries[id])
+                    .putInt(record + NAME_OFFSET, builder.nameOffsets[id])
+                    .putInt(record + NAME_LENGTH, builder.nameOffsets[id + 1] - builder.nameOffsets[id]);
+        }
+        this.nameBytes = direct(builder.nameBytes.size()).put(builder.nameBytes.toByteArray()).clear();
+
+        this.zoneIds = builder.zoneIds.toArray(new String[0]);
+        this.countryCodes = builder.countryCodes.toArray(new String[0]);
+        this.countryNames = builder.countryNames.toArray(new String[0]);
+        this.regionNames = builder.regionNames.toArray(new String[0]);
+        this.regionCountries = builder.regionCountries.stream().mapToInt(Integer::intValue).toArray();
+        this.qualifierNames = freeze(builder.qualifierNames);
+        this.qualifierCodes = freeze(builder.qualifierCodes);
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static Map<String, int[]> freeze(Map<String, Set<Integer>> map) {
+        Map<String, int[]> frozen = new HashMap<>(map.size() * 2);
+        map.forEach((key, ids) -> frozen.put(key, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return frozen;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int placeCount() {
+        return placeCount;
+    }
+
+    /**
+     * Number of distinct folded names and aliases
+     */
+    public int nameCount() {
+        return nameCount;
+    }
+
+    /**
+     * Off-heap bytes used by the trie and place columns
+     */
+    public long sizeInBytes() {
+        return names.sizeInBytes() + postings.capacity() * 4L + records.capacity() + nameBytes.capacity();
+    }
+
+    /**
+     * Places with exactly this name or alias (after folding), most populous first
+     */
+    public List<Place> lookup(CharSequence name) {
+        int posting = names.get(fold(name));
+        if (posting == DoubleArrayTrie.NONE) {
+            return List.of();
+        }
+        int count = postings.get(posting);
+        List<Place> places = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            places.add(place(postings.get(posting + i)));
+        }
+        return places;
+    }
+
+    /**
+     * The most likely place mentioned in {@code text}, or null
+     */
+    public PlaceMatch find(CharSequence text) {
+        List<Token> tokens = tokenize(text);
+        int bestScore = 0;
+        int bestStart = -1;
+        int bestEnd = -1;
+        int bestPosting = -1;
+        int i = 0;
+        while (i < tokens.size()) {
+            // longest name starting at token i that ends on a token boundary
+            int state = names.root();
+            int end = -1;
+            int posting = -1;
+            for (int j = i; j < tokens.size() && state != DoubleArrayTrie.NONE; j++) {
+                String folded = tokens.get(j).folded;
+                if (folded.isEmpty()) {
+                    break;
+                }
+                if (j > i) {
+                    state = names.next(state, ' ');
+                }
+                for (int c = 0; c < folded.length() && state != DoubleArrayTrie.NONE; c++) {
+                    state = names.next(state, folded.charAt(c));
+                }
+                if (state != DoubleArrayTrie.NONE) {
+                    int value = names.value(state);
+                    if (value != DoubleArrayTrie.NONE) {
+                        end = j;
+                        posting = value;
+                    }
+                }
+            }
+            if (end < 0 || allStopWords(tokens, i, end)) {
+                i++;
+                continue;
+            }
+            boolean introduced = i > 0 && PREPOSITIONS.contains(tokens.get(i - 1).folded);
+            boolean capitalized = tokens.get(i).capitalized;
+            if (i == end && !introduced && !capitalized && COMMON_WORDS.contains(tokens.get(i).folded)) {
+                i++;
+                continue;
+            }
+            int score = end - i + 1;
+            if (introduced) {
+                score += 4;
+            }
+            if (capitalized) {
+                score += 2;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestStart = i;
+                bestEnd = end;
+                bestPosting = posting;
+            }
+            i = end + 1;
+        }
+        if (bestPosting < 0) {
+            return null;
+        }
+
+        int count = postings.get(bestPosting);
+        int chosen = postings.get(bestPosting + 1);
+        int end = bestEnd;
+        if (count > 1) {
+            // a region or country right after the name narrows it down
+            for (int length = Math.min(MAX_QUALIFIER_TOKENS, tokens.size() - bestEnd - 1); length > 0; length--) {
+                int[] targets = qualifier(tokens, bestEnd + 1, length);
+                int match = targets == null ? -1 : firstInRegion(bestPosting, count, targets);
+                if (match >= 0) {
+                    chosen = match;
+                    end = bestEnd + length;
+                    break;
+                }
+            }
+        }
+        int startChar = tokens.get(bestStart).start;
+        int endChar = tokens.get(end).end;
+        return new PlaceMatch(place(chosen), text.subSequence(startChar, endChar).toString(), startChar, endChar);
+    }
+
+    private static boolean allStopWords(List<Token> tokens, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            if (!STOP_WORDS.contains(tokens.get(i).folded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] qualifier(List<Token> tokens, int from, int length) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = from; i < from + length; i++) {
+            if (tokens.get(i).folded.isEmpty()) {
+                return null;
+            }
+            if (i > from) {
+                phrase.append(' ');
+            }
+            phrase.append(tokens.get(i).folded);
+        }
+        int[] targets = qualifierNames.get(phrase.toString());
+        if (targets == null && length == 1 && tokens.get(from).upperCase) {
+            // codes such as "TX" or "UK" only count when written in capitals
+            targets = qualifierCodes.get(phrase.toString());
+        }
+        return targets;
+    }
+
+    private int firstInRegion(int posting, int count, int[] targets) {
+        for (int i = 1; i <= count; i++) {
+            int record = postings.get(posting + i) * RECORD_BYTES;
+            int country = records.getShort(record + COUNTRY);
+            int region = records.getInt(record + REGION);
+            for (int target : targets) {
+                if (target >= 0 ? target == region : -target - 1 == country) {
+                    return record / RECORD_BYTES;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Place place(int id) {
+        int record = id * RECORD_BYTES;
+        byte[] name = new byte[records.getInt(record + NAME_LENGTH)];
+        nameBytes.get(records.getInt(record + NAME_OFFSET), name);
+        int country = records.getShort(record + COUNTRY);
+        int region = records.getInt(record + REGION);
+        return new Place(new String(name, StandardCharsets.UTF_8), countryCodes[country], countryNames[country],
+                region < 0 ? "" : regionNames[region], records.getFloat(record + LATITUDE),
+                records.getFloat(record + LONGITUDE), records.getInt(record + POPULATION),
+                zoneIds[records.getShort(record + ZONE)]);
+    }
+
+    /**
+     * Fold to the trie alphabet: lower-case ASCII letters and digits, single spaces between words.
+     * Accents are stripped; letters without an ASCII decomposition are dropped.
+     */
+    static String fold(CharSequence text) {
+        if (text instanceof String string && isFolded(string)) {
+            return string;
+        }
+        StringBuilder folded = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c >= 'A' && c <= 'Z') {
+                if (space && !folded.isEmpty()) {
+                    folded.append(' ');
+                }
+                folded.append(c <= 'Z' && c >= 'A' ? (char) (c + ('a' - 'A')) : c);
+                space = false;
+            } else if (c < 128 || !Character.isLetterOrDigit(c) && !isCombiningMark(c)) {
+                space = true;
+            } else {
+                int length = folded.length();
+                if (space && length > 0) {
+                    folded.append(' ');
+                }
+                foldChar(c, folded);
+                if (folded.length() == length + 1 && space && length > 0) {
+                    folded.setLength(length); // nothing but the space was added
+                } else if (folded.length() > length) {
+                    space = false;
+                }
+            }
+        }
+        return folded.toString();
+    }
+
+    private static boolean isFolded(String text) {
+        if (text.isEmpty()) {
+            return true;
+        }
+        char previous = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean symbol = c >= 'a' && c <= 'z' || c >= '0' && c <= '9';
+            if (!symbol && (c != ' ' || previous == ' ')) {
+                return false;
+            }
+            previous = c;
+        }
+        return previous != ' ';
+    }
+
+    private static boolean isCombiningMark(char c) {
+        return Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static void foldChar(char c, StringBuilder out) {
+        if (c < 128) {
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                out.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                out.append((char) (c + ('a' - 'A')));
+            }
+            return;
+        }
+        switch (Character.toLowerCase(c)) {
+            case 'ł' -> out.append('l');
+            case 'ø' -> out.append('o');
+            case 'æ' -> out.append("ae");
+            case 'œ' -> out.append("oe");
+            case 'ß' -> out.append("ss");
+            case 'đ', 'ð' -> out.append('d');
+            case 'þ' -> out.append("th");
+            case 'ı' -> out.append('i');
+            default -> {
+                if (Character.isLetter(c)) {
+                    String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                    for (int i = 0; i < decomposed.length(); i++) {
+                        char d = decomposed.charAt(i);
+                        if (d < 128) {
+                            foldChar(d, out);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Token> tokenize(CharSequence text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean upper = true;
+            while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || isCombiningMark(text.charAt(i)))) {
+                upper &= !Character.isLowerCase(text.charAt(i));
+                i++;
+            }
+            CharSequence word = text.subSequence(start, i);
+            tokens.add(new Token(fold(word), start, i, Character.isUpperCase(text.charAt(start)), upper));
+        }
+        return tokens;
+    }
+
+    private record Token(String folded, int start, int end, boolean capitalized, boolean upperCase) {
+    }
+
+    /**
+     * Collects places, countries and regions, then builds the immutable gazetteer
+     */
+    public static final class Builder {
+        private float[] latitudes = new float[256];
+        private float[] longitudes = new float[256];
+        private int[] populations = new int[256];
+        private short[] zones = new short[256];
+        private short[] countries = new short[256];
+        private int[] regions = new int[256];
+        private int[] nameOffsets = new int[257];
+        private final ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+        private int placeCount;
+
+        private final Map<String, int[]> postings = new HashMap<>(); // folded name -> place ids (size in [0])
+        private final List<String> zoneIds = new ArrayList<>();
+        private final Map<String, Short> zoneIndex = new HashMap<>();
+        private final List<String> countryCodes = new ArrayList<>();
+        private final List<String> countryNames = new ArrayList<>();
+        private final Map<String, Short> countryIndex = new HashMap<>();
+        private final List<String> regionNames = new ArrayList<>();
+        private final List<Integer> regionCountries = new ArrayList<>();
+        private final Map<String, Integer> regionIndex = new HashMap<>();
+        private final Map<String, Set<Integer>> qualifierNames = new HashMap<>();
+        private final Map<String, Set<Integer>> qualifierCodes = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Register a country by ISO alpha-2 code, with alternative codes (ISO alpha-3, FIPS)
+         */
+        public Builder addCountry(String code, String name, Collection<String> alternateCodes) {
+            int country = country(code);
+            countryNames.set(country, name);
+            qualify(qualifierNames, fold(name), -country - 1);
+            qualify(qualifierCodes, fold(code), -country - 1);
+            for (String alternate : alternateCodes) {
+                qualify(qualifierCodes, fold(alternate), -country - 1);
+            }
+            return this;
+        }
+
+        /**
+         * Register a first-level administrative division, e.g. ("US", "TX", "Texas")
+         */
+        public Builder addRegion(String countryCode, String code, String name) {
+            int country = country(countryCode);
+            int region = regionIndex.computeIfAbsent(countryCode + "." + code, key -> {
+                regionNames.add(name);
+                regionCountries.add(country);
+                return regionNames.size() - 1;
+            });
+            qualify(qualifierNames, fold(name), region);
+            if (!code.chars().allMatch(Character::isDigit)) {
+                qualify(qualifierCodes, fold(code), region);
+            }
+            return this;
+        }
+
+        private static void qualify(Map<String, Set<Integer>> map, String key, int target) {
+            if (!key.isEmpty()) {
+                map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(target);
+            }
+        }
+
+        private int country(String code) {
+            return countryIndex.computeIfAbsent(code, key -> {
+                countryCodes.add(key);
+                countryNames.add("");
+                return (short) (countryCodes.size() - 1);
+            });
+        }
+
+        /**
+         * Add a place under its name and aliases; aliases that fold to nothing are skipped
+         */
+        public Builder addPlace(String name, Collection<String> aliases, double latitude, double longitude,
+                                String countryCode, String regionCode, int population, String timezone) {
+            ensureCapacity(placeCount + 1);
+            int id = placeCount++;
+            latitudes[id] = (float) latitude;
+            longitudes[id] = (float) longitude;
+            populations[id] = population;
+            zones[id] = zoneIndex.computeIfAbsent(timezone, key -> {
+                zoneIds.add(key);
+                return (short) (zoneIds.size() - 1);
+            });
+            countries[id] = (short) country(countryCode);
+            Integer region = regionIndex.get(countryCode + "." + regionCode);
+            regions[id] = region == null ? -1 : region;
+            nameBytes.writeBytes(name.getBytes(StandardCharsets.UTF_8));
+            nameOffsets[id + 1] = nameBytes.size();
+
+            Set<String> folded = new LinkedHashSet<>();
+            folded.add(fold(name));
+            for (String alias : aliases) {
+                folded.add(fold(alias));
+            }
+            for (String key : folded) {
+                if (!key.isEmpty()) {
+                    int[] ids = postings.computeIfAbsent(key, k -> new int[2]);
+                    if (ids[0] + 1 == ids.length) {
+                        ids = Arrays.copyOf(ids, ids.length * 2);
+                        postings.put(key, ids);
+                    }
+                    ids[++ids[0]] = id;
+                }
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= latitudes.length) {
+                return;
+            }
+            int grown = Math.max(capacity, latitudes.length * 2);
+            latitudes = Arrays.copyOf(latitudes, grown);
+            longitudes = Arrays.copyOf(longitudes, grown);
+            populations = Arrays.copyOf(populations, grown);
+            zones = Arrays.copyOf(zones, grown);
+            countries = Arrays.copyOf(countries, grown);
+            regions = Arrays.copyOf(regions, grown);
+            nameOffsets = Arrays.copyOf(nameOffsets, grown + 1);
+        }
+
+        public Gazetteer build() {
+            TreeMap<String, int[]> sorted = new TreeMap<>(postings);
+            List<String> keys = new ArrayList<>(sorted.keySet());
+            int[] values = new int[keys.size()];
+            int total = 0;
+            for (int[] ids : sorted.values()) {
+                total += ids[0] + 1;
+            }
+            int[] data = new int[total];
+            int offset = 0;
+            int k = 0;
+            for (int[] ids : sorted.values()) {
+                values[k++] = offset;
+                Integer[] byPopulation = new Integer[ids[0]];
+                for (int i = 0; i < byPopulation.length; i++) {
+                    byPopulation[i] = ids[i + 1];
+                }
+                Arrays.sort(byPopulation, (a, b) -> Integer.compare(populations[b], populations[a]));
+                data[offset++] = byPopulation.length;
+                for (int id : byPopulation) {
+                    data[offset++] = id;
+                }
+            }
+            return new Gazetteer(this, keys, values, data);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Gazetteer[%d places, %d names, %.1f MB off-heap]", placeCount, nameCount,
+                sizeInBytes() / 1e6);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.agentdemo.geo;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the {@link Gazetteer} used to resolve place names in goals.
+ *
+ * By default a bundled sample in GeoNames format ({@code geo/cities.txt} on the classpath,
+ * major cities worldwide) is used. Point {@code weather.gazetteer.cities} at a full GeoNames
+ * dump such as {@code cities500.txt} or {@code allCountries.txt} to resolve hundreds of
+ * thousands of places; {@code admin1CodesASCII.txt} and {@code countryInfo.txt} are read
+ * from the same directory when present, otherwise the bundled copies are used.
+ */
+@Component
+public class GazetteerService {
+
+    private static final Logger log = LoggerFactory.getLogger(GazetteerService.class);
+
+    private static final String BUNDLED = "geo/";
+    private static final String CITIES = "cities.txt";
+    private static final String REGIONS = "admin1CodesASCII.txt";
+    private static final String COUNTRIES = "countryInfo.txt";
+
+    private final Path citiesFile;
+    private Gazetteer gazetteer;
+
+    public GazetteerService(@Value("${weather.gazetteer.cities:}") String citiesFile) {
+        this.citiesFile = citiesFile.isBlank() ? null : Path.of(citiesFile).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        long start = System.nanoTime();
+        Gazetteer.Builder builder = Gazetteer.builder();
+        Path dir = citiesFile == null ? null : citiesFile.getParent();
+        try (BufferedReader reader = open(dir, COUNTRIES)) {
+            GeoNames.readCountries(reader, builder);
+        }
+        try (BufferedReader reader = open(dir, REGIONS)) {
+            GeoNames.readRegions(reader, builder);
+        }
+        int places;
+        if (citiesFile != null && Files.isRegularFile(citiesFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(citiesFile, StandardCharsets.UTF_8)) {
+                places = GeoNames.readPlaces(reader, builder);
+            }
+        } else {
+            if (citiesFile != null) {
+                log.warn("weather.gazetteer.cities {} is not a file; using the bundled sample", citiesFile);
+            }
+            try (BufferedReader reader = bundled(CITIES)) {
+                places = GeoNames.readPlaces(reader, builder);
+            }
+        }
+        gazetteer = builder.build();
+        log.info("Loaded {} places ({} names, {} KB off-heap) in {} ms", places, gazetteer.nameCount(),
+                gazetteer.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static BufferedReader open(Path dir, String name) throws IOException {
+        if (dir != null && Files.isRegularFile(dir.resolve(name))) {
+            return Files.newBufferedReader(dir.resolve(name), StandardCharsets.UTF_8);
+        }
+        return bundled(name);
+    }
+
+    private static BufferedReader bundled(String name) throws IOException {
+        InputStream in = GazetteerService.class.getClassLoader().getResourceAsStream(BUNDLED + name);
+        if (in == null) {
+            throw new IOException("Missing bundled gazetteer resource " + BUNDLED + name);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public Gazetteer gazetteer() {
+        return gazetteer;
+    }
+
+    /**
+     * The most likely place mentioned in {@code text}, or null
+     */
+    public PlaceMatch find(String text) {
+        return gazetteer.find(text);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.agentdemo.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Readers for the tab-separated GeoNames dumps (https://download.geonames.org/export/dump/):
+ * {@code countryInfo.txt}, {@code admin1CodesASCII.txt} and a cities file such as
+ * {@code cities500.txt} or {@code allCountries.txt}. Lines starting with '#' are comments.
+ */
+public final class GeoNames {
+
+    private GeoNames() {
+    }
+
+    /**
+     * Country rows: ISO, ISO3, ISO-numeric, fips, name, ...
+     */
+    public static void readCountries(BufferedReader reader, Gazetteer.Builder builder) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length < 5) {
+                continue;
+            }
+            List<String> codes = new ArrayList<>(2);
+            if (!columns[1].isEmpty()) {
+                codes.add(columns[1]);
+            }
+            if (!columns[3].isEmpty()) {
+                codes.add(columns[3]);
+            }
+            builder.addCountry(columns[0], columns[4], codes);
+        }
+    }
+
+    /**
+     * Admin1 rows: "US.TX", name, ascii name, geonameid
+     */
+    public static void readRegions(BufferedReader reader, Gazetteer.Builder builder) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            int dot = columns[0].indexOf('.');
+            if (columns.length < 2 || dot < 0) {
+                continue;
+            }
+            builder.addRegion(columns[0].substring(0, dot), columns[0].substring(dot + 1), columns[1]);
+            if (columns.length > 2 && !columns[2].isEmpty() && !columns[2].equals(columns[1])) {
+                builder.addRegion(columns[0].substring(0, dot), columns[0].substring(dot + 1), columns[2]);
+            }
+        }
+    }
+
+    /**
+     * Geoname rows (19 columns): id, name, asciiname, alternatenames, latitude, longitude,
+     * feature class, feature code, country code, cc2, admin1 ... population, elevation, dem,
+     * timezone, modification date. Returns the number of places added.
+     */
+    public static int readPlaces(BufferedReader reader, Gazetteer.Builder builder) throws IOException {
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length < 18 || columns[17].isEmpty()) {
+                continue;
+            }
+            List<String> aliases = new ArrayList<>();
+            aliases.add(columns[2]);
+            if (!columns[3].isEmpty()) {
+                for (String alias : columns[3].split(",")) {
+                    aliases.add(alias);
+                }
+            }
+            int population = columns[14].isEmpty() ? 0 : (int) Math.min(Integer.MAX_VALUE, Long.parseLong(columns[14]));
+            builder.addPlace(columns[1], aliases, Double.parseDouble(columns[4]), Double.parseDouble(columns[5]),
+                    columns[8], columns[10], population, columns[17]);
+            count++;
+        }
+        return count;
+    }
+}
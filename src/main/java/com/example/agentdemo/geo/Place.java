@@ -0,0 +1,103 @@
+package com.example.agentdemo.geo;
+
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * A populated place from the gazetteer
+ */
+public class Place {
+    private final String name;
+    private final String countryCode;
+    private final String countryName;
+    private final String regionName;
+    private final double latitude;
+    private final double longitude;
+    private final int population;
+    private final String timezone;
+
+    public Place(String name, String countryCode, String countryName, String regionName,
+                 double latitude, double longitude, int population, String timezone) {
+        this.name = name;
+        this.countryCode = countryCode;
+        this.countryName = countryName;
+        this.regionName = regionName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.population = population;
+        this.timezone = timezone;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * ISO 3166 alpha-2 country code
+     */
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public String getCountryName() {
+        return countryName;
+    }
+
+    /**
+     * First-level administrative division (state, province), or empty if unknown
+     */
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    /**
+     * IANA time zone id, e.g. {@code Europe/Paris}
+     */
+    public String getTimezone() {
+        return timezone;
+    }
+
+    public ZoneId getZoneId() {
+        return ZoneId.of(timezone);
+    }
+
+    /**
+     * Name qualified by region (where it helps to tell places apart) and country,
+     * e.g. "Paris, Texas, United States"
+     */
+    public String getDisplayName() {
+        StringBuilder display = new StringBuilder(name);
+        if (!regionName.isEmpty() && !regionName.equals(name)) {
+            display.append(", ").append(regionName);
+        }
+        if (!countryName.isEmpty()) {
+            display.append(", ").append(countryName);
+        }
+        return display.toString();
+    }
+
+    /**
+     * Coordinates as e.g. "48.85°N, 2.35°E"
+     */
+    public String getCoordinates() {
+        return String.format(Locale.ROOT, "%.2f°%s, %.2f°%s", Math.abs(latitude), latitude >= 0 ? "N" : "S",
+                Math.abs(longitude), longitude >= 0 ? "E" : "W");
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayName();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.agentdemo.geo;
+
+/**
+ * A place mention found in text: the resolved place and the matched characters
+ * (including a disambiguating region or country, as in "Paris, Texas")
+ */
+public class PlaceMatch {
+    private final Place place;
+    private final String text;
+    private final int start;
+    private final int end;
+
+    public PlaceMatch(Place place, String text, int start, int end) {
+        this.place = place;
+        this.text = text;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Place getPlace() {
+        return place;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "'" + text + "' -> " + place;
+    }
+}
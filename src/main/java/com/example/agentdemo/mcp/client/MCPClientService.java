@@ -1,72 +1,241 @@
 package com.example.agentdemo.mcp.client;
 
 import com.example.agentdemo.mcp.model.*;
+import com.example.agentdemo.model.PhaseTimings;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
 import java.io.*;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MCP Client Service for communicating with MCP servers via stdio
  * Implements the Model Context Protocol for tool discovery and execution
+ *
+ * Each server may be backed by a pool of processes. Calls never wait for a connection:
+ * a request is written to the least busy process and registered under its JSON-RPC id,
+ * and a reader thread per process completes the matching future when the response line
+ * arrives. Callers can therefore wait on the result ({@link #callTool}) or compose it
+ * without holding a thread ({@link #callToolAsync}); tool results are completed on a small
+ * completion pool rather than the reader thread, so whatever a caller chains onto them
+ * (parsing, paging, recording the turn) never delays the next response. Every request fails with a timeout once
+ * {@code mcp.client.request-timeout-ms} passes without an answer, and the handshake of a new
+ * process once {@code mcp.client.handshake-timeout-ms} passes, so a server process that stops
+ * responding cannot hold callers or application startup forever.
+ *
+ * Metrics: {@code mcp.client.requests} times every request by server, method and outcome,
+ * {@code mcp.client.request.size} / {@code mcp.client.response.size} record payload bytes
+ * and {@code mcp.client.pending} counts request ids awaiting a response per server.
+ * Requests made for a goal that collects {@link PhaseTimings} add their serialization,
+ * round trip and deserialization times to it.
+ *
+ * A pool connected with {@code restartOnExit} replaces processes that exit, counted by
+ * {@code mcp.client.restarts}. Sends, round trips and restarts are also emitted as JFR
+ * events ({@code com.example.agentdemo.McpRequestSent}, {@code McpResponseReceived} and
+ * {@code McpProcessRestart}) carrying the request id, process id and payload bytes.
  */
 @Service
 public class MCPClientService {
     
     private static final Logger log = LoggerFactory.getLogger(MCPClientService.class);
     
+    /** Processes that exit sooner than this after starting are restarted only once it has passed */
+    private static final long RESTART_BACKOFF_MILLIS = 1000;
+    private static final long RESTART_MAX_BACKOFF_MILLIS = 30_000;
+    private static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 30_000;
+    private static final long DEFAULT_HANDSHAKE_TIMEOUT_MILLIS = 60_000;
+    
     private final ObjectMapper objectMapper;
-    private final Map<String, MCPServerConnection> serverConnections;
+    private final Map<String, MCPServerPool> serverPools;
     private final AtomicInteger requestIdCounter;
+    private final MeterRegistry meterRegistry;
+    private final Duration requestTimeout;
+    private final Duration handshakeTimeout;
+    private final ThreadPoolExecutor completions;
     
-    public MCPClientService(ObjectMapper objectMapper) {
+    @Autowired
+    public MCPClientService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${mcp.client.request-timeout-ms:30000}") long requestTimeoutMillis,
+                            @Value("${mcp.client.handshake-timeout-ms:60000}") long handshakeTimeoutMillis) {
         this.objectMapper = objectMapper;
-        this.serverConnections = new ConcurrentHashMap<>();
+        this.serverPools = new ConcurrentHashMap<>();
         this.requestIdCounter = new AtomicInteger(0);
+        this.meterRegistry = meterRegistry;
+        this.requestTimeout = Duration.ofMillis(Math.max(1, requestTimeoutMillis));
+        this.handshakeTimeout = Duration.ofMillis(Math.max(1, handshakeTimeoutMillis));
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        // after shutdown, complete on the calling thread rather than leave a caller waiting
+        this.completions = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> Thread.ofPlatform()
+                .name("mcp-complete-" + threadCount.incrementAndGet())
+                .daemon(true)
+                .unstarted(runnable),
+            (runnable, executor) -> runnable.run());
+        this.completions.allowCoreThreadTimeOut(true);
+    }
+    
+    public MCPClientService(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(objectMapper, meterRegistry, DEFAULT_REQUEST_TIMEOUT_MILLIS, DEFAULT_HANDSHAKE_TIMEOUT_MILLIS);
+    }
+    
+    public MCPClientService(ObjectMapper objectMapper) {
+        this(objectMapper, new SimpleMeterRegistry());
     }
     
     /**
      * Connect to an MCP server
      */
     public void connectServer(String serverName, String command, List<String> args) throws IOException {
-        log.info("Connecting to MCP server: {} with command: {}", serverName, command);
+        connectServer(serverName, command, args, 1);
+    }
+    
+    /**
+     * Connect to an MCP server using a pool of {@code poolSize} server processes
+     */
+    public void connectServer(String serverName, String command, List<String> args, int poolSize) throws IOException {
+        connectServer(serverName, command, args, poolSize, false);
+    }
+    
+    /**
+     * Connect to an MCP server using a pool of {@code poolSize} server processes. With
+     * {@code restartOnExit}, a process that exits is replaced by a new one (after a back-off
+     * if it exits repeatedly); requests pending on it still fail.
+     */
+    public void connectServer(String serverName, String command, List<String> args, int poolSize,
+                              boolean restartOnExit) throws IOException {
+        log.info("Connecting to MCP server: {} with command: {} (pool size {})", serverName, command, poolSize);
         
-        ProcessBuilder processBuilder = new ProcessBuilder();
         List<String> commandList = new ArrayList<>();
         commandList.add(command);
         if (args != null) {
             commandList.addAll(args);
         }
-        processBuilder.command(commandList);
+        
+        MCPServerPool pool = new MCPServerPool(serverName, commandList, restartOnExit);
+        try {
+            for (int i = 0; i < Math.max(1, poolSize); i++) {
+                MCPServerConnection connection = startConnection(pool);
+                // Initialize the connection
+                try {
+                    initialize(connection);
+                } catch (IOException | RuntimeException e) {
+                    MCPServerPool.close(connection);
+                    throw e;
+                }
+                pool.add(connection);
+            }
+        } catch (IOException | RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+        
+        MCPServerPool previous = serverPools.put(serverName, pool);
+        if (previous != null) {
+            previous.close();
+        }
+        Gauge.builder("mcp.client.pending", serverPools, pools -> {
+                MCPServerPool current = pools.get(serverName);
+                return current == null ? 0 : current.pending();
+            })
+            .description("JSON-RPC requests awaiting a response")
+            .tag("server", serverName)
+            .register(meterRegistry);
+        
+        log.info("Successfully connected to MCP server: {}", serverName);
+    }
+    
+    private MCPServerConnection startConnection(MCPServerPool pool) throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.command(pool.commandList);
         
         Process process = processBuilder.start();
         
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
         BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
         
-        MCPServerConnection connection = new MCPServerConnection(serverName, process, reader, writer);
-        serverConnections.put(serverName, connection);
-        
-        // Initialize the connection
-        initialize(serverName);
-        
-        log.info("Successfully connected to MCP server: {}", serverName);
+        MCPServerConnection connection = new MCPServerConnection(pool.serverName, process, reader, writer);
+        Thread.ofPlatform()
+            .name("mcp-reader-" + pool.serverName + "-" + process.pid())
+            .daemon(true)
+            .start(() -> readResponses(pool, connection));
+        return connection;
     }
     
     /**
-     * Initialize MCP connection with the server
+     * Replace a pooled process that exited, retrying with back-off until a new one has
+     * completed the handshake or the pool is closed. Runs on the old process's reader thread.
      */
-    private void initialize(String serverName) throws IOException {
-        MCPServerConnection connection = serverConnections.get(serverName);
-        if (connection == null) {
-            throw new IllegalStateException("No connection found for server: " + serverName);
+    private void restart(MCPServerPool pool, MCPServerConnection exited) {
+        McpProcessRestartEvent event = new McpProcessRestartEvent();
+        event.begin();
+        Process process = exited.getProcess();
+        int exitCode;
+        try {
+            exitCode = process.waitFor(1, TimeUnit.SECONDS) ? process.exitValue() : -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (exitCode == -1) {
+            process.destroy();
         }
+        log.warn("MCP server {} process {} exited with code {}, restarting", pool.serverName, process.pid(), exitCode);
         
+        long delay = Math.max(0, RESTART_BACKOFF_MILLIS
+            - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - exited.startedNanos));
+        int attempts = 0;
+        while (!pool.closed) {
+            try {
+                Thread.sleep(delay);
+                attempts++;
+                MCPServerConnection replacement = startConnection(pool);
+                try {
+                    initialize(replacement);
+                } catch (IOException | RuntimeException e) {
+                    MCPServerPool.close(replacement);
+                    throw e;
+                }
+                if (!pool.replace(exited, replacement)) {
+                    MCPServerPool.close(replacement);
+                    return;
+                }
+                meterRegistry.counter("mcp.client.restarts", "server", pool.serverName).increment();
+                event.server = pool.serverName;
+                event.exitedPid = process.pid();
+                event.exitCode = exitCode;
+                event.pid = replacement.getProcess().pid();
+                event.attempts = attempts;
+                event.commit();
+                log.info("Restarted MCP server {} as process {}", pool.serverName, replacement.getProcess().pid());
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Restarting MCP server {} failed (attempt {}): {}", pool.serverName, attempts, e.getMessage());
+                delay = Math.min(Math.max(delay * 2, RESTART_BACKOFF_MILLIS), RESTART_MAX_BACKOFF_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Initialize MCP connection with the server
+     */
+    private void initialize(MCPServerConnection connection) throws IOException {
         Map<String, Object> params = new HashMap<>();
         params.put("protocolVersion", "2024-11-05");
         params.put("capabilities", Map.of("tools", Map.of()));
@@ -75,41 +244,21 @@ public class MCPClientService {
             "version", "1.0.0"
         ));
         
-        JsonRpcRequest request = JsonRpcRequest.builder()
-            .jsonrpc("2.0")
-            .id(String.valueOf(requestIdCounter.incrementAndGet()))
-            .method("initialize")
-            .params(params)
-            .build();
-        
-        sendRequest(connection, request);
-        JsonRpcResponse response = readResponse(connection);
+        JsonRpcResponse response = await(request(connection, "initialize", params, handshakeTimeout), handshakeTimeout);
         
         if (response.getError() != null) {
             throw new IOException("Failed to initialize: " + response.getError().getMessage());
         }
         
-        log.info("Initialized MCP server: {}", serverName);
+        log.info("Initialized MCP server: {}", connection.getServerName());
     }
     
     /**
      * List available tools from a server
      */
     public List<MCPTool> listTools(String serverName) throws IOException {
-        MCPServerConnection connection = serverConnections.get(serverName);
-        if (connection == null) {
-            throw new IllegalStateException("No connection found for server: " + serverName);
-        }
-        
-        JsonRpcRequest request = JsonRpcRequest.builder()
-            .jsonrpc("2.0")
-            .id(String.valueOf(requestIdCounter.incrementAndGet()))
-            .method("tools/list")
-            .params(Collections.emptyMap())
-            .build();
-        
-        sendRequest(connection, request);
-        JsonRpcResponse response = readResponse(connection);
+        JsonRpcResponse response = await(request(getPool(serverName).pick(), "tools/list", Collections.emptyMap(),
+            requestTimeout), requestTimeout);
         
         if (response.getError() != null) {
             throw new IOException("Failed to list tools: " + response.getError().getMessage());
@@ -133,36 +282,100 @@ public class MCPClientService {
     }
     
     /**
-     * Call a tool on an MCP server
+     * Call a tool on an MCP server and wait for the result
      */
     public MCPToolResult callTool(String serverName, MCPToolCall toolCall) throws IOException {
-        MCPServerConnection connection = serverConnections.get(serverName);
-        if (connection == null) {
-            throw new IllegalStateException("No connection found for server: " + serverName);
+        return await(callToolAsync(serverName, toolCall), requestTimeout);
+    }
+    
+    /**
+     * Call a tool on an MCP server without waiting. The future fails with an
+     * {@link IOException} if the request cannot be sent or the server goes away. It is
+     * completed on the completion pool, so dependent stages do not run on the reader thread.
+     */
+    public CompletableFuture<MCPToolResult> callToolAsync(String serverName, MCPToolCall toolCall) {
+        CompletableFuture<JsonRpcResponse> response;
+        try {
+            response = request(getPool(serverName).pick(), "tools/call", toolParams(toolCall), requestTimeout);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<MCPToolResult> result = new CompletableFuture<>();
+        response.whenCompleteAsync((r, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                result.complete(toToolResult(r));
+            } catch (RuntimeException failure) {
+                result.completeExceptionally(failure);
+            }
+        }, completions);
+        // a caller giving up (cancel, orTimeout) releases the pending request id
+        result.whenComplete((r, e) -> {
+            if (e != null) {
+                response.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Call several tools on an MCP server concurrently, spread over its pooled processes.
+     * All calls share one deadline: calls that have not completed when it expires are
+     * reported as error results instead of delaying the others. Results are keyed like
+     * the input map and preserve its iteration order.
+     */
+    public Map<String, MCPToolResult> callToolsInParallel(String serverName, Map<String, MCPToolCall> toolCalls,
+                                                          Duration timeout) {
+        return callToolsInParallelAsync(serverName, toolCalls, timeout).join();
+    }
+    
+    /**
+     * Non-blocking form of {@link #callToolsInParallel}: completes once every call has
+     * answered or the deadline has passed.
+     */
+    public CompletableFuture<Map<String, MCPToolResult>> callToolsInParallelAsync(String serverName,
+                                                                                Map<String, MCPToolCall> toolCalls,
+                                                                                Duration timeout) {
+        Map<String, CompletableFuture<MCPToolResult>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, MCPToolCall> entry : toolCalls.entrySet()) {
+            futures.put(entry.getKey(), callToolAsync(serverName, entry.getValue())
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionally(e -> errorResult(unwrap(e) instanceof TimeoutException
+                    ? "Timed out waiting for MCP server"
+                    : unwrap(e).getMessage())));
         }
         
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                Map<String, MCPToolResult> results = new LinkedHashMap<>();
+                futures.forEach((key, future) -> results.put(key, future.join()));
+                return results;
+            });
+    }
+    
+    private MCPToolResult errorResult(String message) {
+        return MCPToolResult.builder()
+            .isError(true)
+            .content(List.of(MCPContent.builder()
+                .type("text")
+                .text("Error: " + message)
+                .build()))
+            .build();
+    }
+    
+    private Map<String, Object> toolParams(MCPToolCall toolCall) {
         Map<String, Object> params = new HashMap<>();
         params.put("name", toolCall.getName());
         params.put("arguments", toolCall.getArguments());
-        
-        JsonRpcRequest request = JsonRpcRequest.builder()
-            .jsonrpc("2.0")
-            .id(String.valueOf(requestIdCounter.incrementAndGet()))
-            .method("tools/call")
-            .params(params)
-            .build();
-        
-        sendRequest(connection, request);
-        JsonRpcResponse response = readResponse(connection);
-        
+        return params;
+    }
+    
+    private MCPToolResult toToolResult(JsonRpcResponse response) {
         if (response.getError() != null) {
-            return MCPToolResult.builder()
-                .isError(true)
-                .content(List.of(MCPContent.builder()
-                    .type("text")
-                    .text("Error: " + response.getError().getMessage())
-                    .build()))
-                .build();
+            return errorResult(response.getError().getMessage());
         }
         
         // Parse result
@@ -190,16 +403,10 @@ public class MCPClientService {
      * Disconnect from a server
      */
     public void disconnectServer(String serverName) {
-        MCPServerConnection connection = serverConnections.remove(serverName);
-        if (connection != null) {
-            try {
-                connection.getWriter().close();
-                connection.getReader().close();
-                connection.getProcess().destroy();
-                log.info("Disconnected from MCP server: {}", serverName);
-            } catch (IOException e) {
-                log.error("Error closing connection to server: {}", serverName, e);
-            }
+        MCPServerPool pool = serverPools.remove(serverName);
+        if (pool != null) {
+            pool.close();
+            log.info("Disconnected from MCP server: {}", serverName);
         }
     }
     
@@ -207,26 +414,245 @@ public class MCPClientService {
      * Disconnect from all servers
      */
     public void disconnectAll() {
-        for (String serverName : new ArrayList<>(serverConnections.keySet())) {
+        for (String serverName : new ArrayList<>(serverPools.keySet())) {
             disconnectServer(serverName);
         }
     }
     
-    private void sendRequest(MCPServerConnection connection, JsonRpcRequest request) throws IOException {
+    @PreDestroy
+    public void shutdown() {
+        disconnectAll();
+        completions.shutdown();
+    }
+    
+    private MCPServerPool getPool(String serverName) {
+        MCPServerPool pool = serverPools.get(serverName);
+        if (pool == null) {
+            throw new IllegalStateException("No connection found for server: " + serverName);
+        }
+        return pool;
+    }
+    
+    /**
+     * Send a request and return the future its response will complete, or fail with a
+     * {@link TimeoutException} once {@code timeout} has passed. The pending entry is dropped
+     * however the future completes, so abandoned requests do not accumulate; when the
+     * server answers or goes away it is dropped before the future completes.
+     */
+    private CompletableFuture<JsonRpcResponse> request(MCPServerConnection connection, String method,
+                                                       Object params, Duration timeout) throws IOException {
+        JsonRpcRequest request = JsonRpcRequest.builder()
+            .jsonrpc("2.0")
+            .id(String.valueOf(requestIdCounter.incrementAndGet()))
+            .method(method)
+            .params(params)
+            .build();
+        McpRequestEvent sendEvent = new McpRequestEvent();
+        sendEvent.begin();
+        long serializeStart = System.nanoTime();
         String json = objectMapper.writeValueAsString(request);
+        long sent = System.nanoTime();
+        PhaseTimings timings = PhaseTimings.current();
+        if (timings != null) {
+            timings.recordMcpRequest(sent - serializeStart);
+        }
+        
+        CompletableFuture<JsonRpcResponse> response = new CompletableFuture<>();
+        McpResponseEvent responseEvent = new McpResponseEvent();
+        responseEvent.begin();
+        Pending pending = new Pending(request.getId(), method, sent, timings, responseEvent, response);
+        connection.pending.put(request.getId(), pending);
+        // callers giving up (cancel, timeout) and the request deadline release the id here
+        response.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+            .whenComplete((r, e) -> release(connection, pending, r, e, 0));
+        if (connection.closed) {
+            fail(connection, pending, new IOException("Connection closed by server"));
+            return response;
+        }
+        
         log.debug("Sending request: {}", json);
-        connection.getWriter().write(json);
-        connection.getWriter().newLine();
-        connection.getWriter().flush();
+        int bytes = utf8Length(json);
+        payloadSize("mcp.client.request.size", connection.getServerName(), method).record(bytes);
+        try {
+            synchronized (connection.getWriter()) {
+                connection.getWriter().write(json);
+                connection.getWriter().newLine();
+                connection.getWriter().flush();
+            }
+        } catch (IOException e) {
+            fail(connection, pending, e);
+            throw e;
+        }
+        sendEvent.end();
+        if (sendEvent.shouldCommit()) {
+            sendEvent.server = connection.getServerName();
+            sendEvent.pid = connection.getProcess().pid();
+            sendEvent.requestId = request.getId();
+            sendEvent.method = method;
+            sendEvent.bytes = bytes;
+            sendEvent.commit();
+        }
+        return response;
+    }
+    
+    /**
+     * Drop a pending request and time it; false if it was already released
+     */
+    private boolean release(MCPServerConnection connection, Pending pending, JsonRpcResponse response,
+                            Throwable error, int responseBytes) {
+        if (!connection.pending.remove(pending.id(), pending)) {
+            return false;
+        }
+        String outcome = outcome(response, error);
+        requestTimer(connection.getServerName(), pending.method(), outcome)
+            .record(System.nanoTime() - pending.startNanos(), TimeUnit.NANOSECONDS);
+        McpResponseEvent event = pending.event();
+        event.end();
+        if (event.shouldCommit()) {
+            event.server = connection.getServerName();
+            event.pid = connection.getProcess().pid();
+            event.requestId = pending.id();
+            event.method = pending.method();
+            event.outcome = outcome;
+            event.bytes = responseBytes;
+            event.commit();
+        }
+        return true;
+    }
+    
+    private void fail(MCPServerConnection connection, Pending pending, Throwable error) {
+        release(connection, pending, null, error, 0);
+        pending.response().completeExceptionally(error);
+    }
+    
+    private Timer requestTimer(String server, String method, String outcome) {
+        return Timer.builder("mcp.client.requests")
+            .description("MCP request round trips")
+            .tags("server", server, "method", method, "outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+    
+    private DistributionSummary payloadSize(String name, String server, String method) {
+        return DistributionSummary.builder(name)
+            .baseUnit("bytes")
+            .tags("server", server, "method", method)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+    
+    /**
+     * success, error (JSON-RPC error response), timeout, cancelled or failure (I/O)
+     */
+    private static String outcome(JsonRpcResponse response, Throwable error) {
+        if (error == null) {
+            return response.getError() == null ? "success" : "error";
+        }
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            return "timeout";
+        }
+        return cause instanceof CancellationException ? "cancelled" : "failure";
     }
     
-    private JsonRpcResponse readResponse(MCPServerConnection connection) throws IOException {
-        String line = connection.getReader().readLine();
-        if (line == null) {
-            throw new IOException("Connection closed by server");
+    private static int utf8Length(String s) {
+        int bytes = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                bytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
         }
-        log.debug("Received response: {}", line);
-        return objectMapper.readValue(line, JsonRpcResponse.class);
+        return bytes;
+    }
+    
+    /**
+     * Reader loop of one connection: hand each response to the request waiting for its
+     * id. Responses nobody waits for (e.g. late replies to a timed-out request) are
+     * skipped. When the stream ends, every pending request fails and, if the pool restarts
+     * processes, this one is replaced.
+     */
+    private void readResponses(MCPServerPool pool, MCPServerConnection connection) {
+        try {
+            String line;
+            while ((line = connection.getReader().readLine()) != null) {
+                long received = System.nanoTime();
+                log.debug("Received response: {}", line);
+                JsonRpcResponse response;
+                try {
+                    response = objectMapper.readValue(line, JsonRpcResponse.class);
+                } catch (IOException e) {
+                    log.debug("Skipping unparseable line from {}: {}", connection.getServerName(), line);
+                    continue;
+                }
+                Pending waiting = response.getId() == null ? null : connection.pending.get(response.getId());
+                if (waiting != null) {
+                    if (waiting.timings() != null) {
+                        waiting.timings().recordMcpResponse(received - waiting.startNanos(), System.nanoTime() - received);
+                    }
+                    int bytes = utf8Length(line);
+                    payloadSize("mcp.client.response.size", connection.getServerName(), waiting.method())
+                        .record(bytes);
+                    release(connection, waiting, response, null, bytes);
+                    waiting.response().complete(response);
+                } else {
+                    log.debug("Skipping response for id {} nobody is waiting for", response.getId());
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Read from MCP server {} failed: {}", connection.getServerName(), e.getMessage());
+        } finally {
+            connection.closed = true;
+            try {
+                connection.getReader().close();
+            } catch (IOException e) {
+                log.debug("Error closing reader of {}: {}", connection.getServerName(), e.getMessage());
+            }
+            IOException closed = new IOException("Connection closed by server");
+            new ArrayList<>(connection.pending.values()).forEach(p -> fail(connection, p, closed));
+        }
+        if (pool.restartOnExit && !pool.closed && pool.connections.contains(connection)) {
+            restart(pool, connection);
+        }
+    }
+    
+    /**
+     * Wait for a request. Requests time out on their own; the bounded wait only guards
+     * against a future that something else was supposed to complete.
+     */
+    private static <T> T await(CompletableFuture<T> future, Duration timeout) throws IOException {
+        try {
+            return future.get(timeout.toMillis() + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for MCP server");
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("Timed out waiting for MCP server", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof TimeoutException) {
+                throw new IOException("Timed out waiting for MCP server", cause);
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof ExecutionException || e instanceof CompletionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
     }
     
     /**
@@ -237,6 +663,9 @@ public class MCPClientService {
         private final Process process;
         private final BufferedReader reader;
         private final BufferedWriter writer;
+        private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+        private final long startedNanos = System.nanoTime();
+        private volatile boolean closed;
         
         public MCPServerConnection(String serverName, Process process, BufferedReader reader, BufferedWriter writer) {
             this.serverName = serverName;
@@ -250,4 +679,88 @@ public class MCPClientService {
         public BufferedReader getReader() { return reader; }
         public BufferedWriter getWriter() { return writer; }
     }
+    
+    /**
+     * A request awaiting its response
+     */
+    private record Pending(String id, String method, long startNanos, PhaseTimings timings,
+                           McpResponseEvent event, CompletableFuture<JsonRpcResponse> response) {
+    }
+    
+    /**
+     * Pool of interchangeable connections to the same MCP server
+     */
+    private static class MCPServerPool {
+        private final String serverName;
+        private final List<String> commandList;
+        private final boolean restartOnExit;
+        private final List<MCPServerConnection> connections = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        
+        MCPServerPool(String serverName, List<String> commandList, boolean restartOnExit) {
+            this.serverName = serverName;
+            this.commandList = List.copyOf(commandList);
+            this.restartOnExit = restartOnExit;
+        }
+        
+        void add(MCPServerConnection connection) {
+            connections.add(connection);
+        }
+        
+        int pending() {
+            int pending = 0;
+            for (MCPServerConnection connection : connections) {
+                pending += connection.pending.size();
+            }
+            return pending;
+        }
+        
+        /**
+         * The open connection with the fewest requests in flight
+         */
+        MCPServerConnection pick() throws IOException {
+            MCPServerConnection best = null;
+            for (MCPServerConnection connection : connections) {
+                if (!connection.closed && (best == null || connection.pending.size() < best.pending.size())) {
+                    best = connection;
+                }
+            }
+            if (best == null) {
+                throw new IOException("No open connection to MCP server: " + serverName);
+            }
+            return best;
+        }
+        
+        /**
+         * Put a restarted connection in the place of one that exited; false once the pool is closed
+         */
+        synchronized boolean replace(MCPServerConnection exited, MCPServerConnection replacement) {
+            int index = connections.indexOf(exited);
+            if (closed || index < 0) {
+                return false;
+            }
+            connections.set(index, replacement);
+            return true;
+        }
+        
+        synchronized void close() {
+            closed = true;
+            for (MCPServerConnection connection : connections) {
+                close(connection);
+            }
+            connections.clear();
+        }
+        
+        static void close(MCPServerConnection connection) {
+            try {
+                connection.getWriter().close();
+            } catch (IOException e) {
+                log.error("Error closing connection to server: {}", connection.getServerName(), e);
+            } finally {
+                // the reader thread sees end of stream and closes the reader itself;
+                // closing it here would wait for the lock its blocked readLine holds
+                connection.getProcess().destroy();
+            }
+        }
+    }
 }
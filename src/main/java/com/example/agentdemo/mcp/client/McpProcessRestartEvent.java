@@ -0,0 +1,36 @@
+package com.example.agentdemo.mcp.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for replacing an MCP server process that exited; its duration covers any
+ * back-off, starting the new process and the MCP handshake
+ */
+@Name("com.example.agentdemo.McpProcessRestart")
+@Label("MCP Process Restart")
+@Category({"Agent Demo", "MCP"})
+@Description("An MCP server process exited and was replaced")
+@StackTrace(false)
+final class McpProcessRestartEvent extends jdk.jfr.Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Exited Process Id")
+    long exitedPid;
+
+    @Label("Exit Code")
+    @Description("Exit code of the old process, -1 if it had not exited yet")
+    int exitCode;
+
+    @Label("Process Id")
+    @Description("Id of the replacement process")
+    long pid;
+
+    @Label("Attempts")
+    int attempts;
+}
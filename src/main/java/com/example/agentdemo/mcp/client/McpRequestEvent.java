@@ -0,0 +1,37 @@
+package com.example.agentdemo.mcp.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for sending a JSON-RPC request; its duration covers serializing and writing it
+ */
+@Name("com.example.agentdemo.McpRequestSent")
+@Label("MCP Request Sent")
+@Category({"Agent Demo", "MCP"})
+@Description("A JSON-RPC request was written to an MCP server process")
+@Threshold("1 ms")
+@StackTrace(false)
+final class McpRequestEvent extends jdk.jfr.Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Process Id")
+    long pid;
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Method")
+    String method;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
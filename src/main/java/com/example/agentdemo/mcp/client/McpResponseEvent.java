@@ -0,0 +1,43 @@
+package com.example.agentdemo.mcp.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for the end of a JSON-RPC request; its duration is the round trip from
+ * sending the request until the response arrived or the request was given up
+ */
+@Name("com.example.agentdemo.McpResponseReceived")
+@Label("MCP Response Received")
+@Category({"Agent Demo", "MCP"})
+@Description("A JSON-RPC request to an MCP server completed")
+@Threshold("10 ms")
+@StackTrace(false)
+final class McpResponseEvent extends jdk.jfr.Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Process Id")
+    long pid;
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Method")
+    String method;
+
+    @Label("Outcome")
+    @Description("success, error, timeout, cancelled or failure")
+    String outcome;
+
+    @Label("Bytes")
+    @Description("Size of the response line, 0 when none arrived")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
@@ -1,10 +1,30 @@
 package com.example.agentdemo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
 public class ActionResult {
     private boolean success;
     private String skillName;
     private String output;
 
+    // Paging metadata, only present for row-oriented results
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalRows;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    // Complete row set behind a paged result, kept server side for follow-up goals
+    @JsonIgnore
+    private List<JsonNode> rows;
+
+    // Per-phase breakdown, only present when the caller asked for timings
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private PhaseTimings timings;
+
     public ActionResult() {}
 
     public ActionResult(boolean success, String skillName, String output) {
@@ -36,4 +56,36 @@ public class ActionResult {
     public void setOutput(String output) {
         this.output = output;
     }
+
+    public Integer getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(Integer totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public List<JsonNode> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<JsonNode> rows) {
+        this.rows = rows;
+    }
+
+    public PhaseTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(PhaseTimings timings) {
+        this.timings = timings;
+    }
 }
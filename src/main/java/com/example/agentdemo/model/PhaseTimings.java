@@ -0,0 +1,139 @@
+package com.example.agentdemo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Where the time of one goal went, in nanoseconds, so a slow request can be attributed
+ * without a profiler. Only collected when the caller asks for timings.
+ *
+ * Phases that did not happen are left out. The MCP phases are summed over every MCP call
+ * the skill made ({@code mcpCalls}); calls may overlap, so the round trip total can
+ * exceed the skill time. {@code cacheHits} tells for each cache consulted whether it
+ * answered.
+ *
+ * Code below the skill boundary finds the timings of the goal it works for through
+ * {@link #current()}, set for the calling thread by {@link #recording}. Work handed to
+ * other threads must capture the instance first.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PhaseTimings {
+    private static final ThreadLocal<PhaseTimings> CURRENT = new ThreadLocal<>();
+
+    private Long routingNanos;
+    private Long queueNanos;
+    private Long skillNanos;
+    private int mcpCalls;
+    private long mcpSerializeNanos;
+    private long mcpRoundTripNanos;
+    private long mcpDeserializeNanos;
+    private final Map<String, Boolean> cacheHits = new LinkedHashMap<>();
+
+    /**
+     * Timings of the goal the calling thread works for, or null if none are collected
+     */
+    public static PhaseTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run {@code body} with {@code timings} as the calling thread's current timings;
+     * a null {@code timings} runs it without collecting
+     */
+    public static <T> T recording(PhaseTimings timings, Supplier<T> body) {
+        if (timings == null) {
+            return body.get();
+        }
+        PhaseTimings previous = CURRENT.get();
+        CURRENT.set(timings);
+        try {
+            return body.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Note a cache lookup for the current goal, if timings are collected
+     */
+    public static void cache(String name, boolean hit) {
+        PhaseTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.recordCache(name, hit);
+        }
+    }
+
+    public synchronized Long getRoutingNanos() {
+        return routingNanos;
+    }
+
+    public synchronized void setRoutingNanos(long routingNanos) {
+        this.routingNanos = routingNanos;
+    }
+
+    public synchronized Long getQueueNanos() {
+        return queueNanos;
+    }
+
+    public synchronized void setQueueNanos(long queueNanos) {
+        this.queueNanos = queueNanos;
+    }
+
+    public synchronized Long getSkillNanos() {
+        return skillNanos;
+    }
+
+    public synchronized void setSkillNanos(long skillNanos) {
+        this.skillNanos = skillNanos;
+    }
+
+    public synchronized Integer getMcpCalls() {
+        return mcpCalls == 0 ? null : mcpCalls;
+    }
+
+    public synchronized Long getMcpSerializeNanos() {
+        return mcpCalls == 0 ? null : mcpSerializeNanos;
+    }
+
+    public synchronized Long getMcpRoundTripNanos() {
+        return mcpCalls == 0 ? null : mcpRoundTripNanos;
+    }
+
+    public synchronized Long getMcpDeserializeNanos() {
+        return mcpCalls == 0 ? null : mcpDeserializeNanos;
+    }
+
+    /**
+     * An MCP request was encoded and sent
+     */
+    public synchronized void recordMcpRequest(long serializeNanos) {
+        mcpCalls++;
+        mcpSerializeNanos += serializeNanos;
+    }
+
+    /**
+     * An MCP response arrived and was decoded
+     */
+    public synchronized void recordMcpResponse(long roundTripNanos, long deserializeNanos) {
+        mcpRoundTripNanos += roundTripNanos;
+        mcpDeserializeNanos += deserializeNanos;
+    }
+
+    public synchronized Map<String, Boolean> getCacheHits() {
+        return cacheHits.isEmpty() ? null : new LinkedHashMap<>(cacheHits);
+    }
+
+    /**
+     * A goal consulting the same cache twice is a hit only if both lookups were
+     */
+    public synchronized void recordCache(String name, boolean hit) {
+        cacheHits.merge(name, hit, Boolean::logicalAnd);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.agentdemo.search;
+
+/**
+ * Okapi BM25 term scoring
+ */
+public final class Bm25 {
+
+    public static final float K1 = 1.2f;
+    public static final float B = 0.75f;
+
+    // headroom so that float rounding never makes a bound smaller than a real score
+    private static final float UPPER_BOUND_SLACK = 1.00001f;
+
+    private Bm25() {
+    }
+
+    public static float idf(long docCount, long docFreq) {
+        return (float) Math.log(1.0 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    public static float score(float idf, int freq, int docLength, double averageDocLength) {
+        double norm = K1 * (1 - B + B * docLength / Math.max(averageDocLength, 1e-9));
+        return (float) (idf * freq * (K1 + 1) / (freq + norm));
+    }
+
+    /**
+     * Bound on the score of any posting with frequency at most {@code maxFreq} in a
+     * document of at least {@code minDocLength} terms (BM25 grows with frequency and
+     * shrinks with length)
+     */
+    public static float upperBound(float idf, int maxFreq, int minDocLength, double averageDocLength) {
+        return score(idf, maxFreq, minDocLength, averageDocLength) * UPPER_BOUND_SLACK;
+    }
+}
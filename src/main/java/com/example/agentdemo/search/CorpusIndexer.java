@@ -0,0 +1,136 @@
+package com.example.agentdemo.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Keeps one or more {@link DocumentSink}s (the keyword index, the vector index) in sync with
+ * the files under a corpus directory: a full reconcile compares modification times of all
+ * files with each sink's indexed versions, and {@link #apply} re-reads just the paths a file
+ * watcher reported as changed. A changed file is read once and handed to every sink.
+ */
+public class CorpusIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(CorpusIndexer.class);
+
+    private final Path root;
+    private final List<DocumentSink> sinks;
+
+    public CorpusIndexer(Path root, DocumentSink... sinks) {
+        this.root = root;
+        this.sinks = List.of(sinks);
+    }
+
+    /**
+     * After a restart: rebuild each sink's document map from its persisted state,
+     * then catch up with changes made while the application was down
+     */
+    public synchronized void recover() throws IOException {
+        for (DocumentSink sink : sinks) {
+            sink.recover();
+        }
+        reconcile();
+    }
+
+    /**
+     * Index new and modified files and delete documents whose files are gone
+     */
+    public synchronized void reconcile() throws IOException {
+        SortedMap<String, Long> files = CorpusLoader.scan(root);
+        List<Map<String, Long>> indexed = new ArrayList<>(sinks.size());
+        for (DocumentSink sink : sinks) {
+            indexed.add(sink.indexedVersions());
+        }
+        int updated = 0;
+        for (Map.Entry<String, Long> file : files.entrySet()) {
+            List<DocumentSink> stale = new ArrayList<>(sinks.size());
+            for (int i = 0; i < sinks.size(); i++) {
+                Long version = indexed.get(i).remove(file.getKey());
+                if (version == null || version.longValue() != file.getValue()) {
+                    stale.add(sinks.get(i));
+                }
+            }
+            if (!stale.isEmpty()) {
+                updated += index(file.getKey(), stale) ? 1 : 0;
+            }
+        }
+        Set<String> gone = new HashSet<>();
+        for (int i = 0; i < sinks.size(); i++) {
+            for (String path : indexed.get(i).keySet()) {
+                if (sinks.get(i).delete(path)) {
+                    gone.add(path);
+                }
+            }
+        }
+        int deleted = gone.size();
+        refresh();
+        if (updated + deleted > 0) {
+            log.info("Search index reconciled with {}: {} updated, {} deleted", root, updated, deleted);
+        }
+    }
+
+    /**
+     * Re-index the given changed paths (files or directories, relative to the root or absolute)
+     */
+    public synchronized void apply(Collection<Path> changed) throws IOException {
+        for (Path path : changed) {
+            Path file = root.resolve(path);
+            if (CorpusLoader.isHidden(root.relativize(file))) {
+                continue;
+            }
+            String relative = root.relativize(file).toString();
+            if (Files.isDirectory(file)) {
+                // a directory created or moved in: index everything below it
+                for (String child : CorpusLoader.scan(file).keySet()) {
+                    index(root.relativize(file.resolve(child)).toString(), sinks);
+                }
+            } else if (Files.isRegularFile(file) && CorpusLoader.isIndexable(root, file)) {
+                index(relative, sinks);
+            } else {
+                String prefix = relative + file.getFileSystem().getSeparator();
+                for (DocumentSink sink : sinks) {
+                    if (!sink.delete(relative)) {
+                        // possibly a removed directory: drop every document below it
+                        for (String indexed : sink.indexedVersions().keySet()) {
+                            if (indexed.startsWith(prefix)) {
+                                sink.delete(indexed);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        refresh();
+    }
+
+    private boolean index(String path, List<DocumentSink> targets) throws IOException {
+        CorpusLoader.Document document = CorpusLoader.read(root, path);
+        boolean changed = false;
+        for (DocumentSink sink : targets) {
+            if (document == null) {
+                changed |= sink.delete(path);
+            } else {
+                sink.update(document.stored(), document.text());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void refresh() {
+        for (DocumentSink sink : sinks) {
+            sink.refresh();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.agentdemo.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Walks a directory of runbooks / incident notes and feeds every text document to an {@link IndexBuilder}.
+ * The title is the first Markdown/AsciiDoc heading (or the file name) and the snippet
+ * is the first line of body text.
+ */
+public final class CorpusLoader {
+
+    static final Set<String> EXTENSIONS = Set.of("md", "markdown", "txt", "log", "adoc");
+
+    private static final int SNIPPET_LENGTH = 160;
+
+    private CorpusLoader() {
+    }
+
+    /**
+     * Whether {@code file} (under {@code root}) is a document that belongs in the index
+     */
+    public static boolean isIndexable(Path root, Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))
+                && !isHidden(root.relativize(file));
+    }
+
+    /**
+     * Index every supported file under {@code root}; returns the number of documents added
+     */
+    public static int load(Path root, IndexBuilder builder) throws IOException {
+        int before = builder.docCount();
+        for (String path : scan(root).keySet()) {
+            Document document = read(root, path);
+            if (document != null) {
+                builder.add(document.stored(), document.text());
+            }
+        }
+        return builder.docCount() - before;
+    }
+
+    /**
+     * Relative path to last-modified time of every indexable file under {@code root}, in path order.
+     * Only file attributes are read, so this is much cheaper than re-reading the corpus.
+     */
+    public static SortedMap<String, Long> scan(Path root) throws IOException {
+        SortedMap<String, Long> files = new TreeMap<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.filter(Files::isRegularFile)
+                .filter(file -> isIndexable(root, file))
+                .forEach(file -> {
+                    try {
+                        files.put(root.relativize(file).toString(), Files.getLastModifiedTime(file).toMillis());
+                    } catch (NoSuchFileException e) {
+                        // deleted while walking
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return files;
+    }
+
+    /**
+     * Read one document, or null if it vanished or is not valid UTF-8 text
+     */
+    public static Document read(Path root, String path) throws IOException {
+        Path file = root.resolve(path);
+        try {
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            String text = Files.readString(file, StandardCharsets.UTF_8);
+            return new Document(describe(path, text, lastModified), text);
+        } catch (NoSuchFileException | CharacterCodingException e) {
+            // deleted meanwhile, or a binary file with a text extension
+            return null;
+        }
+    }
+
+    /**
+     * Skip dot-files and dot-directories (including the default index store)
+     */
+    static boolean isHidden(Path relative) {
+        for (Path part : relative) {
+            if (part.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static StoredDocument describe(String path, String text, long lastModified) {
+        String title = null;
+        String snippet = "";
+        for (String line : text.lines().toList()) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.startsWith("#") || trimmed.startsWith("=")) {
+                if (title == null) {
+                    title = trimmed.replaceFirst("^[#=]+\\s*", "");
+                }
+                continue;
+            }
+            if (title == null) {
+                // no heading before the body: fall back to the file name
+                title = Path.of(path).getFileName().toString();
+            }
+            snippet = trimmed.length() > SNIPPET_LENGTH ? trimmed.substring(0, SNIPPET_LENGTH) + "..." : trimmed;
+            break;
+        }
+        return new StoredDocument(path, title != null ? title : Path.of(path).getFileName().toString(), snippet,
+                lastModified);
+    }
+
+    /**
+     * A document read from disk: stored fields plus the full text to index
+     */
+    public record Document(StoredDocument stored, String text) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.agentdemo.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory tree and hands batches of changed paths to a {@link CorpusIndexer}.
+ * Events are coalesced until the tree has been quiet for {@code quietMillis}, so an editor
+ * saving a file several times, or a bulk copy, results in one index refresh. When the
+ * platform drops events (OVERFLOW) the whole tree is reconciled instead.
+ */
+public class DirectoryWatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    private final Path root;
+    private final CorpusIndexer indexer;
+    private final long quietMillis;
+    private final long maxBatchNanos;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public DirectoryWatcher(Path root, CorpusIndexer indexer, long quietMillis) throws IOException {
+        this.root = root;
+        this.indexer = indexer;
+        this.quietMillis = Math.max(10, quietMillis);
+        this.maxBatchNanos = TimeUnit.MILLISECONDS.toNanos(10 * this.quietMillis);
+        this.watchService = FileSystems.getDefault().newWatchService();
+        registerTree(root);
+        this.thread = new Thread(this::run, "search-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void run() {
+        Set<Path> changed = new LinkedHashSet<>();
+        boolean overflow = false;
+        long batchStart = 0;
+        try {
+            while (true) {
+                boolean pending = !changed.isEmpty() || overflow;
+                WatchKey key = pending
+                        ? watchService.poll(quietMillis, TimeUnit.MILLISECONDS)
+                        : watchService.take();
+                // apply after a quiet period, or at the latest after ten of them under constant churn
+                if (pending && (key == null || System.nanoTime() - batchStart > maxBatchNanos)) {
+                    apply(changed, overflow);
+                    changed = new LinkedHashSet<>();
+                    overflow = false;
+                }
+                if (key == null) {
+                    continue;
+                }
+                if (changed.isEmpty() && !overflow) {
+                    batchStart = System.nanoTime();
+                }
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                        continue;
+                    }
+                    Path path = dir.resolve((Path) event.context());
+                    if (CorpusLoader.isHidden(root.relativize(path))) {
+                        continue;
+                    }
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        try {
+                            registerTree(path);
+                        } catch (IOException e) {
+                            // removed again before it could be registered
+                        }
+                    }
+                    changed.add(path);
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void apply(Set<Path> changed, boolean overflow) {
+        try {
+            if (overflow) {
+                indexer.reconcile();
+            } else {
+                indexer.apply(changed);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to update search index: {}", e.getMessage());
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        try (Stream<Path> dirs = Files.walk(start)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                if (!CorpusLoader.isHidden(root.relativize(dir))) {
+                    dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
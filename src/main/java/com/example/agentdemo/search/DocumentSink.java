@@ -0,0 +1,36 @@
+package com.example.agentdemo.search;
+
+import java.util.Map;
+
+/**
+ * An index kept in sync with the corpus by {@link CorpusIndexer}. Documents are keyed by
+ * path and versioned by modification time.
+ */
+public interface DocumentSink {
+
+    /**
+     * Add or replace the document stored under {@code document.getPath()}
+     */
+    void update(StoredDocument document, CharSequence text);
+
+    /**
+     * Delete the document with this path; returns false if it was not indexed
+     */
+    boolean delete(String path);
+
+    /**
+     * Paths of all live documents with their indexed modification times
+     */
+    Map<String, Long> indexedVersions();
+
+    /**
+     * Make all changes so far visible to searches
+     */
+    void refresh();
+
+    /**
+     * Restore internal bookkeeping after a restart, before the corpus is reconciled
+     */
+    default void recover() {
+    }
+}
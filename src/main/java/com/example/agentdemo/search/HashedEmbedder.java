@@ -0,0 +1,73 @@
+package com.example.agentdemo.search;
+
+/**
+ * Local text embeddings without a model: feature hashing of word unigrams and
+ * character trigrams (with word boundary markers) into a fixed number of dimensions,
+ * sublinear term weighting and L2 normalisation. Cosine similarity then reduces to a dot product.
+ *
+ * Trigrams make related word forms ("restart", "restarted", "restarting") and minor
+ * misspellings land close to each other, which is what catches paraphrased incident
+ * descriptions that exact keyword matching misses.
+ */
+public class HashedEmbedder {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    private final int dimensions;
+
+    public HashedEmbedder(int dimensions) {
+        if (dimensions < 8) {
+            throw new IllegalArgumentException("dimensions must be at least 8");
+        }
+        this.dimensions = dimensions;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public float[] embed(CharSequence text) {
+        float[] counts = new float[dimensions];
+        for (String term : SearchTokenizer.tokenize(text)) {
+            add(counts, term.hashCode(), WORD_WEIGHT);
+            String padded = "<" + term + ">";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(counts, trigramHash(padded, i), TRIGRAM_WEIGHT);
+            }
+        }
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            // sublinear weighting keeps long documents from being dominated by repeated terms
+            float c = counts[i];
+            counts[i] = c == 0 ? 0 : Math.copySign((float) Math.log1p(Math.abs(c)), c);
+            norm += counts[i] * counts[i];
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                counts[i] *= scale;
+            }
+        }
+        return counts;
+    }
+
+    private void add(float[] counts, int hash, float weight) {
+        int h = mix(hash);
+        // the sign bit decorrelates collisions (the hashing trick)
+        counts[Math.floorMod(h, dimensions)] += (h & 0x4000_0000) == 0 ? weight : -weight;
+    }
+
+    private static int trigramHash(String s, int i) {
+        return 31 * (31 * (31 + s.charAt(i)) + s.charAt(i + 1)) + s.charAt(i + 2) + 0x9E37_79B9;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EB_CA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2_AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
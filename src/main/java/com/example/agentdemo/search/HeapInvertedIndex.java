@@ -0,0 +1,83 @@
+package com.example.agentdemo.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable heap-resident inverted index, as produced by {@link IndexBuilder}.
+ *
+ * The term dictionary is a sorted array searched by binary search; each term points
+ * into one shared byte array of delta/varint encoded (doc id, frequency) pairs.
+ * Document lengths are kept as a primitive array for BM25 length normalisation.
+ */
+final class HeapInvertedIndex implements InvertedIndex {
+
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] postingOffsets; // terms.length + 1 entries
+    private final ByteBuffer postings;
+    private final int[] docLengths;
+    private final long totalLength;
+    private final StoredDocument[] documents;
+
+    HeapInvertedIndex(String[] terms, int[] docFreqs, int[] postingOffsets, byte[] postings,
+                      int[] docLengths, StoredDocument[] documents) {
+        this.terms = terms;
+        this.docFreqs = docFreqs;
+        this.postingOffsets = postingOffsets;
+        this.postings = ByteBuffer.wrap(postings);
+        this.docLengths = docLengths;
+        this.documents = documents;
+        this.totalLength = Arrays.stream(docLengths).asLongStream().sum();
+    }
+
+    @Override
+    public int docCount() {
+        return docLengths.length;
+    }
+
+    @Override
+    public long totalLength() {
+        return totalLength;
+    }
+
+    @Override
+    public int docLength(int doc) {
+        return docLengths[doc];
+    }
+
+    @Override
+    public int termCount() {
+        return terms.length;
+    }
+
+    @Override
+    public String term(int ord) {
+        return terms[ord];
+    }
+
+    @Override
+    public int docFreq(String term) {
+        int ord = Arrays.binarySearch(terms, term, SearchTokenizer.TERM_ORDER);
+        return ord < 0 ? 0 : docFreqs[ord];
+    }
+
+    @Override
+    public PostingsIterator postings(String term) {
+        int ord = Arrays.binarySearch(terms, term, SearchTokenizer.TERM_ORDER);
+        if (ord < 0) {
+            return null;
+        }
+        return new PostingsIterator(postings, postingOffsets[ord], postingOffsets[ord + 1], docFreqs[ord]);
+    }
+
+    @Override
+    public StoredDocument document(int doc) {
+        return documents[doc];
+    }
+
+    @Override
+    public long postingsBytes() {
+        return postings.capacity();
+    }
+}
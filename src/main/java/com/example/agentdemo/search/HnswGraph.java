@@ -0,0 +1,512 @@
+package com.example.agentdemo.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) for maximum inner
+ * product search over unit vectors.
+ *
+ * Storage is primitive and flat: all vectors in one {@code float[]}, level-0 adjacency in
+ * one {@code int[]} with {@code 2 * m} slots per node, and small per-node arrays only for
+ * the few nodes on upper levels. Nodes are never removed; callers filter deleted nodes
+ * through the {@code accept} predicate while they still serve as routing points.
+ *
+ * Not thread-safe: one writer at a time, and no reads concurrent with a write.
+ */
+final class HnswGraph {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int VERSION = 1;
+
+    private final int dimensions;
+    private final int m;
+    private final int m0;
+    private final int slots0;     // level-0 adjacency slots per node (m0 plus overflow)
+    private final int slotsUpper; // upper-level slots per node and level (m plus overflow)
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+
+    private float[] vectors;
+    private int[] neighbors0;
+    private int[] counts0;
+    private int[] levels;
+    private int[][] upper; // upper[node][(level - 1) * (slotsUpper + 1)] = count, followed by the ids
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    HnswGraph(int dimensions, int m, int efConstruction, long seed) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.m0 = 2 * m;
+        this.slots0 = m0 + m0 / 2;
+        this.slotsUpper = m + m / 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+        int capacity = 1024;
+        this.vectors = new float[capacity * dimensions];
+        this.neighbors0 = new int[capacity * slots0];
+        this.counts0 = new int[capacity];
+        this.levels = new int[capacity];
+        this.upper = new int[capacity][];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    float[] vector(int node) {
+        return Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+    }
+
+    float similarity(float[] query, int node) {
+        return VectorMath.dot(query, 0, vectors, node * dimensions, dimensions);
+    }
+
+    /**
+     * Insert a vector; returns its node id (ids are dense and assigned in insertion order)
+     */
+    int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        ensureCapacity(size + 1);
+        int node = size++;
+        System.arraycopy(vector, 0, vectors, node * dimensions, dimensions);
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        levels[node] = level;
+        if (level > 0) {
+            upper[node] = new int[level * (slotsUpper + 1)];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedy(vector, ep, l);
+        }
+        NodeQueue entries = new NodeQueue(1);
+        entries.push(ep, similarity(vector, ep));
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeQueue found = searchLayer(vector, entries, efConstruction, l, null);
+            int maxConnections = l == 0 ? m0 : m;
+            int[] selected = selectNeighbors(vector, found.sortedDescending(), maxConnections);
+            setNeighbors(node, l, selected, selected.length);
+            for (int neighbor : selected) {
+                link(neighbor, node, l);
+            }
+            entries = found;
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+        return node;
+    }
+
+    /**
+     * Approximate top-k nodes by inner product among those accepted by {@code accept}
+     * (null accepts all), best first
+     */
+    NodeQueue search(float[] query, int k, int ef, IntPredicate accept) {
+        NodeQueue results = new NodeQueue(k);
+        if (entryPoint < 0) {
+            return results;
+        }
+        int ep = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            ep = greedy(query, ep, l);
+        }
+        NodeQueue entries = new NodeQueue(1);
+        entries.push(ep, similarity(query, ep));
+        NodeQueue found = searchLayer(query, entries, Math.max(ef, k), 0, accept);
+        int[] nodes = found.sortedDescending();
+        for (int i = 0; i < nodes.length && results.size() < k; i++) {
+            results.push(nodes[i], similarity(query, nodes[i]));
+        }
+        return results;
+    }
+
+    /**
+     * Greedy walk on one level towards the node most similar to the query
+     */
+    private int greedy(float[] query, int start, int level) {
+        int current = start;
+        float best = similarity(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int node = current;
+            int count = neighborCount(node, level);
+            for (int i = 0; i < count; i++) {
+                int candidate = neighbor(node, level, i);
+                float score = similarity(query, candidate);
+                if (score > best) {
+                    best = score;
+                    current = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first beam search on one level. With an {@code accept} filter, rejected nodes are
+     * still expanded (they route the search) but only accepted ones fill the result beam.
+     */
+    private NodeQueue searchLayer(float[] query, NodeQueue entries, int ef, int level, IntPredicate accept) {
+        long[] visited = new long[(size + 63) >>> 6];
+        NodeQueue candidates = new NodeQueue(ef * 2); // max-first frontier
+        NodeQueue results = new NodeQueue(ef);        // bounded, worst on top
+        for (int i = 0; i < entries.size(); i++) {
+            int node = entries.node(i);
+            visited[node >>> 6] |= 1L << node;
+            float score = entries.score(i);
+            candidates.pushFrontier(node, score);
+            if (accept == null || accept.test(node)) {
+                results.push(node, score);
+            }
+        }
+        while (candidates.size() > 0) {
+            float score = candidates.topFrontierScore();
+            if (results.size() >= ef && score < results.worstScore()) {
+                break;
+            }
+            int current = candidates.popFrontier();
+            int count = neighborCount(current, level);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbor(current, level, i);
+                if ((visited[neighbor >>> 6] & (1L << neighbor)) != 0) {
+                    continue;
+                }
+                visited[neighbor >>> 6] |= 1L << neighbor;
+                float neighborScore = similarity(query, neighbor);
+                if (results.size() < ef || neighborScore > results.worstScore()) {
+                    candidates.pushFrontier(neighbor, neighborScore);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.push(neighbor, neighborScore);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbor selection heuristic: keep a candidate only if it is closer to the base vector
+     * than to every neighbor already kept, which spreads links in different directions;
+     * remaining slots are filled with the closest pruned candidates.
+     */
+    private int[] selectNeighbors(float[] base, int[] candidatesBestFirst, int max) {
+        int[] selected = new int[Math.min(max, candidatesBestFirst.length)];
+        boolean[] taken = new boolean[candidatesBestFirst.length];
+        int count = 0;
+        for (int i = 0; i < candidatesBestFirst.length && count < selected.length; i++) {
+            int candidate = candidatesBestFirst[i];
+            float toBase = similarity(base, candidate);
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (VectorMath.dot(vectors, candidate * dimensions, vectors, selected[j] * dimensions, dimensions) > toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < candidatesBestFirst.length && count < selected.length; i++) {
+            if (!taken[i]) {
+                selected[count++] = candidatesBestFirst[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Add a back link from {@code node} to {@code target}. Lists may grow to half again their
+     * maximum size before the selection heuristic prunes them back; pruning on every link
+     * would make each insert cost a quadratic number of dot products per neighbor.
+     */
+    private void link(int node, int target, int level) {
+        int max = level == 0 ? m0 : m;
+        int count = neighborCount(node, level);
+        if (count < (level == 0 ? slots0 : slotsUpper)) {
+            setNeighbor(node, level, count, target);
+            setNeighborCount(node, level, count + 1);
+            return;
+        }
+        float[] base = vector(node);
+        NodeQueue candidates = new NodeQueue(count + 1);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbor(node, level, i);
+            candidates.push(neighbor, similarity(base, neighbor));
+        }
+        candidates.push(target, similarity(base, target));
+        int[] selected = selectNeighbors(base, candidates.sortedDescending(), max);
+        setNeighbors(node, level, selected, selected.length);
+    }
+
+    private int neighborCount(int node, int level) {
+        return level == 0 ? counts0[node] : upper[node][(level - 1) * (slotsUpper + 1)];
+    }
+
+    private int neighbor(int node, int level, int i) {
+        return level == 0 ? neighbors0[node * slots0 + i] : upper[node][(level - 1) * (slotsUpper + 1) + 1 + i];
+    }
+
+    private void setNeighbor(int node, int level, int i, int neighbor) {
+        if (level == 0) {
+            neighbors0[node * slots0 + i] = neighbor;
+        } else {
+            upper[node][(level - 1) * (slotsUpper + 1) + 1 + i] = neighbor;
+        }
+    }
+
+    private void setNeighborCount(int node, int level, int count) {
+        if (level == 0) {
+            counts0[node] = count;
+        } else {
+            upper[node][(level - 1) * (slotsUpper + 1)] = count;
+        }
+    }
+
+    private void setNeighbors(int node, int level, int[] ids, int count) {
+        for (int i = 0; i < count; i++) {
+            setNeighbor(node, level, i, ids[i]);
+        }
+        setNeighborCount(node, level, count);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= counts0.length) {
+            return;
+        }
+        int grown = Math.max(capacity, counts0.length * 2);
+        vectors = Arrays.copyOf(vectors, grown * dimensions);
+        neighbors0 = Arrays.copyOf(neighbors0, grown * slots0);
+        counts0 = Arrays.copyOf(counts0, grown);
+        levels = Arrays.copyOf(levels, grown);
+        upper = Arrays.copyOf(upper, grown);
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(dimensions);
+        out.writeInt(m);
+        out.writeInt(size);
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        for (int i = 0; i < size * dimensions; i++) {
+            out.writeFloat(vectors[i]);
+        }
+        for (int node = 0; node < size; node++) {
+            out.writeInt(levels[node]);
+            for (int level = 0; level <= levels[node]; level++) {
+                int count = neighborCount(node, level);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(neighbor(node, level, i));
+                }
+            }
+        }
+    }
+
+    static HnswGraph read(DataInput in, int efConstruction, long seed) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a vector index or unsupported version");
+        }
+        int dimensions = in.readInt();
+        int m = in.readInt();
+        HnswGraph graph = new HnswGraph(dimensions, m, efConstruction, seed);
+        int size = in.readInt();
+        graph.ensureCapacity(size);
+        graph.size = size;
+        graph.entryPoint = in.readInt();
+        graph.maxLevel = in.readInt();
+        for (int i = 0; i < size * dimensions; i++) {
+            graph.vectors[i] = in.readFloat();
+        }
+        for (int node = 0; node < size; node++) {
+            int level = in.readInt();
+            graph.levels[node] = level;
+            if (level > 0) {
+                graph.upper[node] = new int[level * (graph.slotsUpper + 1)];
+            }
+            for (int l = 0; l <= level; l++) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    graph.setNeighbor(node, l, i, in.readInt());
+                }
+                graph.setNeighborCount(node, l, count);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Small array-backed priority queue of (node, score) pairs, used both as a bounded
+     * result beam (worst score on top, {@link #push}) and as an unbounded best-first
+     * frontier ({@link #pushFrontier} / {@link #popFrontier}); one instance is used in one role.
+     */
+    static final class NodeQueue {
+        private final int bound;
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        NodeQueue(int bound) {
+            this.bound = Math.max(1, bound);
+            this.nodes = new int[Math.min(this.bound, 64) + 1];
+            this.scores = new float[nodes.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int node(int i) {
+            return nodes[i];
+        }
+
+        float score(int i) {
+            return scores[i];
+        }
+
+        /**
+         * Beam insert: keeps the best {@code bound} entries, evicting the worst
+         */
+        void push(int node, float score) {
+            if (size == bound) {
+                if (score <= scores[0]) {
+                    return;
+                }
+                nodes[0] = node;
+                scores[0] = score;
+                siftDown(0, true);
+                return;
+            }
+            append(node, score);
+            siftUp(size - 1, true);
+        }
+
+        float worstScore() {
+            return scores[0];
+        }
+
+        void pushFrontier(int node, float score) {
+            append(node, score);
+            siftUp(size - 1, false);
+        }
+
+        float topFrontierScore() {
+            return scores[0];
+        }
+
+        int popFrontier() {
+            int top = nodes[0];
+            size--;
+            nodes[0] = nodes[size];
+            scores[0] = scores[size];
+            siftDown(0, false);
+            return top;
+        }
+
+        /**
+         * Nodes ordered by descending score
+         */
+        int[] sortedDescending() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = nodes[order[i]];
+            }
+            return sorted;
+        }
+
+        float[] scoresDescending() {
+            float[] sorted = Arrays.copyOf(scores, size);
+            Arrays.sort(sorted);
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                float t = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = t;
+            }
+            return sorted;
+        }
+
+        private void append(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            nodes[size] = node;
+            scores[size] = score;
+            size++;
+        }
+
+        // minHeap: worst on top (beam); otherwise best on top (frontier)
+        private boolean above(int a, int b, boolean minHeap) {
+            return minHeap ? scores[a] < scores[b] : scores[a] > scores[b];
+        }
+
+        private void siftUp(int i, boolean minHeap) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(i, parent, minHeap)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, boolean minHeap) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int best = left;
+                if (left + 1 < size && above(left + 1, left, minHeap)) {
+                    best = left + 1;
+                }
+                if (!above(best, i, minHeap)) {
+                    return;
+                }
+                swap(i, best);
+                i = best;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int n = nodes[a];
+            nodes[a] = nodes[b];
+            nodes[b] = n;
+            float s = scores[a];
+            scores[a] = scores[b];
+            scores[b] = s;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.agentdemo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates documents and produces an {@link InvertedIndex}.
+ * Doc ids are assigned in insertion order, so postings are appended already sorted.
+ */
+public class IndexBuilder {
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final IntList docLengths = new IntList(1024);
+    private final List<StoredDocument> documents = new ArrayList<>();
+
+    /**
+     * Index one document; returns its doc id
+     */
+    public int add(StoredDocument document, CharSequence text) {
+        int doc = documents.size();
+        documents.add(document);
+
+        List<String> terms = SearchTokenizer.tokenize(text);
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.computeIfAbsent(term, t -> new int[1])[0]++;
+        }
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new Postings()).add(doc, entry.getValue()[0]);
+        }
+        docLengths.add(terms.size());
+        return doc;
+    }
+
+    public int docCount() {
+        return documents.size();
+    }
+
+    public InvertedIndex build() {
+        String[] terms = postings.keySet().toArray(new String[0]);
+        Arrays.sort(terms, SearchTokenizer.TERM_ORDER);
+
+        int[] docFreqs = new int[terms.length];
+        int[] offsets = new int[terms.length + 1];
+        VarInts.ByteSink sink = new VarInts.ByteSink(terms.length * 8);
+        PostingsWriter writer = new PostingsWriter(sink);
+        for (int t = 0; t < terms.length; t++) {
+            Postings p = postings.get(terms[t]);
+            offsets[t] = sink.size();
+            for (int i = 0; i < p.docs.size(); i++) {
+                int doc = p.docs.get(i);
+                writer.add(doc, p.freqs.get(i), docLengths.get(doc));
+            }
+            docFreqs[t] = writer.finishTerm();
+        }
+        offsets[terms.length] = sink.size();
+
+        return new HeapInvertedIndex(terms, docFreqs, offsets, sink.toByteArray(), docLengths.toArray(),
+                documents.toArray(new StoredDocument[0]));
+    }
+
+    private static final class Postings {
+        final IntList docs = new IntList(4);
+        final IntList freqs = new IntList(4);
+
+        void add(int doc, int freq) {
+            docs.add(doc);
+            freqs.add(freq);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.agentdemo.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * BM25 top-k retrieval over an {@link IndexSnapshot}, one bounded heap shared by all segments.
+ * Term weights use snapshot-wide statistics, so scores do not depend on how documents
+ * happen to be spread over segments.
+ *
+ * {@link #search} uses block-max WAND: each term's maximum possible score (from the
+ * impacts stored with its postings) selects a pivot document that could still enter the
+ * top k, and the per-block maxima then let whole blocks be skipped without decoding when
+ * even their best postings cannot beat the current k-th score. {@link #searchExhaustive}
+ * scores every matching document and returns the same hits; it is kept as the reference.
+ *
+ * With more than one shard, the snapshot's global doc id space is cut into contiguous
+ * ranges (cutting through segments where needed) that are searched in parallel, each into its
+ * own top-k heap; the heaps are then merged. Every shard uses the same snapshot-wide statistics
+ * and ties are broken by global doc id, so the hits do not depend on the number of shards.
+ */
+public class IndexSearcher {
+
+    private final IndexSnapshot snapshot;
+    private final int shards;
+    private final Executor executor;
+
+    public IndexSearcher(IndexSnapshot snapshot) {
+        this(snapshot, 1, null);
+    }
+
+    /**
+     * @param shards   number of doc id ranges to search in parallel (at most one per document)
+     * @param executor runs all shards but the last, which runs on the calling thread
+     */
+    public IndexSearcher(IndexSnapshot snapshot, int shards, Executor executor) {
+        this.snapshot = snapshot;
+        this.shards = executor == null ? 1 : Math.max(1, Math.min(shards, snapshot.maxDoc()));
+        this.executor = executor;
+    }
+
+    public IndexSearcher(InvertedIndex index) {
+        this(IndexSnapshot.of(index));
+    }
+
+    public List<SearchHit> search(String query, int k) {
+        return search(query, k, true);
+    }
+
+    public List<SearchHit> searchExhaustive(String query, int k) {
+        return search(query, k, false);
+    }
+
+    private List<SearchHit> search(String query, int k, boolean prune) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        float[] idf = new float[terms.size()];
+        for (int i = 0; i < idf.length; i++) {
+            int docFreq = snapshot.docFreq(terms.get(i));
+            idf[i] = docFreq == 0 ? 0 : Bm25.idf(snapshot.maxDoc(), docFreq);
+        }
+
+        TopKCollector collector = new TopKCollector(k);
+        if (shards == 1) {
+            searchRange(terms, idf, prune, 0, snapshot.maxDoc(), collector);
+        } else {
+            List<CompletableFuture<TopKCollector>> forked = new ArrayList<>(shards - 1);
+            for (int shard = 0; shard < shards - 1; shard++) {
+                int from = shardStart(shard);
+                int to = shardStart(shard + 1);
+                forked.add(CompletableFuture.supplyAsync(() -> {
+                    TopKCollector local = new TopKCollector(k);
+                    searchRange(terms, idf, prune, from, to, local);
+                    return local;
+                }, executor));
+            }
+            searchRange(terms, idf, prune, shardStart(shards - 1), snapshot.maxDoc(), collector);
+            for (CompletableFuture<TopKCollector> shard : forked) {
+                try {
+                    for (TopKCollector.ScoredDoc hit : shard.join().drain()) {
+                        collector.offer(hit.doc(), hit.score());
+                    }
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(collector.size());
+        for (TopKCollector.ScoredDoc hit : collector.drain()) {
+            hits.add(new SearchHit(snapshot.document(hit.doc()), hit.score()));
+        }
+        return hits;
+    }
+
+    private int shardStart(int shard) {
+        return (int) ((long) snapshot.maxDoc() * shard / shards);
+    }
+
+    /**
+     * Collect hits with global doc ids in {@code [from, to)}
+     */
+    private void searchRange(List<String> terms, float[] idf, boolean prune, int from, int to,
+                             TopKCollector collector) {
+        List<Segment> segments = snapshot.getSegments();
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            int base = snapshot.base(s);
+            int min = Math.max(from - base, 0);
+            int max = Math.min(to - base, segment.getIndex().docCount());
+            if (min >= max) {
+                continue;
+            }
+            Cursor[] cursors = cursors(segment.getIndex(), terms, idf);
+            if (cursors.length == 0) {
+                continue;
+            }
+            if (prune) {
+                blockMaxWand(segment, base, min, max, cursors, collector);
+            } else {
+                exhaustive(segment, base, min, max, cursors, collector);
+            }
+        }
+    }
+
+    private Cursor[] cursors(InvertedIndex index, List<String> terms, float[] idf) {
+        double avgLength = snapshot.averageDocLength();
+        List<Cursor> cursors = new ArrayList<>(terms.size());
+        for (int i = 0; i < idf.length; i++) {
+            PostingsIterator postings = index.postings(terms.get(i));
+            if (postings != null) {
+                cursors.add(new Cursor(cursors.size(), postings, idf[i], avgLength));
+            }
+        }
+        return cursors.toArray(new Cursor[0]);
+    }
+
+    /**
+     * Document-at-a-time disjunction: every matching live document in {@code [min, max)} is scored once
+     */
+    private void exhaustive(Segment segment, int base, int min, int max, Cursor[] cursors,
+                            TopKCollector collector) {
+        InvertedIndex index = segment.getIndex();
+        int doc = PostingsIterator.NO_MORE_DOCS;
+        for (Cursor cursor : cursors) {
+            doc = Math.min(doc, cursor.postings.advance(min));
+        }
+        while (doc < max) {
+            boolean live = !segment.isDeleted(doc);
+            int length = index.docLength(doc);
+            float score = 0;
+            int next = PostingsIterator.NO_MORE_DOCS;
+            for (Cursor cursor : cursors) {
+                if (cursor.postings.docId() == doc) {
+                    if (live) {
+                        score += cursor.score(length);
+                    }
+                    cursor.postings.nextDoc();
+                }
+                next = Math.min(next, cursor.postings.docId());
+            }
+            if (live) {
+                collector.offer(base + doc, score);
+            }
+            doc = next;
+        }
+    }
+
+    /**
+     * Block-max WAND (Ding and Suel, 2011). Hits are identical to {@link #exhaustive}: documents
+     * are visited in ascending order, so a skipped document could at best tie the k-th score,
+     * and a tie never displaces an earlier (smaller) doc id from the heap.
+     */
+    private void blockMaxWand(Segment segment, int base, int min, int max, Cursor[] cursors,
+                              TopKCollector collector) {
+        InvertedIndex index = segment.getIndex();
+        int n = cursors.length;
+        float[] contributions = new float[n];
+        for (Cursor cursor : cursors) {
+            cursor.postings.advance(min);
+        }
+        while (true) {
+            sortByDoc(cursors, n);
+            // cursors past the range are done
+            while (n > 0 && cursors[n - 1].postings.docId() >= max) {
+                n--;
+            }
+            if (n == 0) {
+                return;
+            }
+
+            // pivot: first cursor at which the summed term upper bounds can beat the threshold
+            float threshold = collector.threshold();
+            float upper = 0;
+            int pivot = -1;
+            for (int i = 0; i < n; i++) {
+                upper += cursors[i].maxScore;
+                if (upper > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                return; // no remaining document can enter the top k
+            }
+            int pivotDoc = cursors[pivot].postings.docId();
+            while (pivot + 1 < n && cursors[pivot + 1].postings.docId() == pivotDoc) {
+                pivot++;
+            }
+
+            float blockUpper = 0;
+            for (int i = 0; i <= pivot; i++) {
+                cursors[i].postings.advanceShallow(pivotDoc);
+                blockUpper += cursors[i].blockMaxScore();
+            }
+
+            if (blockUpper > threshold) {
+                if (cursors[0].postings.docId() == pivotDoc) {
+                    if (!segment.isDeleted(pivotDoc)) {
+                        // sum in query term order, exactly like the exhaustive path, so float scores match
+                        int length = index.docLength(pivotDoc);
+                        for (int i = 0; i <= pivot; i++) {
+                            contributions[cursors[i].slot] = cursors[i].score(length);
+                        }
+                        float score = 0;
+                        for (int slot = 0; slot < contributions.length; slot++) {
+                            score += contributions[slot];
+                            contributions[slot] = 0;
+                        }
+                        collector.offer(base + pivotDoc, score);
+                    }
+                    for (int i = 0; i <= pivot; i++) {
+                        cursors[i].postings.nextDoc();
+                    }
+                } else {
+                    // documents before the pivot cannot beat the threshold
+                    for (int i = 0; i < pivot && cursors[i].postings.docId() < pivotDoc; i++) {
+                        cursors[i].postings.advance(pivotDoc);
+                    }
+                }
+            } else {
+                // nothing up to the end of the shortest current block can beat the threshold
+                int next = PostingsIterator.NO_MORE_DOCS;
+                for (int i = 0; i <= pivot; i++) {
+                    next = Math.min(next, cursors[i].postings.blockLastDoc());
+                }
+                if (next != PostingsIterator.NO_MORE_DOCS) {
+                    next++;
+                }
+                if (pivot + 1 < n) {
+                    next = Math.min(next, cursors[pivot + 1].postings.docId());
+                }
+                for (int i = 0; i <= pivot; i++) {
+                    if (cursors[i].postings.docId() < next) {
+                        cursors[i].postings.advance(next);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void sortByDoc(Cursor[] cursors, int n) {
+        for (int i = 1; i < n; i++) {
+            Cursor cursor = cursors[i];
+            int doc = cursor.postings.docId();
+            int j = i - 1;
+            while (j >= 0 && cursors[j].postings.docId() > doc) {
+                cursors[j + 1] = cursors[j];
+                j--;
+            }
+            cursors[j + 1] = cursor;
+        }
+    }
+
+    /**
+     * A term's postings with its BM25 weight and score upper bound
+     */
+    private static final class Cursor {
+        final int slot; // position in query term order
+        final PostingsIterator postings;
+        final float idf;
+        final double avgLength;
+        final float maxScore;
+
+        Cursor(int slot, PostingsIterator postings, float idf, double avgLength) {
+            this.slot = slot;
+            this.postings = postings;
+            this.idf = idf;
+            this.avgLength = avgLength;
+            this.maxScore = Bm25.upperBound(idf, postings.maxFreq(), postings.minDocLength(), avgLength);
+        }
+
+        float score(int docLength) {
+            return Bm25.score(idf, postings.freq(), docLength, avgLength);
+        }
+
+        float blockMaxScore() {
+            if (postings.blockLastDoc() == PostingsIterator.NO_MORE_DOCS) {
+                return 0;
+            }
+            return Bm25.upperBound(idf, postings.blockMaxFreq(), postings.blockMinDocLength(), avgLength);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.agentdemo.search;
+
+import java.util.List;
+
+/**
+ * Immutable point-in-time view over a list of segments. Searches hold on to the
+ * snapshot they started with, so concurrent updates, flushes and merges never change
+ * what an in-flight query sees and never block it.
+ *
+ * Collection statistics for BM25 are summed over all segments including deleted
+ * documents, as deletes are only reclaimed by merges.
+ */
+public final class IndexSnapshot {
+
+    static final IndexSnapshot EMPTY = new IndexSnapshot(List.of());
+
+    private final List<Segment> segments;
+    private final int[] bases;
+    private final int maxDoc;
+    private final long totalLength;
+    private final int liveDocCount;
+
+    IndexSnapshot(List<Segment> segments) {
+        this.segments = List.copyOf(segments);
+        this.bases = new int[segments.size()];
+        int docs = 0;
+        int live = 0;
+        long length = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            bases[i] = docs;
+            docs += segment.getIndex().docCount();
+            live += segment.liveDocCount();
+            length += segment.getIndex().totalLength();
+        }
+        this.maxDoc = docs;
+        this.liveDocCount = live;
+        this.totalLength = length;
+    }
+
+    public static IndexSnapshot of(InvertedIndex index) {
+        return new IndexSnapshot(List.of(new Segment("_heap", index, Segment.newBits(index.docCount()), 0)));
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Global doc id of the first document of segment {@code i}
+     */
+    public int base(int i) {
+        return bases[i];
+    }
+
+    /**
+     * Number of documents including deleted ones
+     */
+    public int maxDoc() {
+        return maxDoc;
+    }
+
+    public int liveDocCount() {
+        return liveDocCount;
+    }
+
+    public double averageDocLength() {
+        return maxDoc == 0 ? 0 : (double) totalLength / maxDoc;
+    }
+
+    public int docFreq(String term) {
+        int docFreq = 0;
+        for (Segment segment : segments) {
+            docFreq += segment.getIndex().docFreq(term);
+        }
+        return docFreq;
+    }
+
+    /**
+     * Stored fields for a global doc id
+     */
+    public StoredDocument document(int globalDoc) {
+        int i = segmentOf(globalDoc);
+        return segments.get(i).getIndex().document(globalDoc - bases[i]);
+    }
+
+    private int segmentOf(int globalDoc) {
+        int low = 0;
+        int high = bases.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (bases[mid] <= globalDoc) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.agentdemo.search;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Directory of immutable segment files plus a small manifest naming the committed segments.
+ *
+ * The manifest is replaced atomically after new segments have been fully written and
+ * synced, so readers either see the previous commit or the new one. Segment files that are
+ * neither committed nor still being produced by a flush or merge are deleted on each commit.
+ */
+public class IndexStore {
+
+    static final String MANIFEST = "segments.properties";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path dir;
+    private final Set<String> inFlight = new HashSet<>();
+    private long generation = -1;
+
+    public IndexStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Map the committed segments, oldest first, if they were built from {@code source};
+     * otherwise an empty list
+     */
+    public synchronized List<MappedInvertedIndex> open(Path source) throws IOException {
+        Path manifest = dir.resolve(MANIFEST);
+        if (!Files.isRegularFile(manifest)) {
+            return List.of();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        if (!source.toString().equals(properties.getProperty("source"))) {
+            return List.of();
+        }
+        List<MappedInvertedIndex> segments = new ArrayList<>();
+        for (String segment : properties.getProperty("segments", "").split(",")) {
+            if (!segment.isBlank()) {
+                segments.add(MappedInvertedIndex.open(dir.resolve(segment.trim())));
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Write {@code index} as a new segment file and map it. The segment is protected from
+     * cleanup until it is committed or {@link #discard discarded}.
+     */
+    public MappedInvertedIndex write(InvertedIndex index) throws IOException {
+        String name;
+        synchronized (this) {
+            Files.createDirectories(dir);
+            if (generation < 0) {
+                generation = maxGeneration();
+            }
+            name = "seg_" + (++generation) + SEGMENT_SUFFIX;
+            inFlight.add(name);
+        }
+        try {
+            SegmentWriter.write(index, dir.resolve(name));
+            return MappedInvertedIndex.open(dir.resolve(name));
+        } catch (IOException e) {
+            synchronized (this) {
+                inFlight.remove(name);
+            }
+            Files.deleteIfExists(dir.resolve(name));
+            throw e;
+        }
+    }
+
+    /**
+     * Forget a written segment that will never be committed
+     */
+    public synchronized void discard(MappedInvertedIndex segment) throws IOException {
+        inFlight.remove(segment.getFile().getFileName().toString());
+        Files.deleteIfExists(segment.getFile());
+    }
+
+    /**
+     * Make exactly {@code segments} the committed set and delete files no longer needed
+     */
+    public synchronized void commit(List<MappedInvertedIndex> segments, Path source) throws IOException {
+        Files.createDirectories(dir);
+        List<String> names = new ArrayList<>();
+        int docs = 0;
+        for (MappedInvertedIndex segment : segments) {
+            names.add(segment.getFile().getFileName().toString());
+            docs += segment.docCount();
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("source", source.toString());
+        properties.setProperty("segments", String.join(",", names));
+        properties.setProperty("docs", Integer.toString(docs));
+        Path temp = dir.resolve(MANIFEST + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "search index manifest");
+        }
+        Files.move(temp, dir.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        inFlight.removeAll(names);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "seg_*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!names.contains(name) && !inFlight.contains(name)) {
+                    // existing mappings of the old file stay valid until they are garbage collected
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private long maxGeneration() throws IOException {
+        long max = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "seg_*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    max = Math.max(max, Long.parseLong(name.substring(4, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.agentdemo.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies document adds, updates and deletes to a multi-segment index.
+ *
+ * <ul>
+ *   <li>New documents go to an in-memory buffer that {@link #refresh()} turns into a small
+ *       heap segment and publishes in a new {@link IndexSnapshot}.</li>
+ *   <li>Updates and deletes tombstone the previous version of a document (by path);
+ *       tombstone bitsets are copied on write, so published snapshots never change.</li>
+ *   <li>{@link #flush()} writes heap segments to the {@link IndexStore} as memory-mapped
+ *       segments and commits the manifest.</li>
+ *   <li>A {@link TieredMergePolicy} picks segments that a background thread merges,
+ *       dropping deleted documents; the result replaces its inputs atomically.</li>
+ * </ul>
+ *
+ * Mutations are serialized on this object; searches only read the volatile snapshot and
+ * never wait for updates, flushes or merges. Tombstones are not persisted: after a restart
+ * {@link #recover()} rebuilds them from the stored paths and modification times, keeping the
+ * newest version of each document.
+ */
+public class IndexWriter implements DocumentSink, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexWriter.class);
+
+    private final IndexStore store;
+    private final Path source;
+    private final TieredMergePolicy mergePolicy;
+    private final ExecutorService mergeExecutor;
+
+    private final List<SegmentState> segments = new ArrayList<>();
+    private final Map<String, Location> locations = new HashMap<>();
+    private IndexBuilder buffer = new IndexBuilder();
+    private List<String> bufferPaths = new ArrayList<>();
+    private BitSet bufferDeleted = new BitSet();
+    private int heapSegmentCounter;
+    private boolean closed;
+
+    private volatile IndexSnapshot snapshot = IndexSnapshot.EMPTY;
+
+    /**
+     * @param store     where segments are persisted, or null to keep everything on the heap
+     * @param committed segments previously committed to {@code store}, oldest first
+     */
+    public IndexWriter(IndexStore store, Path source, List<MappedInvertedIndex> committed,
+                       TieredMergePolicy mergePolicy) {
+        this.store = store;
+        this.source = source;
+        this.mergePolicy = mergePolicy;
+        this.mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (MappedInvertedIndex index : committed) {
+            segments.add(new SegmentState(index.getFile().getFileName().toString(), index));
+        }
+        publish();
+    }
+
+    /**
+     * The current point-in-time view for searching
+     */
+    public IndexSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Rebuild the path map of committed segments after a restart. When the same path occurs
+     * more than once (an update whose tombstone was not persisted), the version with the
+     * newest modification time wins, then the one in the later segment.
+     */
+    @Override
+    public synchronized void recover() {
+        for (SegmentState segment : segments) {
+            InvertedIndex index = segment.index;
+            for (int doc = 0; doc < index.docCount(); doc++) {
+                if (segment.isDeleted(doc)) {
+                    continue;
+                }
+                StoredDocument document = index.document(doc);
+                Location previous = locations.get(document.getPath());
+                if (previous != null && previous.lastModified > document.getLastModified()) {
+                    segment.delete(doc);
+                    continue;
+                }
+                if (previous != null) {
+                    tombstone(previous);
+                }
+                locations.put(document.getPath(), new Location(segment, doc, document.getLastModified()));
+            }
+        }
+        publish();
+    }
+
+    @Override
+    public synchronized void update(StoredDocument document, CharSequence text) {
+        Location previous = locations.remove(document.getPath());
+        if (previous != null) {
+            tombstone(previous);
+        }
+        int doc = buffer.add(document, text);
+        bufferPaths.add(document.getPath());
+        locations.put(document.getPath(), new Location(null, doc, document.getLastModified()));
+    }
+
+    @Override
+    public synchronized boolean delete(String path) {
+        Location previous = locations.remove(path);
+        if (previous == null) {
+            return false;
+        }
+        tombstone(previous);
+        return true;
+    }
+
+    @Override
+    public synchronized Map<String, Long> indexedVersions() {
+        Map<String, Long> versions = new HashMap<>(locations.size() * 2);
+        locations.forEach((path, location) -> versions.put(path, location.lastModified));
+        return versions;
+    }
+
+    /**
+     * Make all changes so far visible to searches and look for merges
+     */
+    @Override
+    public void refresh() {
+        synchronized (this) {
+            if (buffer.docCount() > 0) {
+                SegmentState segment = new SegmentState("_mem" + (++heapSegmentCounter), buffer.build());
+                for (int doc = bufferDeleted.nextSetBit(0); doc >= 0; doc = bufferDeleted.nextSetBit(doc + 1)) {
+                    segment.delete(doc);
+                }
+                for (int doc = 0; doc < bufferPaths.size(); doc++) {
+                    Location location = locations.get(bufferPaths.get(doc));
+                    if (location != null && location.segment == null && location.doc == doc) {
+                        locations.put(bufferPaths.get(doc), new Location(segment, doc, location.lastModified));
+                    }
+                }
+                segments.add(segment);
+                buffer = new IndexBuilder();
+                bufferPaths = new ArrayList<>();
+                bufferDeleted = new BitSet();
+            }
+            publish();
+        }
+        maybeMerge();
+    }
+
+    /**
+     * Refresh, write heap segments to the store and commit the manifest
+     */
+    public void flush() throws IOException {
+        refresh();
+        if (store == null) {
+            return;
+        }
+        List<SegmentState> heap = new ArrayList<>();
+        synchronized (this) {
+            for (SegmentState segment : segments) {
+                if (!segment.isPersistent() && !segment.merging) {
+                    heap.add(segment);
+                }
+            }
+        }
+        // heap segments are immutable, so they can be written without holding the lock
+        Map<SegmentState, MappedInvertedIndex> written = new HashMap<>();
+        for (SegmentState segment : heap) {
+            written.put(segment, store.write(segment.index));
+        }
+        synchronized (this) {
+            for (Map.Entry<SegmentState, MappedInvertedIndex> entry : written.entrySet()) {
+                SegmentState segment = entry.getKey();
+                if (segments.contains(segment) && !segment.merging) {
+                    // doc ids are unchanged, so tombstones and locations stay valid
+                    segment.index = entry.getValue();
+                    segment.name = entry.getValue().getFile().getFileName().toString();
+                } else {
+                    store.discard(entry.getValue());
+                }
+            }
+            commitStore();
+            publish();
+        }
+    }
+
+    /**
+     * Schedule a background merge if the merge policy finds one
+     */
+    public synchronized void maybeMerge() {
+        if (closed) {
+            return;
+        }
+        List<Segment> candidates = new ArrayList<>();
+        Map<Segment, SegmentState> states = new HashMap<>();
+        for (SegmentState state : segments) {
+            if (!state.merging) {
+                Segment view = state.view();
+                candidates.add(view);
+                states.put(view, state);
+            }
+        }
+        List<Segment> merge = mergePolicy.findMerge(candidates);
+        if (merge.isEmpty()) {
+            return;
+        }
+        List<SegmentState> sources = new ArrayList<>();
+        for (Segment view : merge) {
+            SegmentState state = states.get(view);
+            state.merging = true;
+            sources.add(state);
+        }
+        mergeExecutor.execute(() -> runMerge(merge, sources));
+    }
+
+    private void runMerge(List<Segment> views, List<SegmentState> sources) {
+        long start = System.nanoTime();
+        try {
+            InvertedIndex merged = SegmentMerger.merge(views);
+            if (store != null) {
+                merged = store.write(merged);
+            }
+            String[] paths = new String[merged.docCount()];
+            for (int doc = 0; doc < paths.length; doc++) {
+                paths[doc] = merged.document(doc).getPath();
+            }
+            commitMerge(sources, merged, paths);
+            log.debug("Merged {} segments into {} documents in {} ms", sources.size(), merged.docCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search segment merge failed: {}", e.getMessage());
+            synchronized (this) {
+                sources.forEach(source -> source.merging = false);
+            }
+        }
+        maybeMerge();
+    }
+
+    private synchronized void commitMerge(List<SegmentState> sources, InvertedIndex merged, String[] paths)
+            throws IOException {
+        String name = merged instanceof MappedInvertedIndex mapped
+                ? mapped.getFile().getFileName().toString()
+                : "_mem" + (++heapSegmentCounter);
+        SegmentState result = new SegmentState(name, merged);
+        Set<SegmentState> sourceSet = new HashSet<>(sources);
+        for (int doc = 0; doc < paths.length; doc++) {
+            Location location = locations.get(paths[doc]);
+            if (location != null && location.segment != null && sourceSet.contains(location.segment)) {
+                locations.put(paths[doc], new Location(result, doc, location.lastModified));
+            } else {
+                // updated or deleted while the merge was running
+                result.delete(doc);
+            }
+        }
+        int position = segments.indexOf(sources.get(0));
+        segments.removeAll(sourceSet);
+        if (result.deleteCount < merged.docCount()) {
+            segments.add(Math.min(position, segments.size()), result);
+        } else if (merged instanceof MappedInvertedIndex mapped) {
+            store.discard(mapped);
+        }
+        if (store != null) {
+            commitStore();
+        }
+        publish();
+    }
+
+    private void commitStore() throws IOException {
+        List<MappedInvertedIndex> persistent = new ArrayList<>();
+        for (SegmentState segment : segments) {
+            if (segment.index instanceof MappedInvertedIndex mapped) {
+                persistent.add(mapped);
+            }
+        }
+        store.commit(persistent, source);
+    }
+
+    private void tombstone(Location location) {
+        if (location.segment == null) {
+            bufferDeleted.set(location.doc);
+        } else {
+            location.segment.delete(location.doc);
+        }
+    }
+
+    private void publish() {
+        List<Segment> views = new ArrayList<>(segments.size());
+        for (SegmentState segment : segments) {
+            if (segment.index.docCount() > segment.deleteCount) {
+                views.add(segment.view());
+            }
+        }
+        snapshot = new IndexSnapshot(views);
+    }
+
+    /**
+     * Wait for a running merge, then flush outstanding changes
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        mergeExecutor.shutdown();
+        try {
+            mergeExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Number of segments, including heap segments not yet flushed
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Writer-side state of a segment: mutable tombstones, shared with snapshots copy-on-write
+     */
+    private static final class SegmentState {
+        String name;
+        InvertedIndex index;
+        long[] deleted;
+        int deleteCount;
+        boolean shared;
+        boolean merging;
+        Segment view;
+
+        SegmentState(String name, InvertedIndex index) {
+            this.name = name;
+            this.index = index;
+            this.deleted = Segment.newBits(index.docCount());
+        }
+
+        boolean isPersistent() {
+            return index instanceof MappedInvertedIndex;
+        }
+
+        boolean isDeleted(int doc) {
+            return (deleted[doc >>> 6] & (1L << doc)) != 0;
+        }
+
+        void delete(int doc) {
+            if (isDeleted(doc)) {
+                return;
+            }
+            if (shared) {
+                deleted = deleted.clone();
+                shared = false;
+            }
+            deleted[doc >>> 6] |= 1L << doc;
+            deleteCount++;
+            view = null;
+        }
+
+        Segment view() {
+            if (view == null || view.getIndex() != index) {
+                view = new Segment(name, index, deleted, deleteCount);
+                shared = true;
+            }
+            return view;
+        }
+    }
+
+    private record Location(SegmentState segment, int doc, long lastModified) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.agentdemo.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive int array (avoids boxing while postings are accumulated)
+ */
+final class IntList {
+    private int[] values;
+    private int size;
+
+    IntList(int initialCapacity) {
+        this.values = new int[Math.max(4, initialCapacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
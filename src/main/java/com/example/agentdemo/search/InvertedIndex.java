@@ -0,0 +1,44 @@
+package com.example.agentdemo.search;
+
+/**
+ * Read-only view of one index segment: a term dictionary sorted in code point
+ * (equivalently UTF-8 byte) order, compressed postings, per-document lengths and stored fields.
+ * Implementations are either built on the heap ({@link IndexBuilder}) or memory-mapped
+ * from an immutable segment file ({@link MappedInvertedIndex}).
+ */
+public interface InvertedIndex {
+
+    int docCount();
+
+    /**
+     * Sum of all document lengths in terms, for BM25 length normalisation
+     */
+    long totalLength();
+
+    default double averageDocLength() {
+        return docCount() == 0 ? 0 : (double) totalLength() / docCount();
+    }
+
+    int docLength(int doc);
+
+    int termCount();
+
+    /**
+     * The term with ordinal {@code ord}; ordinals follow dictionary order
+     */
+    String term(int ord);
+
+    int docFreq(String term);
+
+    /**
+     * Postings for a term, or null if the term does not occur
+     */
+    PostingsIterator postings(String term);
+
+    StoredDocument document(int doc);
+
+    /**
+     * Size of the encoded postings in bytes
+     */
+    long postingsBytes();
+}
@@ -0,0 +1,187 @@
+package com.example.agentdemo.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.example.agentdemo.search.SegmentWriter.DOC_ENTRY_BYTES;
+import static com.example.agentdemo.search.SegmentWriter.TERM_ENTRY_BYTES;
+
+/**
+ * Segment file written by {@link SegmentWriter}, memory-mapped and queried in place.
+ *
+ * Opening only validates the header, so it takes constant time regardless of segment
+ * size; term lookups binary search the mapped term table by comparing UTF-8 bytes, and
+ * postings, document lengths and stored fields are decoded straight from the mapping.
+ * Nothing but the few header fields lives on the heap, and pages are brought in by the
+ * OS page cache on demand.
+ */
+public final class MappedInvertedIndex implements InvertedIndex {
+
+    private final Path file;
+    private final int docCount;
+    private final int termCount;
+    private final long totalLength;
+    private final ByteBuffer terms;
+    private final ByteBuffer termBytes;
+    private final ByteBuffer postings;
+    private final ByteBuffer docs;
+    private final ByteBuffer stored;
+
+    private MappedInvertedIndex(Path file, ByteBuffer map) throws IOException {
+        this.file = file;
+        if (map.capacity() < SegmentWriter.HEADER_BYTES || map.getInt(0) != SegmentWriter.MAGIC) {
+            throw new IOException("Not a search segment: " + file);
+        }
+        if (map.getInt(4) != SegmentWriter.VERSION) {
+            throw new IOException("Unsupported segment version " + map.getInt(4) + " in " + file);
+        }
+        this.docCount = map.getInt(8);
+        this.termCount = map.getInt(12);
+        this.totalLength = map.getLong(16);
+        int termsOffset = map.getInt(24);
+        int termBytesOffset = map.getInt(28);
+        int postingsOffset = map.getInt(32);
+        int docsOffset = map.getInt(36);
+        int storedOffset = map.getInt(40);
+        int fileLength = map.getInt(44);
+        if (fileLength != map.capacity()) {
+            throw new IOException("Truncated search segment " + file + ": expected " + fileLength
+                    + " bytes, found " + map.capacity());
+        }
+        this.terms = map.slice(termsOffset, termBytesOffset - termsOffset);
+        this.termBytes = map.slice(termBytesOffset, postingsOffset - termBytesOffset);
+        this.postings = map.slice(postingsOffset, docsOffset - postingsOffset);
+        this.docs = map.slice(docsOffset, storedOffset - docsOffset);
+        this.stored = map.slice(storedOffset, fileLength - storedOffset);
+    }
+
+    public static MappedInvertedIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment " + file + " exceeds the 2 GB segment limit");
+            }
+            // the mapping stays valid after the channel is closed
+            return new MappedInvertedIndex(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public int docCount() {
+        return docCount;
+    }
+
+    @Override
+    public long totalLength() {
+        return totalLength;
+    }
+
+    @Override
+    public int docLength(int doc) {
+        return docs.getInt(doc * DOC_ENTRY_BYTES);
+    }
+
+    @Override
+    public int termCount() {
+        return termCount;
+    }
+
+    @Override
+    public String term(int ord) {
+        int start = terms.getInt(ord * TERM_ENTRY_BYTES);
+        int end = terms.getInt((ord + 1) * TERM_ENTRY_BYTES);
+        return decode(termBytes, start, end - start);
+    }
+
+    @Override
+    public int docFreq(String term) {
+        int ord = find(term.getBytes(StandardCharsets.UTF_8));
+        return ord < 0 ? 0 : terms.getInt(ord * TERM_ENTRY_BYTES + 4);
+    }
+
+    @Override
+    public PostingsIterator postings(String term) {
+        int ord = find(term.getBytes(StandardCharsets.UTF_8));
+        if (ord < 0) {
+            return null;
+        }
+        int entry = ord * TERM_ENTRY_BYTES;
+        return new PostingsIterator(postings, terms.getInt(entry + 8),
+                terms.getInt(entry + TERM_ENTRY_BYTES + 8), terms.getInt(entry + 4));
+    }
+
+    @Override
+    public StoredDocument document(int doc) {
+        int[] position = {docs.getInt(doc * DOC_ENTRY_BYTES + 4)};
+        String path = readString(position);
+        String title = readString(position);
+        String snippet = readString(position);
+        return new StoredDocument(path, title, snippet, stored.getLong(position[0]));
+    }
+
+    @Override
+    public long postingsBytes() {
+        return postings.capacity();
+    }
+
+    /**
+     * Binary search of the term table by unsigned byte comparison
+     */
+    private int find(byte[] key) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int ord, byte[] key) {
+        int start = terms.getInt(ord * TERM_ENTRY_BYTES);
+        int length = terms.getInt((ord + 1) * TERM_ENTRY_BYTES) - start;
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(termBytes.get(start + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String readString(int[] position) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = stored.get(position[0]++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        String value = decode(stored, position[0], length);
+        position[0] += length;
+        return value;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.agentdemo.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cursor over one term's postings: ascending doc ids with term frequencies,
+ * decoded lazily from the block format written by {@link PostingsWriter}.
+ * The bytes may live on the heap or in a memory-mapped segment; only absolute reads are used,
+ * so many iterators can share one buffer.
+ *
+ * Besides plain iteration, the cursor exposes the impacts (maximum frequency, minimum
+ * document length) of the whole term and of the current block, and can skip blocks
+ * without decoding them ({@link #advanceShallow}).
+ */
+public class PostingsIterator {
+
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private final ByteBuffer bytes;
+    private final int end;
+    private final int docFreq;
+    private final int maxFreq;
+    private final int minDocLength;
+
+    private int position;     // next posting to decode
+    private int blockEnd;     // end of the current block's postings (= next block header)
+    private int blockLastDoc = -1;
+    private int blockMaxFreq;
+    private int blockMinDocLength;
+    private int base;         // doc id that the next delta is relative to
+    private int doc = -1;
+    private int freq;
+
+    PostingsIterator(ByteBuffer bytes, int start, int end, int docFreq) {
+        this.bytes = bytes;
+        this.end = end;
+        this.docFreq = docFreq;
+        this.position = start;
+        this.maxFreq = readVarInt();
+        this.minDocLength = readVarInt();
+        this.blockEnd = position;
+    }
+
+    /**
+     * Advance to the next posting; returns its doc id or {@link #NO_MORE_DOCS}
+     */
+    public int nextDoc() {
+        if (position >= blockEnd && !nextBlock()) {
+            doc = NO_MORE_DOCS;
+            return doc;
+        }
+        doc = base + readVarInt();
+        freq = readVarInt();
+        base = doc;
+        return doc;
+    }
+
+    /**
+     * Advance to the first posting with doc id {@code >= target}, skipping whole blocks where possible
+     */
+    public int advance(int target) {
+        if (doc >= target) {
+            return doc;
+        }
+        advanceShallow(target);
+        while (doc < target) {
+            nextDoc();
+        }
+        return doc;
+    }
+
+    /**
+     * Move to the block that may contain {@code target} without decoding postings, so that
+     * {@link #blockLastDoc()} and the block impacts describe it. Only {@link #advance} with a
+     * target of at least {@code target} may follow; {@link #docId()} is unchanged until then.
+     * Returns the last doc id of that block, or {@link #NO_MORE_DOCS} past the last block.
+     */
+    public int advanceShallow(int target) {
+        while (blockLastDoc < target) {
+            if (blockLastDoc >= 0 || position < blockEnd) {
+                // skip the rest of the current block
+                base = blockLastDoc;
+                position = blockEnd;
+            }
+            if (!nextBlock()) {
+                return NO_MORE_DOCS;
+            }
+        }
+        return blockLastDoc;
+    }
+
+    public int docId() {
+        return doc;
+    }
+
+    public int freq() {
+        return freq;
+    }
+
+    public int docFreq() {
+        return docFreq;
+    }
+
+    /**
+     * Largest frequency of this term in any document
+     */
+    public int maxFreq() {
+        return maxFreq;
+    }
+
+    /**
+     * Smallest length of any document containing this term
+     */
+    public int minDocLength() {
+        return minDocLength;
+    }
+
+    public int blockLastDoc() {
+        return blockLastDoc < 0 ? NO_MORE_DOCS : blockLastDoc;
+    }
+
+    public int blockMaxFreq() {
+        return blockMaxFreq;
+    }
+
+    public int blockMinDocLength() {
+        return blockMinDocLength;
+    }
+
+    private boolean nextBlock() {
+        if (blockEnd >= end) {
+            blockLastDoc = NO_MORE_DOCS;
+            return false;
+        }
+        position = blockEnd;
+        int previousLast = Math.max(blockLastDoc, 0);
+        blockLastDoc = previousLast + readVarInt();
+        int length = readVarInt();
+        blockMaxFreq = readVarInt();
+        blockMinDocLength = readVarInt();
+        blockEnd = position + length;
+        return true;
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes.get(position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.agentdemo.search;
+
+/**
+ * Encodes one term's postings at a time into a shared byte sink.
+ *
+ * <pre>
+ * term   varint maxFreq, varint minDocLength, then blocks of up to {@link #BLOCK_SIZE} postings
+ * block  varint (lastDoc - previous block's lastDoc), varint byteLength,
+ *        varint maxFreq, varint minDocLength, then byteLength bytes of
+ *        (doc delta, freq) varint pairs; the first delta is relative to the previous block's lastDoc
+ * </pre>
+ *
+ * The per-block maximum frequency and minimum document length bound the BM25 score of every
+ * posting in the block, which lets block-max WAND skip whole blocks without decoding them.
+ */
+final class PostingsWriter {
+
+    static final int BLOCK_SIZE = 128;
+
+    private final VarInts.ByteSink out;
+    private final VarInts.ByteSink block = new VarInts.ByteSink(BLOCK_SIZE * 3);
+    private final IntList docs = new IntList(BLOCK_SIZE);
+    private final IntList freqs = new IntList(BLOCK_SIZE);
+    private final IntList lengths = new IntList(BLOCK_SIZE);
+
+    PostingsWriter(VarInts.ByteSink out) {
+        this.out = out;
+    }
+
+    /**
+     * Append a posting; doc ids must be strictly ascending within a term
+     */
+    void add(int doc, int freq, int docLength) {
+        docs.add(doc);
+        freqs.add(freq);
+        lengths.add(docLength);
+    }
+
+    /**
+     * Write the postings added since the last call; returns the term's document frequency
+     */
+    int finishTerm() {
+        int count = docs.size();
+        if (count == 0) {
+            return 0;
+        }
+        int maxFreq = 0;
+        int minLength = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            maxFreq = Math.max(maxFreq, freqs.get(i));
+            minLength = Math.min(minLength, lengths.get(i));
+        }
+        out.writeVarInt(maxFreq);
+        out.writeVarInt(minLength);
+
+        int previousLast = 0;
+        for (int start = 0; start < count; start += BLOCK_SIZE) {
+            int end = Math.min(count, start + BLOCK_SIZE);
+            block.clear();
+            int blockMaxFreq = 0;
+            int blockMinLength = Integer.MAX_VALUE;
+            int previous = previousLast;
+            for (int i = start; i < end; i++) {
+                block.writeVarInt(docs.get(i) - previous);
+                block.writeVarInt(freqs.get(i));
+                previous = docs.get(i);
+                blockMaxFreq = Math.max(blockMaxFreq, freqs.get(i));
+                blockMinLength = Math.min(blockMinLength, lengths.get(i));
+            }
+            out.writeVarInt(previous - previousLast);
+            out.writeVarInt(block.size());
+            out.writeVarInt(blockMaxFreq);
+            out.writeVarInt(blockMinLength);
+            out.writeBytes(block);
+            previousLast = previous;
+        }
+        docs.clear();
+        freqs.clear();
+        lengths.clear();
+        return count;
+    }
+}
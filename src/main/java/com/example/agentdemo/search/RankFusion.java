@@ -0,0 +1,45 @@
+package com.example.agentdemo.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reciprocal rank fusion (Cormack et al., 2009): a document scores {@code sum 1 / (c + rank)}
+ * over the rankings it appears in. Only ranks are used, so BM25 scores and cosine
+ * similarities need no calibration against each other.
+ */
+public final class RankFusion {
+
+    static final int RANK_CONSTANT = 60;
+
+    private RankFusion() {
+    }
+
+    /**
+     * Fuse rankings (best first) of the same documents, identified by path; returns the best {@code k}
+     */
+    @SafeVarargs
+    public static List<SearchHit> fuse(int k, List<SearchHit>... rankings) {
+        Map<String, SearchHit> documents = new LinkedHashMap<>();
+        Map<String, Float> scores = new LinkedHashMap<>();
+        for (List<SearchHit> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                SearchHit hit = ranking.get(rank);
+                documents.putIfAbsent(hit.getPath(), hit);
+                scores.merge(hit.getPath(), 1.0f / (RANK_CONSTANT + rank + 1), Float::sum);
+            }
+        }
+        List<Map.Entry<String, Float>> ranked = new ArrayList<>(scores.entrySet());
+        // stable sort: ties keep first-seen order, i.e. favour the earlier ranking
+        ranked.sort((a, b) -> Float.compare(b.getValue(), a.getValue()));
+        List<SearchHit> fused = new ArrayList<>(Math.min(k, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < k; i++) {
+            Map.Entry<String, Float> entry = ranked.get(i);
+            SearchHit hit = documents.get(entry.getKey());
+            fused.add(new SearchHit(new StoredDocument(hit.getPath(), hit.getTitle(), hit.getSnippet()), entry.getValue()));
+        }
+        return fused;
+    }
+}
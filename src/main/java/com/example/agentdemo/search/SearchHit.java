@@ -0,0 +1,34 @@
+package com.example.agentdemo.search;
+
+/**
+ * One ranked search result
+ */
+public class SearchHit {
+    private final String path;
+    private final String title;
+    private final String snippet;
+    private final float score;
+
+    public SearchHit(StoredDocument document, float score) {
+        this.path = document.getPath();
+        this.title = document.getTitle();
+        this.snippet = document.getSnippet();
+        this.score = score;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.agentdemo.search;
+
+import java.util.Locale;
+
+/**
+ * How {@link SearchService} ranks documents for a query
+ */
+public enum SearchMode {
+    /** BM25 over exact terms */
+    KEYWORD,
+    /** Cosine similarity of hashed n-gram embeddings, approximate nearest neighbours */
+    SEMANTIC,
+    /** Keyword and semantic rankings combined with reciprocal rank fusion */
+    HYBRID;
+
+    /**
+     * Parse a mode name case-insensitively; returns null if it is not one
+     */
+    public static SearchMode parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
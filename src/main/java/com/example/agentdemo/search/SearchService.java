@@ -0,0 +1,297 @@
+package com.example.agentdemo.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the search index built from {@code search.index.dir}.
+ * When no directory is configured the service reports itself unavailable and
+ * the search skill keeps its canned demo output.
+ *
+ * The index is persisted as immutable segments in {@code search.index.store-dir}
+ * (default: {@code .search-index} inside the corpus directory). On later starts the
+ * committed segments are memory-mapped instead of re-reading the corpus, so startup time
+ * does not depend on corpus size and the index lives outside the Java heap; changes made
+ * while the application was down are reconciled in the background.
+ *
+ * With {@code search.index.watch} enabled, file changes are picked up incrementally:
+ * they land in small in-memory segments that are flushed every
+ * {@code search.index.flush-interval-seconds} and merged in the background.
+ *
+ * With {@code search.semantic.enabled}, the same documents are also embedded into a
+ * {@link SemanticIndex} (saved next to the segments as {@value #VECTORS_FILE}), which serves
+ * {@link SearchMode#SEMANTIC} queries and the semantic half of {@link SearchMode#HYBRID}.
+ *
+ * Keyword queries over large indexes are split into up to {@code search.shards} doc id
+ * ranges of at least {@code search.shard-min-docs} documents each, searched in parallel.
+ */
+@Component
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    static final String VECTORS_FILE = "vectors.hnsw";
+    /** How deep each ranking goes before hybrid fusion */
+    private static final int FUSION_DEPTH = 50;
+
+    private final Path indexDir;
+    private final Path storeDir;
+    private final boolean rebuildOnStart;
+    private final boolean watch;
+    private final long refreshMillis;
+    private final long flushIntervalSeconds;
+    private final TieredMergePolicy mergePolicy;
+    private final boolean semanticEnabled;
+    private final int semanticDimensions;
+    private final int efSearch;
+    private final SearchMode defaultMode;
+    private final int shards;
+    private final int shardMinDocs;
+
+    private IndexWriter writer;
+    private SemanticIndex semantic;
+    private IndexStore store;
+    private DirectoryWatcher watcher;
+    private ScheduledExecutorService maintenance;
+    private ExecutorService shardExecutor;
+
+    public SearchService(@Value("${search.index.dir:}") String indexDir,
+                         @Value("${search.index.store-dir:}") String storeDir,
+                         @Value("${search.index.rebuild-on-start:false}") boolean rebuildOnStart,
+                         @Value("${search.index.watch:true}") boolean watch,
+                         @Value("${search.index.refresh-ms:1000}") long refreshMillis,
+                         @Value("${search.index.flush-interval-seconds:60}") long flushIntervalSeconds,
+                         @Value("${search.index.merge.segments-per-tier:8}") int segmentsPerTier,
+                         @Value("${search.index.merge.floor-docs:1000}") int floorDocs,
+                         @Value("${search.semantic.enabled:true}") boolean semanticEnabled,
+                         @Value("${search.semantic.dimensions:256}") int semanticDimensions,
+                         @Value("${search.semantic.ef-search:64}") int efSearch,
+                         @Value("${search.default-mode:keyword}") String defaultMode,
+                         @Value("${search.shards:0}") int shards,
+                         @Value("${search.shard-min-docs:20000}") int shardMinDocs) {
+        this.indexDir = indexDir.isBlank() ? null : Path.of(indexDir).toAbsolutePath().normalize();
+        if (this.indexDir == null || !storeDir.isBlank()) {
+            this.storeDir = storeDir.isBlank() ? null : Path.of(storeDir).toAbsolutePath().normalize();
+        } else {
+            this.storeDir = this.indexDir.resolve(".search-index");
+        }
+        this.rebuildOnStart = rebuildOnStart;
+        this.watch = watch;
+        this.refreshMillis = refreshMillis;
+        this.flushIntervalSeconds = Math.max(1, flushIntervalSeconds);
+        this.mergePolicy = new TieredMergePolicy(segmentsPerTier, floorDocs);
+        this.semanticEnabled = semanticEnabled;
+        this.semanticDimensions = semanticDimensions;
+        this.efSearch = efSearch;
+        SearchMode mode = SearchMode.parse(defaultMode);
+        if (mode == null) {
+            log.warn("Unknown search.default-mode '{}'; using keyword", defaultMode);
+            mode = SearchMode.KEYWORD;
+        }
+        this.defaultMode = mode;
+        this.shards = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shardMinDocs = Math.max(1, shardMinDocs);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (indexDir == null) {
+            return;
+        }
+        if (!Files.isDirectory(indexDir)) {
+            log.warn("search.index.dir {} is not a directory; search stays in demo mode", indexDir);
+            return;
+        }
+        long start = System.nanoTime();
+        store = openStore();
+        List<MappedInvertedIndex> committed = List.of();
+        if (store != null && !rebuildOnStart) {
+            try {
+                committed = store.open(indexDir);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable search index in {}: {}", storeDir, e.getMessage());
+            }
+        }
+
+        writer = new IndexWriter(store, indexDir, committed, mergePolicy);
+        CorpusIndexer indexer;
+        if (semanticEnabled) {
+            semantic = new SemanticIndex(new HashedEmbedder(semanticDimensions), efSearch);
+            if (store != null && !rebuildOnStart) {
+                try {
+                    semantic.load(storeDir.resolve(VECTORS_FILE), indexDir);
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable vector index in {}: {}", storeDir, e.getMessage());
+                }
+            }
+            indexer = new CorpusIndexer(indexDir, writer, semantic);
+        } else {
+            indexer = new CorpusIndexer(indexDir, writer);
+        }
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (shards > 1) {
+            // the calling thread searches one shard itself
+            shardExecutor = Executors.newFixedThreadPool(shards - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-shard");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        if (watch) {
+            // register before indexing so that no change slips between the scan and the watch
+            try {
+                watcher = new DirectoryWatcher(indexDir, indexer, refreshMillis);
+            } catch (IOException e) {
+                log.warn("Cannot watch {} for changes: {}", indexDir, e.getMessage());
+            }
+        }
+
+        if (committed.isEmpty()) {
+            // first start: index the corpus before serving searches
+            try {
+                indexer.reconcile();
+                writer.flush();
+                saveVectors();
+            } catch (IOException e) {
+                log.error("Failed to index {}: {}", indexDir, e.getMessage());
+            }
+            log.info("Indexed {} documents from {} in {} ms", writer.snapshot().liveDocCount(), indexDir,
+                    (System.nanoTime() - start) / 1_000_000);
+            startWatcher();
+        } else {
+            log.info("Mapped {} search segments ({} documents) from {} in {} ms", committed.size(),
+                    writer.snapshot().liveDocCount(), storeDir, (System.nanoTime() - start) / 1_000_000);
+            maintenance.execute(() -> {
+                try {
+                    indexer.recover();
+                } catch (IOException e) {
+                    log.warn("Failed to reconcile search index with {}: {}", indexDir, e.getMessage());
+                }
+                startWatcher();
+            });
+        }
+        maintenance.scheduleWithFixedDelay(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void startWatcher() {
+        if (watcher != null) {
+            watcher.start();
+        }
+    }
+
+    private IndexStore openStore() {
+        if (storeDir == null) {
+            return null;
+        }
+        try {
+            Files.createDirectories(storeDir);
+            if (Files.isWritable(storeDir)) {
+                return new IndexStore(storeDir);
+            }
+        } catch (IOException e) {
+            // fall through
+        }
+        // e.g. a read-only corpus directory: keep the index on the heap
+        log.warn("Search index store {} is not writable; the index will not be persisted", storeDir);
+        return null;
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+            saveVectors();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to flush search index: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (watcher != null) {
+                watcher.close();
+            }
+            maintenance.shutdownNow();
+            if (shardExecutor != null) {
+                shardExecutor.shutdown();
+            }
+            writer.close();
+            saveVectors();
+        } catch (IOException e) {
+            log.warn("Failed to close search index: {}", e.getMessage());
+        }
+    }
+
+    private void saveVectors() throws IOException {
+        if (semantic != null && store != null) {
+            semantic.save(storeDir.resolve(VECTORS_FILE), indexDir);
+        }
+    }
+
+    public boolean isAvailable() {
+        return writer != null;
+    }
+
+    public int docCount() {
+        return writer == null ? 0 : writer.snapshot().liveDocCount();
+    }
+
+    public boolean isSemanticAvailable() {
+        return semantic != null;
+    }
+
+    public SearchMode defaultMode() {
+        return defaultMode;
+    }
+
+    public List<SearchHit> search(String query, int k) {
+        return search(query, k, defaultMode);
+    }
+
+    /**
+     * Top {@code k} documents for the query; semantic and hybrid modes fall back to keyword
+     * ranking when the vector index is disabled
+     */
+    public List<SearchHit> search(String query, int k, SearchMode mode) {
+        if (writer == null) {
+            return List.of();
+        }
+        if (semantic == null || mode == SearchMode.KEYWORD) {
+            return keywordSearcher().search(query, k);
+        }
+        if (mode == SearchMode.SEMANTIC) {
+            return semantic.search(query, k);
+        }
+        int depth = Math.max(k, FUSION_DEPTH);
+        return RankFusion.fuse(k, keywordSearcher().search(query, depth), semantic.search(query, depth));
+    }
+
+    private IndexSearcher keywordSearcher() {
+        IndexSnapshot snapshot = writer.snapshot();
+        int shardCount = Math.min(shards, snapshot.maxDoc() / shardMinDocs);
+        return shardCount > 1 && shardExecutor != null
+                ? new IndexSearcher(snapshot, shardCount, shardExecutor)
+                : new IndexSearcher(snapshot);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.agentdemo.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into lower-cased terms on non letter/digit characters and drops
+ * common English stop words. Used for both indexing and queries.
+ */
+public final class SearchTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+        "of", "on", "or", "that", "the", "this", "to", "was", "with"
+    );
+
+    // Longer tokens are almost always hashes, base64 blobs or similar noise
+    private static final int MAX_TERM_LENGTH = 64;
+
+    /**
+     * Order of the term dictionary: by code point, which matches unsigned UTF-8 byte order
+     * and so lets on-disk segments be binary searched without decoding terms
+     */
+    public static final Comparator<String> TERM_ORDER = SearchTokenizer::compareCodePoints;
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(CharSequence text) {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            boolean word = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    String term = text.subSequence(start, i).toString().toLowerCase();
+                    if (!STOP_WORDS.contains(term)) {
+                        terms.add(term);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.agentdemo.search;
+
+/**
+ * One segment as seen by a point-in-time {@link IndexSnapshot}: the immutable index
+ * data plus the tombstones (deleted doc ids) that were current when the snapshot was taken.
+ * The tombstone bitset is never modified once a snapshot references it.
+ */
+public final class Segment {
+
+    private final String name;
+    private final InvertedIndex index;
+    private final long[] deleted;
+    private final int deleteCount;
+
+    Segment(String name, InvertedIndex index, long[] deleted, int deleteCount) {
+        this.name = name;
+        this.index = index;
+        this.deleted = deleted;
+        this.deleteCount = deleteCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public InvertedIndex getIndex() {
+        return index;
+    }
+
+    public boolean isDeleted(int doc) {
+        return deleteCount > 0 && (deleted[doc >>> 6] & (1L << doc)) != 0;
+    }
+
+    public int getDeleteCount() {
+        return deleteCount;
+    }
+
+    public int liveDocCount() {
+        return index.docCount() - deleteCount;
+    }
+
+    /**
+     * Whether the data lives on disk (memory-mapped) rather than on the heap
+     */
+    public boolean isPersistent() {
+        return index instanceof MappedInvertedIndex;
+    }
+
+    static long[] newBits(int docCount) {
+        return new long[(docCount + 63) >>> 6];
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.agentdemo.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges segments into one, dropping deleted documents.
+ *
+ * Documents keep their relative order (segment by segment), so remapped doc ids stay
+ * ascending and each term's postings can be appended without sorting. Term dictionaries
+ * are merged with a k-way merge over the already sorted inputs; no document text is needed.
+ */
+final class SegmentMerger {
+
+    private SegmentMerger() {
+    }
+
+    static HeapInvertedIndex merge(List<Segment> segments) {
+        int[][] docMaps = new int[segments.size()][];
+        IntList docLengths = new IntList(1024);
+        List<StoredDocument> documents = new ArrayList<>();
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            InvertedIndex index = segment.getIndex();
+            int[] docMap = new int[index.docCount()];
+            for (int doc = 0; doc < docMap.length; doc++) {
+                if (segment.isDeleted(doc)) {
+                    docMap[doc] = -1;
+                } else {
+                    docMap[doc] = documents.size();
+                    documents.add(index.document(doc));
+                    docLengths.add(index.docLength(doc));
+                }
+            }
+            docMaps[s] = docMap;
+        }
+
+        PriorityQueue<TermCursor> queue = new PriorityQueue<>(
+                Comparator.comparing((TermCursor c) -> c.term, SearchTokenizer.TERM_ORDER)
+                          .thenComparingInt(c -> c.segment));
+        for (int s = 0; s < segments.size(); s++) {
+            TermCursor cursor = new TermCursor(s, segments.get(s).getIndex());
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+
+        List<String> terms = new ArrayList<>();
+        IntList docFreqs = new IntList(1024);
+        IntList offsets = new IntList(1024);
+        VarInts.ByteSink postings = new VarInts.ByteSink(1 << 16);
+        PostingsWriter writer = new PostingsWriter(postings);
+        List<TermCursor> same = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            String term = queue.peek().term;
+            same.clear();
+            while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                same.add(queue.poll());
+            }
+            // cursors come out in segment order, so remapped doc ids are ascending
+            int start = postings.size();
+            for (TermCursor cursor : same) {
+                PostingsIterator it = cursor.index.postings(term);
+                int[] docMap = docMaps[cursor.segment];
+                for (int doc = it.nextDoc(); doc != PostingsIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+                    int mapped = docMap[doc];
+                    if (mapped >= 0) {
+                        writer.add(mapped, it.freq(), docLengths.get(mapped));
+                    }
+                }
+                if (cursor.next()) {
+                    queue.add(cursor);
+                }
+            }
+            int docFreq = writer.finishTerm();
+            if (docFreq > 0) {
+                terms.add(term);
+                docFreqs.add(docFreq);
+                offsets.add(start);
+            }
+        }
+        offsets.add(postings.size());
+
+        return new HeapInvertedIndex(terms.toArray(new String[0]), docFreqs.toArray(), offsets.toArray(),
+                postings.toByteArray(), docLengths.toArray(), documents.toArray(new StoredDocument[0]));
+    }
+
+    private static final class TermCursor {
+        final int segment;
+        final InvertedIndex index;
+        int ord = -1;
+        String term;
+
+        TermCursor(int segment, InvertedIndex index) {
+            this.segment = segment;
+            this.index = index;
+        }
+
+        boolean next() {
+            if (++ord >= index.termCount()) {
+                return false;
+            }
+            term = index.term(ord);
+            return true;
+        }
+    }
+}
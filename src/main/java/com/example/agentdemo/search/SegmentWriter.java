@@ -0,0 +1,129 @@
+package com.example.agentdemo.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes an {@link InvertedIndex} as one immutable segment file that
+ * {@link MappedInvertedIndex} can query in place. All integers are big-endian.
+ *
+ * <pre>
+ * header    magic, version, docCount, termCount, totalLength (long),
+ *           offsets of the term table, term bytes, postings, doc table and stored fields
+ * terms     (termCount + 1) x [termBytesStart, docFreq, postingsStart]   (last entry is a sentinel)
+ * termBytes UTF-8 terms, concatenated in dictionary order
+ * postings  per term: blocks of delta/varint (doc, freq) pairs with block-max impacts, see {@link PostingsWriter}
+ * docs      docCount x [docLength, storedStart] + sentinel storedStart
+ * stored    per document: varint-length UTF-8 path, title and snippet, then lastModified (long)
+ * </pre>
+ *
+ * The file is written under a temporary name and atomically renamed, so a crash
+ * never leaves a partially written segment behind.
+ */
+public final class SegmentWriter {
+
+    static final int MAGIC = 0x41534547; // "ASEG"
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = 4 * 4 + 8 + 6 * 4;
+    static final int TERM_ENTRY_BYTES = 12;
+    static final int DOC_ENTRY_BYTES = 8;
+
+    private SegmentWriter() {
+    }
+
+    public static void write(InvertedIndex index, Path file) throws IOException {
+        int termCount = index.termCount();
+        int docCount = index.docCount();
+
+        VarInts.ByteSink termBytes = new VarInts.ByteSink(termCount * 8);
+        VarInts.ByteSink postings = new VarInts.ByteSink(termCount * 8);
+        int[] termStarts = new int[termCount + 1];
+        int[] docFreqs = new int[termCount];
+        int[] postingStarts = new int[termCount + 1];
+        PostingsWriter postingsWriter = new PostingsWriter(postings);
+        for (int ord = 0; ord < termCount; ord++) {
+            String term = index.term(ord);
+            termStarts[ord] = termBytes.size();
+            termBytes.writeBytes(term.getBytes(StandardCharsets.UTF_8));
+            postingStarts[ord] = postings.size();
+            PostingsIterator it = index.postings(term);
+            for (int doc = it.nextDoc(); doc != PostingsIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+                postingsWriter.add(doc, it.freq(), index.docLength(doc));
+            }
+            docFreqs[ord] = postingsWriter.finishTerm();
+        }
+        termStarts[termCount] = termBytes.size();
+        postingStarts[termCount] = postings.size();
+
+        VarInts.ByteSink stored = new VarInts.ByteSink(docCount * 64);
+        int[] storedStarts = new int[docCount + 1];
+        for (int doc = 0; doc < docCount; doc++) {
+            storedStarts[doc] = stored.size();
+            StoredDocument document = index.document(doc);
+            writeString(stored, document.getPath());
+            writeString(stored, document.getTitle());
+            writeString(stored, document.getSnippet());
+            stored.writeLong(document.getLastModified());
+        }
+        storedStarts[docCount] = stored.size();
+
+        long termsOffset = HEADER_BYTES;
+        long termBytesOffset = termsOffset + (long) (termCount + 1) * TERM_ENTRY_BYTES;
+        long postingsOffset = termBytesOffset + termBytes.size();
+        long docsOffset = postingsOffset + postings.size();
+        long storedOffset = docsOffset + (long) docCount * DOC_ENTRY_BYTES + 4;
+        long fileLength = storedOffset + stored.size();
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IOException("Segment of " + fileLength + " bytes exceeds the 2 GB segment limit");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(docCount);
+            out.writeInt(termCount);
+            out.writeLong(index.totalLength());
+            out.writeInt((int) termsOffset);
+            out.writeInt((int) termBytesOffset);
+            out.writeInt((int) postingsOffset);
+            out.writeInt((int) docsOffset);
+            out.writeInt((int) storedOffset);
+            out.writeInt((int) fileLength);
+
+            for (int ord = 0; ord <= termCount; ord++) {
+                out.writeInt(termStarts[ord]);
+                out.writeInt(ord < termCount ? docFreqs[ord] : 0);
+                out.writeInt(postingStarts[ord]);
+            }
+            termBytes.writeTo(out);
+            postings.writeTo(out);
+            for (int doc = 0; doc < docCount; doc++) {
+                out.writeInt(index.docLength(doc));
+                out.writeInt(storedStarts[doc]);
+            }
+            out.writeInt(storedStarts[docCount]);
+            stored.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeString(VarInts.ByteSink sink, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        sink.writeVarInt(bytes.length);
+        sink.writeBytes(bytes);
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.agentdemo.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vector similarity search over document embeddings from a {@link HashedEmbedder},
+ * kept in sync with the corpus like the keyword index.
+ *
+ * Documents are nodes of an {@link HnswGraph}; an update adds a new node and marks the old
+ * one deleted, and once more than {@value #COMPACT_RATIO_PERCENT}% of the nodes are deleted
+ * {@link #refresh()} rebuilds the graph from the live vectors. Mutations are serialized on this
+ * object; searches share a read lock that is only held exclusively while a node is linked in
+ * or a rebuilt graph is swapped.
+ */
+public class SemanticIndex implements DocumentSink {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticIndex.class);
+
+    static final int M = 16;
+    static final int EF_CONSTRUCTION = 100;
+    private static final long SEED = 42;
+    private static final int COMPACT_RATIO_PERCENT = 30;
+    private static final int FILE_MAGIC = 0x53454D31; // "SEM1"
+
+    private final HashedEmbedder embedder;
+    private final int efSearch;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private HnswGraph graph;
+    private List<StoredDocument> documents = new ArrayList<>();
+    private Map<String, Integer> nodes = new HashMap<>();
+    private BitSet deleted = new BitSet();
+    private boolean dirty;
+
+    public SemanticIndex(HashedEmbedder embedder, int efSearch) {
+        this.embedder = embedder;
+        this.efSearch = efSearch;
+        this.graph = new HnswGraph(embedder.dimensions(), M, EF_CONSTRUCTION, SEED);
+    }
+
+    @Override
+    public synchronized void update(StoredDocument document, CharSequence text) {
+        float[] vector = embedder.embed(document.getTitle() + "\n" + text);
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodes.get(document.getPath());
+            if (previous != null) {
+                deleted.set(previous);
+            }
+            int node = graph.add(vector);
+            documents.add(document);
+            nodes.put(document.getPath(), node);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(String path) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodes.remove(path);
+            if (previous == null) {
+                return false;
+            }
+            deleted.set(previous);
+            dirty = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Long> indexedVersions() {
+        Map<String, Long> versions = new HashMap<>(nodes.size() * 2);
+        nodes.forEach((path, node) -> versions.put(path, documents.get(node).getLastModified()));
+        return versions;
+    }
+
+    /**
+     * Changes are searchable immediately; this only compacts the graph when too many
+     * nodes are deleted
+     */
+    @Override
+    public synchronized void refresh() {
+        int size = graph.size();
+        if (size < 64 || deleted.cardinality() * 100 <= size * COMPACT_RATIO_PERCENT) {
+            return;
+        }
+        long start = System.nanoTime();
+        // no mutation can run while this holds the monitor, so the old graph is only read
+        HnswGraph compacted = new HnswGraph(embedder.dimensions(), M, EF_CONSTRUCTION, SEED);
+        List<StoredDocument> liveDocuments = new ArrayList<>(nodes.size());
+        Map<String, Integer> liveNodes = new HashMap<>(nodes.size() * 2);
+        for (int node = deleted.nextClearBit(0); node < size; node = deleted.nextClearBit(node + 1)) {
+            StoredDocument document = documents.get(node);
+            liveNodes.put(document.getPath(), compacted.add(graph.vector(node)));
+            liveDocuments.add(document);
+        }
+        lock.writeLock().lock();
+        try {
+            graph = compacted;
+            documents = liveDocuments;
+            nodes = liveNodes;
+            deleted = new BitSet();
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Compacted vector index from {} to {} nodes in {} ms", size, compacted.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public int docCount() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate nearest neighbours of the query by cosine similarity, best first;
+     * documents with no positive similarity are not returned
+     */
+    public List<SearchHit> search(String query, int k) {
+        float[] vector = embedder.embed(query);
+        if (k <= 0 || isZero(vector)) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet dead = deleted;
+            HnswGraph.NodeQueue found = graph.search(vector, k, efSearch, node -> !dead.get(node));
+            return hits(found.sortedDescending(), found.scoresDescending());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Brute-force nearest neighbours; the reference for measuring {@link #search} recall
+     */
+    public List<SearchHit> searchExact(String query, int k) {
+        float[] vector = embedder.embed(query);
+        if (k <= 0 || isZero(vector)) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            HnswGraph.NodeQueue top = new HnswGraph.NodeQueue(k);
+            for (int node = deleted.nextClearBit(0); node < graph.size(); node = deleted.nextClearBit(node + 1)) {
+                top.push(node, graph.similarity(vector, node));
+            }
+            return hits(top.sortedDescending(), top.scoresDescending());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> hits(int[] found, float[] scores) {
+        List<SearchHit> hits = new ArrayList<>(found.length);
+        for (int i = 0; i < found.length && scores[i] > 0; i++) {
+            hits.add(new SearchHit(documents.get(found[i]), scores[i]));
+        }
+        return hits;
+    }
+
+    private static boolean isZero(float[] vector) {
+        for (float v : vector) {
+            if (v != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the graph and stored fields to {@code file}, replacing it atomically;
+     * does nothing if the file is up to date
+     */
+    public synchronized void save(Path file, Path source) throws IOException {
+        if (!dirty && Files.isRegularFile(file)) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeUTF(source.toString());
+            graph.write(out);
+            for (int node = 0; node < graph.size(); node++) {
+                StoredDocument document = documents.get(node);
+                out.writeBoolean(deleted.get(node));
+                out.writeUTF(document.getPath());
+                out.writeUTF(document.getTitle());
+                out.writeUTF(document.getSnippet());
+                out.writeLong(document.getLastModified());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    /**
+     * Replace the contents with a file written by {@link #save} for the same source directory
+     * and embedding size. Returns false (leaving the index empty) if the file is missing or
+     * was written for something else.
+     */
+    public synchronized boolean load(Path file, Path source) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || !in.readUTF().equals(source.toString())) {
+                return false;
+            }
+            HnswGraph loaded = HnswGraph.read(in, EF_CONSTRUCTION, SEED);
+            if (loaded.dimensions() != embedder.dimensions()) {
+                return false;
+            }
+            List<StoredDocument> loadedDocuments = new ArrayList<>(loaded.size());
+            Map<String, Integer> loadedNodes = new HashMap<>(loaded.size() * 2);
+            BitSet loadedDeleted = new BitSet(loaded.size());
+            for (int node = 0; node < loaded.size(); node++) {
+                boolean dead = in.readBoolean();
+                StoredDocument document = new StoredDocument(in.readUTF(), in.readUTF(), in.readUTF(), in.readLong());
+                loadedDocuments.add(document);
+                if (dead) {
+                    loadedDeleted.set(node);
+                } else {
+                    loadedNodes.put(document.getPath(), node);
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                graph = loaded;
+                documents = loadedDocuments;
+                nodes = loadedNodes;
+                deleted = loadedDeleted;
+                dirty = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        }
+    }
+}
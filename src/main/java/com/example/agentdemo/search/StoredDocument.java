@@ -0,0 +1,41 @@
+package com.example.agentdemo.search;
+
+/**
+ * Stored fields of an indexed document, returned with search hits
+ */
+public class StoredDocument {
+    private final String path;
+    private final String title;
+    private final String snippet;
+    private final long lastModified;
+
+    public StoredDocument(String path, String title, String snippet) {
+        this(path, title, snippet, 0L);
+    }
+
+    public StoredDocument(String path, String title, String snippet, long lastModified) {
+        this.path = path;
+        this.title = title;
+        this.snippet = snippet;
+        this.lastModified = lastModified;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /**
+     * Modification time of the source file in epoch millis, used to detect changes
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+}
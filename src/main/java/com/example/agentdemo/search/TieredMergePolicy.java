@@ -0,0 +1,67 @@
+package com.example.agentdemo.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chooses which segments to merge. Segments are grouped into size tiers that grow
+ * by {@code segmentsPerTier} (everything below {@code floorDocs} live documents is one tier);
+ * once a tier holds {@code segmentsPerTier} segments, its smallest ones are merged into
+ * a single segment of the next tier. Each document is therefore rewritten
+ * O(log n) times, while the number of segments a query visits stays logarithmic.
+ * Segments whose documents are mostly deleted are rewritten on their own to reclaim space.
+ */
+public class TieredMergePolicy {
+
+    private static final double RECLAIM_DELETES_RATIO = 0.5;
+
+    private final int segmentsPerTier;
+    private final int floorDocs;
+
+    public TieredMergePolicy(int segmentsPerTier, int floorDocs) {
+        if (segmentsPerTier < 2) {
+            throw new IllegalArgumentException("segmentsPerTier must be at least 2");
+        }
+        this.segmentsPerTier = segmentsPerTier;
+        this.floorDocs = Math.max(1, floorDocs);
+    }
+
+    /**
+     * Segments to merge next among {@code candidates}, or an empty list if nothing needs merging
+     */
+    public List<Segment> findMerge(List<Segment> candidates) {
+        for (Segment segment : candidates) {
+            int docs = segment.getIndex().docCount();
+            if (docs > 0 && segment.getDeleteCount() >= docs * RECLAIM_DELETES_RATIO) {
+                return List.of(segment);
+            }
+        }
+
+        List<Segment> sorted = new ArrayList<>(candidates);
+        sorted.sort(Comparator.comparingInt(Segment::liveDocCount));
+        int i = 0;
+        while (i < sorted.size()) {
+            int tier = tier(sorted.get(i).liveDocCount());
+            int j = i;
+            while (j < sorted.size() && tier(sorted.get(j).liveDocCount()) == tier) {
+                j++;
+            }
+            if (j - i >= segmentsPerTier) {
+                return List.copyOf(sorted.subList(i, i + segmentsPerTier));
+            }
+            i = j;
+        }
+        return List.of();
+    }
+
+    int tier(int liveDocs) {
+        int tier = 0;
+        long limit = floorDocs;
+        while (liveDocs >= limit) {
+            limit *= segmentsPerTier;
+            tier++;
+        }
+        return tier;
+    }
+}
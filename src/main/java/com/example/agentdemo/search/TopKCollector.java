@@ -0,0 +1,116 @@
+package com.example.agentdemo.search;
+
+/**
+ * Keeps the k best (doc, score) pairs in a bounded binary min-heap over primitive
+ * arrays, so collecting hits allocates nothing per document.
+ */
+public class TopKCollector {
+
+    private final int k;
+    private final int[] docs;
+    private final float[] scores;
+    private int size;
+
+    public TopKCollector(int k) {
+        this.k = Math.max(1, k);
+        this.docs = new int[this.k];
+        this.scores = new float[this.k];
+    }
+
+    /**
+     * Offer a hit; returns true if it entered the top k
+     */
+    public boolean offer(int doc, float score) {
+        if (size < k) {
+            docs[size] = doc;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (!lessThan(docs[0], scores[0], doc, score)) {
+            return false;
+        }
+        docs[0] = doc;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Score a new hit must beat to enter the top k (negative infinity until full)
+     */
+    public float threshold() {
+        return size < k ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hits ordered by descending score (ties by ascending doc id). Drains the collector.
+     */
+    public ScoredDoc[] drain() {
+        ScoredDoc[] result = new ScoredDoc[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = new ScoredDoc(docs[0], scores[0]);
+            size--;
+            docs[0] = docs[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    /**
+     * Heap order: lower score first; on equal scores the higher doc id ranks lower
+     */
+    private static boolean lessThan(int docA, float scoreA, int docB, float scoreB) {
+        return scoreA < scoreB || (scoreA == scoreB && docA > docB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!lessThan(docs[i], scores[i], docs[parent], scores[parent])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && lessThan(docs[right], scores[right], docs[left], scores[left])) {
+                smallest = right;
+            }
+            if (!lessThan(docs[smallest], scores[smallest], docs[i], scores[i])) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int d = docs[a];
+        docs[a] = docs[b];
+        docs[b] = d;
+        float s = scores[a];
+        scores[a] = scores[b];
+        scores[b] = s;
+    }
+
+    /**
+     * A collected hit
+     */
+    public record ScoredDoc(int doc, float score) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.agentdemo.search;
+
+/**
+ * Dot product kernel over slices of flat {@code float[]} vector storage.
+ *
+ * Four independent accumulators break the dependency chain of a single running sum,
+ * so the loop runs at several multiply-adds per cycle; the JIT does not vectorize a
+ * strictly ordered float reduction on its own.
+ */
+final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int upper = length & ~3; i < upper; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.agentdemo.summarize;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reader that decodes a byte buffer on demand, one read() at a time.
+ * Used over memory-mapped file regions so the text is never materialised as a whole.
+ */
+final class ByteBufferReader extends Reader {
+
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private boolean flushed;
+
+    ByteBufferReader(ByteBuffer bytes, Charset charset) {
+        this.bytes = bytes;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        while (out.position() == offset) {
+            if (!bytes.hasRemaining()) {
+                if (flushed) {
+                    return -1;
+                }
+                decoder.decode(bytes, out, true);
+                decoder.flush(out);
+                flushed = true;
+                continue;
+            }
+            CoderResult result = decoder.decode(bytes, out, true);
+            if (result.isOverflow()) {
+                break;
+            }
+        }
+        return out.position() - offset;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.agentdemo.summarize;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Single-pass extractive summarizer with bounded memory.
+ *
+ * Sentences are segmented and term statistics accumulated incrementally while a
+ * bounded pool of the best candidates (scored against the statistics seen so far) is
+ * kept. At end of input the pool is rescored against the final statistics and the
+ * top sentences are returned in document order. Memory is independent of input size:
+ * the hashed statistics plus {@code poolSize} sentences of at most
+ * {@link SentenceSegmenter#MAX_SENTENCE_LENGTH} characters.
+ */
+public class ExtractiveSummarizer {
+
+    private final int maxSentences;
+    private final double ratio;
+    private final int poolSize;
+
+    /**
+     * @param maxSentences upper bound on summary length
+     * @param ratio        fraction of the document's sentences to keep (at least one)
+     */
+    public ExtractiveSummarizer(int maxSentences, double ratio) {
+        this.maxSentences = Math.max(1, maxSentences);
+        this.ratio = ratio;
+        this.poolSize = Math.max(64, this.maxSentences * 16);
+    }
+
+    public Summary summarize(Reader reader) {
+        TermStatistics stats = new TermStatistics();
+        PriorityQueue<ScoredSentence> pool = new PriorityQueue<>(ScoredSentence.BY_SCORE);
+        SentenceSegmenter segmenter = new SentenceSegmenter(reader);
+
+        try {
+            long position = 0;
+            String sentence;
+            while ((sentence = segmenter.next()) != null) {
+                int[] buckets = Terms.buckets(sentence);
+                int[] distinct = Terms.distinct(buckets);
+                stats.addSentence(buckets, distinct);
+
+                ScoredSentence candidate = new ScoredSentence(position++, sentence, distinct, stats.score(distinct));
+                if (pool.size() < poolSize) {
+                    pool.add(candidate);
+                } else if (ScoredSentence.BY_SCORE.compare(candidate, pool.peek()) > 0) {
+                    pool.poll();
+                    pool.add(candidate);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read document", e);
+        }
+
+        List<ScoredSentence> candidates = new ArrayList<>(pool);
+        for (ScoredSentence candidate : candidates) {
+            candidate.score = stats.score(candidate.distinctBuckets);
+        }
+        return select(candidates, stats.getSentenceCount());
+    }
+
+    /**
+     * Number of sentences to keep for a document of {@code sentenceCount} sentences
+     */
+    int summaryLength(long sentenceCount) {
+        long byRatio = (long) Math.ceil(sentenceCount * ratio);
+        return (int) Math.min(maxSentences, Math.max(1, byRatio));
+    }
+
+    Summary select(List<ScoredSentence> candidates, long sentenceCount) {
+        int k = summaryLength(sentenceCount);
+        candidates.sort(ScoredSentence.BY_SCORE.reversed());
+        List<ScoredSentence> top = new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+        top.sort(ScoredSentence.BY_POSITION);
+
+        List<String> sentences = new ArrayList<>(top.size());
+        for (ScoredSentence s : top) {
+            sentences.add(s.text);
+        }
+        return new Summary(sentences, sentenceCount);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.agentdemo.summarize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A UTF-8 text file read through memory-mapped regions.
+ *
+ * Chunks map their byte range only when opened and decode it lazily, so a document
+ * is processed zero-copy from the page cache and never exists on the heap as a
+ * String. Chunk boundaries are placed after ASCII line or sentence terminators,
+ * which cannot occur inside a UTF-8 multi-byte sequence.
+ */
+public final class MappedDocument implements AutoCloseable {
+
+    // Bytes scanned past a chunk's nominal end when looking for a boundary
+    private static final int BOUNDARY_SCAN = SentenceSegmenter.MAX_SENTENCE_LENGTH * 4;
+
+    private final FileChannel channel;
+    private final long size;
+
+    private MappedDocument(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    public static MappedDocument open(Path path) throws IOException {
+        return new MappedDocument(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Size in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The whole document as a single chunk (documents up to 2 GB)
+     */
+    public TextChunk whole() {
+        return region(0, size);
+    }
+
+    /**
+     * Split into chunks of roughly {@code chunkSize} bytes ending at sentence or line boundaries
+     */
+    public List<TextChunk> chunks(long chunkSize) throws IOException {
+        List<TextChunk> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = boundaryAfter(Math.min(size, start + chunkSize));
+            chunks.add(region(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long boundaryAfter(long target) throws IOException {
+        if (target >= size) {
+            return size;
+        }
+        int window = (int) Math.min(BOUNDARY_SCAN, size - target);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, target, window);
+        for (int i = 0; i < window; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                return target + i + 1;
+            }
+            if ((b == '.' || b == '!' || b == '?') && i + 1 < window && isSpace(buffer.get(i + 1))) {
+                return target + i + 2;
+            }
+        }
+        return target + window;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private TextChunk region(long start, long end) {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk larger than 2 GB; use chunks()");
+        }
+        return () -> {
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                return new ByteBufferReader(buffer, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map document region", e);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
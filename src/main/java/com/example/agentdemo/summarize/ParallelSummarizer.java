@@ -0,0 +1,175 @@
+package com.example.agentdemo.summarize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join variant of {@link ExtractiveSummarizer} for very large documents.
+ *
+ * The document is split into chunks at sentence boundaries. A first pass computes
+ * per-chunk term statistics and merges them into global statistics; a second pass
+ * scores every sentence of every chunk against the global statistics and keeps a
+ * per-chunk top-k, and the per-chunk results are merged into the final top-k. Both
+ * passes split the chunk list recursively so the work spreads over all pool threads.
+ * Documents below the size threshold use the sequential streaming summarizer.
+ */
+public class ParallelSummarizer {
+
+    private final ExtractiveSummarizer sequential;
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+
+    public ParallelSummarizer(ExtractiveSummarizer sequential, ForkJoinPool pool, long parallelThreshold) {
+        this.sequential = sequential;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public Summary summarize(CharSequence text) {
+        if (text.length() < parallelThreshold) {
+            return sequential.summarize(new TextChunks.CharSequenceReader(text, 0, text.length()));
+        }
+        return summarize(TextChunks.split(text, chunkSize(text.length())));
+    }
+
+    /**
+     * Summarize a memory-mapped file; large files are split into mapped chunks and scored in parallel
+     */
+    public Summary summarize(MappedDocument document) throws IOException {
+        if (document.size() < parallelThreshold && document.size() <= Integer.MAX_VALUE) {
+            return sequential.summarize(document.whole().open());
+        }
+        return summarize(document.chunks(Math.min(chunkSize(document.size()), 256L * 1024 * 1024)));
+    }
+
+    /**
+     * Summarize a document already split into independently readable chunks
+     */
+    public Summary summarize(List<TextChunk> chunks) {
+        TermStatistics stats = pool.invoke(new StatisticsTask(chunks, 0, chunks.size()));
+        int k = sequential.summaryLength(stats.getSentenceCount());
+        List<ScoredSentence> top = pool.invoke(new ScoringTask(chunks, 0, chunks.size(), stats, k));
+        return sequential.select(new ArrayList<>(top), stats.getSentenceCount());
+    }
+
+    int chunkSize(long length) {
+        // a few chunks per worker for load balancing, but never tiny ones
+        long perWorker = length / (pool.getParallelism() * 4L);
+        return (int) Math.max(256 * 1024, Math.min(Integer.MAX_VALUE, perWorker));
+    }
+
+    /**
+     * Pass 1: term statistics, merged pairwise up the recursion
+     */
+    private static final class StatisticsTask extends RecursiveTask<TermStatistics> {
+        private final List<TextChunk> chunks;
+        private final int from;
+        private final int to;
+
+        StatisticsTask(List<TextChunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TermStatistics compute() {
+            if (to - from <= 1) {
+                TermStatistics stats = new TermStatistics();
+                if (from < to) {
+                    forEachSentence(chunks.get(from), (index, sentence) -> {
+                        int[] buckets = Terms.buckets(sentence);
+                        stats.addSentence(buckets, Terms.distinct(buckets));
+                    });
+                }
+                return stats;
+            }
+            int mid = (from + to) >>> 1;
+            StatisticsTask left = new StatisticsTask(chunks, from, mid);
+            left.fork();
+            TermStatistics right = new StatisticsTask(chunks, mid, to).compute();
+            TermStatistics merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Pass 2: score sentences against the global statistics, keeping the top k
+     */
+    private static final class ScoringTask extends RecursiveTask<List<ScoredSentence>> {
+        private final List<TextChunk> chunks;
+        private final int from;
+        private final int to;
+        private final TermStatistics stats;
+        private final int k;
+
+        ScoringTask(List<TextChunk> chunks, int from, int to, TermStatistics stats, int k) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.stats = stats;
+            this.k = k;
+        }
+
+        @Override
+        protected List<ScoredSentence> compute() {
+            if (to - from <= 1) {
+                PriorityQueue<ScoredSentence> heap = new PriorityQueue<>(ScoredSentence.BY_SCORE);
+                if (from < to) {
+                    long chunkBase = (long) from << 32;
+                    forEachSentence(chunks.get(from), (index, sentence) -> {
+                        int[] distinct = Terms.distinct(Terms.buckets(sentence));
+                        offer(heap, new ScoredSentence(chunkBase | index, sentence, distinct, stats.score(distinct)));
+                    });
+                }
+                return new ArrayList<>(heap);
+            }
+            int mid = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(chunks, from, mid, stats, k);
+            left.fork();
+            List<ScoredSentence> right = new ScoringTask(chunks, mid, to, stats, k).compute();
+
+            PriorityQueue<ScoredSentence> heap = new PriorityQueue<>(ScoredSentence.BY_SCORE);
+            for (ScoredSentence s : left.join()) {
+                offer(heap, s);
+            }
+            for (ScoredSentence s : right) {
+                offer(heap, s);
+            }
+            return new ArrayList<>(heap);
+        }
+
+        private void offer(PriorityQueue<ScoredSentence> heap, ScoredSentence candidate) {
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (ScoredSentence.BY_SCORE.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SentenceConsumer {
+        void accept(int index, String sentence);
+    }
+
+    private static void forEachSentence(TextChunk chunk, SentenceConsumer consumer) {
+        SentenceSegmenter segmenter = new SentenceSegmenter(chunk.open());
+        try {
+            int index = 0;
+            String sentence;
+            while ((sentence = segmenter.next()) != null) {
+                consumer.accept(index++, sentence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read document chunk", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.agentdemo.summarize;
+
+import java.util.Comparator;
+
+/**
+ * A candidate summary sentence with its position in the document
+ */
+final class ScoredSentence {
+
+    static final Comparator<ScoredSentence> BY_SCORE = Comparator
+            .comparingDouble((ScoredSentence s) -> s.score)
+            // on equal scores prefer the earlier sentence
+            .thenComparing(Comparator.comparingLong((ScoredSentence s) -> s.position).reversed());
+
+    static final Comparator<ScoredSentence> BY_POSITION = Comparator.comparingLong(s -> s.position);
+
+    final long position;
+    final String text;
+    final int[] distinctBuckets;
+    double score;
+
+    ScoredSentence(long position, String text, int[] distinctBuckets, double score) {
+        this.position = position;
+        this.text = text;
+        this.distinctBuckets = distinctBuckets;
+        this.score = score;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.agentdemo.summarize;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Incremental sentence splitter over a {@link Reader}.
+ *
+ * A sentence ends at '.', '!' or '?' followed by whitespace, at a line break (so log
+ * lines are sentences of their own), or when it reaches {@link #MAX_SENTENCE_LENGTH}.
+ * Only the sentence being assembled is held in memory.
+ */
+public class SentenceSegmenter {
+
+    public static final int MAX_SENTENCE_LENGTH = 1000;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder current = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean pendingTerminator;
+
+    public SentenceSegmenter(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * The next non-blank sentence, trimmed, or null at end of input
+     */
+    public String next() throws IOException {
+        while (true) {
+            if (position == limit) {
+                if (eof || !fill()) {
+                    return drain();
+                }
+            }
+
+            char c = buffer[position++];
+
+            if (c == '\n' || c == '\r') {
+                pendingTerminator = false;
+                String sentence = drain();
+                if (sentence != null) {
+                    return sentence;
+                }
+                continue;
+            }
+
+            if (pendingTerminator && Character.isWhitespace(c)) {
+                pendingTerminator = false;
+                String sentence = drain();
+                if (sentence != null) {
+                    return sentence;
+                }
+                continue;
+            }
+            pendingTerminator = c == '.' || c == '!' || c == '?';
+
+            if (current.length() == 0 && Character.isWhitespace(c)) {
+                continue;
+            }
+            current.append(c);
+
+            if (current.length() >= MAX_SENTENCE_LENGTH) {
+                pendingTerminator = false;
+                return drain();
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private String drain() {
+        String sentence = current.toString().trim();
+        current.setLength(0);
+        return sentence.isEmpty() ? null : sentence;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.agentdemo.summarize;
+
+import java.util.List;
+
+/**
+ * Selected summary sentences, in document order
+ */
+public class Summary {
+    private final List<String> sentences;
+    private final long sentenceCount;
+
+    public Summary(List<String> sentences, long sentenceCount) {
+        this.sentences = List.copyOf(sentences);
+        this.sentenceCount = sentenceCount;
+    }
+
+    public List<String> getSentences() {
+        return sentences;
+    }
+
+    /**
+     * Number of sentences in the source document
+     */
+    public long getSentenceCount() {
+        return sentenceCount;
+    }
+
+    public boolean isEmpty() {
+        return sentences.isEmpty();
+    }
+
+    public String getText() {
+        return String.join(" ", sentences);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.agentdemo.summarize;
+
+import java.util.Arrays;
+
+/**
+ * Corpus-level term statistics with a fixed memory footprint.
+ *
+ * Terms are hashed into {@link #BUCKETS} buckets instead of being stored, so memory
+ * does not grow with vocabulary size; occasional collisions only blur the weights of
+ * rare terms. Statistics from independently processed chunks can be {@link #merge merged}.
+ */
+public class TermStatistics {
+
+    static final int BUCKETS = 1 << 16;
+    private static final int MASK = BUCKETS - 1;
+
+    private final int[] termFrequency = new int[BUCKETS];
+    private final int[] sentenceFrequency = new int[BUCKETS];
+    private long sentenceCount;
+
+    /**
+     * Hash bucket for a term
+     */
+    public static int bucket(String term) {
+        int h = term.hashCode();
+        return (h ^ (h >>> 16)) & MASK;
+    }
+
+    /**
+     * Record one sentence given its term buckets (with repeats) and distinct buckets
+     */
+    public void addSentence(int[] buckets, int[] distinctBuckets) {
+        for (int b : buckets) {
+            termFrequency[b]++;
+        }
+        for (int b : distinctBuckets) {
+            sentenceFrequency[b]++;
+        }
+        sentenceCount++;
+    }
+
+    public void merge(TermStatistics other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            termFrequency[i] += other.termFrequency[i];
+            sentenceFrequency[i] += other.sentenceFrequency[i];
+        }
+        sentenceCount += other.sentenceCount;
+    }
+
+    public long getSentenceCount() {
+        return sentenceCount;
+    }
+
+    /**
+     * TF-IDF style weight: frequent across the document, but not present in every sentence
+     */
+    public double weight(int bucket) {
+        int sf = sentenceFrequency[bucket];
+        if (sf == 0) {
+            return 0;
+        }
+        double idf = Math.log(1.0 + (double) sentenceCount / sf);
+        return Math.log(1.0 + termFrequency[bucket]) * idf;
+    }
+
+    /**
+     * Score a sentence by the weights of its distinct terms, normalised so long
+     * sentences are not favoured merely for their length
+     */
+    public double score(int[] distinctBuckets) {
+        if (distinctBuckets.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int b : distinctBuckets) {
+            sum += weight(b);
+        }
+        return sum / Math.sqrt(distinctBuckets.length);
+    }
+
+    @Override
+    public String toString() {
+        return "TermStatistics{sentences=" + sentenceCount
+                + ", nonEmptyBuckets=" + Arrays.stream(sentenceFrequency).filter(f -> f > 0).count() + "}";
+    }
+}
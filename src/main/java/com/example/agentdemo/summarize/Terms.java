@@ -0,0 +1,55 @@
+package com.example.agentdemo.summarize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits sentences into lower-cased content terms, dropping stop words
+ */
+public final class Terms {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have",
+        "he", "her", "his", "i", "in", "is", "it", "its", "of", "on", "or", "she", "that", "the",
+        "their", "them", "there", "they", "this", "to", "was", "we", "were", "will", "with", "you"
+    );
+
+    private Terms() {
+    }
+
+    public static List<String> tokenize(String sentence) {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= sentence.length(); i++) {
+            boolean word = i < sentence.length() && Character.isLetterOrDigit(sentence.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String term = sentence.substring(start, i).toLowerCase();
+                if (term.length() > 1 && !STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Term hash buckets of a sentence, with repeats
+     */
+    public static int[] buckets(String sentence) {
+        List<String> terms = tokenize(sentence);
+        int[] buckets = new int[terms.size()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = TermStatistics.bucket(terms.get(i));
+        }
+        return buckets;
+    }
+
+    public static int[] distinct(int[] buckets) {
+        return Arrays.stream(buckets).distinct().toArray();
+    }
+}
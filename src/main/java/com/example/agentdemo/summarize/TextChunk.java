@@ -0,0 +1,15 @@
+package com.example.agentdemo.summarize;
+
+import java.io.Reader;
+
+/**
+ * A slice of a larger document that can be read independently, so chunks can be
+ * processed in parallel and re-read for a second pass without copying the document.
+ */
+public interface TextChunk {
+
+    /**
+     * Open a fresh reader positioned at the start of the chunk
+     */
+    Reader open();
+}
@@ -0,0 +1,87 @@
+package com.example.agentdemo.summarize;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits documents into {@link TextChunk}s at sentence or line boundaries, so no
+ * sentence straddles two chunks.
+ */
+public final class TextChunks {
+
+    private TextChunks() {
+    }
+
+    /**
+     * Split an in-memory document into chunks of roughly {@code chunkSize} characters.
+     * Chunks are views over {@code text}; nothing is copied.
+     */
+    public static List<TextChunk> split(CharSequence text, int chunkSize) {
+        List<TextChunk> chunks = new ArrayList<>();
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            int end = boundaryAfter(text, Math.min(length, start + chunkSize));
+            int from = start;
+            chunks.add(() -> new CharSequenceReader(text, from, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * First position at or after {@code target} that ends a line or a sentence
+     */
+    private static int boundaryAfter(CharSequence text, int target) {
+        int length = text.length();
+        // Give up on finding a boundary after one maximum sentence length; the segmenter splits there anyway
+        int limit = Math.min(length, target + SentenceSegmenter.MAX_SENTENCE_LENGTH);
+        for (int i = target; i < limit; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return i + 1;
+            }
+            if ((c == '.' || c == '!' || c == '?') && i + 1 < length && Character.isWhitespace(text.charAt(i + 1))) {
+                return i + 2;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Reader over a range of a CharSequence
+     */
+    static final class CharSequenceReader extends Reader {
+        private final CharSequence text;
+        private final int end;
+        private int position;
+
+        CharSequenceReader(CharSequence text, int start, int end) {
+            this.text = text;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= end) {
+                return -1;
+            }
+            int n = Math.min(length, end - position);
+            if (text instanceof String s) {
+                s.getChars(position, position + n, buffer, offset);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    buffer[offset + i] = text.charAt(position + i);
+                }
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
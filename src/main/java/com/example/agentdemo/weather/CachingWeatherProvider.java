@@ -0,0 +1,169 @@
+package com.example.agentdemo.weather;
+
+import com.example.agentdemo.geo.Place;
+import com.example.agentdemo.model.PhaseTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-location cache in front of another provider.
+ *
+ * A report younger than the TTL is served from memory. Up to {@code stale} past the TTL
+ * the old report is still served immediately while a single background refresh fetches a
+ * new one (stale-while-revalidate), so hot places never wait for the upstream and a failing
+ * upstream degrades to slightly old data. Older or missing reports are loaded on demand;
+ * concurrent requests for the same place share one upstream call.
+ *
+ * The number of places is bounded; when it is exceeded the least recently used tenth is
+ * dropped.
+ */
+public class CachingWeatherProvider implements WeatherProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingWeatherProvider.class);
+
+    private final WeatherProvider upstream;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingWeatherProvider(WeatherProvider upstream, Duration ttl, Duration stale, int maxEntries) {
+        this(upstream, ttl, stale, maxEntries, Clock.systemUTC());
+    }
+
+    CachingWeatherProvider(WeatherProvider upstream, Duration ttl, Duration stale, int maxEntries, Clock clock) {
+        this.upstream = upstream;
+        this.ttlMillis = ttl.toMillis();
+        this.staleMillis = stale.toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    @Override
+    public String name() {
+        return upstream.name();
+    }
+
+    @Override
+    public Mono<WeatherReport> current(Place place) {
+        return Mono.defer(() -> {
+            String key = key(place);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = entries.computeIfAbsent(key, k -> new Entry());
+                if (entries.size() > maxEntries) {
+                    evict();
+                }
+            }
+            long now = clock.millis();
+            entry.lastAccess = now;
+            WeatherReport report = entry.report;
+            long age = now - entry.fetchedAt;
+            if (report != null && age < ttlMillis) {
+                hits.incrementAndGet();
+                PhaseTimings.cache("weather", true);
+                return Mono.just(report);
+            }
+            if (report != null && age < ttlMillis + staleMillis) {
+                staleHits.incrementAndGet();
+                PhaseTimings.cache("weather", true);
+                entry.refresh(place);
+                return Mono.just(report);
+            }
+            misses.incrementAndGet();
+            PhaseTimings.cache("weather", false);
+            return Mono.fromFuture(entry.refresh(place), true);
+        });
+    }
+
+    /**
+     * Places closer than about 100 m share an entry
+     */
+    private static String key(Place place) {
+        return String.format(Locale.ROOT, "%.3f,%.3f", place.getLatitude(), place.getLongitude());
+    }
+
+    private void evict() {
+        List<Map.Entry<String, Entry>> byAge = new ArrayList<>(entries.entrySet());
+        byAge.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        int excess = entries.size() - maxEntries + maxEntries / 10;
+        for (int i = 0; i < excess && i < byAge.size(); i++) {
+            entries.remove(byAge.get(i).getKey(), byAge.get(i).getValue());
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Requests answered with an expired report while it was being refreshed
+     */
+    public long staleHits() {
+        return staleHits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    private final class Entry {
+        private volatile WeatherReport report;
+        private volatile long fetchedAt;
+        private volatile long lastAccess;
+        private CompletableFuture<WeatherReport> inFlight;
+
+        /**
+         * Start an upstream fetch unless one is already running, and return it
+         */
+        synchronized CompletableFuture<WeatherReport> refresh(Place place) {
+            if (inFlight != null) {
+                return inFlight;
+            }
+            CompletableFuture<WeatherReport> fetch = new CompletableFuture<>();
+            inFlight = fetch;
+            Mono.defer(() -> upstream.current(place))
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("No weather report for " + place)))
+                    .subscribe(fresh -> complete(fetch, fresh, null), error -> complete(fetch, null, error));
+            return fetch;
+        }
+
+        private void complete(CompletableFuture<WeatherReport> fetch, WeatherReport fresh, Throwable error) {
+            synchronized (this) {
+                if (fresh != null) {
+                    report = fresh;
+                    fetchedAt = clock.millis();
+                }
+                inFlight = null;
+            }
+            if (fresh != null) {
+                fetch.complete(fresh);
+            } else {
+                if (report != null) {
+                    log.warn("Weather refresh failed, serving cached report: {}", error.toString());
+                }
+                fetch.completeExceptionally(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.agentdemo.weather;
+
+import com.example.agentdemo.geo.Place;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Current conditions from an Open-Meteo compatible forecast API
+ * ({@code GET /v1/forecast?latitude=..&longitude=..&current=...}).
+ *
+ * Requests go through a non-blocking {@link WebClient} on a bounded pool of keep-alive
+ * connections, so concurrent lookups reuse connections instead of opening one per call and
+ * a slow upstream cannot tie up request threads.
+ */
+public class HttpWeatherProvider implements WeatherProvider {
+
+    private static final String CURRENT_FIELDS = "temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code";
+
+    private final String name;
+    private final WebClient client;
+    private final ConnectionProvider connections;
+    private final Duration timeout;
+
+    public HttpWeatherProvider(String baseUrl, int maxConnections, Duration timeout) {
+        this.name = baseUrl.replaceFirst("^https?://", "").replaceFirst("/.*$", "");
+        this.timeout = timeout;
+        this.connections = ConnectionProvider.builder("weather")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(timeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient http = HttpClient.create(connections)
+                .responseTimeout(timeout)
+                .compress(true);
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Mono<WeatherReport> current(Place place) {
+        return client.get()
+                .uri(uri -> uri.path("/v1/forecast")
+                        .queryParam("latitude", String.format(Locale.ROOT, "%.4f", place.getLatitude()))
+                        .queryParam("longitude", String.format(Locale.ROOT, "%.4f", place.getLongitude()))
+                        .queryParam("current", CURRENT_FIELDS)
+                        .queryParam("temperature_unit", "fahrenheit")
+                        .queryParam("wind_speed_unit", "mph")
+                        .queryParam("timezone", "GMT")
+                        .build())
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(this::parse);
+    }
+
+    WeatherReport parse(JsonNode body) {
+        JsonNode current = body.path("current");
+        if (!current.has("temperature_2m")) {
+            throw new IllegalStateException("Weather response has no current conditions");
+        }
+        return new WeatherReport(
+                condition(current.path("weather_code").asInt(-1)),
+                current.path("temperature_2m").asDouble(),
+                (int) Math.round(current.path("relative_humidity_2m").asDouble()),
+                current.path("wind_speed_10m").asDouble(),
+                LocalDateTime.parse(current.path("time").asText()).toInstant(ZoneOffset.UTC),
+                name);
+    }
+
+    /**
+     * WMO weather interpretation code to the conditions used in reports
+     */
+    static String condition(int code) {
+        if (code == 0) return "Sunny";
+        if (code == 1 || code == 2) return "Partly Cloudy";
+        if (code == 3) return "Cloudy";
+        if (code == 45 || code == 48) return "Foggy";
+        if (code >= 51 && code <= 67 || code >= 80 && code <= 82) return "Rainy";
+        if (code >= 71 && code <= 77 || code == 85 || code == 86) return "Snowy";
+        if (code >= 95 && code <= 99) return "Stormy";
+        return "Unknown";
+    }
+
+    /**
+     * Close pooled connections
+     */
+    public void close() {
+        connections.dispose();
+    }
+}
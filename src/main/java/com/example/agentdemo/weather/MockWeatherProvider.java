@@ -0,0 +1,53 @@
+package com.example.agentdemo.weather;
+
+import com.example.agentdemo.geo.Place;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+/**
+ * Plausible made-up conditions for demos and tests. Values are derived from the place and
+ * the current hour, so repeated requests agree with each other instead of changing on
+ * every call.
+ */
+public class MockWeatherProvider implements WeatherProvider {
+
+    private static final String[] CONDITIONS = {
+        "Sunny", "Cloudy", "Partly Cloudy", "Rainy", "Stormy", "Snowy", "Foggy"
+    };
+
+    private final Clock clock;
+
+    public MockWeatherProvider() {
+        this(Clock.systemUTC());
+    }
+
+    MockWeatherProvider(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String name() {
+        return "mock";
+    }
+
+    @Override
+    public Mono<WeatherReport> current(Place place) {
+        Instant hour = clock.instant().truncatedTo(ChronoUnit.HOURS);
+        long seed = Double.doubleToLongBits(place.getLatitude()) * 31
+                + Double.doubleToLongBits(place.getLongitude()) * 17
+                + hour.getEpochSecond() / Duration.ofHours(1).toSeconds();
+        SplittableRandom random = new SplittableRandom(seed);
+        return Mono.just(new WeatherReport(
+                CONDITIONS[random.nextInt(CONDITIONS.length)],
+                32 + random.nextInt(60),  // 32-92°F
+                30 + random.nextInt(60),  // 30-90%
+                5 + random.nextInt(25),   // 5-30 mph
+                hour,
+                name()));
+    }
+}
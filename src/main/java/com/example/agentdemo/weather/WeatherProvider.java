@@ -0,0 +1,18 @@
+package com.example.agentdemo.weather;
+
+import com.example.agentdemo.geo.Place;
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of current weather conditions. Implementations must not block the caller:
+ * the returned {@link Mono} completes when the report is available.
+ */
+public interface WeatherProvider {
+
+    /**
+     * Short name shown as the source of reports, e.g. "mock"
+     */
+    String name();
+
+    Mono<WeatherReport> current(Place place);
+}
@@ -0,0 +1,59 @@
+package com.example.agentdemo.weather;
+
+import java.time.Instant;
+
+/**
+ * Current conditions at a place
+ */
+public class WeatherReport {
+    private final String condition;
+    private final double temperatureF;
+    private final int humidity;
+    private final double windSpeedMph;
+    private final Instant observedAt;
+    private final String source;
+
+    public WeatherReport(String condition, double temperatureF, int humidity, double windSpeedMph,
+                         Instant observedAt, String source) {
+        this.condition = condition;
+        this.temperatureF = temperatureF;
+        this.humidity = humidity;
+        this.windSpeedMph = windSpeedMph;
+        this.observedAt = observedAt;
+        this.source = source;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public double getTemperatureF() {
+        return temperatureF;
+    }
+
+    public double getTemperatureC() {
+        return (temperatureF - 32) * 5.0 / 9.0;
+    }
+
+    /**
+     * Relative humidity in percent
+     */
+    public int getHumidity() {
+        return humidity;
+    }
+
+    public double getWindSpeedMph() {
+        return windSpeedMph;
+    }
+
+    public Instant getObservedAt() {
+        return observedAt;
+    }
+
+    /**
+     * Name of the provider that produced the report
+     */
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.agentdemo.weather;
+
+import com.example.agentdemo.geo.Place;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Current weather for resolved places.
+ *
+ * {@code weather.provider} selects the source: {@code mock} (default, made-up but stable
+ * values) or {@code http}, an Open-Meteo compatible API at {@code weather.http.base-url}.
+ * Either way reports are cached per location for {@code weather.cache.ttl-seconds} and
+ * served while being refreshed in the background for another
+ * {@code weather.cache.stale-seconds}.
+ */
+@Component
+public class WeatherService {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
+
+    private final CachingWeatherProvider provider;
+    private final HttpWeatherProvider http;
+    private final Duration timeout;
+
+    public WeatherService(@Value("${weather.provider:mock}") String provider,
+                          @Value("${weather.http.base-url:https://api.open-meteo.com}") String baseUrl,
+                          @Value("${weather.http.max-connections:50}") int maxConnections,
+                          @Value("${weather.http.timeout-ms:3000}") long timeoutMillis,
+                          @Value("${weather.cache.ttl-seconds:600}") long ttlSeconds,
+                          @Value("${weather.cache.stale-seconds:3600}") long staleSeconds,
+                          @Value("${weather.cache.max-entries:10000}") int maxEntries) {
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        WeatherProvider upstream;
+        if ("http".equalsIgnoreCase(provider.trim())) {
+            http = new HttpWeatherProvider(baseUrl, maxConnections, timeout);
+            upstream = http;
+        } else {
+            if (!"mock".equalsIgnoreCase(provider.trim())) {
+                log.warn("Unknown weather.provider '{}'; using mock data", provider);
+            }
+            http = null;
+            upstream = new MockWeatherProvider();
+        }
+        this.provider = new CachingWeatherProvider(upstream, Duration.ofSeconds(ttlSeconds),
+                Duration.ofSeconds(staleSeconds), maxEntries);
+    }
+
+    /**
+     * True if reports are made up rather than fetched
+     */
+    public boolean isMock() {
+        return http == null;
+    }
+
+    /**
+     * Current report for a place, waiting at most {@code weather.http.timeout-ms} when it
+     * is not cached
+     */
+    public WeatherReport current(Place place) {
+        return provider.current(place).block(timeout.plusMillis(500));
+    }
+
+    /**
+     * Non-blocking form of {@link #current}: errors with a {@link java.util.concurrent.TimeoutException}
+     * when no report arrives within the same deadline
+     */
+    public Mono<WeatherReport> currentReactive(Place place) {
+        return provider.current(place).timeout(timeout.plusMillis(500));
+    }
+
+    CachingWeatherProvider provider() {
+        return provider;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (http != null) {
+            http.close();
+        }
+    }
+}
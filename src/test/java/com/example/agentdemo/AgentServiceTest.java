@@ -1,14 +1,35 @@
 package com.example.agentdemo;
 
 import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.ReactiveSkill;
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.paging.ResultCursorStore;
+import com.example.agentdemo.agent.scheduling.Priority;
+import com.example.agentdemo.agent.scheduling.PriorityScheduler;
 import com.example.agentdemo.model.ActionResult;
+import com.example.agentdemo.model.PhaseTimings;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Mono;
 
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +41,9 @@ class AgentServiceTest {
     @Autowired
     AgentService agentService;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     void testSummarizeSkill() {
         log.info("=== Testing SummarizeSkill ===");
@@ -79,4 +103,115 @@ class AgentServiceTest {
         assertEquals("MockSearchSkill", r.getSkillName());
         assertTrue(r.getOutput().contains("Mock search results"));
     }
+
+    @Test
+    void testSkillMetrics() {
+        double before = skillTimerCount("CalculatorSkill", "success");
+
+        agentService.executeGoal("calculate: 2 + 2");
+        agentService.executeGoal("calculate: 2 +");
+
+        assertEquals(before + 1, skillTimerCount("CalculatorSkill", "success"));
+        assertTrue(skillTimerCount("CalculatorSkill", "failure") >= 1);
+        assertTrue(meterRegistry.get("agent.routing").tag("skill", "CalculatorSkill").timer().count() >= 2);
+        assertEquals(0, meterRegistry.get("agent.goals.in.flight").gauge().value());
+        assertNotNull(meterRegistry.find("agent.scheduler.queued").tag("priority", "bulk").gauge());
+    }
+
+    @Test
+    void testPhaseTimings() {
+        assertNull(agentService.executeGoal("calculate: 7 * 6").get(0).getTimings());
+
+        ActionResult r = agentService.executeGoal(null, "calculate: 7 * 6", 0, Priority.INTERACTIVE, true).get(0);
+        PhaseTimings timings = r.getTimings();
+        assertNotNull(timings);
+        assertTrue(timings.getRoutingNanos() > 0);
+        assertTrue(timings.getQueueNanos() >= 0);
+        assertTrue(timings.getSkillNanos() > 0);
+        assertNull(timings.getMcpCalls(), "calculator makes no MCP calls");
+        assertEquals(Map.of("expression", true), timings.getCacheHits());
+
+        PhaseTimings weather = agentService.executeGoalReactive(null, "weather in Lisbon", 0, Priority.INTERACTIVE, true)
+                .block().get(0).getTimings();
+        assertNotNull(weather.getCacheHits().get("weather"));
+        assertNull(weather.getQueueNanos(), "reactive skills do not queue for a worker");
+    }
+
+    @Test
+    void testFlightRecorderEvents() throws Exception {
+        Configuration settings;
+        try (var jfc = new InputStreamReader(getClass().getResourceAsStream("/jfr/agent.jfc"), StandardCharsets.UTF_8)) {
+            settings = Configuration.create(jfc);
+        }
+        Path file = Files.createTempFile("agent", ".jfr");
+        try (Recording recording = new Recording(settings)) {
+            recording.start();
+            agentService.executeGoal("calculate: 19 * 3");
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.example.agentdemo.")
+                        && "calculate: 19 * 3".equals(e.getString("goal")))
+                .toList();
+        Files.delete(file);
+
+        RecordedEvent routed = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.agentdemo.GoalRouted"))
+                .findFirst().orElseThrow();
+        assertEquals("CalculatorSkill", routed.getString("skill"));
+        RecordedEvent executed = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.agentdemo.SkillExecuted"))
+                .findFirst().orElseThrow();
+        assertEquals("success", executed.getString("outcome"));
+        assertFalse(executed.getDuration().isNegative());
+    }
+
+    /**
+     * Reactive skill that errors for "fail" and never answers for "hang"
+     */
+    static class BrokenSkill implements ReactiveSkill {
+        @Override
+        public boolean canHandle(String goal) {
+            return goal.equals("fail") || goal.equals("hang");
+        }
+
+        @Override
+        public ActionResult execute(String goal) {
+            return execute(goal, 0);
+        }
+
+        @Override
+        public Mono<ActionResult> executeReactive(String goal, int pageSize) {
+            return goal.equals("fail") ? Mono.error(new IllegalStateException("broken")) : Mono.never();
+        }
+    }
+
+    @Test
+    void testReactiveSkillErrorsAndCancellationsAreRecorded() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        PriorityScheduler scheduler = new PriorityScheduler(1, 0);
+        try {
+            AgentService service = new AgentService(List.of(new BrokenSkill()),
+                    new ResultCursorStore(objectMapper, 300, 16),
+                    new ConversationStore(objectMapper, 1 << 20, 1 << 16, 10, 600), scheduler, registry);
+
+            assertThrows(IllegalStateException.class,
+                    () -> service.executeGoalReactive(null, "fail", 0, Priority.INTERACTIVE).block());
+            assertNull(service.executeGoalReactive(null, "hang", 0, Priority.INTERACTIVE)
+                    .timeout(Duration.ofMillis(50), Mono.empty()).block());
+
+            Timer timer = registry.find("agent.skill.execution").tags("skill", "BrokenSkill", "outcome", "error").timer();
+            assertNotNull(timer);
+            assertEquals(2, timer.count());
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    private double skillTimerCount(String skill, String outcome) {
+        Timer timer = meterRegistry.find("agent.skill.execution").tags("skill", skill, "outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
 }
@@ -1,12 +1,14 @@
 package com.example.agentdemo;
 
 import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.skills.CalculatorSkill;
 import com.example.agentdemo.model.ActionResult;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.math.RoundingMode;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -96,6 +98,46 @@ public class InteractiveChatTest {
         assertEquals("50.0", result.getOutput());
     }
 
+    @Test
+    @DisplayName("Scenario 1.7: Batch Evaluation Over a List of Values")
+    public void testBatchCalculation() {
+        List<ActionResult> results = agentService.executeGoal("calculate: c * 9 / 5 + 32 where c=[-40, 0, 100]");
+        
+        ActionResult result = results.get(0);
+        assertTrue(result.isSuccess());
+        assertEquals("CalculatorSkill", result.getSkillName());
+        assertEquals("[-40.0, 32.0, 212.0]", result.getOutput());
+    }
+
+    @Test
+    @DisplayName("Scenario 1.8: Exact Decimal Arithmetic")
+    public void testExactCalculation() {
+        List<ActionResult> results = agentService.executeGoal("calculate exact: 0.1 + 0.2");
+        
+        ActionResult result = results.get(0);
+        assertTrue(result.isSuccess());
+        assertEquals("CalculatorSkill", result.getSkillName());
+        assertEquals("0.3", result.getOutput());
+    }
+
+    @Test
+    @DisplayName("Scenario 1.9: Exact Arithmetic Limits")
+    public void testExactCalculationLimits() {
+        ActionResult huge = agentService.executeGoal("calculate exact: 10^9999 * 10^9999").get(0);
+        assertTrue(huge.isSuccess());
+        assertEquals("1E+19998", huge.getOutput(), "far-out results use scientific notation");
+
+        ActionResult exponent = agentService.executeGoal("calculate exact: 10^50000000").get(0);
+        assertFalse(exponent.isSuccess());
+        assertTrue(exponent.getOutput().contains("exponents up to 9999"));
+
+        ActionResult overflow = agentService.executeGoal("calculate exact: x * x where x=1e1500000000").get(0);
+        assertFalse(overflow.isSuccess(), "BigDecimal overflow is reported, not thrown");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new CalculatorSkill(16, false, 0, RoundingMode.HALF_EVEN));
+    }
+
     // ===============================
     // 2. Search Skill Tests
     // ===============================
@@ -346,6 +388,20 @@ public class InteractiveChatTest {
         }
     }
 
+    @Test
+    @DisplayName("Scenario 4.8: Host Overview (parallel composite query)")
+    public void testOsqueryHostOverview() {
+        List<ActionResult> results = agentService.executeGoal("osquery: host overview");
+        
+        ActionResult result = results.get(0);
+        assertNotNull(result);
+        if (result.isSuccess() && "OsqueryMCPSkill".equals(result.getSkillName())) {
+            String output = result.getOutput();
+            assertTrue(output.contains("system_info"), "Overview should contain the system info section");
+            assertTrue(output.contains("elapsedMs"), "Overview should report elapsed time");
+        }
+    }
+
     // ===============================
     // Additional Validation Tests
     // ===============================
@@ -0,0 +1,205 @@
+package com.example.agentdemo.admission;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void tokenBucketAllowsBurstThenRate() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 100, nanos::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        long wait = limiter.tryAcquire("a");
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100), "wait " + wait);
+        assertEquals(0, limiter.tryAcquire("b"), "clients have separate buckets");
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void idleClientsAreForgottenWhenTrackingIsFull() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 100, nanos::get);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.tryAcquire("newcomer");
+
+        assertEquals(1, limiter.clients());
+    }
+
+    @Test
+    void newClientsShareAnOverflowBucketUntilTheNextSweep() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 2, nanos::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        // tracking is full and nobody is idle: rotating keys draw from one shared bucket
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("rotating-" + i));
+        }
+        assertTrue(limiter.tryAcquire("rotating-5") > 0);
+        assertEquals(2, limiter.clients());
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsSteadyAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 200, 2.0, 0.9);
+        long fast = TimeUnit.MILLISECONDS.toNanos(20);
+
+        for (int round = 0; round < 50; round++) {
+            saturate(limit, fast);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 40, "limit " + grown);
+
+        // queueing: latency climbs far above the long-run average
+        saturate(limit, fast * 10);
+        assertTrue(limit.getLimit() < grown / 2, "limit " + limit.getLimit() + " from " + grown);
+        assertEquals(0, limit.getInFlight());
+
+        // a sustained slower latency becomes the new normal and the limit recovers
+        for (int round = 0; round < 100; round++) {
+            saturate(limit, fast * 10);
+        }
+        assertTrue(limit.getLimit() > grown / 2, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void failuresCutTheLimitAndIdleTrafficLeavesItAlone() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 200, 2.0, 0.5);
+        assertTrue(limit.tryAcquire());
+        limit.release(1_000_000, true);
+        assertEquals(10, limit.getLimit());
+
+        // one request at a time never uses the limit, so it is not raised
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(1_000_000, false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    /**
+     * Closed loop under overload: every completion is immediately replaced by a new
+     * request while the limit allows, then the remaining requests drain
+     */
+    private void saturate(AdaptiveConcurrencyLimit limit, long rtt) {
+        while (limit.tryAcquire()) {
+        }
+        for (int i = 0; i < 100; i++) {
+            limit.release(rtt, false);
+            while (limit.tryAcquire()) {
+            }
+        }
+        while (limit.getInFlight() > 0) {
+            limit.release(rtt, false);
+        }
+    }
+
+    private AdmissionFilter filter(double rate, double burst, int concurrency) {
+        // MockHttpServletRequest comes from 127.0.0.1, here standing in for a trusted proxy
+        return new AdmissionFilter(new AdmissionPolicy(true, "X-Client-Id", List.of("127.0.0.1"), rate, burst, 100,
+                concurrency, 1, concurrency, 2.0, 0.9));
+    }
+
+    private MockHttpServletResponse post(AdmissionFilter filter, String uri, String client, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader("X-Client-Id", client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void filterAnswers429WithRetryAfterPerClient() throws Exception {
+        AdmissionFilter filter = filter(1, 2, 32);
+        FilterChain ok = (req, res) -> { };
+
+        assertEquals(200, post(filter, "/api/agent/execute", "alice", ok).getStatus());
+        assertEquals(200, post(filter, "/api/agent/execute", "alice", ok).getStatus());
+        MockHttpServletResponse limited = post(filter, "/api/agent/execute", "alice", ok);
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertEquals(200, post(filter, "/api/agent/execute", "bob", ok).getStatus());
+
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/agent/skills");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(get, response, ok);
+        assertEquals(200, response.getStatus(), "reads are not rate limited");
+    }
+
+    @Test
+    void clientHeaderIsIgnoredUnlessATrustedProxySentIt() throws Exception {
+        AdmissionFilter direct = new AdmissionFilter(new AdmissionPolicy(true, "X-Client-Id", List.of(), 1, 2, 100,
+                32, 1, 32, 2.0, 0.9));
+        FilterChain ok = (req, res) -> { };
+
+        // a caller rotating header values still uses its address's bucket
+        assertEquals(200, post(direct, "/api/agent/execute", "rotate-1", ok).getStatus());
+        assertEquals(200, post(direct, "/api/agent/execute", "rotate-2", ok).getStatus());
+        assertEquals(429, post(direct, "/api/agent/execute", "rotate-3", ok).getStatus());
+
+        AdmissionFilter proxied = new AdmissionFilter(new AdmissionPolicy(true, "X-Client-Id", List.of("10.0.0.5"), 1, 2,
+                100, 32, 1, 32, 2.0, 0.9));
+        MockHttpServletRequest spoofed = new MockHttpServletRequest("POST", "/api/agent/execute");
+        spoofed.setRemoteAddr("10.0.0.9");
+        for (int i = 0; i < 3; i++) {
+            spoofed.removeHeader("X-Client-Id");
+            spoofed.addHeader("X-Client-Id", "rotate-" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            proxied.doFilter(spoofed, response, ok);
+            assertEquals(i < 2 ? 200 : 429, response.getStatus(), "request " + i);
+        }
+    }
+
+    @Test
+    void filterSheds503AtTheConcurrencyLimit() throws Exception {
+        AdmissionFilter filter = filter(1000, 1000, 1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slow = new Thread(() -> {
+            try {
+                post(filter, "/api/agent/execute", "a", (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        slow.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse shed = post(filter, "/api/agent/execute", "b", (req, res) -> { });
+        assertEquals(503, shed.getStatus());
+        assertNotNull(shed.getHeader("Retry-After"));
+        assertEquals(200, post(filter, "/api/agent/jobs", "b", (req, res) -> { }).getStatus(),
+                "job submission is not held to the synchronous limit");
+
+        release.countDown();
+        slow.join();
+        assertEquals(200, post(filter, "/api/agent/execute", "b", (req, res) -> { }).getStatus());
+    }
+}
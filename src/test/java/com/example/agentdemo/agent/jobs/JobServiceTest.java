@@ -0,0 +1,237 @@
+package com.example.agentdemo.agent.jobs;
+
+import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.Skill;
+import com.example.agentdemo.agent.memory.ConversationStore;
+import com.example.agentdemo.agent.paging.ResultCursorStore;
+import com.example.agentdemo.agent.scheduling.PriorityScheduler;
+import com.example.agentdemo.model.ActionResult;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger executions = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+    // one worker, so a second job waits in the scheduler's queue
+    private final PriorityScheduler scheduler = new PriorityScheduler(1, 0);
+    private JobService jobs;
+    private HttpServer server;
+
+    /**
+     * A skill that answers "slow: x" only once {@link #release} is opened
+     */
+    private AgentService agent() {
+        Skill slow = new Skill() {
+            @Override
+            public boolean canHandle(String goal) {
+                return goal.startsWith("slow:");
+            }
+
+            @Override
+            public ActionResult execute(String goal) {
+                executions.incrementAndGet();
+                threads.add(Thread.currentThread().getName());
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ActionResult(true, "SlowSkill", goal.substring(5).trim());
+            }
+        };
+        return new AgentService(List.of(slow), new ResultCursorStore(objectMapper, 300, 16),
+                new ConversationStore(objectMapper, 1 << 20, 1 << 16, 10, 600), scheduler);
+    }
+
+    private JobService jobs(int capacity, String... callbackHosts) {
+        jobs = new JobService(agent(), objectMapper, capacity, 600, 100, 10_000, 1, callbackHosts);
+        return jobs;
+    }
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        if (jobs != null) {
+            jobs.close();
+        }
+        scheduler.close();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private Job await(Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return job;
+    }
+
+    @Test
+    void submitReturnsAtOnceAndTheResultIsPolled() throws Exception {
+        JobService service = jobs(4);
+        Job job = service.submit("slow: done", null, 0, null);
+
+        assertFalse(job.getStatus().isFinished());
+        assertSame(job, service.get(job.getId()).orElseThrow());
+        release.countDown();
+
+        await(job);
+        assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+        assertEquals("done", job.getFinalOutput());
+        // the goal ran on a scheduler worker; no job thread waited for it
+        assertEquals(Set.of("agent-worker-1"), threads);
+        assertNotNull(job.getElapsedMs());
+        assertTrue(service.get("unknown").isEmpty());
+    }
+
+    @Test
+    void fullQueueRejectsNewJobs() throws Exception {
+        JobService service = jobs(2);
+        Job first = service.submit("slow: a", null, 0, null);
+        Job second = service.submit("slow: b", null, 0, null);
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit("slow: c", null, 0, null));
+        assertEquals(2, service.size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (first.getStatus() == JobStatus.QUEUED && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(JobStatus.RUNNING, first.getStatus());
+        assertEquals(1, service.queued());
+
+        // finished jobs free their place
+        release.countDown();
+        await(first);
+        await(second);
+        assertEquals(JobStatus.SUCCEEDED, await(service.submit("slow: c", null, 0, null)).getStatus());
+    }
+
+    @Test
+    void cancelledQueuedJobNeverRuns() throws Exception {
+        JobService service = jobs(4);
+        Job first = service.submit("slow: a", null, 0, null);
+        Job second = service.submit("slow: b", null, 0, null);
+
+        assertEquals(JobStatus.CANCELLED, service.cancel(second.getId()).orElseThrow().getStatus());
+        release.countDown();
+        await(first);
+        Thread.sleep(100);
+
+        assertEquals(JobStatus.SUCCEEDED, first.getStatus());
+        assertEquals(JobStatus.CANCELLED, second.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Start a local callback endpoint at {@code /hook} that queues the bodies it receives
+     */
+    private String callbackStub(BlockingQueue<JsonNode> delivered) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            // read the whole body before answering, as a real endpoint would
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            delivered.add(objectMapper.readTree(body));
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+    }
+
+    @Test
+    void completionIsPostedToTheCallbackUrl() throws Exception {
+        BlockingQueue<JsonNode> delivered = new LinkedBlockingQueue<>();
+        String hook = callbackStub(delivered);
+        Logger logger = (Logger) LoggerFactory.getLogger(JobService.class);
+        ListAppender<ILoggingEvent> logs = new ListAppender<>();
+        logs.start();
+        logger.addAppender(logs);
+
+        try {
+            JobService service = jobs(4, "127.0.0.1");
+            Job job = service.submit("slow: called back", "s1", 0, hook);
+            release.countDown();
+
+            JsonNode body = delivered.poll(20, TimeUnit.SECONDS);
+            assertNotNull(body, "callback not delivered");
+            assertEquals(job.getId(), body.get("id").asText());
+            assertEquals("SUCCEEDED", body.get("status").asText());
+            assertEquals("called back", body.get("finalOutput").asText());
+            assertFalse(body.has("callbackUrl"));
+
+            // a retry would arrive within the 500 ms backoff
+            assertNull(delivered.poll(1500, TimeUnit.MILLISECONDS), "callback delivered more than once");
+            assertTrue(logs.list.stream().noneMatch(e -> e.getLevel().isGreaterOrEqual(Level.WARN)
+                            && e.getFormattedMessage().contains(job.getId())),
+                    () -> "unexpected warnings: " + logs.list);
+        } finally {
+            logger.detachAppender(logs);
+        }
+    }
+
+    @Test
+    void callbackUrlsAreValidated() throws Exception {
+        BlockingQueue<JsonNode> delivered = new LinkedBlockingQueue<>();
+        String hook = callbackStub(delivered);
+        JobService service = jobs(4, "127.0.0.1");
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit("slow: a", null, 0, "file:///etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("slow: a", null, 0, "relative/path"));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("slow: a", null, 0, "http://10.0.0.1/hook"));
+        // not allowlisted; rejected without resolving it
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit("slow: a", null, 0, "https://hooks.example.com/agent"));
+
+        Job job = service.submit("slow: a", null, 0, hook);
+        release.countDown();
+        JsonNode body = delivered.poll(20, TimeUnit.SECONDS);
+        assertNotNull(body, "callback not delivered");
+        assertEquals(job.getId(), body.get("id").asText());
+    }
+
+    @Test
+    void withoutAnAllowlistCallbacksOnlyReachPublicAddresses() throws Exception {
+        JobService service = jobs(4);
+
+        for (String url : List.of("http://127.0.0.1:8080/hook", "http://localhost/hook",
+                "http://169.254.169.254/latest/meta-data", "http://10.1.2.3/hook", "http://192.168.0.1/hook",
+                "http://0.0.0.0/hook", "http://[::1]/hook", "http://[fd00::1]/hook")) {
+            assertThrows(IllegalArgumentException.class, () -> service.submit("slow: a", null, 0, url), url);
+        }
+        CallbackAddressPolicy policy = new CallbackAddressPolicy(Set.of());
+        assertDoesNotThrow(() -> policy.check("93.184.216.34"));
+
+        // the connection-time check refuses hosts that resolve inward, whatever they resolved to before
+        assertThrows(UnknownHostException.class, () -> policy.lookup("localhost"));
+        CallbackAddressPolicy allowlisted = new CallbackAddressPolicy(Set.of("localhost"));
+        assertTrue(allowlisted.lookup("localhost").length > 0, "allowlisted hosts may be internal");
+        assertThrows(UnknownHostException.class, () -> allowlisted.lookup("127.0.0.1"));
+    }
+}
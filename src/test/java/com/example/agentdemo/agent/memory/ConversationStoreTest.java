@@ -0,0 +1,223 @@
+package com.example.agentdemo.agent.memory;
+
+import com.example.agentdemo.agent.AgentService;
+import com.example.agentdemo.agent.Skill;
+import com.example.agentdemo.agent.paging.ResultCursorStore;
+import com.example.agentdemo.agent.scheduling.PriorityScheduler;
+import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MutableClock clock = new MutableClock();
+
+    private List<JsonNode> processes(int count) {
+        List<JsonNode> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int pid = (i * 7919) % 10007;
+            rows.add(objectMapper.valueToTree(Map.of("pid", String.valueOf(pid), "name", "proc-" + (count - i),
+                    "path", "/usr/lib/systemd/systemd-worker-" + (i % 13))));
+        }
+        return rows;
+    }
+
+    private Turn turn(String goal, String output, List<JsonNode> rows) {
+        return new Turn(clock.instant(), goal, "OsqueryMCPSkill", true, output, rows);
+    }
+
+    private ConversationStore store(long maxBytes, long sessionMaxBytes, int maxTurns) {
+        return new ConversationStore(objectMapper, maxBytes, sessionMaxBytes, maxTurns, 1800, clock);
+    }
+
+    @Test
+    void turnsRoundTripThroughCompactRecords() throws Exception {
+        TurnCodec codec = new TurnCodec(objectMapper);
+        List<JsonNode> rows = processes(300);
+        Turn original = new Turn(Instant.parse("2024-05-01T12:00:00Z"), "osquery: list running processes",
+                "OsqueryMCPSkill", true, "première page ✓", rows);
+
+        byte[] record = codec.encode(original);
+        Turn decoded = codec.decode(record);
+
+        assertEquals(original.getAt(), decoded.getAt());
+        assertEquals(original.getGoal(), decoded.getGoal());
+        assertEquals(original.getOutput(), decoded.getOutput());
+        assertTrue(decoded.isSuccess());
+        assertEquals(rows, decoded.getRows());
+        assertTrue(TurnCodec.hasRows(record));
+        int json = objectMapper.writeValueAsBytes(rows).length;
+        assertTrue(record.length * 3 < json, record.length + " bytes vs " + json + " bytes of JSON");
+
+        Turn small = new Turn(original.getAt(), "calculate 2 + 2", "CalculatorSkill", false, "4", null);
+        Turn back = codec.decode(codec.encode(small));
+        assertEquals("4", back.getOutput());
+        assertFalse(back.isSuccess());
+        assertFalse(back.hasRows());
+    }
+
+    @Test
+    void sessionKeepsNewestTurnsWithinItsBudget() {
+        ConversationStore store = store(1 << 20, 4096, 5);
+        for (int i = 0; i < 20; i++) {
+            store.record("s", turn("goal " + i, "output " + i, null));
+        }
+        List<Turn> history = store.history("s");
+        assertEquals(5, history.size());
+        assertEquals("goal 15", history.get(0).getGoal());
+        assertEquals("goal 19", history.get(4).getGoal());
+
+        // a row set too large for the session keeps only its (truncated) output
+        StringBuilder huge = new StringBuilder();
+        Random random = new Random(1);
+        while (huge.length() < 100_000) {
+            huge.append(Long.toString(random.nextLong(), 36));
+        }
+        store.record("s", turn("osquery: everything", huge.toString(), processes(5000)));
+        Turn last = store.history("s").get(store.history("s").size() - 1);
+        assertFalse(last.hasRows());
+        assertTrue(last.getOutput().endsWith("(truncated)"));
+        assertTrue(store.bytesUsed() <= 4096 + ConversationStore.SESSION_OVERHEAD, "bytes " + store.bytesUsed());
+    }
+
+    @Test
+    void leastRecentlyUsedSessionsAreEvictedUnderGlobalBudget() {
+        long budget = 2 << 20;
+        ConversationStore store = store(budget, 16 * 1024, 20);
+        for (int i = 0; i < 20_000; i++) {
+            clock.advance(Duration.ofMillis(10));
+            store.record("session-" + i, turn("osquery: list running processes", "page", processes(20)));
+            if (i % 1000 == 0) {
+                store.history("session-0");     // keep the first session warm
+            }
+        }
+
+        assertTrue(store.bytesUsed() <= budget, "bytes " + store.bytesUsed());
+        assertTrue(store.evictions() > 0);
+        assertFalse(store.history("session-0").isEmpty(), "recently read session survives");
+        assertTrue(store.history("session-1").isEmpty(), "idle session is evicted");
+        assertFalse(store.history("session-19999").isEmpty());
+    }
+
+    @Test
+    void idleSessionsExpire() {
+        ConversationStore store = store(1 << 20, 4096, 5);
+        store.record("a", turn("goal", "output", null));
+        clock.advance(Duration.ofMinutes(29));
+        assertEquals(1, store.history("a").size());
+
+        clock.advance(Duration.ofMinutes(31));
+        assertTrue(store.history("a").isEmpty());
+        assertEquals(0, store.sessionCount());
+        assertEquals(0, store.bytesUsed());
+    }
+
+    @Test
+    void openedSessionsHaveRandomIdsAndExpireLikeOthers() {
+        ConversationStore store = store(1 << 20, 4096, 5);
+        String first = store.open();
+        String second = store.open();
+        assertTrue(first.matches("[0-9a-f]{32}"), first);
+        assertNotEquals(first, second);
+        assertTrue(store.contains(first));
+        assertFalse(store.contains("a"));
+
+        store.record(first, turn("goal", "output", null));
+        assertTrue(store.forget(first));
+        assertFalse(store.contains(first));
+
+        clock.advance(Duration.ofMinutes(31));
+        assertFalse(store.contains(second));
+        assertEquals(0, store.sessionCount());
+        assertEquals(0, store.bytesUsed());
+    }
+
+    @Test
+    void sortFollowUpReordersThePreviousRows() throws Exception {
+        ResultCursorStore cursors = new ResultCursorStore(objectMapper, 300, 16);
+        List<JsonNode> rows = processes(30);
+        Skill osquery = new Skill() {
+            @Override
+            public boolean canHandle(String goal) {
+                return goal.startsWith("osquery:");
+            }
+
+            @Override
+            public ActionResult execute(String goal) {
+                return execute(goal, 0);
+            }
+
+            @Override
+            public ActionResult execute(String goal, int pageSize) {
+                return cursors.firstPage("OsqueryMCPSkill", rows, pageSize);
+            }
+        };
+        PriorityScheduler scheduler = new PriorityScheduler(1, 0);
+        AgentService agent = new AgentService(List.of(osquery), cursors, store(1 << 20, 256 * 1024, 50), scheduler);
+
+        agent.executeGoal("s", "osquery: list running processes", 10);
+        ActionResult sorted = agent.executeGoal("s", "now sort that by pid", 10).get(0);
+        assertTrue(sorted.isSuccess(), sorted.getOutput());
+        assertEquals(30, sorted.getTotalRows());
+        assertNotNull(sorted.getNextCursor());
+        JsonNode page = objectMapper.readTree(sorted.getOutput());
+        for (int i = 1; i < page.size(); i++) {
+            assertTrue(page.get(i - 1).get("pid").asInt() <= page.get(i).get("pid").asInt(), page.toString());
+        }
+
+        JsonNode byName = objectMapper.readTree(agent.executeGoal("s", "Sort them by name descending", 50)
+                .get(0).getOutput());
+        assertEquals("proc-9", byName.get(0).get("name").asText());
+
+        assertFalse(agent.executeGoal("s", "sort that by colour", 10).get(0).isSuccess());
+        assertFalse(agent.executeGoal("other", "sort that by pid", 10).get(0).isSuccess());
+        assertEquals(4, agent.getHistory("s").size());
+        scheduler.close();
+    }
+
+    @Test
+    void onlyBackReferencesAreFollowUps() {
+        assertTrue(FollowUp.parse("now sort that by pid").isPresent());
+        assertTrue(FollowUp.parse("Order the results by name desc.").get().isDescending());
+        assertFalse(FollowUp.parse("sort that by pid").get().isDescending());
+        assertFalse(FollowUp.parse("sort numbers 3 1 2").isPresent());
+        assertFalse(FollowUp.parse("search: how to sort that by pid in ps").isPresent());
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
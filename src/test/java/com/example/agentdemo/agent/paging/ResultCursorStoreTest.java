@@ -0,0 +1,100 @@
+package com.example.agentdemo.agent.paging;
+
+import com.example.agentdemo.model.ActionResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCursorStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<JsonNode> rows(int count) {
+        List<JsonNode> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(objectMapper.valueToTree(Map.of("pid", i)));
+        }
+        return rows;
+    }
+
+    @Test
+    void smallResultIsReturnedWithoutCursor() {
+        ResultCursorStore store = new ResultCursorStore(objectMapper, 300, 16);
+
+        ActionResult result = store.firstPage("OsqueryMCPSkill", rows(5), 20);
+
+        assertTrue(result.isSuccess());
+        assertNull(result.getNextCursor());
+        assertEquals(5, result.getTotalRows());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void walksAllPagesWithContinuationTokens() throws Exception {
+        ResultCursorStore store = new ResultCursorStore(objectMapper, 300, 16);
+
+        ActionResult page = store.firstPage("OsqueryMCPSkill", rows(45), 20);
+        int seen = objectMapper.readTree(page.getOutput()).size();
+        int pages = 1;
+
+        while (page.getNextCursor() != null) {
+            page = store.nextPage(page.getNextCursor(), 20).orElseThrow();
+            seen += objectMapper.readTree(page.getOutput()).size();
+            pages++;
+        }
+
+        assertEquals(45, seen);
+        assertEquals(3, pages);
+        assertEquals("OsqueryMCPSkill", page.getSkillName());
+        assertEquals(0, store.size(), "Handle should be released after the last page");
+    }
+
+    @Test
+    void rejectsUnknownAndMalformedCursors() {
+        ResultCursorStore store = new ResultCursorStore(objectMapper, 300, 16);
+
+        assertTrue(store.nextPage("not-a-cursor", 10).isEmpty());
+        assertTrue(store.nextPage("", 10).isEmpty());
+    }
+
+    @Test
+    void boundsNumberOfLiveHandles() {
+        ResultCursorStore store = new ResultCursorStore(objectMapper, 300, 4);
+
+        for (int i = 0; i < 10; i++) {
+            store.firstPage("OsqueryMCPSkill", rows(30), 10);
+        }
+
+        assertTrue(store.size() <= 4);
+    }
+
+    @Test
+    void pagesWithoutASizeUseTheConfiguredDefaultOrTheFirstPageSize() throws Exception {
+        ResultCursorStore store = new ResultCursorStore(objectMapper, 300, 16, 7);
+
+        ActionResult page = store.firstPage("OsqueryMCPSkill", rows(30), 0);
+        assertEquals(7, objectMapper.readTree(page.getOutput()).size());
+
+        page = store.firstPage("OsqueryMCPSkill", rows(30), 12);
+        page = store.nextPage(page.getNextCursor(), 0).orElseThrow();
+        assertEquals(12, objectMapper.readTree(page.getOutput()).size());
+    }
+
+    @Test
+    void keepsOneHandleWhenMaxHandlesIsNotPositive() {
+        ResultCursorStore store = new ResultCursorStore(objectMapper, 300, 0);
+
+        ActionResult first = store.firstPage("OsqueryMCPSkill", rows(30), 10);
+        ActionResult second = store.firstPage("OsqueryMCPSkill", rows(30), 10);
+
+        assertEquals(1, store.size());
+        assertTrue(store.nextPage(first.getNextCursor(), 10).isEmpty());
+        assertTrue(store.nextPage(second.getNextCursor(), 10).isPresent());
+    }
+}
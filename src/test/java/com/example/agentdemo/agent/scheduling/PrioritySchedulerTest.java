@@ -0,0 +1,107 @@
+package com.example.agentdemo.agent.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrioritySchedulerTest {
+
+    private PriorityScheduler scheduler;
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    @AfterEach
+    void stop() {
+        gate.countDown();
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    private Void awaitGate() throws InterruptedException {
+        gate.await(10, TimeUnit.SECONDS);
+        return null;
+    }
+
+    private void awaitRunning(Priority priority, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.running(priority) < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, scheduler.running(priority));
+    }
+
+    @Test
+    void backloggedClassesShareWorkersByWeight() throws Exception {
+        scheduler = new PriorityScheduler(1, 0, 9, 1, 1000);
+        scheduler.submit(Priority.BULK, this::awaitGate);
+        awaitRunning(Priority.BULK, 1);
+
+        List<Priority> order = new CopyOnWriteArrayList<>();
+        List<FutureTask<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(scheduler.submit(Priority.BULK, () -> order.add(Priority.BULK)));
+        }
+        for (int i = 0; i < 100; i++) {
+            tasks.add(scheduler.submit(Priority.INTERACTIVE, () -> order.add(Priority.INTERACTIVE)));
+        }
+        gate.countDown();
+        for (FutureTask<Boolean> task : tasks) {
+            task.get(10, TimeUnit.SECONDS);
+        }
+
+        long interactiveFirst50 = order.subList(0, 50).stream().filter(p -> p == Priority.INTERACTIVE).count();
+        assertTrue(interactiveFirst50 >= 43 && interactiveFirst50 <= 47, "interactive " + interactiveFirst50);
+        assertTrue(order.subList(0, 20).contains(Priority.BULK), "bulk is not starved: " + order.subList(0, 20));
+        assertEquals(101, scheduler.dispatched(Priority.BULK));
+    }
+
+    @Test
+    void bulkUsesSpareCapacityButNotTheReservedWorkers() throws Exception {
+        scheduler = new PriorityScheduler(4, 1);
+        for (int i = 0; i < 10; i++) {
+            scheduler.submit(Priority.BULK, this::awaitGate);
+        }
+        awaitRunning(Priority.BULK, 3);
+        assertEquals(7, scheduler.queued(Priority.BULK));
+
+        long start = System.nanoTime();
+        assertEquals("fast", scheduler.call(Priority.INTERACTIVE, () -> "fast"));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis < 1000, "interactive waited " + waitedMillis + " ms behind bulk work");
+        assertEquals(3, scheduler.running(Priority.BULK));
+    }
+
+    @Test
+    void callRethrowsTaskFailuresAndFullQueuesReject() throws Exception {
+        scheduler = new PriorityScheduler(1, 0, 9, 1, 2);
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> scheduler.call(Priority.INTERACTIVE, () -> {
+                    throw new IllegalStateException("boom");
+                }));
+        assertEquals("boom", failure.getMessage());
+
+        scheduler.submit(Priority.BULK, this::awaitGate);
+        awaitRunning(Priority.BULK, 1);
+        scheduler.submit(Priority.BULK, this::awaitGate);
+        scheduler.submit(Priority.BULK, this::awaitGate);
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(Priority.BULK, this::awaitGate));
+        assertNotNull(scheduler.submit(Priority.INTERACTIVE, this::awaitGate), "queues are per class");
+    }
+
+    @Test
+    void parsesPriorityNames() {
+        assertEquals(Priority.BULK, Priority.parse(" Batch ", Priority.INTERACTIVE));
+        assertEquals(Priority.INTERACTIVE, Priority.parse(null, Priority.INTERACTIVE));
+        assertEquals(Priority.BULK, Priority.parse("", Priority.BULK));
+        assertThrows(IllegalArgumentException.class, () -> Priority.parse("urgent", Priority.BULK));
+    }
+}
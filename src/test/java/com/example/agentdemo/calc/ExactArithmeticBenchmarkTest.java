@@ -0,0 +1,64 @@
+package com.example.agentdemo.calc;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares a hand-written expression, the plain double path, the exact-mode double fast
+ * path and the BigDecimal path on the same expression, checking that the default double
+ * mode stays ahead of both exact paths. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ExactArithmeticBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ExactArithmeticBenchmarkTest.class);
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    private final CompiledExpression expression = ExpressionEngine.compileUncached("(a + b) * c - a % 7");
+    private final MathContext mc = MathContext.DECIMAL128;
+
+    @Test
+    void fastPathStaysCloseToPlainDouble() {
+        assertTrue(expression.hasExactFastPath());
+
+        double baselineNs = measure("hand-written", i -> (i + 3.0) * 5.0 - i % 7.0);
+        double doubleNs = measure("double", i -> expression.evaluate(i, 3, 5));
+        double fastNs = measure("exact (fast path)", i -> expression.evaluateExact(Map.of(
+                "a", BigDecimal.valueOf(i), "b", BigDecimal.valueOf(3), "c", BigDecimal.valueOf(5)), mc).doubleValue());
+        double decimalNs = measure("exact (BigDecimal)", i -> expression.evaluateExact(Map.of(
+                "a", BigDecimal.valueOf(i).movePointLeft(1), "b", new BigDecimal("0.3"), "c", BigDecimal.valueOf(5)), mc).doubleValue());
+
+        log.info("hand-written: {} ns/op, double: {} ns/op, exact fast path: {} ns/op, BigDecimal: {} ns/op",
+                String.format("%.1f", baselineNs), String.format("%.1f", doubleNs),
+                String.format("%.1f", fastNs), String.format("%.1f", decimalNs));
+
+        // the default mode must not pay for exact support: it stays well ahead of both exact paths
+        assertTrue(doubleNs < fastNs, "Plain double evaluation should beat the exact fast path");
+        assertTrue(doubleNs < decimalNs / 4, "Plain double evaluation should be far ahead of BigDecimal");
+        assertTrue(fastNs < decimalNs, "Fast path should beat BigDecimal evaluation");
+    }
+
+    private double measure(String name, java.util.function.IntToDoubleFunction op) {
+        double sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += op.applyAsDouble(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += op.applyAsDouble(i);
+        }
+        double nsPerOp = (System.nanoTime() - start) / (double) ITERATIONS;
+        log.debug("{} sink={}", name, sink);
+        return nsPerOp;
+    }
+}
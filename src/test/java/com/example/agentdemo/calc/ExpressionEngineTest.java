@@ -0,0 +1,175 @@
+package com.example.agentdemo.calc;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionEngineTest {
+
+    private final ExpressionEngine engine = new ExpressionEngine(16);
+
+    private double eval(String source) {
+        return engine.evaluate(source, Map.of());
+    }
+
+    @Test
+    void respectsPrecedenceAndParentheses() {
+        assertEquals(14.0, eval("2 + 3 * 4"));
+        assertEquals(20.0, eval("(2 + 3) * 4"));
+        assertEquals(1.0, eval("10 % 3"));
+        assertEquals(-4.0, eval("-2^2"));
+        assertEquals(512.0, eval("2^3^2"), "Exponentiation is right-associative");
+        assertEquals(0.5, eval("2 ** -1"));
+    }
+
+    @Test
+    void supportsFunctionsAndConstants() {
+        assertEquals(5.0, eval("sqrt(3^2 + 4^2)"));
+        assertEquals(1.0, eval("log(e)"), 1e-12);
+        assertEquals(3.0, eval("log10(1000)"), 1e-12);
+        assertEquals(7.0, eval("max(min(7, 9), 2)"));
+        assertEquals(Math.PI, eval("pi"));
+    }
+
+    @Test
+    void bindsVariablesInOrderOfAppearance() {
+        CompiledExpression compiled = engine.compile("x * y + x");
+
+        assertEquals(List.of("x", "y"), compiled.getVariables());
+        assertEquals(8.0, compiled.evaluate(2, 3));
+        assertEquals(8.0, compiled.evaluate(Map.of("x", 2, "y", 3)));
+    }
+
+    @Test
+    void divisionByZeroIsNaN() {
+        assertTrue(Double.isNaN(eval("1 / 0")));
+        assertTrue(Double.isNaN(engine.evaluate("x / y", Map.of("x", 1, "y", 0))));
+    }
+
+    @Test
+    void reusesCompiledExpressionsFromCache() {
+        CompiledExpression first = engine.compile("a + b * 2");
+        CompiledExpression second = engine.compile("  a + b * 2 ");
+
+        assertSame(first, second);
+        assertEquals(1, engine.cacheHits());
+    }
+
+    @Test
+    void cacheIsBounded() {
+        ExpressionEngine small = new ExpressionEngine(4);
+        for (int i = 0; i < 20; i++) {
+            small.compile("x + " + i);
+        }
+        assertEquals(4, small.cacheSize());
+    }
+
+    @Test
+    void reportsErrorsWithPosition() {
+        ExpressionException unbalanced = assertThrows(ExpressionException.class, () -> eval("(1 + 2"));
+        assertEquals(6, unbalanced.getPosition());
+
+        assertThrows(ExpressionException.class, () -> eval("2 $ 3"));
+        assertThrows(ExpressionException.class, () -> eval("foo(1)"));
+        assertThrows(ExpressionException.class, () -> eval("max(1)"));
+        assertThrows(ExpressionException.class, () -> eval("abc + def"));
+    }
+
+    @Test
+    void batchEvaluationMatchesScalarAcrossBlocks() {
+        CompiledExpression compiled = engine.compile("sqrt(x^2 + y^2) / max(x, 1) - y % 7 + log(abs(x) + 1)");
+        int rows = 5000;
+        double[] xs = new double[rows];
+        double[] ys = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            xs[i] = i * 0.37 - 900;
+            ys[i] = (i % 113) * 1.5;
+        }
+
+        double[] batch = compiled.evaluateBatch(Map.of("x", xs, "y", ys));
+
+        assertEquals(rows, batch.length);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(compiled.evaluate(xs[i], ys[i]), batch[i], 1e-12, "row " + i);
+        }
+    }
+
+    @Test
+    void batchBroadcastsSingleValuesAndKeepsDivisionSemantics() {
+        double[] result = engine.compile("x / d").evaluateBatch(Map.of(
+                "x", new double[] {1, 2, 3},
+                "d", new double[] {0}));
+
+        assertEquals(3, result.length);
+        for (double value : result) {
+            assertTrue(Double.isNaN(value));
+        }
+
+        assertArrayEquals(new double[] {32.0, 212.0},
+                engine.compile("c * 9 / 5 + 32").evaluateBatch(Map.of("c", new double[] {0, 100})));
+    }
+
+    @Test
+    void batchRejectsMismatchedColumns() {
+        CompiledExpression compiled = engine.compile("a + b");
+
+        assertThrows(ExpressionException.class, () -> compiled.evaluateBatch(Map.of(
+                "a", new double[] {1, 2, 3},
+                "b", new double[] {1, 2})));
+        assertThrows(ExpressionException.class, () -> compiled.evaluateBatch(Map.of("a", new double[] {1})));
+    }
+
+    @Test
+    void exactModeAvoidsBinaryRoundingErrors() {
+        CompiledExpression compiled = engine.compile("0.1 + 0.2");
+
+        assertFalse(compiled.hasExactFastPath());
+        assertEquals(0, new BigDecimal("0.3").compareTo(compiled.evaluateExact(Map.of(), MathContext.DECIMAL128)));
+    }
+
+    @Test
+    void exactModeUsesFastPathForSmallIntegers() {
+        CompiledExpression compiled = engine.compile("(a + 2) * b - 7 % 4");
+
+        assertTrue(compiled.hasExactFastPath());
+        assertEquals(new BigDecimal("47"), compiled.evaluateExact(
+                Map.of("a", new BigDecimal("8"), "b", new BigDecimal("5")), MathContext.DECIMAL128));
+        // a decimal binding falls back to BigDecimal
+        assertEquals(0, new BigDecimal("48.5").compareTo(compiled.evaluateExact(
+                Map.of("a", new BigDecimal("8.3"), "b", new BigDecimal("5")), MathContext.DECIMAL128)));
+    }
+
+    @Test
+    void exactModeFallsBackWhenIntermediateExceedsDoubleRange() {
+        CompiledExpression compiled = engine.compile("a * a * a");
+
+        BigDecimal a = new BigDecimal("9007199254740");
+        assertEquals(a.pow(3), compiled.evaluateExact(Map.of("a", a), new MathContext(100)));
+    }
+
+    @Test
+    void exactModeHonoursPrecisionAndRounding() {
+        CompiledExpression compiled = engine.compile("1 / 3");
+
+        assertEquals(new BigDecimal("0.33333"), compiled.evaluateExact(Map.of(), new MathContext(5, RoundingMode.HALF_EVEN)));
+        assertEquals(new BigDecimal("0.33334"), compiled.evaluateExact(Map.of(), new MathContext(5, RoundingMode.UP)));
+        assertThrows(ExpressionException.class, () -> engine.compile("1 / 0").evaluateExact(Map.of(), MathContext.DECIMAL64));
+        assertThrows(ExpressionException.class, () -> engine.compile("log(2)").evaluateExact(Map.of(), MathContext.DECIMAL64));
+    }
+
+    @Test
+    void exactModeCapsExponents() {
+        assertEquals(0, new BigDecimal("1E+9999").compareTo(
+                engine.compile("10 ^ 9999").evaluateExact(Map.of(), MathContext.DECIMAL128)));
+        assertThrows(ExpressionException.class,
+                () -> engine.compile("10 ^ 10000").evaluateExact(Map.of(), MathContext.DECIMAL128));
+        assertThrows(ExpressionException.class,
+                () -> engine.compile("pow(2, -50000000)").evaluateExact(Map.of(), MathContext.DECIMAL128));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.agentdemo.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ChatWebSocketHandlerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BlockingQueue<JsonNode> frames = new LinkedBlockingQueue<>();
+
+    @LocalServerPort
+    int port;
+
+    private WebSocketSession session;
+
+    @BeforeEach
+    void connect() throws Exception {
+        session = new StandardWebSocketClient().execute(new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+                frames.add(mapper.readTree(message.getPayload()));
+            }
+        }, "ws://localhost:" + port + "/ws/chat").get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void disconnect() throws Exception {
+        session.close();
+    }
+
+    private JsonNode next() throws InterruptedException {
+        JsonNode frame = frames.poll(10, TimeUnit.SECONDS);
+        assertNotNull(frame, "no frame within 10s");
+        return frame;
+    }
+
+    private void send(String json) throws Exception {
+        session.sendMessage(new TextMessage(json));
+    }
+
+    @Test
+    void greetsWithSessionAndSkills() throws Exception {
+        JsonNode hello = next();
+        assertEquals("session", hello.get("type").asText());
+        assertFalse(hello.get("sessionId").asText().isEmpty());
+        assertTrue(hello.get("skills").size() > 0);
+    }
+
+    @Test
+    void pipelinedRequestsAreAllAnswered() throws Exception {
+        next();
+        for (int i = 0; i < 5; i++) {
+            send("{\"id\":\"m" + i + "\",\"goal\":\"calculate " + i + " + 1\"}");
+        }
+
+        Set<String> done = new HashSet<>();
+        List<JsonNode> results = new ArrayList<>();
+        while (done.size() < 5) {
+            JsonNode frame = next();
+            switch (frame.get("type").asText()) {
+                case "result" -> results.add(frame);
+                case "done" -> {
+                    done.add(frame.get("id").asText());
+                    int operand = frame.get("id").asText().charAt(1) - '0';
+                    assertTrue(frame.get("finalOutput").asText().contains(String.valueOf(operand + 1)),
+                            frame.toString());
+                }
+                default -> fail("unexpected frame " + frame);
+            }
+        }
+        assertEquals(Set.of("m0", "m1", "m2", "m3", "m4"), done);
+        assertTrue(results.stream().allMatch(r -> r.get("result").get("success").asBoolean()));
+    }
+
+    @Test
+    void malformedMessagesAndPingsAreAnswered() throws Exception {
+        next();
+        send("not json");
+        JsonNode error = next();
+        assertEquals("error", error.get("type").asText());
+
+        send("{\"id\":\"p\",\"type\":\"ping\"}");
+        JsonNode pong = next();
+        assertEquals("pong", pong.get("type").asText());
+        assertEquals("p", pong.get("id").asText());
+
+        send("{\"id\":\"e\",\"goal\":\"  \"}");
+        assertEquals("error", next().get("type").asText());
+        assertTrue(session.isOpen());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.agentdemo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "mcp.osquery.enabled=false",
+        "admission.rate.per-second=0.001",
+        "admission.rate.burst=6",
+        // the test client stands in for a proxy naming its callers
+        "admission.client-header=X-Client-Id",
+        "admission.trusted-proxies=127.0.0.1,::1"
+})
+class ReactiveAgentControllerTest {
+
+    @Autowired
+    ReactiveWebServerApplicationContext context;
+
+    @Autowired
+    WebTestClient client;
+
+    private WebTestClient.ResponseSpec execute(String client, Map<String, String> body) {
+        return this.client.post().uri("/api/agent/execute")
+                .header("X-Client-Id", client)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+
+    @Test
+    void servesOnNetty() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+        client.get().uri("/api/agent/skills").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.skills").isNotEmpty();
+    }
+
+    @Test
+    void executesBlockingAndReactiveSkills() {
+        JsonNode calc = execute("calc", Map.of("goal", "calculate 2 + 3 * 4")).expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertTrue(calc.get("finalOutput").asText().contains("14"), calc.toString());
+
+        JsonNode weather = execute("weather", Map.of("goal", "weather in Paris", "newSession", "true"))
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertEquals("WeatherSkill", weather.at("/trace/0/skillName").asText());
+        String sessionId = weather.get("sessionId").asText();
+        assertEquals(32, sessionId.length());
+
+        client.get().uri("/api/agent/sessions/" + sessionId).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.turns[0].goal").isEqualTo("weather in Paris");
+    }
+
+    @Test
+    void onlyServerIssuedSessionsAreAccepted() {
+        execute("sessions", Map.of("goal", "calculate 1 + 1", "sessionId", "reactive-1"))
+                .expectStatus().isNotFound();
+        client.get().uri("/api/agent/sessions/reactive-1").exchange().expectStatus().isNotFound();
+        client.delete().uri("/api/agent/sessions/reactive-1").exchange().expectStatus().isNotFound();
+
+        String sessionId = execute("sessions", Map.of("goal", "calculate 1 + 1", "newSession", "true"))
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody().get("sessionId").asText();
+        execute("sessions", Map.of("goal", "calculate 2 + 2", "sessionId", sessionId)).expectStatus().isOk();
+        client.delete().uri("/api/agent/sessions/" + sessionId).exchange().expectStatus().isNoContent();
+        execute("sessions", Map.of("goal", "calculate 3 + 3", "sessionId", sessionId)).expectStatus().isNotFound();
+    }
+
+    @Test
+    void rejectsBadPriorityAndShedsOverRate() {
+        client.post().uri("/api/agent/execute")
+                .header("X-Client-Id", "priority")
+                .header("X-Priority", "urgent")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("goal", "calculate 1 + 1"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        for (int i = 0; i < 6; i++) {
+            execute("greedy", Map.of("goal", "calculate 1 + 1")).expectStatus().isOk();
+        }
+        execute("greedy", Map.of("goal", "calculate 1 + 1"))
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists("Retry-After");
+    }
+}
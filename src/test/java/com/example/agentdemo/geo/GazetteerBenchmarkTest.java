@@ -0,0 +1,111 @@
+package com.example.agentdemo.geo;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Build time, off-heap size and lookup latency of a gazetteer the size of a full GeoNames
+ * cities dump (synthetic names). Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class GazetteerBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(GazetteerBenchmarkTest.class);
+
+    private static final int PLACES = 300_000;
+    private static final int QUERIES = 100_000;
+    private static final int HOT_PLACES = 2_000;
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mar", "ten", "ri", "sa", "bur", "ville", "do", "ne", "ber", "gen", "ton", "ham",
+            "stad", "an", "el", "os", "ia", "port", "field", "mont", "ro", "sk", "ov", "ing", "es", "ta",
+            "vi", "chi", "gu", "pe", "ly", "ya", "zu", "fa", "wen", "hu", "qi", "xo", "jo", "kro", "mi", "dal"};
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int words = random.nextInt(6) == 0 ? 2 : 1; words > 0; words--) {
+            if (!name.isEmpty()) {
+                name.append(' ');
+            }
+            int syllables = 2 + random.nextInt(4);
+            for (int s = 0; s < syllables; s++) {
+                String syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+                name.append(s == 0 ? Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1) : syllable);
+            }
+        }
+        return name.toString();
+    }
+
+    @Test
+    void lookupLatencyAndSize() {
+        Random random = new Random(3);
+        long start = System.nanoTime();
+        Gazetteer.Builder builder = Gazetteer.builder().addCountry("XX", "Testland", List.of("XXX"));
+        for (int r = 0; r < 50; r++) {
+            builder.addRegion("XX", "R" + r, "Region " + r);
+        }
+        Set<String> distinct = new HashSet<>();
+        List<String> names = new ArrayList<>(PLACES);
+        while (names.size() < PLACES) {
+            String name = randomName(random);
+            if (!distinct.add(name)) {
+                continue;
+            }
+            names.add(name);
+            builder.addPlace(name, List.of(name + " city"), random.nextDouble() * 180 - 90,
+                    random.nextDouble() * 360 - 180, "XX", "R" + random.nextInt(50), random.nextInt(1_000_000),
+                    "Europe/Paris");
+        }
+        Gazetteer gazetteer = builder.build();
+        log.info("{} built in {} ms, {} bytes/place", gazetteer, (System.nanoTime() - start) / 1_000_000,
+                gazetteer.sizeInBytes() / PLACES);
+
+        // uniform queries touch cold memory all over the structure; real traffic is skewed
+        // towards a few thousand well-known places whose records and trie paths stay cached
+        List<String> uniform = new ArrayList<>(QUERIES);
+        List<String> popular = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            uniform.add(names.get(random.nextInt(PLACES)));
+            popular.add(names.get(random.nextInt(HOT_PLACES)));
+        }
+        measure(gazetteer, "uniform", uniform);
+        measure(gazetteer, "popular", popular);
+
+        for (String name : uniform.subList(0, 1000)) {
+            assertTrue(gazetteer.lookup(name).stream().anyMatch(place -> place.getName().equals(name)), name);
+        }
+    }
+
+    private static void measure(Gazetteer gazetteer, String workload, List<String> names) {
+        List<String> goals = names.stream().map(name -> "what's the weather like in " + name + " tomorrow?").toList();
+        long found = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < names.size(); i++) {
+                found += gazetteer.lookup(names.get(i)).size();
+                found += gazetteer.find(goals.get(i)) == null ? 0 : 1;
+            }
+        }
+        long start = System.nanoTime();
+        for (String name : names) {
+            found += gazetteer.lookup(name).size();
+        }
+        double lookupNs = (System.nanoTime() - start) / (double) names.size();
+        start = System.nanoTime();
+        for (String goal : goals) {
+            assertNotNull(gazetteer.find(goal), goal);
+        }
+        double findNs = (System.nanoTime() - start) / (double) names.size();
+        log.info("{} names: lookup {} ns/name, find in goal {} ns/goal", workload, String.format("%.0f", lookupNs),
+                String.format("%.0f", findNs));
+        log.debug("found={}", found);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.agentdemo.geo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerTest {
+
+    private static Gazetteer gazetteer;
+
+    @BeforeAll
+    static void loadBundled() throws IOException {
+        GazetteerService service = new GazetteerService("");
+        service.init();
+        gazetteer = service.gazetteer();
+    }
+
+    private static Place find(String text) {
+        PlaceMatch match = gazetteer.find(text);
+        return match == null ? null : match.getPlace();
+    }
+
+    @Test
+    void trieReturnsValuesOfExactKeysOnly() {
+        Random random = new Random(5);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int c = 1 + random.nextInt(12); c > 0; c--) {
+                key.append(random.nextInt(10) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+            }
+            expected.put(key.toString(), i);
+        }
+        DoubleArrayTrie trie = DoubleArrayTrie.build(new ArrayList<>(expected.keySet()),
+                expected.values().stream().mapToInt(Integer::intValue).toArray());
+
+        expected.forEach((key, value) -> assertEquals(value, trie.get(key), key));
+        assertEquals(DoubleArrayTrie.NONE, trie.get("not-a-key"));
+        assertEquals(DoubleArrayTrie.NONE, trie.get("zzzzzzzzzzzzzzzz"));
+        assertThrows(IllegalArgumentException.class, () -> DoubleArrayTrie.build(List.of("b", "a"), new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> DoubleArrayTrie.build(List.of("a", "a"), new int[2]));
+    }
+
+    @Test
+    void foldsAccentsCaseAndPunctuation() {
+        assertEquals("sao paulo", Gazetteer.fold("São Paulo"));
+        assertEquals("lodz", Gazetteer.fold("Łódź"));
+        assertEquals("zurich", Gazetteer.fold("  ZÜRICH! "));
+        assertEquals("st louis", Gazetteer.fold("St. Louis"));
+        assertEquals("dusseldorf", Gazetteer.fold("Düsseldorf"));
+    }
+
+    @Test
+    void lookupFindsNamesAndAliasesMostPopulousFirst() {
+        assertEquals("Kyiv", gazetteer.lookup("kiev").get(0).getName());
+        assertEquals("Mumbai", gazetteer.lookup("BOMBAY").get(0).getName());
+        List<Place> paris = gazetteer.lookup("Paris");
+        assertEquals(List.of("FR", "US", "US"), paris.stream().map(Place::getCountryCode).toList());
+        assertEquals("Europe/Paris", paris.get(0).getTimezone());
+        assertEquals(48.85, paris.get(0).getLatitude(), 0.01);
+        assertEquals(List.of(), gazetteer.lookup("Atlantis"));
+    }
+
+    @Test
+    void findsLongestNameAnywhereInTheGoal() {
+        assertEquals("New York City", find("what's the weather like in new york today?").getName());
+        assertEquals("São Paulo", find("weather Sao Paulo").getName());
+        assertEquals("Ho Chi Minh City", find("forecast for Saigon").getName());
+        assertEquals("Tokyo", find("get weather for Tokyo").getName());
+        assertEquals("Seattle", find("Seattle weather").getName());
+
+        PlaceMatch match = gazetteer.find("weather in Rio de Janeiro please");
+        assertEquals("Rio de Janeiro", match.getText());
+        assertEquals(11, match.getStart());
+    }
+
+    @Test
+    void ignoresWordsThatOnlyLookLikePlaces() {
+        assertNull(find("weather at noon"));
+        assertNull(find("what is the forecast"));
+        assertNull(find("nice weather tomorrow"));
+        assertEquals("Nice", find("weather in Nice tomorrow").getName());
+        assertEquals("Reading", find("weather in reading").getName());
+    }
+
+    @Test
+    void followingRegionOrCountryDisambiguates() {
+        Place texas = find("weather in Paris, Texas");
+        assertEquals("Texas", texas.getRegionName());
+        assertEquals("America/Chicago", texas.getTimezone());
+        assertEquals("Paris, Texas, United States", texas.getDisplayName());
+        assertEquals("Paris, Texas", gazetteer.find("weather in Paris, Texas").getText());
+
+        assertEquals("Maine", find("forecast for Portland ME").getRegionName());
+        assertEquals("Oregon", find("forecast for Portland").getRegionName());
+        assertEquals("CA", find("weather in London, Ontario").getCountryCode());
+        assertEquals("GB", find("weather in London").getCountryCode());
+        assertEquals("Missouri", find("Springfield, Missouri weather").getRegionName());
+        assertEquals("Georgia", find("weather in Athens, Georgia").getRegionName());
+        assertEquals("GR", find("weather in Athens, Greece").getCountryCode());
+        assertEquals("AR", find("temperature in Córdoba, Argentina").getCountryCode());
+        // lower-case letters are not taken as a code: "me" stays part of the sentence
+        assertEquals("Oregon", find("weather in Portland me thinks").getRegionName());
+    }
+
+    @Test
+    void builderKeepsColumnsOffHeap() {
+        Gazetteer small = Gazetteer.builder()
+                .addCountry("FR", "France", List.of("FRA"))
+                .addPlace("Lyon", List.of("Lyons"), 45.75, 4.85, "FR", "84", 472317, "Europe/Paris")
+                .build();
+        assertEquals(1, small.placeCount());
+        assertEquals(2, small.nameCount());
+        assertTrue(small.sizeInBytes() > 0);
+        assertEquals("Lyon, France", small.find("weather in Lyons").getPlace().getDisplayName());
+        assertEquals("45.75°N, 4.85°E", small.lookup("lyon").get(0).getCoordinates());
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.agentdemo.mcp.client;
+
+import com.example.agentdemo.mcp.model.MCPToolCall;
+import com.example.agentdemo.mcp.model.MCPToolResult;
+import com.example.agentdemo.model.PhaseTimings;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MCPClientServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MCPClientService client;
+
+    @BeforeEach
+    void connect() throws IOException {
+        client = new MCPClientService(new ObjectMapper(), registry);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        client.connectServer("fake", java,
+                List.of("-cp", System.getProperty("java.class.path"), FakeServer.class.getName()), 1);
+    }
+
+    @AfterEach
+    void disconnect() {
+        client.shutdown();
+    }
+
+    private static MCPToolCall echo(String sql) {
+        return MCPToolCall.builder().name("query_osquery").arguments(Map.of("sql", sql)).build();
+    }
+
+    private static String text(MCPToolResult result) {
+        return result.getContent().get(0).getText();
+    }
+
+    @Test
+    void responsesAreMatchedToRequestsById() throws Exception {
+        // one process serves both calls; the fast one is answered first
+        CompletableFuture<MCPToolResult> slow = client.callToolAsync("fake", echo("sleep:400"));
+        CompletableFuture<MCPToolResult> fast = client.callToolAsync("fake", echo("hello"));
+
+        assertEquals("hello", text(fast.get(5, TimeUnit.SECONDS)));
+        assertFalse(slow.isDone(), "slow call should still be pending");
+        assertEquals("sleep:400", text(slow.get(5, TimeUnit.SECONDS)));
+        assertEquals("hello", text(client.callTool("fake", echo("hello"))));
+    }
+
+    @Test
+    void slowContinuationsDoNotHoldUpTheReader() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        // the first result's continuation waits for the second response, which the
+        // same process's reader has to deliver meanwhile
+        CompletableFuture<Boolean> first = client.callToolAsync("fake", echo("first")).thenApply(result -> {
+            thread.set(Thread.currentThread().getName());
+            firstStarted.countDown();
+            try {
+                return secondDone.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        client.callToolAsync("fake", echo("second")).thenRun(secondDone::countDown);
+
+        assertTrue(first.get(10, TimeUnit.SECONDS), "second response was not read while the first was processed");
+        assertTrue(thread.get().startsWith("mcp-complete-"), thread.get());
+    }
+
+    @Test
+    void parallelCallsShareOneDeadline() {
+        Map<String, MCPToolCall> calls = new LinkedHashMap<>();
+        calls.put("slow", echo("sleep:5000"));
+        calls.put("fast", echo("fast"));
+
+        long start = System.nanoTime();
+        Map<String, MCPToolResult> results = client.callToolsInParallel("fake", calls, Duration.ofMillis(300));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of("slow", "fast"), List.copyOf(results.keySet()));
+        assertTrue(results.get("slow").isError());
+        assertTrue(text(results.get("slow")).contains("Timed out"));
+        assertEquals("fast", text(results.get("fast")));
+        assertTrue(elapsedMs < 3000, "waited " + elapsedMs + "ms");
+    }
+
+    @Test
+    void recordsRoundTripsPendingIdsAndPayloadSizes() throws Exception {
+        CompletableFuture<MCPToolResult> slow = client.callToolAsync("fake", echo("sleep:300"));
+        assertEquals(1, registry.get("mcp.client.pending").tag("server", "fake").gauge().value());
+        slow.get(5, TimeUnit.SECONDS);
+        assertEquals(0, registry.get("mcp.client.pending").tag("server", "fake").gauge().value());
+
+        Timer calls = registry.get("mcp.client.requests")
+                .tags("server", "fake", "method", "tools/call", "outcome", "success").timer();
+        assertEquals(1, calls.count());
+        assertTrue(calls.totalTime(TimeUnit.MILLISECONDS) >= 250);
+        assertEquals(1, registry.get("mcp.client.requests").tag("method", "initialize").timer().count());
+        assertTrue(registry.get("mcp.client.request.size").tag("method", "tools/call").summary().totalAmount() > 0);
+        assertTrue(registry.get("mcp.client.response.size").tag("method", "tools/call").summary().totalAmount() > 0);
+
+        client.callToolsInParallel("fake", Map.of("slow", echo("sleep:5000")), Duration.ofMillis(100));
+        // the request is released right after the timed out result is handed back
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        Timer timeouts;
+        while (((timeouts = registry.find("mcp.client.requests").tag("outcome", "timeout").timer()) == null
+                || timeouts.count() == 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, registry.get("mcp.client.requests").tag("outcome", "timeout").timer().count());
+        assertEquals(0, registry.get("mcp.client.pending").tag("server", "fake").gauge().value(),
+                "timed out requests must not stay pending");
+    }
+
+    @Test
+    void addsPhasesToTheCallersTimings() throws Exception {
+        PhaseTimings timings = new PhaseTimings();
+        CompletableFuture<MCPToolResult> first = PhaseTimings.recording(timings,
+                () -> client.callToolAsync("fake", echo("sleep:200")));
+        CompletableFuture<MCPToolResult> second = PhaseTimings.recording(timings,
+                () -> client.callToolAsync("fake", echo("hello")));
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, timings.getMcpCalls());
+        assertTrue(timings.getMcpSerializeNanos() > 0);
+        assertTrue(timings.getMcpDeserializeNanos() > 0);
+        assertTrue(timings.getMcpRoundTripNanos() >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertNull(PhaseTimings.current());
+    }
+
+    @Test
+    void requestsTimeOutWhenTheServerStopsAnswering() throws Exception {
+        MCPClientService impatient = new MCPClientService(new ObjectMapper(), registry, 300, 10_000);
+        try {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            impatient.connectServer("silent", java,
+                    List.of("-cp", System.getProperty("java.class.path"), FakeServer.class.getName()), 1);
+
+            IOException e = assertThrows(IOException.class, () -> impatient.callTool("silent", echo("hang")));
+            assertTrue(e.getMessage().contains("Timed out"), e.getMessage());
+            CompletableFuture<MCPToolResult> async = impatient.callToolAsync("silent", echo("hang"));
+            ExecutionException failed = assertThrows(ExecutionException.class, () -> async.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(java.util.concurrent.TimeoutException.class, failed.getCause());
+
+            assertEquals(2, registry.get("mcp.client.requests").tags("server", "silent", "outcome", "timeout")
+                    .timer().count());
+            assertEquals(0, registry.get("mcp.client.pending").tag("server", "silent").gauge().value());
+            assertEquals("ok", text(impatient.callTool("silent", echo("ok"))), "the connection stays usable");
+
+            long start = System.nanoTime();
+            assertThrows(IOException.class, () -> impatient.connectServer("mute", java,
+                    List.of("-cp", System.getProperty("java.class.path"), FakeServer.class.getName(), "hang-initialize"), 1));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(15), "handshake wait is bounded");
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void pendingCallsFailWhenServerExits() {
+        CompletableFuture<MCPToolResult> pending = client.callToolAsync("fake", echo("sleep:5000"));
+        client.callToolAsync("fake", echo("exit"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> pending.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertThrows(IOException.class, () -> client.callTool("fake", echo("hello")));
+    }
+
+    @Test
+    void restartsProcessesThatExitAndRecordsFlightEvents() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path file = Files.createTempFile("mcp", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.agentdemo.McpRequestSent").withThreshold(Duration.ZERO);
+            recording.enable("com.example.agentdemo.McpResponseReceived").withThreshold(Duration.ZERO);
+            recording.enable("com.example.agentdemo.McpProcessRestart");
+            recording.start();
+
+            client.connectServer("restarting", java,
+                    List.of("-cp", System.getProperty("java.class.path"), FakeServer.class.getName()), 1, true);
+            assertEquals("hello", text(client.callTool("restarting", echo("hello"))));
+            client.callToolAsync("restarting", echo("exit"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            MCPToolResult result = null;
+            while (result == null && System.nanoTime() < deadline) {
+                try {
+                    result = client.callTool("restarting", echo("again"));
+                } catch (IOException e) {
+                    Thread.sleep(50);
+                }
+            }
+            assertNotNull(result, "process was not restarted");
+            assertEquals("again", text(result));
+            assertEquals(1, registry.get("mcp.client.restarts").tag("server", "restarting").counter().count());
+
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.example.agentdemo.")
+                        && "restarting".equals(e.getString("server")))
+                .toList();
+        Files.delete(file);
+
+        RecordedEvent restart = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.agentdemo.McpProcessRestart"))
+                .findFirst().orElseThrow();
+        assertNotEquals(restart.getLong("exitedPid"), restart.getLong("pid"));
+        assertEquals(0, restart.getInt("exitCode"));
+        RecordedEvent sent = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.agentdemo.McpRequestSent")
+                        && "tools/call".equals(e.getString("method")))
+                .findFirst().orElseThrow();
+        RecordedEvent received = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.agentdemo.McpResponseReceived")
+                        && sent.getString("requestId").equals(e.getString("requestId")))
+                .findFirst().orElseThrow();
+        assertEquals("success", received.getString("outcome"));
+        assertTrue(sent.getLong("bytes") > 0 && received.getLong("bytes") > 0);
+    }
+
+    /**
+     * Minimal MCP server on stdio: tool calls echo their {@code sql} argument, after the
+     * given delay for {@code sleep:<ms>}, answering each from its own thread so replies can
+     * overtake each other; {@code exit} ends the process and {@code hang} is never answered.
+     * Started with {@code hang-initialize}, it never completes the handshake either.
+     */
+    public static class FakeServer {
+        public static void main(String[] args) throws Exception {
+            boolean hangInitialize = List.of(args).contains("hang-initialize");
+            ObjectMapper mapper = new ObjectMapper();
+            PrintStream out = new PrintStream(System.out, true, "UTF-8");
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while ((line = in.readLine()) != null) {
+                JsonNode request = mapper.readTree(line);
+                String id = request.get("id").asText();
+                String method = request.get("method").asText();
+                if ("initialize".equals(method) && hangInitialize) {
+                    continue;
+                }
+                if (!"tools/call".equals(method)) {
+                    Object result = "tools/list".equals(method)
+                            ? Map.of("tools", List.of(Map.of("name", "query_osquery", "description", "echo",
+                                    "inputSchema", Map.of())))
+                            : Map.of();
+                    reply(out, mapper, id, result);
+                    continue;
+                }
+                String sql = request.path("params").path("arguments").path("sql").asText();
+                if ("exit".equals(sql)) {
+                    System.exit(0);
+                }
+                if ("hang".equals(sql)) {
+                    continue;
+                }
+                long delay = sql.startsWith("sleep:") ? Long.parseLong(sql.substring(6)) : 0;
+                Thread.ofPlatform().start(() -> {
+                    try {
+                        Thread.sleep(delay);
+                        reply(out, mapper, id, Map.of("content", List.of(Map.of("type", "text", "text", sql))));
+                    } catch (Exception e) {
+                        // process is going away
+                    }
+                });
+            }
+        }
+
+        private static void reply(PrintStream out, ObjectMapper mapper, String id, Object result) throws IOException {
+            String json = mapper.writeValueAsString(Map.of("jsonrpc", "2.0", "id", id, "result", result));
+            synchronized (out) {
+                out.println(json);
+            }
+        }
+    }
+}
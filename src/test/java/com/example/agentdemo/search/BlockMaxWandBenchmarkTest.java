@@ -0,0 +1,71 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares block-max WAND with exhaustive BM25 scoring on a synthetic corpus at two sizes.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BlockMaxWandBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockMaxWandBenchmarkTest.class);
+
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 500;
+    private static final int K = 10;
+
+    @Test
+    void pruningBeatsExhaustiveScoring() {
+        Random random = new Random(7);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(BlockMaxWandTest.randomText(random, VOCABULARY, 2 + random.nextInt(4)));
+        }
+
+        for (int docs : new int[]{50_000, 200_000}) {
+            IndexBuilder builder = new IndexBuilder();
+            for (int i = 0; i < docs; i++) {
+                builder.add(new StoredDocument("doc" + i, "", ""),
+                        BlockMaxWandTest.randomText(random, VOCABULARY, 20 + random.nextInt(200)));
+            }
+            IndexSearcher searcher = new IndexSearcher(builder.build());
+
+            double exhaustiveUs = measure(searcher, queries, false);
+            double wandUs = measure(searcher, queries, true);
+            log.info("{} docs: exhaustive {} us/query, block-max WAND {} us/query", docs,
+                    String.format("%.1f", exhaustiveUs), String.format("%.1f", wandUs));
+
+            for (String query : queries.subList(0, 50)) {
+                assertEquals(searcher.searchExhaustive(query, K).stream().map(SearchHit::getPath).toList(),
+                        searcher.search(query, K).stream().map(SearchHit::getPath).toList());
+            }
+            assertTrue(wandUs < exhaustiveUs, "Block-max WAND should beat exhaustive scoring");
+        }
+    }
+
+    private static double measure(IndexSearcher searcher, List<String> queries, boolean prune) {
+        long hits = 0;
+        for (int round = 0; round < 3; round++) {
+            for (String query : queries) {
+                hits += (prune ? searcher.search(query, K) : searcher.searchExhaustive(query, K)).size();
+            }
+        }
+        long start = System.nanoTime();
+        for (String query : queries) {
+            hits += (prune ? searcher.search(query, K) : searcher.searchExhaustive(query, K)).size();
+        }
+        double usPerQuery = (System.nanoTime() - start) / 1000.0 / queries.size();
+        log.debug("hits={}", hits);
+        return usPerQuery;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockMaxWandTest {
+
+    /**
+     * Synthetic corpus with a Zipf-like vocabulary, so that queries mix frequent and rare terms
+     */
+    static String randomText(Random random, int vocabulary, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // inverse-power sampling: low term ids are far more common
+            int term = (int) Math.floor(Math.pow(vocabulary, random.nextDouble())) - 1;
+            text.append('t').append(term).append(' ');
+        }
+        return text.toString();
+    }
+
+    @Test
+    void skipsBlocksWithinPostings() {
+        IndexBuilder builder = new IndexBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new StoredDocument("d" + i, "d" + i, ""), i % 3 == 0 ? "common rare" : "common");
+        }
+        InvertedIndex index = builder.build();
+
+        PostingsIterator common = index.postings("common");
+        assertEquals(1000, common.docFreq());
+        assertEquals(PostingsWriter.BLOCK_SIZE - 1, common.advanceShallow(0));
+        assertEquals(3 * PostingsWriter.BLOCK_SIZE - 1, common.advanceShallow(300));
+        assertEquals(-1, common.docId());
+        assertEquals(300, common.advance(300));
+        assertEquals(301, common.nextDoc());
+        assertEquals(999, common.advance(999));
+        assertEquals(PostingsIterator.NO_MORE_DOCS, common.nextDoc());
+
+        PostingsIterator rare = index.postings("rare");
+        assertEquals(1, rare.maxFreq());
+        assertEquals(2, rare.minDocLength());
+        assertEquals(303, rare.advance(301));
+        assertEquals(PostingsIterator.NO_MORE_DOCS, rare.advance(1000));
+    }
+
+    @Test
+    void returnsSameHitsAsExhaustiveScoring() throws IOException {
+        Random random = new Random(42);
+        try (IndexWriter writer = new IndexWriter(null, Path.of("corpus"), List.of(), new TieredMergePolicy(100, 100))) {
+            for (int batch = 0; batch < 4; batch++) {
+                for (int i = 0; i < 1500; i++) {
+                    writer.update(new StoredDocument("doc" + batch + "-" + i, "", ""),
+                            randomText(random, 2000, 5 + random.nextInt(60)));
+                }
+                for (int i = 0; i < 100; i++) {
+                    writer.delete("doc" + random.nextInt(batch + 1) + "-" + random.nextInt(1500));
+                }
+                writer.refresh();
+            }
+            IndexSearcher searcher = new IndexSearcher(writer.snapshot());
+            assertEquals(4, writer.snapshot().getSegments().size());
+
+            for (int q = 0; q < 300; q++) {
+                String query = randomText(random, 2000, 1 + random.nextInt(5));
+                int k = 1 + random.nextInt(20);
+                List<SearchHit> expected = searcher.searchExhaustive(query, k);
+                List<SearchHit> actual = searcher.search(query, k);
+                assertEquals(expected.size(), actual.size(), query);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getPath(), actual.get(i).getPath(), query);
+                    assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), query);
+                }
+            }
+        }
+    }
+}
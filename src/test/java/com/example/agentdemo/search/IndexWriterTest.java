@@ -0,0 +1,157 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private static StoredDocument doc(String path, long lastModified) {
+        return new StoredDocument(path, path, "", lastModified);
+    }
+
+    private static List<String> paths(IndexSnapshot snapshot, String query) {
+        return new IndexSearcher(snapshot).search(query, 100).stream().map(SearchHit::getPath).toList();
+    }
+
+    private static void awaitSegments(IndexWriter writer, int expected) throws InterruptedException {
+        for (int i = 0; i < 200 && writer.segmentCount() != expected; i++) {
+            Thread.sleep(25);
+        }
+        assertEquals(expected, writer.segmentCount());
+    }
+
+    @Test
+    void updatesAndDeletesBecomeVisibleOnRefreshWithoutChangingOpenSnapshots() throws IOException {
+        try (IndexWriter writer = new IndexWriter(null, dir, List.of(), new TieredMergePolicy(10, 100))) {
+            writer.update(doc("a.md", 1), "disk full on database");
+            writer.update(doc("b.md", 1), "cpu spike");
+            writer.refresh();
+            IndexSnapshot before = writer.snapshot();
+            assertEquals(List.of("a.md"), paths(before, "disk"));
+
+            writer.update(doc("a.md", 2), "certificate expired");
+            writer.update(doc("c.md", 1), "disk latency");
+            writer.delete("b.md");
+            // not visible until refresh
+            assertEquals(List.of("a.md"), paths(writer.snapshot(), "disk"));
+
+            writer.refresh();
+            IndexSnapshot after = writer.snapshot();
+            assertEquals(List.of("c.md"), paths(after, "disk"));
+            assertEquals(List.of("a.md"), paths(after, "certificate"));
+            assertTrue(paths(after, "cpu").isEmpty());
+            assertEquals(2, after.liveDocCount());
+
+            // the earlier point-in-time view is unaffected
+            assertEquals(List.of("a.md"), paths(before, "disk"));
+            assertEquals(List.of("b.md"), paths(before, "cpu"));
+            assertEquals(Map.of("a.md", 2L, "c.md", 1L), writer.indexedVersions());
+        }
+    }
+
+    @Test
+    void backgroundMergeCollapsesSegmentsAndDropsDeletedDocuments() throws Exception {
+        IndexStore store = new IndexStore(dir.resolve("store"));
+        try (IndexWriter writer = new IndexWriter(store, dir, List.of(), new TieredMergePolicy(3, 100))) {
+            for (int i = 0; i < 3; i++) {
+                writer.update(doc("doc" + i + ".md", 1), "runbook number " + i + " restart service");
+                writer.flush();
+            }
+            awaitSegments(writer, 1);
+            assertEquals(3, writer.snapshot().liveDocCount());
+
+            writer.delete("doc1.md");
+            writer.refresh();
+            assertEquals(List.of("doc0.md", "doc2.md"),
+                    paths(writer.snapshot(), "restart").stream().sorted().toList());
+        }
+        List<MappedInvertedIndex> committed = store.open(dir);
+        assertEquals(1, committed.size());
+    }
+
+    @Test
+    void recoverKeepsNewestVersionWhenTombstonesWereLost() throws IOException {
+        IndexStore store = new IndexStore(dir.resolve("store"));
+        try (IndexWriter writer = new IndexWriter(store, dir, List.of(), new TieredMergePolicy(10, 100))) {
+            writer.update(doc("a.md", 1), "old text");
+            writer.update(doc("b.md", 1), "other text");
+            writer.update(doc("c.md", 1), "other text");
+            writer.flush();
+            writer.update(doc("a.md", 2), "new text");
+            writer.flush();
+        }
+        // simulate a restart: the tombstone for the first version only existed in memory
+        IndexWriter reopened = new IndexWriter(store, dir, store.open(dir), new TieredMergePolicy(10, 100));
+        assertEquals(4, reopened.snapshot().liveDocCount());
+        reopened.recover();
+        assertEquals(3, reopened.snapshot().liveDocCount());
+        assertEquals(List.of("a.md"), paths(reopened.snapshot(), "new"));
+        assertTrue(paths(reopened.snapshot(), "old").isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void indexerReconcilesCorpusChanges() throws IOException {
+        Path corpus = Files.createDirectories(dir.resolve("corpus"));
+        Files.writeString(corpus.resolve("disk.md"), "# Disk\n\nDisk full runbook\n");
+        Files.writeString(corpus.resolve("cpu.md"), "# CPU\n\nCPU spike runbook\n");
+        try (IndexWriter writer = new IndexWriter(null, corpus, List.of(), new TieredMergePolicy(10, 100))) {
+            CorpusIndexer indexer = new CorpusIndexer(corpus, writer);
+            indexer.reconcile();
+            assertEquals(2, writer.snapshot().liveDocCount());
+
+            Files.delete(corpus.resolve("cpu.md"));
+            Files.createDirectories(corpus.resolve("incidents"));
+            Files.writeString(corpus.resolve("incidents/tls.md"), "# TLS\n\nCertificate expired\n");
+            indexer.reconcile();
+            assertEquals(List.of("incidents/tls.md"), paths(writer.snapshot(), "certificate"));
+            assertTrue(paths(writer.snapshot(), "cpu").isEmpty());
+
+            Files.walk(corpus.resolve("incidents")).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+            indexer.apply(List.of(Path.of("incidents")));
+            assertTrue(paths(writer.snapshot(), "certificate").isEmpty());
+            assertEquals(1, writer.snapshot().liveDocCount());
+        }
+    }
+
+    @Test
+    void watcherPicksUpNewFiles() throws Exception {
+        Path corpus = Files.createDirectories(dir.resolve("corpus"));
+        try (IndexWriter writer = new IndexWriter(null, corpus, List.of(), new TieredMergePolicy(10, 100));
+             DirectoryWatcher watcher = new DirectoryWatcher(corpus, new CorpusIndexer(corpus, writer), 50)) {
+            watcher.start();
+            Files.writeString(corpus.resolve("new.md"), "# New\n\nFreshly written runbook\n");
+            for (int i = 0; i < 200 && writer.snapshot().liveDocCount() == 0; i++) {
+                Thread.sleep(25);
+            }
+            assertEquals(List.of("new.md"), paths(writer.snapshot(), "freshly"));
+        }
+    }
+
+    @Test
+    void tieredPolicyMergesFullTiersOnly() {
+        TieredMergePolicy policy = new TieredMergePolicy(3, 10);
+        IndexBuilder small = new IndexBuilder();
+        small.add(doc("x", 0), "x");
+        Segment tiny = new Segment("a", small.build(), new long[1], 0);
+        assertTrue(policy.findMerge(List.of(tiny, tiny)).isEmpty());
+        assertEquals(3, policy.findMerge(List.of(tiny, tiny, tiny)).size());
+        assertEquals(0, policy.tier(9));
+        assertEquals(1, policy.tier(10));
+        assertEquals(2, policy.tier(30));
+
+        Segment mostlyDeleted = new Segment("d", small.build(), new long[]{1L}, 1);
+        assertEquals(List.of(mostlyDeleted), policy.findMerge(List.of(tiny, mostlyDeleted)));
+    }
+}
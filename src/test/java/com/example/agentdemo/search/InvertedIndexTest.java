@@ -0,0 +1,88 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void postingsRoundTripThroughVarIntEncoding() {
+        IndexBuilder builder = new IndexBuilder();
+        for (int i = 0; i < 1000; i++) {
+            String text = i % 7 == 0 ? "disk disk disk full" : "cpu spike";
+            builder.add(new StoredDocument("doc" + i, "Doc " + i, ""), text);
+        }
+        InvertedIndex index = builder.build();
+
+        PostingsIterator disk = index.postings("disk");
+        assertEquals(143, disk.docFreq());
+        int expected = 0;
+        for (int doc = disk.nextDoc(); doc != PostingsIterator.NO_MORE_DOCS; doc = disk.nextDoc()) {
+            assertEquals(expected, doc);
+            assertEquals(3, disk.freq());
+            expected += 7;
+        }
+        assertEquals(1001, expected);
+
+        PostingsIterator cpu = index.postings("cpu");
+        assertEquals(500, cpu.advance(500));
+        assertEquals(505, cpu.advance(504));
+        assertNull(index.postings("memory"));
+        assertEquals(0, index.docFreq("the"));
+    }
+
+    @Test
+    void ranksDocumentsFromDirectoryWithBm25() throws IOException {
+        Files.writeString(dir.resolve("disk-full.md"),
+                "# Disk full on database host\n\nFree space by rotating logs, then check disk usage again.\n");
+        Files.writeString(dir.resolve("cpu.md"),
+                "# High CPU\n\nFind the process with top and check whether the disk is involved.\n");
+        Files.createDirectories(dir.resolve("incidents"));
+        Files.writeString(dir.resolve("incidents/2024-03-01.txt"),
+                "Outage: certificate expired on the load balancer.\n");
+        Files.writeString(dir.resolve("image.png"), "not indexed");
+
+        IndexBuilder builder = new IndexBuilder();
+        assertEquals(3, CorpusLoader.load(dir, builder));
+        IndexSearcher searcher = new IndexSearcher(builder.build());
+
+        List<SearchHit> hits = searcher.search("disk full", 10);
+        assertEquals(2, hits.size());
+        assertEquals("disk-full.md", hits.get(0).getPath());
+        assertEquals("Disk full on database host", hits.get(0).getTitle());
+        assertTrue(hits.get(0).getSnippet().startsWith("Free space"));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+        List<SearchHit> incident = searcher.search("CERTIFICATE expired", 10);
+        assertEquals(1, incident.size());
+        assertEquals("2024-03-01.txt", incident.get(0).getTitle());
+
+        assertTrue(searcher.search("kubernetes", 10).isEmpty());
+    }
+
+    @Test
+    void topKCollectorKeepsBestScoresInOrder() {
+        TopKCollector collector = new TopKCollector(3);
+        float[] scores = {0.5f, 2.0f, 1.0f, 3.0f, 0.1f, 2.0f};
+        for (int doc = 0; doc < scores.length; doc++) {
+            collector.offer(doc, scores[doc]);
+        }
+        assertEquals(2.0f, collector.threshold());
+
+        TopKCollector.ScoredDoc[] top = collector.drain();
+        assertEquals(3, top.length);
+        assertEquals(3, top[0].doc());
+        assertEquals(1, top[1].doc());
+        assertEquals(5, top[2].doc());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedInvertedIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static InvertedIndex sampleIndex() {
+        IndexBuilder builder = new IndexBuilder();
+        builder.add(new StoredDocument("runbooks/disk.md", "Disk full", "Rotate logs", 1234L), "disk full rotate logs disk");
+        builder.add(new StoredDocument("runbooks/cpu.md", "High CPU", "Check top"), "cpu spike check top process");
+        builder.add(new StoredDocument("notes/zürich.txt", "Zürich outage", "Größe überschritten"),
+                "zürich outage größe überschritten disk");
+        builder.add(new StoredDocument("notes/tokyo.txt", "東京", "ディスク"), "東京 ディスク full");
+        return builder.build();
+    }
+
+    @Test
+    void mappedSegmentAnswersLikeTheHeapIndex() throws IOException {
+        InvertedIndex heap = sampleIndex();
+        Path file = dir.resolve("seg_1.seg");
+        SegmentWriter.write(heap, file);
+        MappedInvertedIndex mapped = MappedInvertedIndex.open(file);
+
+        assertEquals(heap.docCount(), mapped.docCount());
+        assertEquals(heap.termCount(), mapped.termCount());
+        assertEquals(heap.totalLength(), mapped.totalLength());
+        for (int ord = 0; ord < heap.termCount(); ord++) {
+            String term = heap.term(ord);
+            assertEquals(term, mapped.term(ord));
+            assertEquals(heap.docFreq(term), mapped.docFreq(term), term);
+            PostingsIterator expected = heap.postings(term);
+            PostingsIterator actual = mapped.postings(term);
+            for (int doc = expected.nextDoc(); doc != PostingsIterator.NO_MORE_DOCS; doc = expected.nextDoc()) {
+                assertEquals(doc, actual.nextDoc());
+                assertEquals(expected.freq(), actual.freq());
+            }
+            assertEquals(PostingsIterator.NO_MORE_DOCS, actual.nextDoc());
+        }
+        for (int doc = 0; doc < heap.docCount(); doc++) {
+            assertEquals(heap.docLength(doc), mapped.docLength(doc));
+            assertEquals(heap.document(doc).getTitle(), mapped.document(doc).getTitle());
+            assertEquals(heap.document(doc).getSnippet(), mapped.document(doc).getSnippet());
+        }
+        assertNull(mapped.postings("memory"));
+        assertEquals(2, mapped.docFreq("full"));
+        assertEquals(1, mapped.docFreq("größe"));
+
+        List<SearchHit> hits = new IndexSearcher(mapped).search("disk full", 10);
+        assertEquals("runbooks/disk.md", hits.get(0).getPath());
+        assertEquals(3, hits.size());
+    }
+
+    @Test
+    void rejectsTruncatedSegments() throws IOException {
+        Path file = dir.resolve("seg_1.seg");
+        SegmentWriter.write(sampleIndex(), file);
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+        assertThrows(IOException.class, () -> MappedInvertedIndex.open(file));
+    }
+
+    @Test
+    void storeReopensCommittedSegmentsForSameSource() throws IOException {
+        IndexStore store = new IndexStore(dir.resolve("store"));
+        Path source = dir.resolve("corpus");
+        assertTrue(store.open(source).isEmpty());
+
+        MappedInvertedIndex first = store.write(sampleIndex());
+        store.commit(List.of(first), source);
+        MappedInvertedIndex second = store.write(sampleIndex());
+        MappedInvertedIndex uncommitted = store.write(sampleIndex());
+        store.commit(List.of(second), source);
+        assertTrue(second.getFile().endsWith("seg_2.seg"));
+        assertFalse(Files.exists(dir.resolve("store/seg_1.seg")));
+        // still being produced by a flush or merge, so not cleaned up
+        assertTrue(Files.exists(uncommitted.getFile()));
+        store.discard(uncommitted);
+        assertFalse(Files.exists(uncommitted.getFile()));
+
+        List<MappedInvertedIndex> reopened = store.open(source);
+        assertEquals(1, reopened.size());
+        assertEquals(second.getFile(), reopened.get(0).getFile());
+        assertEquals(4, reopened.get(0).docCount());
+        assertEquals(1234L, reopened.get(0).document(0).getLastModified());
+        assertTrue(store.open(dir.resolve("elsewhere")).isEmpty());
+    }
+}
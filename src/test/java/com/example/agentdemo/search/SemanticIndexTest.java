@@ -0,0 +1,180 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticIndexTest {
+
+    private static final int TOPICS = 200;
+
+    @TempDir
+    Path dir;
+
+    private static StoredDocument doc(String path) {
+        return new StoredDocument(path, path, "", 1);
+    }
+
+    private static List<String> paths(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getPath).toList();
+    }
+
+    /**
+     * Text about one of {@code TOPICS} topics: most words come from the topic's own vocabulary,
+     * the rest from a shared Zipf-distributed background vocabulary
+     */
+    static String topicalText(Random random, int length) {
+        int topic = random.nextInt(TOPICS);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(10) < 6) {
+                text.append("k").append(topic).append('x').append(random.nextInt(30)).append(' ');
+            } else {
+                text.append(BlockMaxWandTest.randomText(random, 5_000, 1));
+            }
+        }
+        return text.toString();
+    }
+
+    static SemanticIndex randomIndex(Random random, int docs) {
+        SemanticIndex index = new SemanticIndex(new HashedEmbedder(256), 64);
+        for (int i = 0; i < docs; i++) {
+            index.update(doc("doc" + i), topicalText(random, 10 + random.nextInt(40)));
+        }
+        return index;
+    }
+
+    static double recall(SemanticIndex index, List<String> queries, int k) {
+        int found = 0;
+        int expected = 0;
+        for (String query : queries) {
+            Set<String> exact = new HashSet<>(paths(index.searchExact(query, k)));
+            for (String path : paths(index.search(query, k))) {
+                found += exact.contains(path) ? 1 : 0;
+            }
+            expected += exact.size();
+        }
+        return (double) found / expected;
+    }
+
+    @Test
+    void findsParaphrasesThatKeywordSearchMisses() {
+        SemanticIndex semantic = new SemanticIndex(new HashedEmbedder(256), 64);
+        IndexBuilder keyword = new IndexBuilder();
+        String[][] corpus = {
+                {"db.md", "Database server restarted after it ran out of memory"},
+                {"cpu.md", "CPU throttling slowed the build agents"},
+                {"cert.md", "TLS certificate expired on the load balancer"},
+        };
+        for (String[] entry : corpus) {
+            semantic.update(doc(entry[0]), entry[1]);
+            keyword.add(doc(entry[0]), entry[1]);
+        }
+
+        String query = "databases restarting";
+        assertEquals(List.of(), new IndexSearcher(keyword.build()).search(query, 3));
+        assertEquals("db.md", semantic.search(query, 3).get(0).getPath());
+        assertEquals(List.of(), semantic.search("the of", 3), "queries without terms match nothing");
+    }
+
+    @Test
+    void approximateSearchRecallsExactNeighbours() {
+        Random random = new Random(3);
+        SemanticIndex index = randomIndex(random, 2_000);
+        List<String> queries = random.ints(100).mapToObj(
+                i -> topicalText(random, 3 + random.nextInt(8))).toList();
+
+        double recall = recall(index, queries, 10);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void updatesDeletesAndCompactionKeepResultsCurrent() {
+        SemanticIndex index = new SemanticIndex(new HashedEmbedder(256), 64);
+        for (int i = 0; i < 100; i++) {
+            index.update(doc("filler" + i), "routine disk maintenance window " + i);
+        }
+        index.update(doc("a.md"), "disk full on the database host");
+        assertEquals("a.md", index.search("disk full", 1).get(0).getPath());
+
+        index.update(doc("a.md"), "certificate rotation");
+        assertNotEquals("a.md", index.search("disk full", 1).get(0).getPath());
+        assertEquals("a.md", index.search("certificate rotation", 1).get(0).getPath());
+
+        for (int i = 0; i < 60; i++) {
+            assertTrue(index.delete("filler" + i));
+        }
+        assertFalse(index.delete("filler0"));
+        index.refresh(); // compacts: more than 30% of the nodes are deleted
+        assertEquals(41, index.docCount());
+        assertEquals(41, index.indexedVersions().size());
+        assertEquals("a.md", index.search("certificate rotation", 1).get(0).getPath());
+        assertTrue(paths(index.search("routine maintenance window", 100)).stream().noneMatch(
+                path -> path.matches("filler[0-5]?[0-9]")));
+    }
+
+    @Test
+    void savedIndexLoadsWithIdenticalResults() throws IOException {
+        Random random = new Random(5);
+        SemanticIndex index = randomIndex(random, 500);
+        index.delete("doc7");
+        Path file = dir.resolve("vectors.hnsw");
+        index.save(file, dir);
+
+        SemanticIndex loaded = new SemanticIndex(new HashedEmbedder(256), 64);
+        assertTrue(loaded.load(file, dir));
+        assertEquals(index.indexedVersions(), loaded.indexedVersions());
+        for (int i = 0; i < 20; i++) {
+            String query = topicalText(random, 6);
+            assertEquals(paths(index.search(query, 10)), paths(loaded.search(query, 10)));
+        }
+
+        assertFalse(new SemanticIndex(new HashedEmbedder(256), 64).load(file, dir.resolve("other")));
+        assertFalse(new SemanticIndex(new HashedEmbedder(128), 64).load(file, dir));
+        assertFalse(loaded.load(dir.resolve("missing.hnsw"), dir));
+    }
+
+    @Test
+    void corpusIndexerKeepsBothIndexesInSync() throws IOException {
+        Path corpus = Files.createDirectory(dir.resolve("corpus"));
+        Files.writeString(corpus.resolve("disk.md"), "# Disk\nVolume filled up with logs");
+        Files.writeString(corpus.resolve("cpu.md"), "# CPU\nLoad spiked during backups");
+        SemanticIndex semantic = new SemanticIndex(new HashedEmbedder(256), 64);
+        try (IndexWriter writer = new IndexWriter(null, corpus, List.of(), new TieredMergePolicy(10, 100))) {
+            CorpusIndexer indexer = new CorpusIndexer(corpus, writer, semantic);
+            indexer.reconcile();
+            assertEquals(writer.indexedVersions(), semantic.indexedVersions());
+            assertEquals(2, semantic.docCount());
+
+            Files.delete(corpus.resolve("disk.md"));
+            indexer.apply(List.of(Path.of("disk.md")));
+            assertEquals(Set.of("cpu.md"), semantic.indexedVersions().keySet());
+            assertEquals(writer.indexedVersions(), semantic.indexedVersions());
+
+            // a sink that lost its state is caught up without touching the other one
+            SemanticIndex fresh = new SemanticIndex(new HashedEmbedder(256), 64);
+            new CorpusIndexer(corpus, writer, fresh).reconcile();
+            assertEquals(writer.indexedVersions(), fresh.indexedVersions());
+        }
+    }
+
+    @Test
+    void rankFusionFavoursDocumentsRankedByBothModes() {
+        List<SearchHit> keyword = List.of(new SearchHit(doc("a"), 9), new SearchHit(doc("b"), 5));
+        List<SearchHit> semantic = List.of(new SearchHit(doc("c"), 0.9f), new SearchHit(doc("b"), 0.8f));
+
+        List<SearchHit> fused = RankFusion.fuse(10, keyword, semantic);
+        assertEquals(List.of("b", "a", "c"), paths(fused));
+        assertEquals(2.0f / 62, fused.get(0).getScore(), 1e-6);
+        assertEquals(List.of("b"), paths(RankFusion.fuse(1, keyword, semantic)));
+    }
+}
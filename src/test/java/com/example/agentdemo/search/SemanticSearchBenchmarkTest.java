@@ -0,0 +1,67 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recall@10 and latency of HNSW search against brute-force scoring of every vector,
+ * on a synthetic corpus of topical documents.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SemanticSearchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticSearchBenchmarkTest.class);
+
+    private static final int QUERIES = 200;
+    private static final int K = 10;
+
+    @Test
+    void hnswRecallAndLatency() {
+        Random random = new Random(11);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(SemanticIndexTest.topicalText(random, 3 + random.nextInt(8)));
+        }
+
+        for (int docs : new int[]{10_000, 30_000}) {
+            long start = System.nanoTime();
+            SemanticIndex index = SemanticIndexTest.randomIndex(random, docs);
+            long buildMs = (System.nanoTime() - start) / 1_000_000;
+
+            double exactUs = measure(index, queries, false);
+            double hnswUs = measure(index, queries, true);
+            double recall = SemanticIndexTest.recall(index, queries, K);
+            log.info("{} docs (built in {} ms): brute force {} us/query, HNSW {} us/query, recall@{} {}",
+                    docs, buildMs, String.format("%.1f", exactUs), String.format("%.1f", hnswUs), K,
+                    String.format("%.3f", recall));
+
+            assertTrue(recall >= 0.9, "recall@10 was " + recall);
+            assertTrue(hnswUs < exactUs, "HNSW should beat brute force");
+        }
+    }
+
+    private static double measure(SemanticIndex index, List<String> queries, boolean approximate) {
+        long hits = 0;
+        for (int round = 0; round < 3; round++) {
+            for (String query : queries) {
+                hits += (approximate ? index.search(query, K) : index.searchExact(query, K)).size();
+            }
+        }
+        long start = System.nanoTime();
+        for (String query : queries) {
+            hits += (approximate ? index.search(query, K) : index.searchExact(query, K)).size();
+        }
+        double usPerQuery = (System.nanoTime() - start) / 1000.0 / queries.size();
+        log.debug("hits={}", hits);
+        return usPerQuery;
+    }
+}
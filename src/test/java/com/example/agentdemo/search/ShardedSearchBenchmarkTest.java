@@ -0,0 +1,81 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query latency of one index searched as 1, 2, 4 ... shards up to the number of cores.
+ * Speedup is logged rather than asserted, as it depends on the machine.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ShardedSearchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedSearchBenchmarkTest.class);
+
+    private static final int DOCS = 400_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 300;
+    private static final int K = 10;
+
+    @Test
+    void latencyByShardCount() {
+        Random random = new Random(13);
+        IndexBuilder builder = new IndexBuilder();
+        for (int i = 0; i < DOCS; i++) {
+            builder.add(new StoredDocument("doc" + i, "", ""),
+                    BlockMaxWandTest.randomText(random, VOCABULARY, 20 + random.nextInt(200)));
+        }
+        IndexSnapshot snapshot = IndexSnapshot.of(builder.build());
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(BlockMaxWandTest.randomText(random, VOCABULARY, 2 + random.nextInt(4)));
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, cores - 1));
+        try {
+            IndexSearcher single = new IndexSearcher(snapshot);
+            double singleUs = measure(single, queries);
+            log.info("{} docs, 1 shard: {} us/query", DOCS, String.format("%.1f", singleUs));
+            for (int shards = 2; shards <= Math.max(2, cores); shards *= 2) {
+                IndexSearcher sharded = new IndexSearcher(snapshot, shards, executor);
+                double shardedUs = measure(sharded, queries);
+                log.info("{} docs, {} shards on {} cores: {} us/query ({}x)", DOCS, shards, cores,
+                        String.format("%.1f", shardedUs), String.format("%.2f", singleUs / shardedUs));
+                for (String query : queries.subList(0, 50)) {
+                    assertEquals(single.search(query, K).stream().map(SearchHit::getPath).toList(),
+                            sharded.search(query, K).stream().map(SearchHit::getPath).toList());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double measure(IndexSearcher searcher, List<String> queries) {
+        long hits = 0;
+        for (int round = 0; round < 3; round++) {
+            for (String query : queries) {
+                hits += searcher.search(query, K).size();
+            }
+        }
+        long start = System.nanoTime();
+        for (String query : queries) {
+            hits += searcher.search(query, K).size();
+        }
+        double usPerQuery = (System.nanoTime() - start) / 1000.0 / queries.size();
+        log.debug("hits={}", hits);
+        return usPerQuery;
+    }
+}
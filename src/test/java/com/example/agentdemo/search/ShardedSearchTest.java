@@ -0,0 +1,73 @@
+package com.example.agentdemo.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedSearchTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void assertSameHits(List<SearchHit> expected, List<SearchHit> actual, String query) {
+        assertEquals(expected.size(), actual.size(), query);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getPath(), actual.get(i).getPath(), query);
+            assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), query);
+        }
+    }
+
+    @Test
+    void shardedSearchReturnsSameHitsForAnyShardCount() throws IOException {
+        Random random = new Random(17);
+        try (IndexWriter writer = new IndexWriter(null, Path.of("corpus"), List.of(), new TieredMergePolicy(100, 100))) {
+            for (int batch = 0; batch < 3; batch++) {
+                for (int i = 0; i < 1000; i++) {
+                    writer.update(new StoredDocument("doc" + batch + "-" + i, "", ""),
+                            BlockMaxWandTest.randomText(random, 1000, 5 + random.nextInt(40)));
+                }
+                for (int i = 0; i < 50; i++) {
+                    writer.delete("doc" + random.nextInt(batch + 1) + "-" + random.nextInt(1000));
+                }
+                writer.refresh();
+            }
+            IndexSnapshot snapshot = writer.snapshot();
+            IndexSearcher single = new IndexSearcher(snapshot);
+
+            for (int shards : new int[]{2, 4, 7}) {
+                // shard boundaries fall inside segments as well as between them
+                IndexSearcher sharded = new IndexSearcher(snapshot, shards, executor);
+                for (int q = 0; q < 100; q++) {
+                    String query = BlockMaxWandTest.randomText(random, 1000, 1 + random.nextInt(4));
+                    int k = 1 + random.nextInt(20);
+                    List<SearchHit> expected = single.search(query, k);
+                    assertSameHits(expected, sharded.search(query, k), query);
+                    assertSameHits(expected, sharded.searchExhaustive(query, k), query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shardCountIsCappedByDocumentCount() {
+        IndexBuilder builder = new IndexBuilder();
+        builder.add(new StoredDocument("a.md", "a", ""), "disk full");
+        builder.add(new StoredDocument("b.md", "b", ""), "disk latency disk");
+        IndexSearcher searcher = new IndexSearcher(IndexSnapshot.of(builder.build()), 16, executor);
+
+        assertEquals(List.of("b.md", "a.md"), searcher.search("disk", 10).stream().map(SearchHit::getPath).toList());
+        assertEquals(List.of(), new IndexSearcher(IndexSnapshot.EMPTY, 4, executor).search("disk", 10));
+    }
+}
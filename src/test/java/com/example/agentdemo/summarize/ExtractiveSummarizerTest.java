@@ -0,0 +1,107 @@
+package com.example.agentdemo.summarize;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractiveSummarizerTest {
+
+    private static List<String> segment(String text) throws IOException {
+        SentenceSegmenter segmenter = new SentenceSegmenter(new StringReader(text));
+        List<String> sentences = new ArrayList<>();
+        String s;
+        while ((s = segmenter.next()) != null) {
+            sentences.add(s);
+        }
+        return sentences;
+    }
+
+    @Test
+    void segmentsOnTerminatorsAndLineBreaks() throws IOException {
+        List<String> sentences = segment("Version 3.5 shipped. Did it work?  Yes!\nERROR disk full\n\nlast line");
+
+        assertEquals(List.of("Version 3.5 shipped.", "Did it work?", "Yes!", "ERROR disk full", "last line"), sentences);
+    }
+
+    @Test
+    void splitsOverlongSentences() throws IOException {
+        List<String> sentences = segment("x".repeat(SentenceSegmenter.MAX_SENTENCE_LENGTH * 2 + 10));
+
+        assertEquals(3, sentences.size());
+        assertEquals(SentenceSegmenter.MAX_SENTENCE_LENGTH, sentences.get(0).length());
+    }
+
+    @Test
+    void picksCentralSentencesInDocumentOrder() {
+        String text = "The weather was pleasant today. "
+                + "The database cluster failed over after the primary database node lost its disk. "
+                + "Lunch was served at noon. "
+                + "Engineers restored the database cluster and verified replication on every database node. "
+                + "Someone mentioned a birthday.";
+
+        Summary summary = new ExtractiveSummarizer(2, 0.4).summarize(new StringReader(text));
+
+        assertEquals(5, summary.getSentenceCount());
+        assertEquals(2, summary.getSentences().size());
+        assertTrue(summary.getSentences().get(0).startsWith("The database cluster failed over"));
+        assertTrue(summary.getSentences().get(1).startsWith("Engineers restored"));
+    }
+
+    @Test
+    void summarizesLargeStreamWithoutBufferingIt() {
+        // ~8 MB of log lines generated on the fly; only the summary is retained
+        Reader reader = new GeneratedLogReader(100_000);
+
+        Summary summary = new ExtractiveSummarizer(3, 0.2).summarize(reader);
+
+        assertEquals(100_000, summary.getSentenceCount());
+        assertEquals(3, summary.getSentences().size());
+    }
+
+    /**
+     * Reader producing synthetic log lines without materialising them
+     */
+    static class GeneratedLogReader extends Reader {
+        private static final String[] MESSAGES = {
+            "INFO request served in %d ms by worker pool",
+            "WARN connection pool exhausted, request %d queued",
+            "ERROR payment gateway timeout for order %d after retries",
+            "INFO cache refreshed with %d entries"
+        };
+
+        private final int lines;
+        private int line;
+        private String current = "";
+        private int offset;
+
+        GeneratedLogReader(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            if (offset == current.length()) {
+                if (line == lines) {
+                    return -1;
+                }
+                current = String.format(MESSAGES[line % MESSAGES.length], line) + " on host-" + (line % 17) + "\n";
+                offset = 0;
+                line++;
+            }
+            int n = Math.min(len, current.length() - offset);
+            current.getChars(offset, offset + n, buf, off);
+            offset += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.agentdemo.summarize;
+
+import com.example.agentdemo.agent.skills.SummarizeSkill;
+import com.example.agentdemo.model.ActionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedDocumentTest {
+
+    @TempDir
+    Path dir;
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[7];
+        int n;
+        while ((n = reader.read(buf, 0, buf.length)) > 0) {
+            sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void decodesMultiByteTextAcrossChunks() throws IOException {
+        String text = "Grüße aus Zürich. 日本語のログ行です。\nСервер перезапущен! Done.\n".repeat(500);
+        Path file = dir.resolve("utf8.txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+
+        try (MappedDocument document = MappedDocument.open(file)) {
+            List<TextChunk> chunks = document.chunks(1000);
+            assertTrue(chunks.size() > 1);
+
+            StringBuilder joined = new StringBuilder();
+            for (TextChunk chunk : chunks) {
+                joined.append(readAll(chunk.open()));
+            }
+            assertEquals(text, joined.toString());
+            assertEquals(text, readAll(document.whole().open()));
+        }
+    }
+
+    @Test
+    void summarizesMappedFileLikeInMemoryText() throws IOException {
+        Path file = dir.resolve("incident.log");
+        StringBuilder text = new StringBuilder();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < 5000; i++) {
+                String line = switch (i % 4) {
+                    case 0 -> "ERROR replication lag on database replica " + i;
+                    case 1 -> "INFO heartbeat ok";
+                    case 2 -> "WARN database replica lag above threshold for shard " + (i % 9);
+                    default -> "INFO request served";
+                };
+                writer.write(line);
+                writer.newLine();
+                text.append(line).append('\n');
+            }
+        }
+
+        ExtractiveSummarizer sequential = new ExtractiveSummarizer(3, 0.2);
+        ParallelSummarizer parallel = new ParallelSummarizer(sequential, ForkJoinPool.commonPool(), 0);
+
+        try (MappedDocument document = MappedDocument.open(file)) {
+            Summary mapped = parallel.summarize(document);
+            Summary inMemory = parallel.summarize(TextChunks.split(text, 16 * 1024));
+
+            assertEquals(5000, mapped.getSentenceCount());
+            assertEquals(inMemory.getSentences(), mapped.getSentences());
+        }
+
+        Summary streamed = new ExtractiveSummarizer(3, 0.2).summarize(new StringReader(text.toString()));
+        assertEquals(5000, streamed.getSentenceCount());
+    }
+
+    @Test
+    void localFileReferencesCannotLeaveTheBaseDirectory() throws IOException {
+        Path base = Files.createDirectory(dir.resolve("files"));
+        Files.writeString(base.resolve("inside.log"), "Disk usage is high on the primary volume. Cleanup finished.");
+        Path secret = Files.writeString(dir.resolve("secret.txt"), "The root password is hunter2. Keep it safe.");
+        Files.createSymbolicLink(base.resolve("link.txt"), secret);
+        Files.createSymbolicLink(base.resolve("up"), dir);
+
+        SummarizeSkill skill = new SummarizeSkill(3, 0.2, 1 << 20, base.toString());
+
+        ActionResult inside = skill.execute("summarize file: inside.log");
+        assertTrue(inside.isSuccess(), inside.getOutput());
+
+        for (String reference : List.of("link.txt", "up/secret.txt", "../secret.txt", "missing.log")) {
+            ActionResult result = skill.execute("summarize file: " + reference);
+            assertFalse(result.isSuccess(), reference);
+            assertEquals("File not found: " + reference, result.getOutput());
+        }
+    }
+}
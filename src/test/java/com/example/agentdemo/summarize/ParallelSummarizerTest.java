@@ -0,0 +1,80 @@
+package com.example.agentdemo.summarize;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSummarizerTest {
+
+    private final ExtractiveSummarizer sequential = new ExtractiveSummarizer(3, 0.2);
+    private final ParallelSummarizer parallel = new ParallelSummarizer(sequential, ForkJoinPool.commonPool(), 0);
+
+    private static String document(int sentences) {
+        String[] topics = {
+            "The storage cluster rebalanced shards after a node restart",
+            "A storage node reported slow disk latency during rebalancing",
+            "Coffee machine on floor three is broken again",
+            "Operators paused the storage rebalancing until disk latency recovered",
+            "The quarterly party is next Friday"
+        };
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            sb.append(topics[i % topics.length]).append(" (item ").append(i).append("). ");
+            if (i % 7 == 6) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void matchesSequentialSummaryAcrossChunks() {
+        String text = document(40);
+
+        Summary expected = sequential.summarize(new StringReader(text));
+        Summary actual = parallel.summarize(TextChunks.split(text, 200));
+
+        assertEquals(expected.getSentenceCount(), actual.getSentenceCount());
+        assertEquals(expected.getSentences(), actual.getSentences());
+    }
+
+    @Test
+    void chunksSplitOnlyAtBoundaries() {
+        String text = document(100);
+        List<TextChunk> chunks = TextChunks.split(text, 300);
+
+        assertTrue(chunks.size() > 1);
+        long total = 0;
+        for (TextChunk chunk : chunks) {
+            total += new ExtractiveSummarizer(1, 0.1).summarize(chunk.open()).getSentenceCount();
+        }
+        assertEquals(100, total, "No sentence may be split across chunks");
+    }
+
+    @Test
+    void summarizesMultiMegabyteInput() {
+        String text = document(200_000);
+        assertTrue(text.length() > 10_000_000);
+
+        Summary summary = parallel.summarize(text);
+
+        assertEquals(200_000, summary.getSentenceCount());
+        assertEquals(3, summary.getSentences().size());
+        for (String sentence : summary.getSentences()) {
+            assertTrue(sentence.endsWith(")."), "Expected a whole sentence: " + sentence);
+        }
+    }
+
+    @Test
+    void smallInputsStaySequential() {
+        ParallelSummarizer thresholded = new ParallelSummarizer(sequential, ForkJoinPool.commonPool(), 1_000_000);
+        String text = document(10);
+
+        assertEquals(sequential.summarize(new StringReader(text)).getSentences(),
+                thresholded.summarize(text).getSentences());
+    }
+}
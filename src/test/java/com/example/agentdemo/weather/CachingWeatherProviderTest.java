@@ -0,0 +1,214 @@
+package com.example.agentdemo.weather;
+
+import com.example.agentdemo.geo.Place;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache behaviour against a local stand-in for an Open-Meteo compatible API
+ */
+class CachingWeatherProviderTest {
+
+    private static final Place PARIS = new Place("Paris", "FR", "France", "Île-de-France",
+            48.8534, 2.3488, 2138551, "Europe/Paris");
+    private static final Place TOKYO = new Place("Tokyo", "JP", "Japan", "Tokyo",
+            35.6895, 139.6917, 8336599, "Asia/Tokyo");
+
+    private HttpServer server;
+    private HttpWeatherProvider http;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger temperature = new AtomicInteger(50);
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private final MutableClock clock = new MutableClock();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/forecast", exchange -> {
+            requests.add(exchange.getRequestURI().getQuery());
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = String.format(Locale.ROOT, "{\"latitude\":48.86,\"longitude\":2.35,\"current\":"
+                    + "{\"time\":\"2024-05-01T12:15\",\"interval\":900,\"temperature_2m\":%d.4,"
+                    + "\"relative_humidity_2m\":64,\"wind_speed_10m\":7.9,\"weather_code\":61}}",
+                    temperature.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        http = new HttpWeatherProvider("http://127.0.0.1:" + server.getAddress().getPort(), 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void stopServer() {
+        http.close();
+        server.stop(0);
+    }
+
+    private CachingWeatherProvider cache(WeatherProvider upstream) {
+        return new CachingWeatherProvider(upstream, Duration.ofMinutes(10), Duration.ofHours(1), 100, clock);
+    }
+
+    @Test
+    void httpProviderReadsCurrentConditions() {
+        WeatherReport report = http.current(PARIS).block();
+
+        assertEquals("Rainy", report.getCondition());
+        assertEquals(50.4, report.getTemperatureF(), 1e-9);
+        assertEquals(10.22, report.getTemperatureC(), 0.01);
+        assertEquals(64, report.getHumidity());
+        assertEquals(7.9, report.getWindSpeedMph(), 1e-9);
+        assertEquals(Instant.parse("2024-05-01T12:15:00Z"), report.getObservedAt());
+        assertEquals("127.0.0.1:" + server.getAddress().getPort(), report.getSource());
+        assertTrue(requests.get(0).contains("latitude=48.8534&longitude=2.3488"), requests.get(0));
+        assertTrue(requests.get(0).contains("temperature_unit=fahrenheit"), requests.get(0));
+    }
+
+    @Test
+    void freshReportsAreServedFromMemory() {
+        CachingWeatherProvider cache = cache(http);
+        cache.current(PARIS).block();
+        clock.advance(Duration.ofMinutes(9));
+        cache.current(PARIS).block();
+        cache.current(TOKYO).block();
+
+        assertEquals(2, requests.size());
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void staleReportIsServedWhileOneBackgroundRefreshRuns() throws Exception {
+        CachingWeatherProvider cache = cache(http);
+        cache.current(PARIS).block();
+        temperature.set(70);
+        gate = new CountDownLatch(1);
+        clock.advance(Duration.ofMinutes(11));
+
+        // the upstream is blocked, yet callers get the old report at once
+        for (int i = 0; i < 5; i++) {
+            assertEquals(50.4, cache.current(PARIS).block(Duration.ofMillis(500)).getTemperatureF(), 1e-9);
+        }
+        gate.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.current(PARIS).block().getTemperatureF() != 70.4 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(70.4, cache.current(PARIS).block().getTemperatureF(), 1e-9);
+        assertEquals(2, requests.size(), "one initial load and one refresh");
+        assertTrue(cache.staleHits() >= 5);
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamCall() throws Exception {
+        CachingWeatherProvider cache = cache(http);
+        gate = new CountDownLatch(1);
+        List<WeatherReport> results = new CopyOnWriteArrayList<>();
+        Thread[] threads = new Thread[16];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> results.add(cache.current(PARIS).block(Duration.ofSeconds(5))));
+            threads[i].start();
+        }
+        Thread.sleep(200);
+        gate.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(16, results.size());
+        assertEquals(1, results.stream().distinct().count());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void failingUpstreamFallsBackToStaleReportUntilItExpires() {
+        CachingWeatherProvider cache = cache(http);
+        cache.current(PARIS).block();
+        status.set(503);
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(50.4, cache.current(PARIS).block().getTemperatureF(), 1e-9);
+
+        clock.advance(Duration.ofHours(1));
+        assertThrows(RuntimeException.class, () -> cache.current(PARIS).block());
+        status.set(200);
+        assertEquals(50.4, cache.current(PARIS).block().getTemperatureF(), 1e-9);
+    }
+
+    @Test
+    void leastRecentlyUsedPlacesAreEvicted() {
+        CachingWeatherProvider cache = new CachingWeatherProvider(new MockWeatherProvider(clock),
+                Duration.ofMinutes(10), Duration.ofHours(1), 10, clock);
+        for (int i = 0; i < 50; i++) {
+            clock.advance(Duration.ofSeconds(1));
+            cache.current(new Place("P" + i, "XX", "", "", i, i, 0, "UTC")).block();
+        }
+        assertTrue(cache.size() <= 10, "size " + cache.size());
+    }
+
+    @Test
+    void mockReportsAreStableWithinTheHour() {
+        MockWeatherProvider mock = new MockWeatherProvider(clock);
+        WeatherReport first = mock.current(PARIS).block();
+        clock.advance(Duration.ofMinutes(1));
+        WeatherReport second = mock.current(PARIS).block();
+
+        assertEquals(first.getCondition(), second.getCondition());
+        assertEquals(first.getTemperatureF(), second.getTemperatureF());
+        assertEquals(first.getHumidity(), second.getHumidity());
+        assertTrue(first.getTemperatureF() >= 32 && first.getTemperatureF() < 92);
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2024-05-01T12:00:30Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}